@@ -0,0 +1,144 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.ChangeEvt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares the DefaultEvtBus with the map based TopicEvtBus that is used in EvtBusTest.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvtBusBenchmark {
+    public static final EvtType<ChangeEvt> SENSOR_ANY     = new EvtType<>(ChangeEvt.ANY, "SENSOR_ANY");
+    public static final EvtType<ChangeEvt> SENSOR_UPDATED = new EvtType<>(SENSOR_ANY, "SENSOR_UPDATED");
+
+    @Param({ "1", "16" })
+    public int subscribersPerType;
+
+    private Topic         topic;
+    private Evt           evt;
+    private DefaultEvtBus defaultEvtBus;
+    private TopicEvtBus   topicEvtBus;
+
+
+    @Setup public void setup(final Blackhole blackhole) {
+        topic         = new BenchmarkTopic("sensors");
+        evt           = new ChangeEvt(this, SENSOR_UPDATED);
+        defaultEvtBus = new DefaultEvtBus();
+        topicEvtBus   = new TopicEvtBus();
+        for (int i = 0 ; i < subscribersPerType ; i++) {
+            final Subscriber updatedSubscriber = new BenchmarkSubscriber(SENSOR_UPDATED, blackhole);
+            final Subscriber anySubscriber     = new BenchmarkSubscriber(SENSOR_ANY, blackhole);
+            defaultEvtBus.subscribe(topic, updatedSubscriber);
+            defaultEvtBus.subscribe(topic, anySubscriber);
+            topicEvtBus.subscribe(topic, updatedSubscriber);
+            topicEvtBus.subscribe(topic, anySubscriber);
+        }
+    }
+
+    @Benchmark public void defaultEvtBus() { defaultEvtBus.publish(topic, evt); }
+
+    @Benchmark public void topicEvtBus() { topicEvtBus.publish(topic, evt); }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class BenchmarkTopic implements Topic {
+        private final String name;
+
+        BenchmarkTopic(final String name) { this.name = name; }
+
+        @Override public String getId() { return name; }
+
+        @Override public String getName() { return name; }
+    }
+
+    private static final class BenchmarkSubscriber implements Subscriber {
+        private final EvtType   evtType;
+        private final Blackhole blackhole;
+
+        BenchmarkSubscriber(final EvtType evtType, final Blackhole blackhole) {
+            this.evtType   = evtType;
+            this.blackhole = blackhole;
+        }
+
+        @Override public EvtType<Evt> getEvtType() { return evtType; }
+
+        @Override public void handle(final Evt evt) { blackhole.consume(evt); }
+    }
+
+    // Same implementation as in EvtBusTest, SENSOR_ANY takes the role of TopicEvt.ANY
+    private static final class TopicEvtBus implements EvtBus {
+        private final Map<Topic, Map<EvtType, List<Subscriber>>> topicSubscribers = new ConcurrentHashMap<>();
+
+        @Override public <T extends Evt> void publish(final Topic topic, final T evt) {
+            final EvtType type = evt.getEvtType();
+            if (topicSubscribers.containsKey(topic)) {
+                Map<EvtType, List<Subscriber>> subscribers = topicSubscribers.get(topic);
+                subscribers.entrySet()
+                           .stream()
+                           .filter(entry -> entry.getKey().equals(SENSOR_ANY))
+                           .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
+                if (subscribers.containsKey(type) && !type.equals(SENSOR_ANY)) {
+                    subscribers.get(type).forEach(subscriber -> subscriber.handle(evt));
+                }
+            }
+        }
+
+        @Override public void subscribe(final Topic topic, final Subscriber subscriber) {
+            final EvtType evtType = subscriber.getEvtType();
+            if (!topicSubscribers.containsKey(topic))                           { topicSubscribers.put(topic, new ConcurrentHashMap<>()); }
+            if (!topicSubscribers.get(topic).containsKey(evtType))              { topicSubscribers.get(topic).put(evtType, new CopyOnWriteArrayList<>()); }
+            if (!topicSubscribers.get(topic).get(evtType).contains(subscriber)) { topicSubscribers.get(topic).get(evtType).add(subscriber); }
+        }
+
+        @Override public void unsubscribe(final Topic topic, final Subscriber subscriber) {
+            final EvtType evtType = subscriber.getEvtType();
+            if (topicSubscribers.containsKey(topic) && topicSubscribers.get(topic).containsKey(evtType)) {
+                topicSubscribers.get(topic).get(evtType).remove(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.ChangeEvt;
+import eu.hansolo.toolbox.evt.type.ListChangeEvt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the dispatch of list change events to observers that are registered
+ * on the event type itself and on its super types next to a number of unrelated types.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableListBenchmark {
+    @Param({ "0", "32" })
+    public int unrelatedTypes;
+
+    private ObservableList<String> list;
+    private ListChangeEvt<String>  evt;
+
+
+    @Setup public void setup(final Blackhole blackhole) {
+        list = new ObservableList<>();
+        evt  = new ListChangeEvt<>(list, ListChangeEvt.ADDED, List.of("A"), List.of());
+        list.addListChangeObserver(ListChangeEvt.ADDED, e -> blackhole.consume(e));
+        list.addListChangeObserver(ListChangeEvt.ANY, e -> blackhole.consume(e));
+        list.addListChangeObserver(ChangeEvt.ANY, e -> blackhole.consume(e));
+        for (int i = 0 ; i < unrelatedTypes ; i++) {
+            list.addListChangeObserver(new EvtType<>(ListChangeEvt.ANY, "UNRELATED_" + i), e -> blackhole.consume(e));
+        }
+    }
+
+    @Benchmark public void fireListChangeEvt() {
+        list.fireListChangeEvt(evt);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.type.MapChangeEvt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures put() on an ObservableMap without observers, with observers and with
+ * observers and reused events. Run with ./gradlew jmh -Pjmh.profilers=gc to see
+ * the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableMapBenchmark {
+    private ObservableMap<Integer, Integer> unobservedMap;
+    private ObservableMap<Integer, Integer> observedMap;
+    private ObservableMap<Integer, Integer> reusingMap;
+    private int                             counter;
+
+
+    @Setup public void setup(final Blackhole blackhole) {
+        unobservedMap = new ObservableMap<>();
+        observedMap   = new ObservableMap<>();
+        reusingMap    = new ObservableMap<>();
+        observedMap.addMapChangeObserver(MapChangeEvt.MODIFIED, e -> blackhole.consume(e.getModifiedEntries().get(0).getValue()));
+        reusingMap.addMapChangeObserver(MapChangeEvt.MODIFIED, e -> blackhole.consume(e.getModifiedEntries().get(0).getValue()));
+        reusingMap.setReuseEvts(true);
+        for (int i = 0 ; i < 16 ; i++) {
+            unobservedMap.put(i, i);
+            observedMap.put(i, i);
+            reusingMap.put(i, i);
+        }
+    }
+
+    @Benchmark public Integer putUnobserved() { return unobservedMap.put(counter++ & 15, counter); }
+
+    @Benchmark public Integer putObserved() { return observedMap.put(counter++ & 15, counter); }
+
+    @Benchmark public Integer putObservedReusingEvts() { return reusingMap.put(counter++ & 15, counter); }
+}
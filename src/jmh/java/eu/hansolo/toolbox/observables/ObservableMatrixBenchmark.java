@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares the storages of the ObservableMatrix for reading all cells row by row
+ * for searching items by value (with and without item index) and for inserting and
+ * removing a row in the middle of the matrix.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableMatrixBenchmark {
+    @Param({ "ATOMIC", "FLAT", "SPARSE" })
+    public MatrixStorage storage;
+
+    @Param({ "1000" })
+    public int size;
+
+    @Param({ "false", "true" })
+    public boolean itemIndex;
+
+    private ObservableMatrix<Integer> matrix;
+
+
+    @Setup public void setup() {
+        matrix = new ObservableMatrix<>(Integer.class, size, size, true, storage);
+        for (int y = 0 ; y < size ; y++) {
+            for (int x = 0 ; x < size ; x++) { matrix.setItemAt(x, y, y * size + x, false); }
+        }
+        matrix.setItemIndexEnabled(itemIndex);
+    }
+
+    @Benchmark public long sumRowByRow() {
+        long sum = 0;
+        for (int y = 0 ; y < size ; y++) {
+            for (int x = 0 ; x < size ; x++) { sum += matrix.getItemAt(x, y); }
+        }
+        return sum;
+    }
+
+    @Benchmark public boolean containsMissingItem() { return matrix.contains(-1); }
+
+    @Benchmark public int[] indicesOfLastItem() { return matrix.getIndicesOf(size * size - 1); }
+
+    @Benchmark public int insertAndRemoveMiddleRow() {
+        matrix.addNullRow(size / 2, false);
+        matrix.removeRow(size / 2, false);
+        return matrix.getNoOfRows();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures how fast a change of a property is pushed to the properties that are bound to it
+ * and how fast properties can be bound to and unbound from one source.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyBindingBenchmark {
+    @Param({ "1", "100", "10000" })
+    public int targets;
+
+    private DoubleProperty   source;
+    private DoubleProperty[] boundProperties;
+    private DoubleProperty   left;
+    private DoubleProperty   right;
+    private DoubleProperty[] unboundProperties;
+    private double           value;
+
+
+    @Setup public void setup() {
+        source          = new DoubleProperty(0);
+        boundProperties = new DoubleProperty[targets];
+        for (int i = 0 ; i < targets ; i++) {
+            boundProperties[i] = new DoubleProperty(0);
+            boundProperties[i].bind(source);
+        }
+        left  = new DoubleProperty(0);
+        right = new DoubleProperty(0);
+        left.bindBidirectional(right);
+        unboundProperties = new DoubleProperty[targets];
+        for (int i = 0 ; i < targets ; i++) { unboundProperties[i] = new DoubleProperty(0); }
+    }
+
+    @Benchmark public double fanOut() {
+        source.set(++value);
+        return boundProperties[targets - 1].get();
+    }
+
+    @Benchmark public double bidirectional() {
+        left.set(++value);
+        right.set(++value);
+        return left.get();
+    }
+
+    @Benchmark public int bindAndUnbind() {
+        final DoubleProperty property = new DoubleProperty(0);
+        for (int i = 0 ; i < targets ; i++) { unboundProperties[i].bind(property); }
+        final int noOfBoundProperties = property.getNoOfBoundProperties();
+        for (int i = targets - 1 ; i >= 0 ; i--) { unboundProperties[i].unbind(); }
+        return noOfBoundProperties;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evt;
+
+import java.util.Arrays;
+
+
+public class EvtDispatcher<T extends Evt> {
+    private static final EvtObserver[]   NO_OBSERVERS = new EvtObserver[0];
+    private volatile     EvtObserver[][] observers;
+    private volatile     int             noOfObservers;
+
+
+    // ******************** Constructors **************************************
+    public EvtDispatcher() {
+        this.observers     = new EvtObserver[0][];
+        this.noOfObservers = 0;
+    }
+
+
+    // ******************** Methods *******************************************
+    public void addObserver(final EvtType<? extends Evt> type, final EvtObserver<T> observer) {
+        if (null == type || null == observer) { return; }
+        WeakEvtObserver.expungeStaleObservers();
+        add(type, observer);
+    }
+
+    /**
+     * Adds the given observer without keeping it alive. It will be removed automatically
+     * after it has been garbage collected, so the caller has to hold a strong reference to it.
+     * @param type
+     * @param observer
+     */
+    public void addWeakObserver(final EvtType<? extends Evt> type, final EvtObserver<T> observer) {
+        if (null == type || null == observer) { return; }
+        WeakEvtObserver.expungeStaleObservers();
+        add(type, new WeakEvtObserver<>(observer, weakObserver -> removeObserver(type, weakObserver)));
+    }
+
+    public synchronized void removeObserver(final EvtType<? extends Evt> type, final EvtObserver<T> observer) {
+        if (null == type || null == observer) { return; }
+        final int id = type.getId();
+        if (id >= observers.length || null == observers[id]) { return; }
+        final EvtObserver[] current = observers[id];
+        int index = -1;
+        for (int i = 0 ; i < current.length ; i++) {
+            if (WeakEvtObserver.matches(current[i], observer)) { index = i; break; }
+        }
+        if (index < 0) { return; }
+        final EvtObserver[] updated = new EvtObserver[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        final EvtObserver[][] table = observers.clone();
+        table[id]     = updated.length == 0 ? null : updated;
+        observers     = table;
+        noOfObservers = noOfObservers - 1;
+    }
+
+    public synchronized void removeAllObservers() {
+        observers     = new EvtObserver[0][];
+        noOfObservers = 0;
+    }
+
+    /**
+     * Calls all observers that have been registered on the type of the given event
+     * or on one of its super types, most specific type first.
+     * @param evt
+     */
+    public void fire(final T evt) {
+        if (null == evt || 0 == noOfObservers) { return; }
+        final EvtObserver[][] table = observers;
+        final int[]           ids   = evt.getEvtType().getAncestorIds();
+        for (int i = 0 ; i < ids.length ; i++) {
+            final int id = ids[i];
+            if (id >= table.length || null == table[id]) { continue; }
+            final EvtObserver[] observersOfType = table[id];
+            for (int j = 0 ; j < observersOfType.length ; j++) { observersOfType[j].handle(evt); }
+        }
+    }
+
+    public boolean hasObservers() { return noOfObservers > 0; }
+
+    /**
+     * Returns true if an event of the given type would be delivered to at least one observer
+     * @param type
+     * @return true if an event of the given type would be delivered to at least one observer
+     */
+    public boolean hasObservers(final EvtType<? extends Evt> type) {
+        if (null == type || 0 == noOfObservers) { return false; }
+        final EvtObserver[][] table = observers;
+        final int[]           ids   = type.getAncestorIds();
+        for (int i = 0 ; i < ids.length ; i++) {
+            if (ids[i] < table.length && null != table[ids[i]]) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of registered observers after removing the weak observers that have been garbage collected
+     * @return the number of registered observers
+     */
+    public int getNoOfObservers() {
+        WeakEvtObserver.expungeStaleObservers();
+        return noOfObservers;
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private synchronized void add(final EvtType<? extends Evt> type, final EvtObserver<T> observer) {
+        final int           id      = type.getId();
+        final EvtObserver[] current = id < observers.length && null != observers[id] ? observers[id] : NO_OBSERVERS;
+        for (EvtObserver o : current) {
+            if (WeakEvtObserver.matches(o, observer) || WeakEvtObserver.matches(observer, o)) { return; }
+        }
+        final EvtObserver[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = observer;
+        // Copy on write, the table is sized for all known types to avoid growing it on every new type
+        final EvtObserver[][] table = Arrays.copyOf(observers, Math.max(observers.length, Math.max(id + 1, EvtType.getNoOfIds())));
+        table[id]     = updated;
+        observers     = table;
+        noOfObservers = noOfObservers + 1;
+    }
+}
@@ -19,7 +19,10 @@
 package eu.hansolo.toolbox.evt;
 
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static eu.hansolo.toolbox.Constants.COLON;
 import static eu.hansolo.toolbox.Constants.COMMA;
@@ -29,9 +32,15 @@ import static eu.hansolo.toolbox.Constants.QUOTES;
 
 
 public final class EvtType<T extends Evt> {
-    public  static final EvtType<Evt>       ROOT = new EvtType<>("EVENT", null);
+    private static final Map<Key, Integer>  IDS        = new ConcurrentHashMap<>();
+    private static final AtomicInteger      ID_COUNTER = new AtomicInteger(0);
+    public  static final EvtType<Evt>       ROOT       = new EvtType<>("EVENT", null);
     private        final EvtType<? super T> superType;
     private        final String             name;
+    private        final int                hashCode;
+    private        final int                id;
+    private        final int[]              ancestorIds;
+    private        final long[]             ancestorBits;
 
 
     // ******************** Constructors **************************************
@@ -43,12 +52,22 @@ public final class EvtType<T extends Evt> {
     }
     public EvtType(final EvtType<? super T> superType, final String name) {
         if (null == superType) { throw new NullPointerException("Event super type must not be null (EvtType.name: " + name + ")"); }
-        this.superType = superType;
-        this.name      = name;
+        this.superType    = superType;
+        this.name         = name;
+        this.hashCode     = Objects.hash(superType, name);
+        this.id           = IDS.computeIfAbsent(new Key(superType.id, name), key -> ID_COUNTER.getAndIncrement());
+        this.ancestorIds  = new int[superType.ancestorIds.length + 1];
+        ancestorIds[0]    = id;
+        System.arraycopy(superType.ancestorIds, 0, ancestorIds, 1, superType.ancestorIds.length);
+        this.ancestorBits = toBits(ancestorIds);
     }
     EvtType(final String name, final EvtType<? super T> superType) {
-        this.superType = superType;
-        this.name      = name;
+        this.superType    = superType;
+        this.name         = name;
+        this.hashCode     = Objects.hash(superType, name);
+        this.id           = IDS.computeIfAbsent(new Key(null == superType ? -1 : superType.id, name), key -> ID_COUNTER.getAndIncrement());
+        this.ancestorIds  = new int[] { id };
+        this.ancestorBits = toBits(ancestorIds);
     }
 
 
@@ -57,16 +76,49 @@ public final class EvtType<T extends Evt> {
 
     public String getName() { return name; }
 
+    /**
+     * Returns a dense integer id that is unique for all equal EvtTypes.
+     * Ids start at 0 (ROOT) and are handed out in the order the types are created.
+     * @return a dense integer id that is unique for all equal EvtTypes
+     */
+    public int getId() { return id; }
+
+    /**
+     * Returns the number of super types between this type and ROOT
+     * @return the number of super types between this type and ROOT
+     */
+    public int getDepth() { return ancestorIds.length - 1; }
+
+    /**
+     * Returns true if this type is equal to the given type or if the given type
+     * is one of the super types of this type
+     * @param type
+     * @return true if this type is equal to the given type or one of its sub types
+     */
+    public boolean isSubTypeOf(final EvtType<?> type) {
+        if (null == type) { return false; }
+        final int index = type.id >>> 6;
+        return index < ancestorBits.length && (ancestorBits[index] & (1L << type.id)) != 0;
+    }
+
+    /**
+     * Returns the number of distinct EvtTypes that have been created so far
+     * @return the number of distinct EvtTypes that have been created so far
+     */
+    public static int getNoOfIds() { return ID_COUNTER.get(); }
+
+    // Ids of this type and all its super types, most specific first
+    int[] getAncestorIds() { return ancestorIds; }
+
     @Override public boolean equals(final Object o) {
         if (this == o) { return true; }
         if (o == null || getClass() != o.getClass()) { return false; }
         EvtType<?> evtType = (EvtType<?>) o;
-        return superType.equals(evtType.superType) && name.equals(evtType.name);
+        return hashCode == evtType.hashCode && Objects.equals(superType, evtType.superType) && Objects.equals(name, evtType.name);
     }
 
-    @Override public int hashCode() {
-        return Objects.hash(superType, name);
-    }
+    // EvtType is immutable, so the hash is computed once instead of walking the super types on every lookup
+    @Override public int hashCode() { return hashCode; }
 
     @Override public String toString() {
         return (null != name) ? new StringBuilder().append(CURLY_BRACKET_OPEN)
@@ -77,4 +129,18 @@ public final class EvtType<T extends Evt> {
                                                    .toString() :
                                 super.toString();
     }
+
+
+    // ******************** Private Methods ***********************************
+    private static long[] toBits(final int[] ids) {
+        int maxId = 0;
+        for (int id : ids) { maxId = Math.max(maxId, id); }
+        final long[] bits = new long[(maxId >>> 6) + 1];
+        for (int id : ids) { bits[id >>> 6] |= 1L << id; }
+        return bits;
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private record Key(int superId, String name) {}
 }
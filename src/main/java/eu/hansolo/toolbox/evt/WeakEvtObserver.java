@@ -0,0 +1,105 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evt;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Consumer;
+
+
+/**
+ * Holds an observer weakly so that registering it does not keep it (and everything
+ * it references) alive. Once the observer has been garbage collected the wrapper
+ * will be removed from the container it was registered with. All wrappers share one
+ * ReferenceQueue which will be polled whenever observers are added or counted and
+ * whenever a collected observer is encountered during the delivery of an event.
+ * The queue must not be polled while holding the lock of a container because the
+ * cleanup of a wrapper locks the container the wrapper belongs to.
+ * The caller has to keep a strong reference to the observer as long as it should be
+ * notified, e.g. a lambda that is only referenced by the container will be collected
+ * at the next garbage collection.
+ * @param <T>
+ */
+public final class WeakEvtObserver<T extends Evt> extends WeakReference<EvtObserver<T>> implements EvtObserver<T> {
+    private static final ReferenceQueue<EvtObserver<?>> QUEUE = new ReferenceQueue<>();
+    private        final int                            hash;
+    private        final Consumer<WeakEvtObserver<T>>   cleanup;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * @param observer Observer that will be held weakly
+     * @param cleanup Removes this wrapper from its container once the observer has been collected
+     */
+    public WeakEvtObserver(final EvtObserver<T> observer, final Consumer<WeakEvtObserver<T>> cleanup) {
+        super(observer, (ReferenceQueue) QUEUE);
+        if (null == observer) { throw new IllegalArgumentException("observer cannot be null"); }
+        this.hash    = System.identityHashCode(observer);
+        this.cleanup = cleanup;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void handle(final T evt) {
+        final EvtObserver<T> observer = get();
+        if (null == observer) {
+            expungeStaleObservers();
+        } else {
+            observer.handle(evt);
+        }
+    }
+
+    public boolean isAlive() { return null != get(); }
+
+    /**
+     * Removes all wrappers whose observers have been garbage collected from their containers
+     * @return the number of removed wrappers
+     */
+    public static int expungeStaleObservers() {
+        int                                 removed = 0;
+        Reference<? extends EvtObserver<?>> reference;
+        while (null != (reference = QUEUE.poll())) {
+            final WeakEvtObserver weakObserver = (WeakEvtObserver) reference;
+            if (null != weakObserver.cleanup) { weakObserver.cleanup.accept(weakObserver); }
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns true if the registered observer is the given observer or a wrapper that holds it
+     * @param registered Observer that is registered in a container
+     * @param observer Observer that should be found
+     * @return true if the registered observer is the given observer or a wrapper that holds it
+     */
+    public static boolean matches(final EvtObserver<?> registered, final EvtObserver<?> observer) {
+        if (registered.equals(observer)) { return true; }
+        return registered instanceof WeakEvtObserver<?> weakObserver && null != observer && weakObserver.refersTo((EvtObserver) observer);
+    }
+
+    @Override public boolean equals(final Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof WeakEvtObserver<?> that)) { return false; }
+        final EvtObserver<T> observer = get();
+        return null != observer && that.refersTo((EvtObserver) observer);
+    }
+
+    @Override public int hashCode() { return hash; }
+}
@@ -21,31 +21,63 @@ package eu.hansolo.toolbox.evt.type;
 import eu.hansolo.toolbox.evt.EvtPriority;
 import eu.hansolo.toolbox.evt.EvtType;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 
+/**
+ * Change of a list. The added and removed elements are not copied, they are views on
+ * the elements that have been handed over by the list (e.g. the old backing array after clear()).
+ * The index range [from, to) describes where the change happened:
+ * ADDED  : the added elements are at [from, to) in the list
+ * REMOVED: the removed elements have been at from in the list (from == to)
+ * CHANGED: the elements at [from, to) have been replaced, the old elements are the removed elements
+ * PERMUTATED: the elements at [from, to) have been reordered (e.g. by sort())
+ * from and to are -1 if the change was not contiguous (e.g. removeIf()) or happened in a batch.
+ * If the change was a permutation getPermutation(oldIndex) returns the new index of an element.
+ */
 public class ListChangeEvt<T> extends ChangeEvt {
-    public static final EvtType<ListChangeEvt> ANY     = new EvtType<>(ChangeEvt.ANY, "ANY");
-    public static final EvtType<ListChangeEvt> CHANGED = new EvtType<>(ListChangeEvt.ANY, "CHANGED");
-    public static final EvtType<ListChangeEvt> ADDED   = new EvtType<>(ListChangeEvt.ANY, "ADDED");
-    public static final EvtType<ListChangeEvt> REMOVED = new EvtType<>(ListChangeEvt.ANY, "REMOVED");
+    public static final EvtType<ListChangeEvt> ANY        = new EvtType<>(ChangeEvt.ANY, "ANY");
+    public static final EvtType<ListChangeEvt> CHANGED    = new EvtType<>(ListChangeEvt.ANY, "CHANGED");
+    public static final EvtType<ListChangeEvt> ADDED      = new EvtType<>(ListChangeEvt.ANY, "ADDED");
+    public static final EvtType<ListChangeEvt> REMOVED    = new EvtType<>(ListChangeEvt.ANY, "REMOVED");
+    public static final EvtType<ListChangeEvt> PERMUTATED = new EvtType<>(ListChangeEvt.ANY, "PERMUTATED");
 
     private final List<T> addedElements;
     private final List<T> removedElements;
+    private final int     from;
+    private final int     to;
+    private final int[]   permutation;
 
 
     // ******************** Constructors **************************************
     public ListChangeEvt(final List<T> src, final EvtType<ListChangeEvt> evtType, final List<T> addedElements, final List<T> removedElements) {
-        super(src, evtType);
-        this.addedElements   = null == addedElements   ? List.of() : new ArrayList<>(addedElements);
-        this.removedElements = null == removedElements ? List.of() : new ArrayList<>(removedElements);
+        this(src, (EvtType) evtType, EvtPriority.NORMAL, -1, -1, addedElements, removedElements);
     }
     public ListChangeEvt(final List<T> src, final EvtType<? extends ListChangeEvt<T>> evtType, final EvtPriority priority, final List<T> addedElements, final List<T> removedElements) {
+        this(src, evtType, priority, -1, -1, addedElements, removedElements);
+    }
+    public ListChangeEvt(final List<T> src, final EvtType<? extends ListChangeEvt<T>> evtType, final EvtPriority priority, final int from, final int to, final List<T> addedElements, final List<T> removedElements) {
+        super(src, evtType, priority);
+        this.addedElements   = null == addedElements   ? List.of() : addedElements;
+        this.removedElements = null == removedElements ? List.of() : removedElements;
+        this.from            = from;
+        this.to              = to;
+        this.permutation     = null;
+    }
+    /**
+     * Creates an event that describes a permutation of the elements in [from, to)
+     * @param permutation Contains the new index of the element at from + i at position i
+     */
+    public ListChangeEvt(final List<T> src, final EvtType<? extends ListChangeEvt<T>> evtType, final EvtPriority priority, final int from, final int to, final int[] permutation) {
         super(src, evtType, priority);
-        this.addedElements   = null == addedElements   ? List.of() : new ArrayList<>(addedElements);
-        this.removedElements = null == removedElements ? List.of() : new ArrayList<>(removedElements);
+        if (null == permutation || permutation.length != to - from) { throw new IllegalArgumentException("permutation must contain one index per element in [from, to)"); }
+        this.addedElements   = List.of();
+        this.removedElements = List.of();
+        this.from            = from;
+        this.to              = to;
+        this.permutation     = permutation;
     }
 
 
@@ -56,15 +88,38 @@ public class ListChangeEvt<T> extends ChangeEvt {
 
     public List<T> getRemovedElements() { return removedElements; }
 
+    public int getAddedSize() { return getAddedElements().size(); }
+
+    public int getRemovedSize() { return getRemovedElements().size(); }
+
+    public int getFrom() { return from; }
+
+    public int getTo() { return to; }
+
+    public boolean hasRange() { return getFrom() >= 0; }
+
+    public boolean wasPermutated() { return null != permutation; }
+
+    /**
+     * Returns the new index of the element that was at the given index before the permutation
+     * @param oldIndex
+     * @return the new index of the element that was at the given index before the permutation
+     */
+    public int getPermutation(final int oldIndex) {
+        if (null == permutation) { throw new IllegalStateException("Change was not a permutation"); }
+        if (oldIndex < from || oldIndex >= to) { throw new IndexOutOfBoundsException("Index: " + oldIndex + ", Range: [" + from + ", " + to + ")"); }
+        return permutation[oldIndex - from];
+    }
+
     @Override public boolean equals(final Object o) {
         if (this == o) { return true; }
         if (o == null || getClass() != o.getClass()) { return false; }
         if (!super.equals(o)) { return false; }
         ListChangeEvt<?> that = (ListChangeEvt<?>) o;
-        return Objects.equals(addedElements, that.addedElements) && Objects.equals(removedElements, that.removedElements);
+        return from == that.from && to == that.to && Objects.equals(addedElements, that.addedElements) && Objects.equals(removedElements, that.removedElements) && Arrays.equals(permutation, that.permutation);
     }
 
     @Override public int hashCode() {
-        return Objects.hash(super.hashCode(), addedElements, removedElements);
+        return Objects.hash(super.hashCode(), addedElements, removedElements, from, to);
     }
 }
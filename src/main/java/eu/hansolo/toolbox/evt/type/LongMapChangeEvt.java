@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evt.type;
+
+import eu.hansolo.toolbox.evt.EvtPriority;
+import eu.hansolo.toolbox.evt.EvtType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * Change of an ObservableLongMap. The changed entries are stored in primitive arrays,
+ * for ADDED the old values are the no entry value of the map, for REMOVED the values
+ * are the removed values.
+ */
+public class LongMapChangeEvt extends ChangeEvt {
+    public static final EvtType<LongMapChangeEvt> ANY      = new EvtType<>(ChangeEvt.ANY, "ANY");
+    public static final EvtType<LongMapChangeEvt> MODIFIED = new EvtType<>(LongMapChangeEvt.ANY, "MODIFIED");
+    public static final EvtType<LongMapChangeEvt> ADDED    = new EvtType<>(LongMapChangeEvt.ANY, "ADDED");
+    public static final EvtType<LongMapChangeEvt> REMOVED  = new EvtType<>(LongMapChangeEvt.ANY, "REMOVED");
+
+    private final long[] keys;
+    private final long[] values;
+    private final long[] oldValues;
+
+
+    // ******************** Constructors **************************************
+    public LongMapChangeEvt(final Object src, final EvtType<LongMapChangeEvt> evtType, final long key, final long value, final long oldValue) {
+        this(src, evtType, EvtPriority.NORMAL, new long[] { key }, new long[] { value }, new long[] { oldValue });
+    }
+    public LongMapChangeEvt(final Object src, final EvtType<? extends LongMapChangeEvt> evtType, final EvtPriority priority, final long[] keys, final long[] values, final long[] oldValues) {
+        super(src, evtType, priority);
+        if (keys.length != values.length || keys.length != oldValues.length) { throw new IllegalArgumentException("keys, values and oldValues must have the same length"); }
+        this.keys      = keys;
+        this.values    = values;
+        this.oldValues = oldValues;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public EvtType<? extends LongMapChangeEvt> getEvtType() { return (EvtType<? extends LongMapChangeEvt>) super.getEvtType(); }
+
+    public int getNoOfEntries() { return keys.length; }
+
+    public long getKey() { return keys[0]; }
+    public long getKey(final int index) { return keys[index]; }
+
+    public long getValue() { return values[0]; }
+    public long getValue(final int index) { return values[index]; }
+
+    public long getOldValue() { return oldValues[0]; }
+    public long getOldValue(final int index) { return oldValues[index]; }
+
+    @Override public boolean equals(final Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        if (!super.equals(o)) { return false; }
+        LongMapChangeEvt that = (LongMapChangeEvt) o;
+        return Arrays.equals(keys, that.keys) && Arrays.equals(values, that.values) && Arrays.equals(oldValues, that.oldValues);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(super.hashCode(), Arrays.hashCode(keys), Arrays.hashCode(values), Arrays.hashCode(oldValues));
+    }
+}
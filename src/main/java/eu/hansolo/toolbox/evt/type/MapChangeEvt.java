@@ -34,6 +34,9 @@ public class MapChangeEvt<K,V> extends ChangeEvt {
     public static final EvtType<MapChangeEvt> MODIFIED = new EvtType<>(MapChangeEvt.ANY, "MODIFIED");
     public static final EvtType<MapChangeEvt> ADDED    = new EvtType<>(MapChangeEvt.ANY, "ADDED");
     public static final EvtType<MapChangeEvt> REMOVED  = new EvtType<>(MapChangeEvt.ANY, "REMOVED");
+    // Removals of a cache, delivered to REMOVED observers as well
+    public static final EvtType<MapChangeEvt> EVICTED  = new EvtType<>(MapChangeEvt.REMOVED, "EVICTED");
+    public static final EvtType<MapChangeEvt> EXPIRED  = new EvtType<>(MapChangeEvt.REMOVED, "EXPIRED");
 
     private final List<Entry<K,V>> addedEntries;
     private final List<Entry<K,V>> modifiedEntries;
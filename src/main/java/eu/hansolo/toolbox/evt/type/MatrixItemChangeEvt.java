@@ -25,16 +25,24 @@ import eu.hansolo.toolbox.observables.ObservableMatrix;
 import java.util.Objects;
 
 
+/**
+ * Change of one cell of a matrix at x, y or, if the type is REGION_CHANGED, of all cells in the
+ * region of width x height cells starting at x, y. Region events are fired by bulk operations
+ * instead of one event per cell, they don't carry items, the observer has to read the region.
+ */
 public class MatrixItemChangeEvt<T> extends ChangeEvt {
-    public static final EvtType<MatrixItemChangeEvt> ANY          = new EvtType<>(ChangeEvt.ANY, "ANY");
-    public static final EvtType<MatrixItemChangeEvt> ITEM_ADDED   = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_ADDED");
-    public static final EvtType<MatrixItemChangeEvt> ITEM_CHANGED = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_CHANGED");
-    public static final EvtType<MatrixItemChangeEvt> ITEM_REMOVED = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_REMOVED");
+    public static final EvtType<MatrixItemChangeEvt> ANY            = new EvtType<>(ChangeEvt.ANY, "ANY");
+    public static final EvtType<MatrixItemChangeEvt> ITEM_ADDED     = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_ADDED");
+    public static final EvtType<MatrixItemChangeEvt> ITEM_CHANGED   = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_CHANGED");
+    public static final EvtType<MatrixItemChangeEvt> ITEM_REMOVED   = new EvtType<>(MatrixItemChangeEvt.ANY, "ITEM_REMOVED");
+    public static final EvtType<MatrixItemChangeEvt> REGION_CHANGED = new EvtType<>(MatrixItemChangeEvt.ANY, "REGION_CHANGED");
 
     private final T   oldItem;
     private final T   item;
     private final int x;
     private final int y;
+    private final int width;
+    private final int height;
 
 
     // ******************** Constructors **************************************
@@ -42,6 +50,8 @@ public class MatrixItemChangeEvt<T> extends ChangeEvt {
         super(src, evtType);
         this.x       = x;
         this.y       = y;
+        this.width   = 1;
+        this.height  = 1;
         this.oldItem = oldItem;
         this.item    = item;
     }
@@ -49,9 +59,28 @@ public class MatrixItemChangeEvt<T> extends ChangeEvt {
         super(src, evtType, priority);
         this.x       = x;
         this.y       = y;
+        this.width   = 1;
+        this.height  = 1;
         this.oldItem = oldItem;
         this.item    = item;
     }
+    /**
+     * Creates an event that describes a change of all cells in the given region
+     * @param x Column of the upper left cell of the region
+     * @param y Row of the upper left cell of the region
+     * @param width Number of columns in the region
+     * @param height Number of rows in the region
+     */
+    public MatrixItemChangeEvt(final ObservableMatrix<T> src, final EvtType<? extends MatrixItemChangeEvt<T>> evtType, final EvtPriority priority, final int x, final int y, final int width, final int height) {
+        super(src, evtType, priority);
+        if (width < 1 || height < 1) { throw new IllegalArgumentException("width and height cannot be smaller than 1"); }
+        this.x       = x;
+        this.y       = y;
+        this.width   = width;
+        this.height  = height;
+        this.oldItem = null;
+        this.item    = null;
+    }
 
 
     // ******************** Methods *******************************************
@@ -61,6 +90,10 @@ public class MatrixItemChangeEvt<T> extends ChangeEvt {
 
     public int getY() { return y; }
 
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
     public T getOldItem() { return oldItem; }
 
     public T getItem() { return item; }
@@ -70,10 +103,10 @@ public class MatrixItemChangeEvt<T> extends ChangeEvt {
         if (o == null || getClass() != o.getClass()) { return false; }
         if (!super.equals(o)) { return false; }
         MatrixItemChangeEvt<?> that = (MatrixItemChangeEvt<?>) o;
-        return Objects.equals(oldItem, that.oldItem) && Objects.equals(item, that.item) && x == that.x && y == that.y;
+        return Objects.equals(oldItem, that.oldItem) && Objects.equals(item, that.item) && x == that.x && y == that.y && width == that.width && height == that.height;
     }
 
     @Override public int hashCode() {
-        return Objects.hash(super.hashCode(), oldItem, item, x, y);
+        return Objects.hash(super.hashCode(), oldItem, item, x, y, width, height);
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evt.type;
+
+import eu.hansolo.toolbox.evt.EvtPriority;
+import eu.hansolo.toolbox.evt.EvtType;
+
+import java.util.Objects;
+
+
+/**
+ * Change of a primitive list (e.g. ObservableIntList or ObservableDoubleList) described by an index range
+ * instead of boxed elements.
+ * ADDED  : the new elements are at [from, to) in the list
+ * REMOVED: the elements at [from, to) have been removed, their values are in getRemoved()
+ * CHANGED: the elements at [from, to) have been changed, their old values are in getRemoved()
+ * @param <A> Type of the primitive array that holds removed values (e.g. int[] or double[])
+ */
+public class PrimitiveListChangeEvt<A> extends ChangeEvt {
+    public static final EvtType<PrimitiveListChangeEvt> ANY     = new EvtType<>(ChangeEvt.ANY, "ANY");
+    public static final EvtType<PrimitiveListChangeEvt> CHANGED = new EvtType<>(PrimitiveListChangeEvt.ANY, "CHANGED");
+    public static final EvtType<PrimitiveListChangeEvt> ADDED   = new EvtType<>(PrimitiveListChangeEvt.ANY, "ADDED");
+    public static final EvtType<PrimitiveListChangeEvt> REMOVED = new EvtType<>(PrimitiveListChangeEvt.ANY, "REMOVED");
+
+    private final int from;
+    private final int to;
+    private final A   removed;
+
+
+    // ******************** Constructors **************************************
+    public PrimitiveListChangeEvt(final Object src, final EvtType<PrimitiveListChangeEvt> evtType, final int from, final int to, final A removed) {
+        super(src, evtType);
+        this.from    = from;
+        this.to      = to;
+        this.removed = removed;
+    }
+    public PrimitiveListChangeEvt(final Object src, final EvtType<? extends PrimitiveListChangeEvt<A>> evtType, final EvtPriority priority, final int from, final int to, final A removed) {
+        super(src, evtType, priority);
+        this.from    = from;
+        this.to      = to;
+        this.removed = removed;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public EvtType<? extends PrimitiveListChangeEvt<A>> getEvtType() { return (EvtType<? extends PrimitiveListChangeEvt<A>>) super.getEvtType(); }
+
+    public int getFrom() { return from; }
+
+    public int getTo() { return to; }
+
+    public int getSize() { return to - from; }
+
+    /**
+     * Returns the removed values (REMOVED) or the old values (CHANGED), null for ADDED
+     * @return the removed values (REMOVED) or the old values (CHANGED), null for ADDED
+     */
+    public A getRemoved() { return removed; }
+
+    @Override public boolean equals(final Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        if (!super.equals(o)) { return false; }
+        PrimitiveListChangeEvt<?> that = (PrimitiveListChangeEvt<?>) o;
+        return from == that.from && to == that.to && Objects.deepEquals(removed, that.removed);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(super.hashCode(), from, to);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtPriority;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class AsyncEvtBus implements EvtBus {
+    public  static final int                      DEFAULT_BUFFER_SIZE       = 1024;
+    public  static final WaitStrategy             DEFAULT_WAIT_STRATEGY     = WaitStrategy.BLOCKING;
+    public  static final OverflowStrategy         DEFAULT_OVERFLOW_STRATEGY = OverflowStrategy.BLOCK;
+    public  static final DispatchMode             DEFAULT_DISPATCH_MODE     = DispatchMode.FIFO;
+    public  static final int                      DEFAULT_LOW_WEIGHT        = 1;
+    public  static final int                      DEFAULT_NORMAL_WEIGHT     = 4;
+    public  static final int                      DEFAULT_HIGH_WEIGHT       = 16;
+    private static final AtomicInteger            THREAD_COUNTER            = new AtomicInteger(0);
+    private        final SubscriberRegistry       registry;
+    private        final Map<Topic, TopicChannel> channels;
+    private        final int                      bufferSize;
+    private        final WaitStrategy             waitStrategy;
+    private        final OverflowStrategy         overflowStrategy;
+    private        final DispatchMode             dispatchMode;
+    private        final int[]                    priorityWeights;
+    private        final ThreadFactory            threadFactory;
+    private volatile     boolean                  shutdown;
+
+
+    // ******************** Constructors **************************************
+    public AsyncEvtBus() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_WAIT_STRATEGY, DEFAULT_OVERFLOW_STRATEGY, null);
+    }
+    public AsyncEvtBus(final int bufferSize, final WaitStrategy waitStrategy, final OverflowStrategy overflowStrategy) {
+        this(bufferSize, waitStrategy, overflowStrategy, null);
+    }
+    /**
+     * Creates an EvtBus that delivers events asynchronously. Every topic gets its own
+     * bounded ring buffer and a consumer thread created by the given thread factory
+     * (e.g. Thread.ofVirtual().factory() on JDK 21+) that drains the buffer and calls
+     * the subscribers of the topic.
+     * @param bufferSize Capacity of the ring buffer per topic (will be rounded up to the next power of 2)
+     * @param waitStrategy Defines how the consumer threads wait for new events
+     * @param overflowStrategy Defines what happens to an event that is published on a full ring buffer
+     * @param threadFactory Factory used to create the consumer threads, daemon threads will be used if null
+     */
+    public AsyncEvtBus(final int bufferSize, final WaitStrategy waitStrategy, final OverflowStrategy overflowStrategy, final ThreadFactory threadFactory) {
+        this(bufferSize, waitStrategy, overflowStrategy, DEFAULT_DISPATCH_MODE, new int[] { DEFAULT_LOW_WEIGHT, DEFAULT_NORMAL_WEIGHT, DEFAULT_HIGH_WEIGHT }, threadFactory);
+    }
+    /**
+     * Creates an EvtBus that delivers events asynchronously. In DispatchMode.PRIORITY every topic
+     * keeps one ring buffer per EvtPriority. The consumer serves them in a weighted round-robin
+     * from HIGH to LOW where each priority may deliver up to its weight events per round, so HIGH
+     * events overtake queued LOW events without starving them.
+     * @param bufferSize Capacity of the ring buffer per topic and priority (will be rounded up to the next power of 2)
+     * @param waitStrategy Defines how the consumer threads wait for new events
+     * @param overflowStrategy Defines what happens to an event that is published on a full ring buffer
+     * @param dispatchMode FIFO delivers events in publishing order, PRIORITY delivers events by their EvtPriority
+     * @param priorityWeights Events per round for LOW, NORMAL and HIGH (indexed by EvtPriority.getValue())
+     * @param threadFactory Factory used to create the consumer threads, daemon threads will be used if null
+     */
+    public AsyncEvtBus(final int bufferSize, final WaitStrategy waitStrategy, final OverflowStrategy overflowStrategy, final DispatchMode dispatchMode, final int[] priorityWeights, final ThreadFactory threadFactory) {
+        if (bufferSize < 2) { throw new IllegalArgumentException("bufferSize cannot be smaller than 2"); }
+        if (null == waitStrategy || null == overflowStrategy) { throw new IllegalArgumentException("waitStrategy and overflowStrategy cannot be null"); }
+        if (null == dispatchMode) { throw new IllegalArgumentException("dispatchMode cannot be null"); }
+        if (null == priorityWeights || priorityWeights.length != EvtPriority.values().length) { throw new IllegalArgumentException("priorityWeights must contain one weight per EvtPriority"); }
+        for (int weight : priorityWeights) {
+            if (weight < 1) { throw new IllegalArgumentException("priorityWeights cannot be smaller than 1"); }
+        }
+        this.registry         = new SubscriberRegistry();
+        this.channels         = new ConcurrentHashMap<>();
+        this.bufferSize       = bufferSize;
+        this.waitStrategy     = waitStrategy;
+        this.overflowStrategy = overflowStrategy;
+        this.dispatchMode     = dispatchMode;
+        this.priorityWeights  = priorityWeights.clone();
+        this.threadFactory    = null == threadFactory ? runnable -> {
+            final Thread thread = new Thread(runnable, "AsyncEvtBus-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        } : threadFactory;
+        this.shutdown         = false;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Adds the given event to the ring buffer of the given topic and returns immediately
+     * (unless the buffer is full and the overflow strategy is BLOCK or CALLER_RUNS).
+     * Events without subscribers will not be buffered at all.
+     * @param topic Topic to publish the event on
+     * @param evt Event to publish
+     */
+    @Override public <T extends Evt> void publish(final Topic topic, final T evt) {
+        if (null == topic || null == evt) { return; }
+        if (shutdown) { throw new IllegalStateException("AsyncEvtBus has been shut down"); }
+        if (registry.getSubscribers(topic, evt.getEvtType()).length == 0) { return; }
+        TopicChannel channel = channels.get(topic);
+        if (null == channel) {
+            channel = channels.computeIfAbsent(topic, t -> new TopicChannel(t, registry, bufferSize, waitStrategy, overflowStrategy, dispatchMode, priorityWeights, threadFactory));
+            if (shutdown) { channel.shutdown(); }
+        }
+        channel.publish(evt);
+    }
+
+    @Override public void subscribe(final Topic topic, final Subscriber subscriber) {
+        if (null == topic || null == subscriber || null == subscriber.getEvtType()) { return; }
+        registry.subscribe(topic, subscriber);
+    }
+
+    @Override public void unsubscribe(final Topic topic, final Subscriber subscriber) {
+        if (null == topic || null == subscriber || null == subscriber.getEvtType()) { return; }
+        registry.unsubscribe(topic, subscriber);
+    }
+
+    public void unsubscribeAll(final Topic topic) {
+        if (null == topic) { return; }
+        registry.unsubscribeAll(topic);
+    }
+
+    public void unsubscribeAll() { registry.clear(); }
+
+    public boolean hasSubscribers(final Topic topic) { return null != topic && registry.hasSubscribers(topic); }
+
+    public WaitStrategy getWaitStrategy() { return waitStrategy; }
+
+    public OverflowStrategy getOverflowStrategy() { return overflowStrategy; }
+
+    public DispatchMode getDispatchMode() { return dispatchMode; }
+
+    public int getPriorityWeight(final EvtPriority priority) { return priorityWeights[priority.getValue()]; }
+
+    /**
+     * Returns the number of events that have been dropped because of full ring buffers
+     * @return the number of events that have been dropped because of full ring buffers
+     */
+    public long getNoOfDroppedEvts() {
+        long dropped = 0;
+        for (TopicChannel channel : channels.values()) { dropped += channel.getDropped(); }
+        return dropped;
+    }
+
+    /**
+     * Returns the number of events that wait for delivery on the given topic
+     * @param topic
+     * @return the number of events that wait for delivery on the given topic
+     */
+    public int getNoOfPendingEvts(final Topic topic) {
+        final TopicChannel channel = null == topic ? null : channels.get(topic);
+        return null == channel ? 0 : channel.getPending();
+    }
+
+    /**
+     * Returns the number of events with the given priority that wait for delivery on the given topic.
+     * In DispatchMode.FIFO all pending events will be reported as NORMAL.
+     * @param topic
+     * @param priority
+     * @return the number of events with the given priority that wait for delivery on the given topic
+     */
+    public int getNoOfPendingEvts(final Topic topic, final EvtPriority priority) {
+        final TopicChannel channel = null == topic ? null : channels.get(topic);
+        return null == channel ? 0 : channel.getPending(priority);
+    }
+
+    /**
+     * Stops accepting new events. Events that have already been published
+     * will still be delivered before the consumer threads terminate.
+     */
+    public void shutdown() {
+        shutdown = true;
+        channels.values().forEach(TopicChannel::shutdown);
+    }
+
+    public boolean isShutdown() { return shutdown; }
+
+    /**
+     * Blocks until all consumer threads terminated after a shutdown or the timeout elapsed
+     * @param timeout
+     * @param unit
+     * @return true if all consumer threads terminated
+     * @throws InterruptedException
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (TopicChannel channel : channels.values()) {
+            if (!channel.awaitTermination(deadline - System.nanoTime())) { return false; }
+        }
+        return true;
+    }
+}
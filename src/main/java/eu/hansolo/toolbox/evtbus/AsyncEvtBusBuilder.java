@@ -0,0 +1,81 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.properties.IntegerProperty;
+import eu.hansolo.toolbox.properties.ObjectProperty;
+import eu.hansolo.toolbox.properties.ReadOnlyProperty;
+
+import java.util.HashMap;
+import java.util.concurrent.ThreadFactory;
+
+
+public class AsyncEvtBusBuilder<B extends AsyncEvtBusBuilder<B>> {
+    private HashMap<String, ReadOnlyProperty> properties = new HashMap<>();
+
+
+    // ******************** Constructors **************************************
+    protected AsyncEvtBusBuilder() {}
+
+
+    // ******************** Methods *******************************************
+    public static final AsyncEvtBusBuilder create() {
+        return new AsyncEvtBusBuilder();
+    }
+
+    public final B bufferSize(final int bufferSize) {
+        properties.put("bufferSize", new IntegerProperty(bufferSize));
+        return (B) this;
+    }
+
+    public final B waitStrategy(final WaitStrategy waitStrategy) {
+        properties.put("waitStrategy", new ObjectProperty<>(waitStrategy));
+        return (B) this;
+    }
+
+    public final B overflowStrategy(final OverflowStrategy overflowStrategy) {
+        properties.put("overflowStrategy", new ObjectProperty<>(overflowStrategy));
+        return (B) this;
+    }
+
+    public final B dispatchMode(final DispatchMode dispatchMode) {
+        properties.put("dispatchMode", new ObjectProperty<>(dispatchMode));
+        return (B) this;
+    }
+
+    public final B priorityWeights(final int lowWeight, final int normalWeight, final int highWeight) {
+        properties.put("priorityWeights", new ObjectProperty<>(new int[] { lowWeight, normalWeight, highWeight }));
+        return (B) this;
+    }
+
+    public final B threadFactory(final ThreadFactory threadFactory) {
+        properties.put("threadFactory", new ObjectProperty<>(threadFactory));
+        return (B) this;
+    }
+
+    public final AsyncEvtBus build() {
+        final int              bufferSize       = properties.containsKey("bufferSize")       ? ((IntegerProperty) properties.get("bufferSize")).get()                           : AsyncEvtBus.DEFAULT_BUFFER_SIZE;
+        final WaitStrategy     waitStrategy     = properties.containsKey("waitStrategy")     ? ((ObjectProperty<WaitStrategy>) properties.get("waitStrategy")).get()         : AsyncEvtBus.DEFAULT_WAIT_STRATEGY;
+        final OverflowStrategy overflowStrategy = properties.containsKey("overflowStrategy") ? ((ObjectProperty<OverflowStrategy>) properties.get("overflowStrategy")).get() : AsyncEvtBus.DEFAULT_OVERFLOW_STRATEGY;
+        final DispatchMode     dispatchMode     = properties.containsKey("dispatchMode")     ? ((ObjectProperty<DispatchMode>) properties.get("dispatchMode")).get()         : AsyncEvtBus.DEFAULT_DISPATCH_MODE;
+        final int[]            priorityWeights  = properties.containsKey("priorityWeights")  ? ((ObjectProperty<int[]>) properties.get("priorityWeights")).get()               : new int[] { AsyncEvtBus.DEFAULT_LOW_WEIGHT, AsyncEvtBus.DEFAULT_NORMAL_WEIGHT, AsyncEvtBus.DEFAULT_HIGH_WEIGHT };
+        final ThreadFactory    threadFactory    = properties.containsKey("threadFactory")    ? ((ObjectProperty<ThreadFactory>) properties.get("threadFactory")).get()       : null;
+        return new AsyncEvtBus(bufferSize, waitStrategy, overflowStrategy, dispatchMode, priorityWeights, threadFactory);
+    }
+}
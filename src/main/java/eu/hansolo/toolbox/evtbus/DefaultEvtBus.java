@@ -0,0 +1,66 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.evt.Evt;
+
+
+public class DefaultEvtBus implements EvtBus {
+    private final SubscriberRegistry registry;
+
+
+    // ******************** Constructors **************************************
+    public DefaultEvtBus() {
+        this.registry = new SubscriberRegistry();
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Delivers the given event on the calling thread to all subscribers of the topic
+     * that subscribed to the type of the event or to one of its super types
+     * (e.g. a subscriber for ChangeEvt.ANY will receive all change events).
+     * @param topic Topic to publish the event on
+     * @param evt Event to publish
+     */
+    @Override public <T extends Evt> void publish(final Topic topic, final T evt) {
+        if (null == topic || null == evt) { return; }
+        final Subscriber[] subscribers = registry.getSubscribers(topic, evt.getEvtType());
+        for (int i = 0 ; i < subscribers.length ; i++) { subscribers[i].handle(evt); }
+    }
+
+    @Override public void subscribe(final Topic topic, final Subscriber subscriber) {
+        if (null == topic || null == subscriber || null == subscriber.getEvtType()) { return; }
+        registry.subscribe(topic, subscriber);
+    }
+
+    @Override public void unsubscribe(final Topic topic, final Subscriber subscriber) {
+        if (null == topic || null == subscriber || null == subscriber.getEvtType()) { return; }
+        registry.unsubscribe(topic, subscriber);
+    }
+
+    public void unsubscribeAll(final Topic topic) {
+        if (null == topic) { return; }
+        registry.unsubscribeAll(topic);
+    }
+
+    public void unsubscribeAll() { registry.clear(); }
+
+    public boolean hasSubscribers(final Topic topic) { return null != topic && registry.hasSubscribers(topic); }
+}
@@ -0,0 +1,111 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded lock-free ring buffer in the style of the LMAX disruptor.
+ * Each slot carries a sequence number that tells writers and readers
+ * whether the slot is free to be written or ready to be read, so
+ * neither side has to take a lock.
+ * @param <E> Type of the elements in the buffer
+ */
+final class RingBuffer<E> {
+    private static final VarHandle  SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private        final int        mask;
+    private        final Object[]   buffer;
+    private        final long[]     sequences;
+    private        final AtomicLong writePosition;
+    private        final AtomicLong readPosition;
+
+
+    // ******************** Constructors **************************************
+    RingBuffer(final int capacity) {
+        if (capacity < 2) { throw new IllegalArgumentException("capacity cannot be smaller than 2"); }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask          = size - 1;
+        this.buffer        = new Object[size];
+        this.sequences     = new long[size];
+        this.writePosition = new AtomicLong(0);
+        this.readPosition  = new AtomicLong(0);
+        for (int i = 0 ; i < size ; i++) { sequences[i] = i; }
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns false if the buffer is full
+     * @param element Element to add to the buffer
+     * @return false if the buffer is full
+     */
+    boolean offer(final E element) {
+        long position = writePosition.get();
+        int  index;
+        for (;;) {
+            index = (int) (position & mask);
+            final long difference = (long) SEQUENCE.getAcquire(sequences, index) - position;
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) { break; }
+                position = writePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = writePosition.get();
+            }
+        }
+        buffer[index] = element;
+        SEQUENCE.setRelease(sequences, index, position + 1);
+        return true;
+    }
+
+    /**
+     * Returns null if the buffer is empty
+     * @return the oldest element in the buffer or null if the buffer is empty
+     */
+    E poll() {
+        long position = readPosition.get();
+        int  index;
+        for (;;) {
+            index = (int) (position & mask);
+            final long difference = (long) SEQUENCE.getAcquire(sequences, index) - (position + 1);
+            if (difference == 0) {
+                if (readPosition.compareAndSet(position, position + 1)) { break; }
+                position = readPosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = readPosition.get();
+            }
+        }
+        final E element = (E) buffer[index];
+        buffer[index] = null;
+        SEQUENCE.setRelease(sequences, index, position + mask + 1);
+        return element;
+    }
+
+    int size() { return (int) Math.max(0, writePosition.get() - readPosition.get()); }
+
+    boolean isEmpty() { return writePosition.get() == readPosition.get(); }
+
+    int capacity() { return buffer.length; }
+}
@@ -0,0 +1,150 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.evt.EvtType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+final class SubscriberRegistry {
+    static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private final Map<Topic, TopicSubscribers> topics;
+
+
+    // ******************** Constructors **************************************
+    SubscriberRegistry() {
+        this.topics = new ConcurrentHashMap<>();
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns all subscribers that are registered on the given topic for the given
+     * event type or one of its super types. The returned array must not be modified.
+     * @param topic Topic the event was published on
+     * @param evtType Type of the published event
+     * @return all subscribers that have to handle the event
+     */
+    Subscriber[] getSubscribers(final Topic topic, final EvtType<?> evtType) {
+        final TopicSubscribers topicSubscribers = topics.get(topic);
+        return null == topicSubscribers ? NO_SUBSCRIBERS : topicSubscribers.resolve(evtType);
+    }
+
+    boolean hasSubscribers(final Topic topic) { return topics.containsKey(topic); }
+
+    void subscribe(final Topic topic, final Subscriber subscriber) {
+        topics.compute(topic, (t, topicSubscribers) -> {
+            final TopicSubscribers result = null == topicSubscribers ? new TopicSubscribers() : topicSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+    }
+
+    void unsubscribe(final Topic topic, final Subscriber subscriber) {
+        topics.computeIfPresent(topic, (t, topicSubscribers) -> {
+            topicSubscribers.remove(subscriber);
+            return topicSubscribers.isEmpty() ? null : topicSubscribers;
+        });
+    }
+
+    void unsubscribeAll(final Topic topic) { topics.remove(topic); }
+
+    void clear() { topics.clear(); }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class TopicSubscribers {
+        private volatile Map<EvtType<?>, Subscriber[]>               subscribers = new HashMap<>();
+        private volatile ConcurrentHashMap<EvtType<?>, Subscriber[]> resolved    = new ConcurrentHashMap<>();
+
+
+        // ******************** Methods ***************************************
+        Subscriber[] resolve(final EvtType<?> evtType) {
+            // Read the cache before the subscribers, writers publish them in the opposite order
+            final ConcurrentHashMap<EvtType<?>, Subscriber[]> cache  = resolved;
+            Subscriber[]                                      result = cache.get(evtType);
+            if (null == result) {
+                result = collect(evtType);
+                final Subscriber[] existing = cache.putIfAbsent(evtType, result);
+                if (null != existing) { result = existing; }
+            }
+            return result;
+        }
+
+        // Only called from within ConcurrentHashMap.compute() which serializes writers per topic
+        void add(final Subscriber subscriber) {
+            final EvtType<?>    evtType = subscriber.getEvtType();
+            final Subscriber[]  current = subscribers.getOrDefault(evtType, NO_SUBSCRIBERS);
+            for (Subscriber s : current) { if (s.equals(subscriber)) { return; } }
+            final Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscriber;
+            final Map<EvtType<?>, Subscriber[]> copy = new HashMap<>(subscribers);
+            copy.put(evtType, updated);
+            subscribers = copy;
+            resolved    = new ConcurrentHashMap<>();
+        }
+
+        void remove(final Subscriber subscriber) {
+            final EvtType<?>   evtType = subscriber.getEvtType();
+            final Subscriber[] current = subscribers.get(evtType);
+            if (null == current) { return; }
+            int index = -1;
+            for (int i = 0 ; i < current.length ; i++) {
+                if (current[i].equals(subscriber)) { index = i; break; }
+            }
+            if (index < 0) { return; }
+            final Map<EvtType<?>, Subscriber[]> copy = new HashMap<>(subscribers);
+            if (current.length == 1) {
+                copy.remove(evtType);
+            } else {
+                final Subscriber[] updated = new Subscriber[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                copy.put(evtType, updated);
+            }
+            subscribers = copy;
+            resolved    = new ConcurrentHashMap<>();
+        }
+
+        boolean isEmpty() { return subscribers.isEmpty(); }
+
+        private Subscriber[] collect(final EvtType<?> evtType) {
+            final Map<EvtType<?>, Subscriber[]> snapshot = subscribers;
+            Subscriber[] result = NO_SUBSCRIBERS;
+            // Subscribers of the most specific type come first, followed by the ones of the super types
+            for (EvtType<?> type = evtType ; null != type ; type = type.getSuperType()) {
+                final Subscriber[] subscribersOfType = snapshot.get(type);
+                if (null == subscribersOfType) { continue; }
+                if (result.length == 0) {
+                    result = subscribersOfType;
+                } else {
+                    final Subscriber[] merged = Arrays.copyOf(result, result.length + subscribersOfType.length);
+                    System.arraycopy(subscribersOfType, 0, merged, result.length, subscribersOfType.length);
+                    result = merged;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.evtbus;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtPriority;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+final class TopicChannel implements Runnable {
+    private static final long               PARK_NANOS      = 10_000;
+    private static final long               MAX_AWAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private        final Topic              topic;
+    private        final SubscriberRegistry registry;
+    private        final RingBuffer<Evt>[]  lanes;
+    private        final int[]              weights;
+    private        final int[]              credits;
+    private        final WaitStrategy       waitStrategy;
+    private        final OverflowStrategy   overflowStrategy;
+    private        final ReentrantLock      lock;
+    private        final Condition          notEmpty;
+    private        final Condition          notFull;
+    private        final AtomicLong         dropped;
+    private        final AtomicInteger      producersWaiting;
+    private        final Thread             thread;
+    private volatile     boolean            consumerWaiting;
+    private volatile     boolean            running;
+
+
+    // ******************** Constructors **************************************
+    TopicChannel(final Topic topic, final SubscriberRegistry registry, final int capacity, final WaitStrategy waitStrategy, final OverflowStrategy overflowStrategy, final ThreadFactory threadFactory) {
+        this(topic, registry, capacity, waitStrategy, overflowStrategy, DispatchMode.FIFO, null, threadFactory);
+    }
+    /**
+     * In PRIORITY mode every EvtPriority gets its own lane (indexed by EvtPriority.getValue()).
+     * The consumer serves the lanes in a weighted round-robin from HIGH to LOW where each lane
+     * may deliver up to its weight events per round. HIGH events therefore overtake queued LOW
+     * events while LOW events are still guaranteed to get their share of each round.
+     */
+    TopicChannel(final Topic topic, final SubscriberRegistry registry, final int capacity, final WaitStrategy waitStrategy, final OverflowStrategy overflowStrategy, final DispatchMode dispatchMode, final int[] weights, final ThreadFactory threadFactory) {
+        final int noOfLanes = DispatchMode.PRIORITY == dispatchMode ? EvtPriority.values().length : 1;
+        this.topic            = topic;
+        this.registry         = registry;
+        this.lanes            = new RingBuffer[noOfLanes];
+        for (int i = 0 ; i < noOfLanes ; i++) { this.lanes[i] = new RingBuffer<>(capacity); }
+        this.weights          = 1 == noOfLanes ? new int[] { 1 } : weights.clone();
+        this.credits          = this.weights.clone();
+        this.waitStrategy     = waitStrategy;
+        this.overflowStrategy = overflowStrategy;
+        this.lock             = new ReentrantLock();
+        this.notEmpty         = lock.newCondition();
+        this.notFull          = lock.newCondition();
+        this.dropped          = new AtomicLong(0);
+        this.producersWaiting = new AtomicInteger(0);
+        this.running          = true;
+        this.thread           = threadFactory.newThread(this);
+        this.thread.start();
+    }
+
+
+    // ******************** Methods *******************************************
+    void publish(final Evt evt) {
+        final RingBuffer<Evt> buffer = laneOf(evt);
+        if (!buffer.offer(evt)) {
+            switch (overflowStrategy) {
+                case BLOCK       -> {
+                    while (!buffer.offer(evt)) {
+                        if (!running || Thread.currentThread().isInterrupted()) { dropped.incrementAndGet(); return; }
+                        awaitNotFull(buffer);
+                    }
+                }
+                case DROP_OLDEST -> {
+                    while (!buffer.offer(evt)) {
+                        if (null != buffer.poll()) { dropped.incrementAndGet(); }
+                    }
+                }
+                case DROP_NEWEST -> {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                case CALLER_RUNS -> {
+                    dispatch(evt);
+                    return;
+                }
+            }
+        }
+        if (consumerWaiting) { signal(notEmpty); }
+    }
+
+    @Override public void run() {
+        // Keep draining after shutdown until all published events have been delivered
+        while (running || !isEmpty()) {
+            final Evt evt = next();
+            if (null == evt) {
+                awaitNotEmpty();
+            } else {
+                if (producersWaiting.get() > 0) { signal(notFull); }
+                dispatch(evt);
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        signal(notEmpty);
+        signal(notFull);
+    }
+
+    boolean awaitTermination(final long timeoutNanos) throws InterruptedException {
+        thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+        return !thread.isAlive();
+    }
+
+    long getDropped() { return dropped.get(); }
+
+    int getPending() {
+        int pending = 0;
+        for (int i = 0 ; i < lanes.length ; i++) { pending += lanes[i].size(); }
+        return pending;
+    }
+
+    int getPending(final EvtPriority priority) {
+        if (1 == lanes.length) { return null == priority || EvtPriority.NORMAL == priority ? lanes[0].size() : 0; }
+        return lanes[priority.getValue()].size();
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private RingBuffer<Evt> laneOf(final Evt evt) {
+        if (1 == lanes.length) { return lanes[0]; }
+        final EvtPriority priority = evt.getPriority();
+        return lanes[null == priority ? EvtPriority.NORMAL.getValue() : priority.getValue()];
+    }
+
+    private boolean isEmpty() {
+        for (int i = 0 ; i < lanes.length ; i++) {
+            if (!lanes[i].isEmpty()) { return false; }
+        }
+        return true;
+    }
+
+    // Only called by the consumer thread, so credits need no synchronization
+    private Evt next() {
+        if (1 == lanes.length) { return lanes[0].poll(); }
+        for (int round = 0 ; round < 2 ; round++) {
+            for (int i = lanes.length - 1 ; i >= 0 ; i--) {
+                if (credits[i] == 0) { continue; }
+                final Evt evt = lanes[i].poll();
+                if (null != evt) {
+                    credits[i]--;
+                    return evt;
+                }
+            }
+            // All lanes with credits left are empty -> start a new round
+            System.arraycopy(weights, 0, credits, 0, weights.length);
+        }
+        return null;
+    }
+
+    private void dispatch(final Evt evt) {
+        final Subscriber[] subscribers = registry.getSubscribers(topic, evt.getEvtType());
+        for (int i = 0 ; i < subscribers.length ; i++) {
+            try {
+                subscribers[i].handle(evt);
+            } catch (RuntimeException e) {
+                // A failing subscriber must not stop the delivery to the other subscribers
+                final Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+    }
+
+    private void awaitNotEmpty() {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELD     -> Thread.yield();
+            case PARK      -> LockSupport.parkNanos(PARK_NANOS);
+            case BLOCKING  -> {
+                lock.lock();
+                try {
+                    consumerWaiting = true;
+                    // Publishers check consumerWaiting after their offer, so either they see the flag or we see the event
+                    if (running && isEmpty()) { notEmpty.awaitNanos(MAX_AWAIT_NANOS); }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                } finally {
+                    consumerWaiting = false;
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void awaitNotFull(final RingBuffer<Evt> buffer) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELD     -> Thread.yield();
+            case PARK      -> LockSupport.parkNanos(PARK_NANOS);
+            case BLOCKING  -> {
+                lock.lock();
+                try {
+                    producersWaiting.incrementAndGet();
+                    if (running && buffer.size() >= buffer.capacity()) { notFull.awaitNanos(MAX_AWAIT_NANOS); }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    producersWaiting.decrementAndGet();
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void signal(final Condition condition) {
+        lock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
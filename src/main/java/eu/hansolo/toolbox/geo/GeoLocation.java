@@ -20,16 +20,13 @@ package eu.hansolo.toolbox.geo;
 
 import eu.hansolo.toolbox.Helper;
 import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
 import eu.hansolo.toolbox.evt.EvtObserver;
 import eu.hansolo.toolbox.evt.EvtType;
 import eu.hansolo.toolbox.evt.type.GeoLocationChangeEvt;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import static eu.hansolo.toolbox.Constants.COMMA;
 import static eu.hansolo.toolbox.Constants.CURLY_BRACKET_CLOSE;
@@ -39,15 +36,15 @@ import static eu.hansolo.toolbox.Constants.QUOTES_COLON;
 
 
 public class GeoLocation {
-    private String                                                id;
-    private long                                                  timestamp;
-    private String                                                name;
-    private String                                                info;
-    private double                                                latitude;
-    private double                                                longitude;
-    private double                                                altitude;
-    private double                                                accuracy;
-    private Map<EvtType, List<EvtObserver<GeoLocationChangeEvt>>> observers;
+    private       String                              id;
+    private       long                                timestamp;
+    private       String                              name;
+    private       String                              info;
+    private       double                              latitude;
+    private       double                              longitude;
+    private       double                              altitude;
+    private       double                              accuracy;
+    private final EvtDispatcher<GeoLocationChangeEvt> dispatcher;
 
 
     // ******************** Constructors **************************************
@@ -63,7 +60,7 @@ public class GeoLocation {
         this.longitude = longitude;
         this.altitude  = altitude;
         this.accuracy  = accuracy;
-        this.observers = new ConcurrentHashMap<>();
+        this.dispatcher = new EvtDispatcher<>();
     }
 
 
@@ -176,25 +173,15 @@ public class GeoLocation {
 
 
     // ******************** Event handling ************************************
-    public void addGeoLocationObserver(final EvtType<? extends Evt> type, final EvtObserver<GeoLocationChangeEvt> observer) {
-        if (!observers.containsKey(type)) { observers.put(type, new CopyOnWriteArrayList<>()); }
-        if (observers.get(type).contains(observer)) { return; }
-        observers.get(type).add(observer);
-    }
-    public void removeGeoLocationObserver(final EvtType<? extends Evt> type, final EvtObserver<GeoLocationChangeEvt> observer) {
-        if (observers.containsKey(type) && observers.get(type).contains(observer)) {
-            observers.get(type).remove(observer);
-        }
-    }
-    public void removeAllGeoLocationObservers() { observers.clear(); }
+    public void addGeoLocationObserver(final EvtType<? extends Evt> type, final EvtObserver<GeoLocationChangeEvt> observer) { dispatcher.addObserver(type, observer); }
+    public void addWeakGeoLocationObserver(final EvtType<? extends Evt> type, final EvtObserver<GeoLocationChangeEvt> observer) { dispatcher.addWeakObserver(type, observer); }
+    public void removeGeoLocationObserver(final EvtType<? extends Evt> type, final EvtObserver<GeoLocationChangeEvt> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllGeoLocationObservers() { dispatcher.removeAllObservers(); }
 
-    public void fireGeoLocationEvent(final GeoLocationChangeEvt evt) {
-        final EvtType type = evt.getEvtType();
-        observers.entrySet().stream().filter(entry -> entry.getKey().equals(GeoLocationChangeEvt.ANY)).forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-        if (observers.containsKey(type)) {
-            observers.get(type).forEach(observer -> observer.handle(evt));
-        }
-    }
+    public int getNoOfGeoLocationObservers() { return dispatcher.getNoOfObservers(); }
+
+    // Observers registered on a super type (e.g. GeoLocationChangeEvt.ANY or ChangeEvt.ANY) will also be called
+    public void fireGeoLocationEvent(final GeoLocationChangeEvt evt) { dispatcher.fire(evt); }
 
 
     // ******************** Misc **********************************************
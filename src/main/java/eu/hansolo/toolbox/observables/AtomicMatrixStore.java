@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Keeps one AtomicReference per cell in nested arrays that are indexed by [x][y]
+ * @param <T> Type of the items in the matrix
+ */
+final class AtomicMatrixStore<T> implements MatrixStore<T> {
+    private final AtomicReference<T>[][] matrix;
+    private final int                    cols;
+    private final int                    rows;
+
+
+    // ******************** Constructors **************************************
+    AtomicMatrixStore(final int cols, final int rows) {
+        this.matrix = new AtomicReference[cols][rows];
+        this.cols   = cols;
+        this.rows   = rows;
+        for (int x = 0 ; x < cols ; x++) {
+            for (int y = 0 ; y < rows ; y++) { matrix[x][y] = new AtomicReference<>(); }
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public int getCols() { return cols; }
+
+    @Override public int getRows() { return rows; }
+
+    @Override public T get(final int x, final int y) { return matrix[x][y].get(); }
+
+    @Override public void set(final int x, final int y, final T item) { matrix[x][y].set(item); }
+
+    @Override public T getAndSet(final int x, final int y, final T item) { return matrix[x][y].getAndSet(item); }
+
+    @Override public boolean compareAndSet(final int x, final int y, final T expectedItem, final T item) { return matrix[x][y].compareAndSet(expectedItem, item); }
+
+    @Override public void clear() {
+        for (int x = 0 ; x < cols ; x++) {
+            for (int y = 0 ; y < rows ; y++) { matrix[x][y].set(null); }
+        }
+    }
+
+    @Override public AtomicReference<T> reference(final int x, final int y) { return matrix[x][y]; }
+
+    @Override public MatrixStore<T> create(final int cols, final int rows) { return new AtomicMatrixStore<>(cols, rows); }
+
+    @Override public int[] indexOf(final Object item) {
+        if (null == item) { return null; }
+        for (int y = 0 ; y < rows ; y++) {
+            for (int x = 0 ; x < cols ; x++) {
+                if (item.equals(matrix[x][y].get())) { return new int[] { x, y }; }
+            }
+        }
+        return null;
+    }
+
+    @Override public Stream<T> stream() { return IntStream.range(0, rows).boxed().flatMap(y -> IntStream.range(0, cols).mapToObj(x -> matrix[x][y].get())); }
+
+    // The nested arrays are handed out directly, so changes of the references are visible in the matrix
+    @Override public AtomicReference<T>[][] toArray() { return matrix; }
+}
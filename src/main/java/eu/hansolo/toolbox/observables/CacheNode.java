@@ -0,0 +1,57 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+
+/**
+ * Entry of an ObservableCache that is linked into the access order list
+ * and into a bucket of the timer wheel. Only accessed under the cache lock.
+ */
+final class CacheNode<K,V> {
+    final K              key;
+    V                    value;
+    long                 writeTime;
+    long                 accessTime;
+    long                 expirationTime;
+    CacheNode<K,V>       previousInAccessOrder;
+    CacheNode<K,V>       nextInAccessOrder;
+    CacheNode<K,V>       previousInTimerWheel;
+    CacheNode<K,V>       nextInTimerWheel;
+
+
+    // ******************** Constructors **************************************
+    // Sentinel of a list
+    CacheNode() {
+        this.key                   = null;
+        this.previousInAccessOrder = this;
+        this.nextInAccessOrder     = this;
+        this.previousInTimerWheel  = this;
+        this.nextInTimerWheel      = this;
+    }
+    CacheNode(final K key, final V value, final long now) {
+        this.key        = key;
+        this.value      = value;
+        this.writeTime  = now;
+        this.accessTime = now;
+    }
+
+
+    // ******************** Methods *******************************************
+    boolean isScheduled() { return null != nextInTimerWheel; }
+}
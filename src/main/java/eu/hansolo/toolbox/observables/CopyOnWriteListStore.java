@@ -0,0 +1,365 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * Copy-on-write list like CopyOnWriteArrayList but with access to the
+ * backing array so that it can be replaced in one step.
+ */
+final class CopyOnWriteListStore<T> extends AbstractList<T> implements ListStore<T>, RandomAccess {
+    private static final Object[] EMPTY = new Object[0];
+    private        final Object   lock  = new Object();
+    private volatile     Object[] array;
+
+
+    // ******************** Constructors **************************************
+    CopyOnWriteListStore(final Collection<? extends T> collection) {
+        this.array = null == collection || collection.isEmpty() ? EMPTY : collection.toArray();
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public T get(final int index) { return (T) array[index]; }
+
+    @Override public int size() { return array.length; }
+
+    @Override public boolean isEmpty() { return array.length == 0; }
+
+    @Override public boolean contains(final Object obj) { return indexOf(obj, array, 0, array.length) >= 0; }
+
+    @Override public int indexOf(final Object obj) { return indexOf(obj, array, 0, array.length); }
+
+    @Override public int indexOf(final Object obj, final int index) {
+        final Object[] elements = array;
+        return indexOf(obj, elements, index, elements.length);
+    }
+
+    @Override public int lastIndexOf(final Object obj) {
+        final Object[] elements = array;
+        return lastIndexOf(obj, elements, elements.length - 1);
+    }
+
+    @Override public int lastIndexOf(final Object obj, final int index) { return lastIndexOf(obj, array, index); }
+
+    @Override public Object[] toArray() { return array.clone(); }
+
+    @Override public <U> U[] toArray(final U[] a) {
+        final Object[] elements = array;
+        if (a.length < elements.length) { return (U[]) Arrays.copyOf(elements, elements.length, a.getClass()); }
+        System.arraycopy(elements, 0, a, 0, elements.length);
+        if (a.length > elements.length) { a[elements.length] = null; }
+        return a;
+    }
+
+    @Override public Iterator<T> iterator() { return listIterator(0); }
+
+    @Override public ListIterator<T> listIterator() { return listIterator(0); }
+
+    // Iterators work on the array at the time of the call and do not support modifications
+    @Override public ListIterator<T> listIterator(final int index) {
+        final List<T> elements = (List<T>) Arrays.asList(array);
+        return Collections.unmodifiableList(elements).listIterator(index);
+    }
+
+    @Override public Spliterator<T> spliterator() { return Spliterators.spliterator(array, Spliterator.IMMUTABLE | Spliterator.ORDERED); }
+
+    @Override public void forEach(final Consumer<? super T> action) {
+        for (Object element : array) { action.accept((T) element); }
+    }
+
+    @Override public List<T> snapshot() { return (List<T>) Arrays.asList(array.clone()); }
+
+    // Like the iterators the sub list works on a snapshot and cannot be modified
+    @Override public List<T> subList(final int fromIndex, final int toIndex) {
+        final Object[] elements = array;
+        if (fromIndex < 0 || toIndex > elements.length || fromIndex > toIndex) { throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + elements.length); }
+        return Collections.unmodifiableList((List<T>) Arrays.asList(Arrays.copyOfRange(elements, fromIndex, toIndex)));
+    }
+
+
+    @Override public T set(final int index, final T element) {
+        synchronized (lock) {
+            final Object[] elements = array.clone();
+            final T        old      = (T) elements[index];
+            elements[index] = element;
+            array = elements;
+            return old;
+        }
+    }
+
+    @Override public boolean add(final T element) {
+        synchronized (lock) {
+            final Object[] elements = Arrays.copyOf(array, array.length + 1);
+            elements[elements.length - 1] = element;
+            array = elements;
+            return true;
+        }
+    }
+
+    @Override public void add(final int index, final T element) {
+        synchronized (lock) {
+            final Object[] current = array;
+            if (index < 0 || index > current.length) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.length); }
+            final Object[] elements = new Object[current.length + 1];
+            System.arraycopy(current, 0, elements, 0, index);
+            elements[index] = element;
+            System.arraycopy(current, index, elements, index + 1, current.length - index);
+            array = elements;
+        }
+    }
+
+    @Override public boolean addAll(final Collection<? extends T> collection) {
+        final Object[] added = collection.toArray();
+        if (added.length == 0) { return false; }
+        synchronized (lock) {
+            final Object[] current  = array;
+            final Object[] elements = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, elements, current.length, added.length);
+            array = elements;
+            return true;
+        }
+    }
+
+    @Override public boolean addAll(final int index, final Collection<? extends T> collection) {
+        final Object[] added = collection.toArray();
+        synchronized (lock) {
+            final Object[] current = array;
+            if (index < 0 || index > current.length) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.length); }
+            if (added.length == 0) { return false; }
+            final Object[] elements = new Object[current.length + added.length];
+            System.arraycopy(current, 0, elements, 0, index);
+            System.arraycopy(added, 0, elements, index, added.length);
+            System.arraycopy(current, index, elements, index + added.length, current.length - index);
+            array = elements;
+            return true;
+        }
+    }
+
+    @Override public int addAndGetIndex(final T element) {
+        synchronized (lock) {
+            final Object[] elements = Arrays.copyOf(array, array.length + 1);
+            elements[elements.length - 1] = element;
+            array = elements;
+            return elements.length - 1;
+        }
+    }
+
+    @Override public int addAllAndGetIndex(final Collection<? extends T> collection) {
+        final Object[] added = collection.toArray();
+        if (added.length == 0) { return -1; }
+        synchronized (lock) {
+            final Object[] current  = array;
+            final Object[] elements = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, elements, current.length, added.length);
+            array = elements;
+            return current.length;
+        }
+    }
+
+    @Override public boolean addIfAbsent(final T element) {
+        synchronized (lock) {
+            if (contains(element)) { return false; }
+            return add(element);
+        }
+    }
+
+    @Override public int addAllAbsent(final Collection<? extends T> collection) {
+        synchronized (lock) {
+            final Object[] current = array;
+            final List<T>  added   = new ArrayList<>();
+            for (T element : new LinkedHashSet<>(collection)) {
+                if (indexOf(element, current, 0, current.length) < 0) { added.add(element); }
+            }
+            if (added.isEmpty()) { return 0; }
+            addAll(added);
+            return added.size();
+        }
+    }
+
+    @Override public T remove(final int index) {
+        synchronized (lock) {
+            final Object[] current = array;
+            final T        old     = (T) current[index];
+            final Object[] elements = new Object[current.length - 1];
+            System.arraycopy(current, 0, elements, 0, index);
+            System.arraycopy(current, index + 1, elements, index, current.length - index - 1);
+            array = elements;
+            return old;
+        }
+    }
+
+    @Override public boolean remove(final Object obj) {
+        synchronized (lock) {
+            final int index = indexOf(obj);
+            if (index < 0) { return false; }
+            remove(index);
+            return true;
+        }
+    }
+
+    @Override public int removeAndGetIndex(final Object obj) {
+        synchronized (lock) {
+            final int index = indexOf(obj);
+            if (index >= 0) { remove(index); }
+            return index;
+        }
+    }
+
+    @Override public boolean removeAll(final Collection<?> collection) {
+        Objects.requireNonNull(collection);
+        return removeIf(collection::contains);
+    }
+
+    @Override public boolean retainAll(final Collection<?> collection) {
+        Objects.requireNonNull(collection);
+        return removeIf(element -> !collection.contains(element));
+    }
+
+    @Override public boolean removeIf(final Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        synchronized (lock) {
+            final Object[] current  = array;
+            final Object[] elements = new Object[current.length];
+            int            size     = 0;
+            for (Object element : current) {
+                if (!filter.test((T) element)) { elements[size++] = element; }
+            }
+            if (size == current.length) { return false; }
+            array = Arrays.copyOf(elements, size);
+            return true;
+        }
+    }
+
+    @Override public List<T> removeIfAndGet(final Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        synchronized (lock) {
+            final Object[] current  = array;
+            final Object[] elements = new Object[current.length];
+            final List<T>  removed  = new ArrayList<>();
+            int            size     = 0;
+            for (Object element : current) {
+                if (filter.test((T) element)) {
+                    removed.add((T) element);
+                } else {
+                    elements[size++] = element;
+                }
+            }
+            if (!removed.isEmpty()) { array = Arrays.copyOf(elements, size); }
+            return removed;
+        }
+    }
+
+    @Override public void replaceAll(final UnaryOperator<T> operator) {
+        Objects.requireNonNull(operator);
+        synchronized (lock) {
+            final Object[] elements = array.clone();
+            for (int i = 0 ; i < elements.length ; i++) { elements[i] = operator.apply((T) elements[i]); }
+            array = elements;
+        }
+    }
+
+    @Override public List<T> replaceAllAndGet(final UnaryOperator<T> operator) {
+        Objects.requireNonNull(operator);
+        synchronized (lock) {
+            final Object[] current  = array;
+            final Object[] elements = current.clone();
+            for (int i = 0 ; i < elements.length ; i++) { elements[i] = operator.apply((T) elements[i]); }
+            array = elements;
+            return Collections.unmodifiableList((List<T>) Arrays.asList(current));
+        }
+    }
+
+    @Override public void sort(final Comparator<? super T> comparator) {
+        synchronized (lock) {
+            final Object[] elements = array.clone();
+            Arrays.sort(elements, (Comparator<Object>) comparator);
+            array = elements;
+        }
+    }
+
+    @Override public void parallelSort(final Comparator<? super T> comparator) { sort(comparator, true, false); }
+
+    @Override public int[] sortAndGetPermutation(final Comparator<? super T> comparator, final boolean parallel) { return sort(comparator, parallel, true); }
+
+    @Override public void clear() {
+        synchronized (lock) { array = EMPTY; }
+    }
+
+    // The old array will never be modified again, so it can be handed over as it is
+    @Override public List<T> clearAndGet() {
+        synchronized (lock) {
+            final Object[] current = array;
+            array = EMPTY;
+            return Collections.unmodifiableList((List<T>) Arrays.asList(current));
+        }
+    }
+
+
+    // ******************** Private Methods ***********************************
+    // Sorts a snapshot without holding the lock, so readers and writers are not blocked during the sort.
+    // If the array has been modified in the meantime the sort will be repeated while holding the lock.
+    private int[] sort(final Comparator<? super T> comparator, final boolean parallel, final boolean permutation) {
+        final Object[] current    = array;
+        final Object[] elements   = current.clone();
+        final int[]    newIndices = ListStore.sort(elements, comparator, parallel, permutation);
+        synchronized (lock) {
+            if (array == current) {
+                array = elements;
+                return newIndices;
+            }
+            final Object[] latest = array.clone();
+            final int[]    result = ListStore.sort(latest, comparator, parallel, permutation);
+            array = latest;
+            return result;
+        }
+    }
+
+    private static int indexOf(final Object obj, final Object[] elements, final int from, final int to) {
+        for (int i = Math.max(0, from) ; i < to ; i++) {
+            if (Objects.equals(obj, elements[i])) { return i; }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(final Object obj, final Object[] elements, final int from) {
+        for (int i = Math.min(from, elements.length - 1) ; i >= 0 ; i--) {
+            if (Objects.equals(obj, elements[i])) { return i; }
+        }
+        return -1;
+    }
+}
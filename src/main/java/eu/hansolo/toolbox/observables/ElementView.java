@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * Reusable read-only list that either contains no element, one element
+ * or is a view on another list. Used as payload of reusable events.
+ */
+final class ElementView<E> extends AbstractList<E> implements RandomAccess {
+    private E       element;
+    private List<E> elements;
+    private int     size;
+
+
+    // ******************** Methods *******************************************
+    void reset() {
+        element  = null;
+        elements = null;
+        size     = 0;
+    }
+
+    void set(final E element) {
+        this.element  = element;
+        this.elements = null;
+        this.size     = 1;
+    }
+
+    void setAll(final List<E> elements) {
+        this.element  = null;
+        this.elements = elements;
+        this.size     = null == elements ? 0 : elements.size();
+    }
+
+    @Override public E get(final int index) {
+        if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+        return null == elements ? element : elements.get(index);
+    }
+
+    @Override public int size() { return size; }
+}
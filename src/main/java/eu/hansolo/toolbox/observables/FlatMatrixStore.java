@@ -0,0 +1,98 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Keeps all items in one row major Object[] where the item at x, y is stored at y * cols + x.
+ * There is no object per cell and rows are contiguous in memory, so scans over the whole
+ * matrix or a row run over a plain array. Single cells are read and written with volatile
+ * semantics, scans read each cell with acquire semantics and cells can be updated atomically
+ * by compareAndSet like an AtomicReference.
+ * @param <T> Type of the items in the matrix
+ */
+final class FlatMatrixStore<T> implements MatrixStore<T> {
+    private static final VarHandle ITEM = MethodHandles.arrayElementVarHandle(Object[].class);
+    private        final Object[]  items;
+    private        final int       cols;
+    private        final int       rows;
+
+
+    // ******************** Constructors **************************************
+    FlatMatrixStore(final int cols, final int rows) {
+        if ((long) cols * rows > Integer.MAX_VALUE - 8) { throw new IllegalArgumentException("cols * rows cannot be larger than " + (Integer.MAX_VALUE - 8)); }
+        this.items = new Object[cols * rows];
+        this.cols  = cols;
+        this.rows  = rows;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public int getCols() { return cols; }
+
+    @Override public int getRows() { return rows; }
+
+    @Override public T get(final int x, final int y) { return (T) ITEM.getVolatile(items, y * cols + x); }
+
+    @Override public void set(final int x, final int y, final T item) { ITEM.setVolatile(items, y * cols + x, item); }
+
+    @Override public T getAndSet(final int x, final int y, final T item) { return (T) ITEM.getAndSet(items, y * cols + x, item); }
+
+    @Override public boolean compareAndSet(final int x, final int y, final T expectedItem, final T item) { return ITEM.compareAndSet(items, y * cols + x, expectedItem, item); }
+
+    @Override public void clear() {
+        Arrays.fill(items, null);
+        VarHandle.releaseFence();
+    }
+
+    @Override public MatrixStore<T> create(final int cols, final int rows) { return new FlatMatrixStore<>(cols, rows); }
+
+    @Override public void forEachItem(final CellVisitor<T> visitor) {
+        for (int i = 0 ; i < items.length ; i++) {
+            final T item = (T) ITEM.getAcquire(items, i);
+            if (null != item) { visitor.visit(i % cols, i / cols, item); }
+        }
+    }
+
+    @Override public int[] indexOf(final Object item) {
+        if (null == item) { return null; }
+        for (int i = 0 ; i < items.length ; i++) {
+            if (item.equals(ITEM.getAcquire(items, i))) { return new int[] { i % cols, i / cols }; }
+        }
+        return null;
+    }
+
+    @Override public Stream<T> stream() { return IntStream.range(0, items.length).mapToObj(i -> (T) ITEM.getAcquire(items, i)); }
+
+    // There are no references to hand out, so the returned array is a detached copy of the items
+    @Override public AtomicReference<T>[][] toArray() {
+        final AtomicReference<T>[][] matrix = new AtomicReference[cols][rows];
+        for (int x = 0 ; x < cols ; x++) {
+            for (int y = 0 ; y < rows ; y++) { matrix[x][y] = new AtomicReference<>(get(x, y)); }
+        }
+        return matrix;
+    }
+}
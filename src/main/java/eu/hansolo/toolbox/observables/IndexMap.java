@@ -0,0 +1,168 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.Arrays;
+
+
+/**
+ * Maps logical indices (e.g. the rows of a matrix) to physical indices in a storage.
+ * The mapping is kept in a gap buffer, so inserting or removing at the same position
+ * as the last change is O(1) and any other position only costs moving ints with
+ * System.arraycopy instead of moving the stored items. Reversing the order is O(1).
+ * Physical indices of removed entries are kept in a free list and will be reused.
+ */
+final class IndexMap {
+    private int[]   indices;
+    private int     gapStart;
+    private int     gapEnd;
+    private boolean reversed;
+    private int[]   free;
+    private int     noOfFree;
+    private int     noOfPhysical;
+
+
+    // ******************** Constructors **************************************
+    IndexMap(final int size) {
+        reset(size);
+    }
+
+
+    // ******************** Methods *******************************************
+    int size() { return indices.length - (gapEnd - gapStart); }
+
+    int get(final int index) { return indices[positionOf(index)]; }
+
+    void swap(final int index1, final int index2) {
+        final int position1 = positionOf(index1);
+        final int position2 = positionOf(index2);
+        final int physical  = indices[position1];
+        indices[position1] = indices[position2];
+        indices[position2] = physical;
+    }
+
+    /**
+     * Inserts the given physical index at the given logical index
+     * @param index
+     * @param physical
+     */
+    void insert(final int index, final int physical) {
+        moveGap(reversed ? size() - index : index);
+        if (gapStart == gapEnd) {
+            final int   growBy     = Math.max(16, indices.length >> 1);
+            final int[] newIndices = new int[indices.length + growBy];
+            System.arraycopy(indices, 0, newIndices, 0, gapStart);
+            System.arraycopy(indices, gapEnd, newIndices, gapEnd + growBy, indices.length - gapEnd);
+            indices = newIndices;
+            gapEnd += growBy;
+        }
+        indices[gapStart++] = physical;
+    }
+
+    /**
+     * Removes the entry at the given logical index and returns its physical index
+     * @param index
+     * @return the physical index of the removed entry
+     */
+    int remove(final int index) {
+        moveGap(reversed ? size() - 1 - index : index);
+        return indices[gapEnd++];
+    }
+
+    void reverse() { reversed = !reversed; }
+
+    boolean isReversed() { return reversed; }
+
+    /**
+     * Returns an array that contains the logical index for each physical index (-1 for released ones)
+     * @return an array that contains the logical index for each physical index
+     */
+    int[] inverse() {
+        final int[] inverse = new int[noOfPhysical];
+        Arrays.fill(inverse, -1);
+        final int size = size();
+        for (int i = 0 ; i < size ; i++) { inverse[get(i)] = i; }
+        return inverse;
+    }
+
+    /**
+     * Returns a physical index that is not in use, either a released one or a new one
+     * @return a physical index that is not in use
+     */
+    int allocate() { return noOfFree > 0 ? free[--noOfFree] : noOfPhysical++; }
+
+    void release(final int physical) {
+        if (noOfFree == free.length) { free = Arrays.copyOf(free, Math.max(16, noOfFree * 2)); }
+        free[noOfFree++] = physical;
+    }
+
+    /**
+     * Returns the number of physical indices that have been handed out (including released ones)
+     * @return the number of physical indices that have been handed out
+     */
+    int getNoOfPhysical() { return noOfPhysical; }
+
+    /**
+     * Returns true if every logical index maps to the same physical index
+     * @return true if every logical index maps to the same physical index
+     */
+    boolean isIdentity() {
+        if (reversed || noOfFree > 0 || noOfPhysical != size()) { return false; }
+        for (int i = 0 ; i < noOfPhysical ; i++) {
+            if (get(i) != i) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Resets the map to the identity mapping of the given size
+     * @param size
+     */
+    void reset(final int size) {
+        indices      = new int[size];
+        for (int i = 0 ; i < size ; i++) { indices[i] = i; }
+        gapStart     = size;
+        gapEnd       = size;
+        reversed     = false;
+        free         = new int[0];
+        noOfFree     = 0;
+        noOfPhysical = size;
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private int positionOf(final int index) {
+        final int i = reversed ? size() - 1 - index : index;
+        return i < gapStart ? i : i + gapEnd - gapStart;
+    }
+
+    private void moveGap(final int position) {
+        if (position < gapStart) {
+            final int length = gapStart - position;
+            System.arraycopy(indices, position, indices, gapEnd - length, length);
+            gapStart -= length;
+            gapEnd   -= length;
+        } else if (position > gapStart) {
+            final int length = position - gapStart;
+            System.arraycopy(indices, gapEnd, indices, gapStart, length);
+            gapStart += length;
+            gapEnd   += length;
+        }
+    }
+}
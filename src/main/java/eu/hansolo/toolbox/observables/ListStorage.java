@@ -0,0 +1,37 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+
+public enum ListStorage {
+    /**
+     * Thread safe, every modification copies the backing array. Best for lists that are
+     * read and iterated much more often than they are modified.
+     */
+    COPY_ON_WRITE,
+    /**
+     * Thread safe, modifications take a write lock on an ArrayList and iterators work on
+     * snapshots. Best for lists with many modifications like appending elements one by one.
+     */
+    READ_WRITE_LOCK,
+    /**
+     * Not thread safe, backed by a plain ArrayList. Best for lists that are only accessed by one thread.
+     */
+    UNSYNCHRONIZED
+}
@@ -0,0 +1,141 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+
+interface ListStore<T> extends List<T> {
+
+    boolean addIfAbsent(T element);
+
+    /**
+     * Appends all elements of the given collection that are not already contained
+     * @return the number of elements that have been added
+     */
+    int addAllAbsent(Collection<? extends T> collection);
+
+    /**
+     * Appends the given element
+     * @return the index of the added element
+     */
+    int addAndGetIndex(T element);
+
+    /**
+     * Appends all elements of the given collection
+     * @return the index of the first added element or -1 if the collection was empty
+     */
+    int addAllAndGetIndex(Collection<? extends T> collection);
+
+    /**
+     * Removes the first occurrence of the given object
+     * @return the index the object had or -1 if it was not contained
+     */
+    int removeAndGetIndex(Object obj);
+
+    /**
+     * Removes all elements that match the given filter
+     * @return the removed elements in list order
+     */
+    List<T> removeIfAndGet(Predicate<? super T> filter);
+
+    /**
+     * Removes all elements and hands over the removed elements without copying them
+     * @return the removed elements in list order
+     */
+    List<T> clearAndGet();
+
+    /**
+     * Replaces every element with the result of the given operator, which will
+     * be applied exactly once per element in list order
+     * @return the old elements in list order
+     */
+    List<T> replaceAllAndGet(UnaryOperator<T> operator);
+
+    /**
+     * Sorts a snapshot of the elements with Arrays.parallelSort() and swaps it in atomically
+     */
+    void parallelSort(Comparator<? super T> comparator);
+
+    /**
+     * Sorts the elements (in parallel if requested)
+     * @return the permutation that contains the new index of the element at index i at position i
+     */
+    int[] sortAndGetPermutation(Comparator<? super T> comparator, boolean parallel);
+
+    int indexOf(Object obj, int index);
+
+    int lastIndexOf(Object obj, int index);
+
+    /**
+     * Returns a copy of the current elements that will not change with the store
+     */
+    List<T> snapshot();
+
+
+    /**
+     * Sorts the given array (stable) and returns the new index of every element if requested
+     * @param elements Array that will be sorted in place
+     * @param comparator Comparator to sort with, null for the natural ordering
+     * @param parallel Sorts with Arrays.parallelSort() if true
+     * @param permutation Computes the permutation if true
+     * @return the permutation that contains the new index of the element at index i at position i or null
+     */
+    static int[] sort(final Object[] elements, final Comparator<?> comparator, final boolean parallel, final boolean permutation) {
+        final Comparator<Object> order = null == comparator ? (Comparator) Comparator.naturalOrder() : (Comparator<Object>) comparator;
+        if (!permutation) {
+            if (parallel) {
+                Arrays.parallelSort(elements, order);
+            } else {
+                Arrays.sort(elements, order);
+            }
+            return null;
+        }
+        final Ranked[]           ranked           = new Ranked[elements.length];
+        final Comparator<Ranked> rankedComparator = (r1, r2) -> order.compare(r1.element(), r2.element());
+        for (int i = 0 ; i < elements.length ; i++) { ranked[i] = new Ranked(elements[i], i); }
+        if (parallel) {
+            Arrays.parallelSort(ranked, rankedComparator);
+        } else {
+            Arrays.sort(ranked, rankedComparator);
+        }
+        final int[] newIndices = new int[elements.length];
+        for (int i = 0 ; i < ranked.length ; i++) {
+            elements[i]                      = ranked[i].element();
+            newIndices[ranked[i].oldIndex()] = i;
+        }
+        return newIndices;
+    }
+
+    static <T> ListStore<T> create(final ListStorage storage, final Collection<? extends T> collection) {
+        return switch (storage) {
+            case READ_WRITE_LOCK -> new ReadWriteLockListStore<>(collection);
+            case UNSYNCHRONIZED  -> new UnsynchronizedListStore<>(collection);
+            default              -> new CopyOnWriteListStore<>(collection);
+        };
+    }
+
+
+    record Ranked(Object element, int oldIndex) {}
+}
@@ -0,0 +1,140 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Reverse index of an ObservableMatrix that maps each item to the cells in the store that contain it.
+ * Cells are kept as physical positions (y << 32 | x) of the store, they don't change when rows or
+ * columns are inserted, removed or mirrored, so only changes of cells have to be tracked.
+ * @param <T> Type of the items in the matrix
+ */
+final class MatrixItemIndex<T> {
+    private final Map<Object, Positions> positions = new HashMap<>();
+
+
+    // ******************** Methods *******************************************
+    synchronized void update(final int x, final int y, final T oldItem, final T item) {
+        if (null != oldItem) { remove(x, y, oldItem); }
+        if (null != item)    { add(x, y, item); }
+    }
+
+    synchronized void add(final int x, final int y, final T item) { positions.computeIfAbsent(item, i -> new Positions()).add(key(x, y)); }
+
+    synchronized void remove(final int x, final int y, final T item) {
+        final Positions cells = positions.get(item);
+        if (null == cells) { return; }
+        cells.remove(key(x, y));
+        if (cells.isEmpty()) { positions.remove(item); }
+    }
+
+    synchronized boolean contains(final Object item) { return positions.containsKey(item); }
+
+    /**
+     * Returns the position [x, y] of the first cell (row by row in logical order) that contains the given item or null
+     * @param item
+     * @param colOf logical column for each physical column
+     * @param rowOf logical row for each physical row
+     * @return the position [x, y] of the first cell that contains the given item or null
+     */
+    synchronized int[] indexOf(final Object item, final int[] colOf, final int[] rowOf) {
+        final Positions cells = positions.get(item);
+        if (null == cells) { return null; }
+        long first = Long.MAX_VALUE;
+        for (long key : cells.keys) {
+            if (Positions.EMPTY == key) { continue; }
+            final long logicalKey = key(colOf[(int) key], rowOf[(int) (key >>> 32)]);
+            if (logicalKey < first) { first = logicalKey; }
+        }
+        return new int[] { (int) first, (int) (first >>> 32) };
+    }
+
+    synchronized void clear() { positions.clear(); }
+
+
+    // ******************** Private Methods ***********************************
+    private static long key(final int x, final int y) { return ((long) y << 32) | (x & 0xFFFFFFFFL); }
+
+
+    // ******************** Inner Classes *************************************
+    /**
+     * Set of cell positions, open addressing with linear probing and backward shift deletion
+     */
+    private static final class Positions {
+        private static final long   EMPTY = -1L;
+        private              long[] keys  = { EMPTY, EMPTY };
+        private              int    size;
+
+
+        void add(final long key) {
+            if ((size + 1) * 2 > keys.length) { rehash(keys.length * 2); }
+            final int mask = keys.length - 1;
+            int slot = indexFor(key);
+            while (EMPTY != keys[slot]) {
+                if (key == keys[slot]) { return; }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            size++;
+        }
+
+        void remove(final long key) {
+            final int mask = keys.length - 1;
+            int gap = indexFor(key);
+            while (key != keys[gap]) {
+                if (EMPTY == keys[gap]) { return; }
+                gap = (gap + 1) & mask;
+            }
+            size--;
+            int next = (gap + 1) & mask;
+            while (EMPTY != keys[next]) {
+                if (((next - indexFor(keys[next])) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    gap       = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[gap] = EMPTY;
+        }
+
+        boolean isEmpty() { return 0 == size; }
+
+        private int indexFor(final long key) {
+            final long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+        }
+
+        private void rehash(final int capacity) {
+            final long[] oldKeys = keys;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            final int mask = capacity - 1;
+            for (long key : oldKeys) {
+                if (EMPTY == key) { continue; }
+                int slot = indexFor(key);
+                while (EMPTY != keys[slot]) { slot = (slot + 1) & mask; }
+                keys[slot] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+
+/**
+ * Defines how an ObservableMatrix stores its items
+ * ATOMIC: One AtomicReference per cell in nested arrays (column major)
+ * FLAT  : One row major Object[] without per cell objects, elements are accessed with volatile semantics
+ * SPARSE: Only cells that contain an item are stored in a hash table, for matrices that are mostly empty
+ */
+public enum MatrixStorage {
+    ATOMIC, FLAT, SPARSE
+}
@@ -0,0 +1,131 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+
+/**
+ * Storage of the cells of an ObservableMatrix, x is the column and y is the row of a cell
+ * @param <T> Type of the items in the matrix
+ */
+interface MatrixStore<T> {
+
+    int getCols();
+
+    int getRows();
+
+    T get(int x, int y);
+
+    void set(int x, int y, T item);
+
+    T getAndSet(int x, int y, T item);
+
+    boolean compareAndSet(int x, int y, T expectedItem, T item);
+
+    void clear();
+
+    /**
+     * Returns an empty store of the same kind with the given size
+     * @param cols
+     * @param rows
+     * @return an empty store of the same kind with the given size
+     */
+    MatrixStore<T> create(int cols, int rows);
+
+    /**
+     * Returns a store of the same kind with the given size that contains the items of all cells
+     * that exist in both stores
+     * @param cols
+     * @param rows
+     * @return a store of the same kind with the given size that contains the items of this store
+     */
+    default MatrixStore<T> resized(final int cols, final int rows) {
+        final MatrixStore<T> store = create(cols, rows);
+        forEachItem((x, y, item) -> {
+            if (x < cols && y < rows) { store.set(x, y, item); }
+        });
+        return store;
+    }
+
+    /**
+     * Calls the given visitor for each cell that contains an item
+     * @param visitor
+     */
+    default void forEachItem(final CellVisitor<T> visitor) {
+        final int cols = getCols();
+        final int rows = getRows();
+        for (int y = 0 ; y < rows ; y++) {
+            for (int x = 0 ; x < cols ; x++) {
+                final T item = get(x, y);
+                if (null != item) { visitor.visit(x, y, item); }
+            }
+        }
+    }
+
+    default boolean isEmpty() { return stream().allMatch(Objects::isNull); }
+
+    default boolean isColEmpty(final int x) {
+        final int rows = getRows();
+        for (int y = 0 ; y < rows ; y++) {
+            if (null != get(x, y)) { return false; }
+        }
+        return true;
+    }
+
+    default boolean isRowEmpty(final int y) {
+        final int cols = getCols();
+        for (int x = 0 ; x < cols ; x++) {
+            if (null != get(x, y)) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the first cell (row by row) that contains the given item as [x, y] or null
+     * @param item
+     * @return the position of the first cell (row by row) that contains the given item as [x, y] or null
+     */
+    int[] indexOf(Object item);
+
+    /**
+     * Returns a reference to the item of the given cell, stores that don't keep references return a detached one
+     * @param x
+     * @param y
+     * @return a reference to the item of the given cell
+     */
+    default AtomicReference<T> reference(final int x, final int y) { return new AtomicReference<>(get(x, y)); }
+
+    /**
+     * Returns the items row by row
+     * @return the items row by row
+     */
+    Stream<T> stream();
+
+    AtomicReference<T>[][] toArray();
+
+
+    // ******************** Inner Classes *************************************
+    @FunctionalInterface
+    interface CellVisitor<T> {
+        void visit(int x, int y, T item);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.MapChangeEvt;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Map with a maximum size and optional expiration of its entries that fires MapChangeEvts.
+ * If the maximum size is exceeded the least recently used entry will be evicted (EVICTED),
+ * entries expire a given time after they have been written or last accessed (EXPIRED).
+ * Expired entries are never returned, they will be removed by a hierarchical timer wheel
+ * on every operation or on cleanUp(). EVICTED and EXPIRED are sub types of REMOVED.
+ * All operations are guarded by one lock, the events will be fired after it has been released.
+ */
+public class ObservableCache<K,V> extends AbstractMap<K,V> {
+    public  static final long                             UNBOUNDED = Long.MAX_VALUE;
+    public  static final long                             NEVER     = 0;
+    private        final Object                           lock;
+    private        final Map<K, CacheNode<K,V>>           data;
+    private        final CacheNode<K,V>                   accessOrder;
+    private        final TimerWheel<K,V>                  timerWheel;
+    private        final long                             maximumSize;
+    private        final long                             expireAfterWriteNanos;
+    private        final long                             expireAfterAccessNanos;
+    private        final LongSupplier                     ticker;
+    private        final LongAdder                        hits;
+    private        final LongAdder                        misses;
+    private        final LongAdder                        evictions;
+    private        final LongAdder                        expirations;
+    private        final EvtDispatcher<MapChangeEvt<K,V>> dispatcher;
+
+
+    // ******************** Constructors **************************************
+    public ObservableCache(final long maximumSize) {
+        this(maximumSize, NEVER, NEVER, TimeUnit.NANOSECONDS, System::nanoTime);
+    }
+    public ObservableCache(final long maximumSize, final long expireAfterWrite, final long expireAfterAccess, final TimeUnit unit) {
+        this(maximumSize, expireAfterWrite, expireAfterAccess, unit, System::nanoTime);
+    }
+    /**
+     * Creates a cache
+     * @param maximumSize Maximum number of entries, UNBOUNDED for no limit
+     * @param expireAfterWrite Time after the last write an entry expires, NEVER if entries should not expire after write
+     * @param expireAfterAccess Time after the last read or write an entry expires, NEVER if entries should not expire after access
+     * @param unit Time unit of expireAfterWrite and expireAfterAccess
+     * @param ticker Source of the current time in nanoseconds
+     */
+    public ObservableCache(final long maximumSize, final long expireAfterWrite, final long expireAfterAccess, final TimeUnit unit, final LongSupplier ticker) {
+        if (maximumSize < 1) { throw new IllegalArgumentException("maximumSize cannot be smaller than 1"); }
+        if (expireAfterWrite < 0 || expireAfterAccess < 0) { throw new IllegalArgumentException("expiration times cannot be negative"); }
+        if (null == unit || null == ticker) { throw new IllegalArgumentException("unit and ticker cannot be null"); }
+        this.lock                   = new Object();
+        this.data                   = new HashMap<>();
+        this.accessOrder            = new CacheNode<>();
+        this.maximumSize            = maximumSize;
+        this.expireAfterWriteNanos  = unit.toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.ticker                 = ticker;
+        this.timerWheel             = NEVER == expireAfterWrite && NEVER == expireAfterAccess ? null : new TimerWheel<>(ticker.getAsLong());
+        this.hits                   = new LongAdder();
+        this.misses                 = new LongAdder();
+        this.evictions              = new LongAdder();
+        this.expirations            = new LongAdder();
+        this.dispatcher             = new EvtDispatcher<>();
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the value of the given key or null if there is no or only an expired entry.
+     * Counts as hit or miss and as access of the entry.
+     * @param key
+     * @return the value of the given key or null if there is no or only an expired entry
+     */
+    @Override public V get(final Object key) {
+        final long              now     = ticker.getAsLong();
+        final List<Change<K,V>> changes = createChanges();
+        final V                 value;
+        synchronized (lock) {
+            final CacheNode<K,V> node = lookup(key, now, changes);
+            if (null == node) {
+                misses.increment();
+                value = null;
+            } else {
+                hits.increment();
+                access(node, now);
+                value = node.value;
+            }
+        }
+        fire(changes);
+        return value;
+    }
+
+    /**
+     * Returns the value of the given key or loads it with the given function if there is no entry.
+     * The function will be called while the cache is locked and must not access the cache.
+     */
+    @Override public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(mappingFunction);
+        final long              now     = ticker.getAsLong();
+        final List<Change<K,V>> changes = createChanges();
+        final V                 value;
+        synchronized (lock) {
+            final CacheNode<K,V> node = lookup(key, now, changes);
+            if (null == node) {
+                misses.increment();
+                value = mappingFunction.apply(key);
+                if (null != value) { insert(key, value, now, changes); }
+            } else {
+                hits.increment();
+                access(node, now);
+                value = node.value;
+            }
+        }
+        fire(changes);
+        return value;
+    }
+
+    @Override public V put(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final long              now     = ticker.getAsLong();
+        final List<Change<K,V>> changes = createChanges();
+        final V                 oldValue;
+        synchronized (lock) {
+            final CacheNode<K,V> node = lookup(key, now, changes);
+            if (null == node) {
+                oldValue = null;
+                insert(key, value, now, changes);
+            } else {
+                oldValue       = node.value;
+                node.value     = value;
+                node.writeTime = now;
+                access(node, now);
+                record(changes, MapChangeEvt.MODIFIED, key, value);
+            }
+        }
+        fire(changes);
+        return oldValue;
+    }
+
+    @Override public V remove(final Object key) {
+        final long              now     = ticker.getAsLong();
+        final List<Change<K,V>> changes = createChanges();
+        final V                 oldValue;
+        synchronized (lock) {
+            final CacheNode<K,V> node = lookup(key, now, changes);
+            if (null == node) {
+                oldValue = null;
+            } else {
+                oldValue = node.value;
+                unlink(node);
+                record(changes, MapChangeEvt.REMOVED, node.key, node.value);
+            }
+        }
+        fire(changes);
+        return oldValue;
+    }
+
+    @Override public void clear() {
+        final List<Change<K,V>> changes = createChanges();
+        synchronized (lock) {
+            for (CacheNode<K,V> node = accessOrder.nextInAccessOrder ; node != accessOrder ; node = node.nextInAccessOrder) {
+                if (null != timerWheel) { timerWheel.deschedule(node); }
+                record(changes, MapChangeEvt.REMOVED, node.key, node.value);
+            }
+            data.clear();
+            accessOrder.previousInAccessOrder = accessOrder;
+            accessOrder.nextInAccessOrder     = accessOrder;
+        }
+        fire(changes);
+    }
+
+    /**
+     * Returns true if there is an entry for the given key that has not expired.
+     * Does not count as hit or miss and not as access of the entry.
+     */
+    @Override public boolean containsKey(final Object key) {
+        final long now = ticker.getAsLong();
+        synchronized (lock) {
+            final CacheNode<K,V> node = data.get(key);
+            return null != node && !isExpired(node, now);
+        }
+    }
+
+    @Override public int size() {
+        cleanUp();
+        synchronized (lock) { return data.size(); }
+    }
+
+    /**
+     * Returns a snapshot of the entries that have not expired in access order (least recently used first)
+     */
+    @Override public Set<Entry<K,V>> entrySet() {
+        final long now = ticker.getAsLong();
+        synchronized (lock) {
+            final Set<Entry<K,V>> entries = new LinkedHashSet<>();
+            for (CacheNode<K,V> node = accessOrder.nextInAccessOrder ; node != accessOrder ; node = node.nextInAccessOrder) {
+                if (!isExpired(node, now)) { entries.add(Map.entry(node.key, node.value)); }
+            }
+            return Collections.unmodifiableSet(entries);
+        }
+    }
+
+    /**
+     * Removes all expired entries and fires them as one EXPIRED event
+     */
+    public void cleanUp() {
+        final long              now     = ticker.getAsLong();
+        final List<Change<K,V>> changes = createChanges();
+        synchronized (lock) { expireEntries(now, changes); }
+        fire(changes);
+    }
+
+    public long getMaximumSize() { return maximumSize; }
+
+    public long getExpireAfterWrite(final TimeUnit unit) { return unit.convert(expireAfterWriteNanos, TimeUnit.NANOSECONDS); }
+
+    public long getExpireAfterAccess(final TimeUnit unit) { return unit.convert(expireAfterAccessNanos, TimeUnit.NANOSECONDS); }
+
+    public long getHitCount() { return hits.sum(); }
+
+    public long getMissCount() { return misses.sum(); }
+
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public long getExpirationCount() { return expirations.sum(); }
+
+    public double getHitRate() {
+        final long hitCount     = hits.sum();
+        final long requestCount = hitCount + misses.sum();
+        return 0 == requestCount ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+    }
+
+
+    // ******************** Event Handling ************************************
+    public void addMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) { dispatcher.addObserver(type, observer); }
+    public void removeMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllMapChangeObservers() { dispatcher.removeAllObservers(); }
+
+    // Observers registered on MapChangeEvt.REMOVED will also be called for EVICTED and EXPIRED entries
+    public void fireMapChangeEvt(final MapChangeEvt<K,V> evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    // Returns the node of the given key if it has not expired, expired nodes will be removed
+    private CacheNode<K,V> lookup(final Object key, final long now, final List<Change<K,V>> changes) {
+        expireEntries(now, changes);
+        final CacheNode<K,V> node = data.get(key);
+        if (null == node) { return null; }
+        if (isExpired(node, now)) {
+            expire(node, changes);
+            return null;
+        }
+        return node;
+    }
+
+    private void insert(final K key, final V value, final long now, final List<Change<K,V>> changes) {
+        final CacheNode<K,V> node = new CacheNode<>(key, value, now);
+        data.put(key, node);
+        access(node, now);
+        record(changes, MapChangeEvt.ADDED, key, value);
+        while (data.size() > maximumSize) {
+            final CacheNode<K,V> eldest = accessOrder.nextInAccessOrder;
+            unlink(eldest);
+            evictions.increment();
+            record(changes, MapChangeEvt.EVICTED, eldest.key, eldest.value);
+        }
+    }
+
+    // Moves the node to the end of the access order and updates its expiration time
+    private void access(final CacheNode<K,V> node, final long now) {
+        node.accessTime = now;
+        if (null != node.nextInAccessOrder) {
+            node.previousInAccessOrder.nextInAccessOrder = node.nextInAccessOrder;
+            node.nextInAccessOrder.previousInAccessOrder = node.previousInAccessOrder;
+        }
+        node.previousInAccessOrder                          = accessOrder.previousInAccessOrder;
+        node.nextInAccessOrder                              = accessOrder;
+        accessOrder.previousInAccessOrder.nextInAccessOrder = node;
+        accessOrder.previousInAccessOrder                   = node;
+        if (null == timerWheel) { return; }
+        final long afterWrite  = NEVER == expireAfterWriteNanos  ? Long.MAX_VALUE : node.writeTime + expireAfterWriteNanos;
+        final long afterAccess = NEVER == expireAfterAccessNanos ? Long.MAX_VALUE : node.accessTime + expireAfterAccessNanos;
+        node.expirationTime = Math.min(afterWrite, afterAccess);
+        timerWheel.schedule(node);
+    }
+
+    private boolean isExpired(final CacheNode<K,V> node, final long now) { return null != timerWheel && node.expirationTime - now <= 0; }
+
+    private void expireEntries(final long now, final List<Change<K,V>> changes) {
+        if (null != timerWheel) { timerWheel.advance(now, node -> expire(node, changes)); }
+    }
+
+    private void expire(final CacheNode<K,V> node, final List<Change<K,V>> changes) {
+        unlink(node);
+        expirations.increment();
+        record(changes, MapChangeEvt.EXPIRED, node.key, node.value);
+    }
+
+    private void unlink(final CacheNode<K,V> node) {
+        data.remove(node.key);
+        node.previousInAccessOrder.nextInAccessOrder = node.nextInAccessOrder;
+        node.nextInAccessOrder.previousInAccessOrder = node.previousInAccessOrder;
+        node.previousInAccessOrder                   = null;
+        node.nextInAccessOrder                       = null;
+        if (null != timerWheel) { timerWheel.deschedule(node); }
+    }
+
+    private List<Change<K,V>> createChanges() { return dispatcher.hasObservers() ? new ArrayList<>() : null; }
+
+    private void record(final List<Change<K,V>> changes, final EvtType<MapChangeEvt> type, final K key, final V value) {
+        if (null != changes) { changes.add(new Change<>(type, key, value)); }
+    }
+
+    // Fires one event per type of change in the order of their first occurrence
+    private void fire(final List<Change<K,V>> changes) {
+        if (null == changes || changes.isEmpty()) { return; }
+        final Map<EvtType<MapChangeEvt>, List<Entry<K,V>>> entriesByType = new LinkedHashMap<>();
+        for (Change<K,V> change : changes) { entriesByType.computeIfAbsent(change.type(), type -> new ArrayList<>()).add(Map.entry(change.key(), change.value())); }
+        entriesByType.forEach((type, entries) -> {
+            if (!dispatcher.hasObservers(type)) { return; }
+            if (type.isSubTypeOf(MapChangeEvt.REMOVED)) {
+                dispatcher.fire(new MapChangeEvt<>(ObservableCache.this, type, null, null, entries));
+            } else if (type.isSubTypeOf(MapChangeEvt.MODIFIED)) {
+                dispatcher.fire(new MapChangeEvt<>(ObservableCache.this, type, null, entries, null));
+            } else {
+                dispatcher.fire(new MapChangeEvt<>(ObservableCache.this, type, entries, null, null));
+            }
+        });
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private record Change<K,V>(EvtType<MapChangeEvt> type, K key, V value) {}
+}
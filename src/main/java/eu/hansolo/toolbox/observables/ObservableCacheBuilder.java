@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.properties.LongProperty;
+import eu.hansolo.toolbox.properties.ObjectProperty;
+import eu.hansolo.toolbox.properties.ReadOnlyProperty;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+
+public class ObservableCacheBuilder<B extends ObservableCacheBuilder<B>> {
+    private HashMap<String, ReadOnlyProperty> properties = new HashMap<>();
+
+
+    // ******************** Constructors **************************************
+    protected ObservableCacheBuilder() {}
+
+
+    // ******************** Methods *******************************************
+    public static final ObservableCacheBuilder create() {
+        return new ObservableCacheBuilder();
+    }
+
+    public final B maximumSize(final long maximumSize) {
+        properties.put("maximumSize", new LongProperty(maximumSize));
+        return (B) this;
+    }
+
+    public final B expireAfterWrite(final long duration, final TimeUnit unit) {
+        properties.put("expireAfterWrite", new LongProperty(unit.toNanos(duration)));
+        return (B) this;
+    }
+
+    public final B expireAfterAccess(final long duration, final TimeUnit unit) {
+        properties.put("expireAfterAccess", new LongProperty(unit.toNanos(duration)));
+        return (B) this;
+    }
+
+    public final B ticker(final LongSupplier ticker) {
+        properties.put("ticker", new ObjectProperty<>(ticker));
+        return (B) this;
+    }
+
+    public final <K,V> ObservableCache<K,V> build() {
+        final long         maximumSize       = properties.containsKey("maximumSize")       ? ((LongProperty) properties.get("maximumSize")).get()                : ObservableCache.UNBOUNDED;
+        final long         expireAfterWrite  = properties.containsKey("expireAfterWrite")  ? ((LongProperty) properties.get("expireAfterWrite")).get()           : ObservableCache.NEVER;
+        final long         expireAfterAccess = properties.containsKey("expireAfterAccess") ? ((LongProperty) properties.get("expireAfterAccess")).get()          : ObservableCache.NEVER;
+        final LongSupplier ticker            = properties.containsKey("ticker")            ? ((ObjectProperty<LongSupplier>) properties.get("ticker")).get() : System::nanoTime;
+        return new ObservableCache<>(maximumSize, expireAfterWrite, expireAfterAccess, TimeUnit.NANOSECONDS, ticker);
+    }
+}
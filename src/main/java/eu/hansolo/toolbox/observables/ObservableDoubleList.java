@@ -0,0 +1,247 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.PrimitiveListChangeEvt;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+
+/**
+ * Observable list of double values that are stored in a double[] instead of boxed Double objects.
+ * Changes are fired as PrimitiveListChangeEvt with the index range of the change.
+ * Events are fired while the lock of the list is held, so observers get them in the
+ * order of the changes, but other writers have to wait until all observers returned.
+ */
+public class ObservableDoubleList {
+    private static final int                                             DEFAULT_CAPACITY = 16;
+    private        final Object                                          lock;
+    private        final EvtDispatcher<PrimitiveListChangeEvt<double[]>> dispatcher;
+    private              double[]                                        elements;
+    private              int                                             size;
+
+
+    // ******************** Constructors **************************************
+    public ObservableDoubleList() {
+        this(DEFAULT_CAPACITY);
+    }
+    public ObservableDoubleList(final int initialCapacity) {
+        if (initialCapacity < 0) { throw new IllegalArgumentException("initialCapacity cannot be negative"); }
+        this.lock       = new Object();
+        this.dispatcher = new EvtDispatcher<>();
+        this.elements   = new double[initialCapacity];
+        this.size       = 0;
+    }
+    public ObservableDoubleList(final double[] values) {
+        this(values.length);
+        System.arraycopy(values, 0, elements, 0, values.length);
+        this.size = values.length;
+    }
+
+
+    // ******************** Methods *******************************************
+    public double get(final int index) {
+        synchronized (lock) {
+            checkIndex(index, size);
+            return elements[index];
+        }
+    }
+
+    public double set(final int index, final double value) {
+        final double oldValue;
+        synchronized (lock) {
+            checkIndex(index, size);
+            oldValue = elements[index];
+            elements[index] = value;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.CHANGED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.CHANGED, index, index + 1, new double[] { oldValue })); }
+        }
+        return oldValue;
+    }
+
+    public void add(final double value) {
+        final int index;
+        synchronized (lock) {
+            index = size;
+            ensureCapacity(size + 1);
+            elements[size++] = value;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + 1, null)); }
+        }
+    }
+
+    public void add(final int index, final double value) { addAll(index, new double[] { value }); }
+
+    public void addAll(final double[] values) {
+        final int index;
+        synchronized (lock) {
+            index = size;
+            insert(index, values);
+            if (values.length > 0 && dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + values.length, null)); }
+        }
+    }
+
+    public void addAll(final int index, final double[] values) {
+        synchronized (lock) {
+            if (index < 0 || index > size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+            insert(index, values);
+            if (values.length > 0 && dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + values.length, null)); }
+        }
+    }
+
+    public double removeAt(final int index) {
+        final double value;
+        synchronized (lock) {
+            checkIndex(index, size);
+            value = elements[index];
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            size--;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, index, index + 1, new double[] { value })); }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the first occurrence of the given value
+     * @param value
+     * @return true if the value has been removed
+     */
+    public boolean removeValue(final double value) {
+        final int index;
+        synchronized (lock) {
+            index = indexOf(value);
+            if (index < 0) { return false; }
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            size--;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, index, index + 1, new double[] { value })); }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the elements in the range [from, to)
+     * @param from Index of the first element to remove
+     * @param to Index after the last element to remove
+     */
+    public void removeRange(final int from, final int to) {
+        final double[] removed;
+        synchronized (lock) {
+            if (from < 0 || to > size || from > to) { throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", Size: " + size); }
+            if (from == to) { return; }
+            removed = dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED) ? Arrays.copyOfRange(elements, from, to) : null;
+            System.arraycopy(elements, to, elements, from, size - to);
+            size -= to - from;
+            if (null != removed) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, from, to, removed)); }
+        }
+    }
+
+    public void clear() {
+        final double[] removed;
+        synchronized (lock) {
+            if (size == 0) { return; }
+            removed = dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED) ? Arrays.copyOf(elements, size) : null;
+            size = 0;
+            if (null != removed) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, 0, removed.length, removed)); }
+        }
+    }
+
+    public void sort() {
+        final double[] oldValues;
+        synchronized (lock) {
+            if (size < 2) { return; }
+            oldValues = dispatcher.hasObservers(PrimitiveListChangeEvt.CHANGED) ? Arrays.copyOf(elements, size) : null;
+            Arrays.sort(elements, 0, size);
+            if (null != oldValues) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.CHANGED, 0, oldValues.length, oldValues)); }
+        }
+    }
+
+    public int size() {
+        synchronized (lock) { return size; }
+    }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    public boolean contains(final double value) { return indexOf(value) >= 0; }
+
+    public int indexOf(final double value) {
+        synchronized (lock) {
+            for (int i = 0 ; i < size ; i++) {
+                if (Double.compare(elements[i], value) == 0) { return i; }
+            }
+            return -1;
+        }
+    }
+
+    public int lastIndexOf(final double value) {
+        synchronized (lock) {
+            for (int i = size - 1 ; i >= 0 ; i--) {
+                if (Double.compare(elements[i], value) == 0) { return i; }
+            }
+            return -1;
+        }
+    }
+
+    public double[] toArray() {
+        synchronized (lock) { return Arrays.copyOf(elements, size); }
+    }
+
+    public DoubleStream stream() { return Arrays.stream(toArray()); }
+
+    public void forEach(final DoubleConsumer action) {
+        for (double value : toArray()) { action.accept(value); }
+    }
+
+    public void trimToSize() {
+        synchronized (lock) {
+            if (elements.length > size) { elements = Arrays.copyOf(elements, size); }
+        }
+    }
+
+    @Override public String toString() { return Arrays.toString(toArray()); }
+
+
+    // ******************** Event Handling ************************************
+    public void addListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<PrimitiveListChangeEvt<double[]>> observer) { dispatcher.addObserver(type, observer); }
+    public void removeListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<PrimitiveListChangeEvt<double[]>> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllListChangeObservers() { dispatcher.removeAllObservers(); }
+
+    public void fireListChangeEvt(final PrimitiveListChangeEvt<double[]> evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    private void insert(final int index, final double[] values) {
+        ensureCapacity(size + values.length);
+        System.arraycopy(elements, index, elements, index + values.length, size - index);
+        System.arraycopy(values, 0, elements, index, values.length);
+        size += values.length;
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity <= elements.length) { return; }
+        elements = Arrays.copyOf(elements, Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1))));
+    }
+
+    private static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.PrimitiveListChangeEvt;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+
+/**
+ * Observable list of int values that are stored in a int[] instead of boxed Integer objects.
+ * Changes are fired as PrimitiveListChangeEvt with the index range of the change.
+ * Events are fired while the lock of the list is held, so observers get them in the
+ * order of the changes, but other writers have to wait until all observers returned.
+ */
+public class ObservableIntList {
+    private static final int                                          DEFAULT_CAPACITY = 16;
+    private        final Object                                       lock;
+    private        final EvtDispatcher<PrimitiveListChangeEvt<int[]>> dispatcher;
+    private              int[]                                        elements;
+    private              int                                          size;
+
+
+    // ******************** Constructors **************************************
+    public ObservableIntList() {
+        this(DEFAULT_CAPACITY);
+    }
+    public ObservableIntList(final int initialCapacity) {
+        if (initialCapacity < 0) { throw new IllegalArgumentException("initialCapacity cannot be negative"); }
+        this.lock       = new Object();
+        this.dispatcher = new EvtDispatcher<>();
+        this.elements   = new int[initialCapacity];
+        this.size       = 0;
+    }
+    public ObservableIntList(final int[] values) {
+        this(values.length);
+        System.arraycopy(values, 0, elements, 0, values.length);
+        this.size = values.length;
+    }
+
+
+    // ******************** Methods *******************************************
+    public int get(final int index) {
+        synchronized (lock) {
+            checkIndex(index, size);
+            return elements[index];
+        }
+    }
+
+    public int set(final int index, final int value) {
+        final int oldValue;
+        synchronized (lock) {
+            checkIndex(index, size);
+            oldValue = elements[index];
+            elements[index] = value;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.CHANGED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.CHANGED, index, index + 1, new int[] { oldValue })); }
+        }
+        return oldValue;
+    }
+
+    public void add(final int value) {
+        final int index;
+        synchronized (lock) {
+            index = size;
+            ensureCapacity(size + 1);
+            elements[size++] = value;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + 1, null)); }
+        }
+    }
+
+    public void add(final int index, final int value) { addAll(index, new int[] { value }); }
+
+    public void addAll(final int[] values) {
+        final int index;
+        synchronized (lock) {
+            index = size;
+            insert(index, values);
+            if (values.length > 0 && dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + values.length, null)); }
+        }
+    }
+
+    public void addAll(final int index, final int[] values) {
+        synchronized (lock) {
+            if (index < 0 || index > size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+            insert(index, values);
+            if (values.length > 0 && dispatcher.hasObservers(PrimitiveListChangeEvt.ADDED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.ADDED, index, index + values.length, null)); }
+        }
+    }
+
+    public int removeAt(final int index) {
+        final int value;
+        synchronized (lock) {
+            checkIndex(index, size);
+            value = elements[index];
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            size--;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, index, index + 1, new int[] { value })); }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the first occurrence of the given value
+     * @param value
+     * @return true if the value has been removed
+     */
+    public boolean removeValue(final int value) {
+        final int index;
+        synchronized (lock) {
+            index = indexOf(value);
+            if (index < 0) { return false; }
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            size--;
+            if (dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED)) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, index, index + 1, new int[] { value })); }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the elements in the range [from, to)
+     * @param from Index of the first element to remove
+     * @param to Index after the last element to remove
+     */
+    public void removeRange(final int from, final int to) {
+        final int[] removed;
+        synchronized (lock) {
+            if (from < 0 || to > size || from > to) { throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", Size: " + size); }
+            if (from == to) { return; }
+            removed = dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED) ? Arrays.copyOfRange(elements, from, to) : null;
+            System.arraycopy(elements, to, elements, from, size - to);
+            size -= to - from;
+            if (null != removed) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, from, to, removed)); }
+        }
+    }
+
+    public void clear() {
+        final int[] removed;
+        synchronized (lock) {
+            if (size == 0) { return; }
+            removed = dispatcher.hasObservers(PrimitiveListChangeEvt.REMOVED) ? Arrays.copyOf(elements, size) : null;
+            size = 0;
+            if (null != removed) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.REMOVED, 0, removed.length, removed)); }
+        }
+    }
+
+    public void sort() {
+        final int[] oldValues;
+        synchronized (lock) {
+            if (size < 2) { return; }
+            oldValues = dispatcher.hasObservers(PrimitiveListChangeEvt.CHANGED) ? Arrays.copyOf(elements, size) : null;
+            Arrays.sort(elements, 0, size);
+            if (null != oldValues) { fireListChangeEvt(new PrimitiveListChangeEvt<>(this, PrimitiveListChangeEvt.CHANGED, 0, oldValues.length, oldValues)); }
+        }
+    }
+
+    public int size() {
+        synchronized (lock) { return size; }
+    }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    public boolean contains(final int value) { return indexOf(value) >= 0; }
+
+    public int indexOf(final int value) {
+        synchronized (lock) {
+            for (int i = 0 ; i < size ; i++) {
+                if (elements[i] == value) { return i; }
+            }
+            return -1;
+        }
+    }
+
+    public int lastIndexOf(final int value) {
+        synchronized (lock) {
+            for (int i = size - 1 ; i >= 0 ; i--) {
+                if (elements[i] == value) { return i; }
+            }
+            return -1;
+        }
+    }
+
+    public int[] toArray() {
+        synchronized (lock) { return Arrays.copyOf(elements, size); }
+    }
+
+    public IntStream stream() { return Arrays.stream(toArray()); }
+
+    public void forEach(final IntConsumer action) {
+        for (int value : toArray()) { action.accept(value); }
+    }
+
+    public void trimToSize() {
+        synchronized (lock) {
+            if (elements.length > size) { elements = Arrays.copyOf(elements, size); }
+        }
+    }
+
+    @Override public String toString() { return Arrays.toString(toArray()); }
+
+
+    // ******************** Event Handling ************************************
+    public void addListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<PrimitiveListChangeEvt<int[]>> observer) { dispatcher.addObserver(type, observer); }
+    public void removeListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<PrimitiveListChangeEvt<int[]>> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllListChangeObservers() { dispatcher.removeAllObservers(); }
+
+    public void fireListChangeEvt(final PrimitiveListChangeEvt<int[]> evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    private void insert(final int index, final int[] values) {
+        ensureCapacity(size + values.length);
+        System.arraycopy(elements, index, elements, index + values.length, size - index);
+        System.arraycopy(values, 0, elements, index, values.length);
+        size += values.length;
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity <= elements.length) { return; }
+        elements = Arrays.copyOf(elements, Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1))));
+    }
+
+    private static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+    }
+}
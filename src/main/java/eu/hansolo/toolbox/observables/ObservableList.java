@@ -19,21 +19,23 @@
 package eu.hansolo.toolbox.observables;
 
 import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
 import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtPriority;
 import eu.hansolo.toolbox.evt.EvtType;
 import eu.hansolo.toolbox.evt.type.ListChangeEvt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
+import java.util.Objects;
 import java.util.RandomAccess;
 import java.util.Spliterator;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -41,103 +43,144 @@ import java.util.stream.Collectors;
 
 
 public class ObservableList<T> implements List<T>, RandomAccess, Cloneable {
-    private final CopyOnWriteArrayList<T>                                          list;
-    private       Map<EvtType<? extends Evt>, List<EvtObserver<ListChangeEvt<T>>>> observers;
+    private static final Object                          NONE       = new Object();
+    private        final ListStorage                     storage;
+    private        final ListStore<T>                    list;
+    private        final EvtDispatcher<ListChangeEvt<T>> dispatcher = new EvtDispatcher<>();
+    private volatile     boolean                         reuseEvts;
+    private volatile     ThreadLocal<ChangeBatch<T>>     batches;
 
 
     // ******************** Constructors **************************************
     public ObservableList() {
-        this.list = new CopyOnWriteArrayList<>();
+        this(ListStorage.COPY_ON_WRITE);
+    }
+    public ObservableList(final ListStorage storage) {
+        this(List.of(), storage);
     }
     public ObservableList(final Collection<? extends T> collection) {
-        this.list = new CopyOnWriteArrayList<>(collection);
+        this(collection, ListStorage.COPY_ON_WRITE);
     }
     public ObservableList(final T[] array) {
-        this.list = new CopyOnWriteArrayList<>(array);
+        this(Arrays.asList(array), ListStorage.COPY_ON_WRITE);
+    }
+    /**
+     * Creates an ObservableList with the given elements and backing store.
+     * COPY_ON_WRITE (default) is best for lists that are mostly read, READ_WRITE_LOCK for lists
+     * with many modifications and UNSYNCHRONIZED for lists that are only used by one thread.
+     * @param collection Initial elements of the list
+     * @param storage Defines the data structure that holds the elements
+     */
+    public ObservableList(final Collection<? extends T> collection, final ListStorage storage) {
+        if (null == storage) { throw new IllegalArgumentException("storage cannot be null"); }
+        this.storage = storage;
+        this.list    = ListStore.create(storage, collection);
     }
 
 
     // ******************** Methods *******************************************
+    public ListStorage getStorage() { return storage; }
+
     @Override public T get(final int index) { return list.get(index); }
 
     @Override public T set(final int index, final T element) {
-        final List<T> removedElements = List.of(list.get(index));
-        final List<T> addedElements   = List.of(list.set(index, element));
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.CHANGED, addedElements, removedElements));
-        return addedElements.get(0);
+        final T oldElement = list.set(index, element);
+        notifyElement(ListChangeEvt.CHANGED, index, index + 1, element, oldElement);
+        return oldElement;
     }
 
 
     @Override public boolean add(final T element) {
-        final boolean result = list.add(element);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, result ? List.of(element) : List.of(), List.of()));
-        return result;
+        final int index = list.addAndGetIndex(element);
+        notifyElement(ListChangeEvt.ADDED, index, index + 1, element, NONE);
+        return true;
     }
 
     @Override public void add(final int index, final T element) {
         list.add(index, element);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, List.of(element), List.of()));
+        notifyElement(ListChangeEvt.ADDED, index, index + 1, element, NONE);
     }
 
     @Override public boolean addAll(final Collection<? extends T> collection) {
-        final boolean result = list.addAll(collection);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, result ? new ArrayList<>(collection) : List.of(), List.of()));
-        return result;
+        final List<T> addedElements = toList(collection);
+        final int     index         = list.addAllAndGetIndex(addedElements);
+        if (index < 0) {
+            notifyElements(ListChangeEvt.ADDED, -1, -1, null, null);
+            return false;
+        }
+        notifyElements(ListChangeEvt.ADDED, index, index + addedElements.size(), addedElements, null);
+        return true;
     }
 
     @Override public boolean addAll(final int index, final Collection<? extends T> collection) {
-        final boolean result = list.addAll(index, collection);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, result ? new ArrayList<>(collection) : List.of(), List.of()));
+        final List<T> addedElements = toList(collection);
+        final boolean result        = list.addAll(index, addedElements);
+        if (result) {
+            notifyElements(ListChangeEvt.ADDED, index, index + addedElements.size(), addedElements, null);
+        } else {
+            notifyElements(ListChangeEvt.ADDED, -1, -1, null, null);
+        }
         return result;
     }
 
     public boolean addIfAbsent(final T element) {
         final boolean result = list.addIfAbsent(element);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, result ? List.of(element) : List.of(), List.of()));
+        if (result) {
+            notifyElement(ListChangeEvt.ADDED, -1, -1, element, NONE);
+        } else {
+            notifyElements(ListChangeEvt.ADDED, -1, -1, null, null);
+        }
         return result;
     }
 
     public int addAllAbsent(final Collection<T> collection) {
-        final List<T> addedElements = list.stream().filter(element -> !collection.contains(element)).collect(Collectors.toList());
-        final int result = list.addAllAbsent(collection);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.ADDED, addedElements, List.of()));
+        final List<T> addedElements = dispatcher.hasObservers(ListChangeEvt.ADDED) ? collection.stream().distinct().filter(element -> !list.contains(element)).collect(Collectors.toList()) : null;
+        final int     result        = list.addAllAbsent(collection);
+        notifyElements(ListChangeEvt.ADDED, -1, -1, addedElements, null);
         return result;
     }
 
 
     @Override public T remove(final int index) {
         final T element = list.remove(index);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, List.of(), List.of(element)));
+        notifyElement(ListChangeEvt.REMOVED, index, index, NONE, element);
         return element;
     }
 
     @Override public boolean remove(final Object obj) {
-        final boolean result          = list.remove(obj);
-        final List<T> removedElements = new ArrayList<>();
-        if (result) { removedElements.add((T) obj); }
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, List.of(), removedElements));
-        return result;
+        final int index = list.removeAndGetIndex(obj);
+        if (index < 0) {
+            notifyElements(ListChangeEvt.REMOVED, -1, -1, null, null);
+            return false;
+        }
+        notifyElement(ListChangeEvt.REMOVED, index, index, NONE, obj);
+        return true;
     }
 
     @Override public boolean removeAll(final Collection<?> collection) {
-        final boolean result = list.removeAll(collection);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, List.of(), result ? new ArrayList<>((Collection<? extends T>) collection) : List.of()));
-        return result;
+        Objects.requireNonNull(collection);
+        if (!dispatcher.hasObservers(ListChangeEvt.REMOVED)) { return list.removeAll(collection); }
+        return removeMatching(collection::contains, true);
     }
 
+    /**
+     * Removes all elements. The removed elements will be handed over to the observers
+     * without copying them, so no copy of the list will be created.
+     */
     @Override public void clear() {
-        final ObservableList<T> clone = clone();
-        list.clear();
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, List.of(), clone));
+        if (!dispatcher.hasObservers(ListChangeEvt.REMOVED)) {
+            list.clear();
+            return;
+        }
+        final List<T> removedElements = list.clearAndGet();
+        notifyElements(ListChangeEvt.REMOVED, 0, 0, null, removedElements);
     }
 
 
     @Override public boolean retainAll(final Collection<?> collection) {
-        final ObservableList<T> clone           = clone();
-        final boolean           result          = list.retainAll(collection);
-        final List<T>           removedElements = clone.stream().filter(element -> !list.contains(element)).collect(Collectors.toList());
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, List.of(), removedElements));
-        return result;
+        Objects.requireNonNull(collection);
+        if (!dispatcher.hasObservers(ListChangeEvt.REMOVED)) { return list.retainAll(collection); }
+        return removeMatching(element -> !collection.contains(element), true);
     }
 
 
@@ -173,6 +216,9 @@ public class ObservableList<T> implements List<T>, RandomAccess, Cloneable {
     @Override public Spliterator<T> spliterator() { return list.spliterator(); }
 
 
+    /**
+     * With the thread safe storages the returned list is an unmodifiable snapshot of the given range
+     */
     @Override public List<T> subList(final int fromIndex, final int toIndex) { return list.subList(fromIndex, toIndex); }
 
 
@@ -182,9 +228,7 @@ public class ObservableList<T> implements List<T>, RandomAccess, Cloneable {
 
     @Override public ObservableList<T> clone() {
         try {
-            ObservableList<T> clone = new ObservableList<>();
-            clone.addAll(list);
-            return clone;
+            return new ObservableList<>(list.snapshot(), storage);
         } catch (Exception e) {
             throw new InternalError();
         }
@@ -194,53 +238,252 @@ public class ObservableList<T> implements List<T>, RandomAccess, Cloneable {
     public void forEach(final Consumer<? super T> action) { list.forEach(action); }
 
     public boolean removeIf(final Predicate<? super T> filter) {
-        final boolean result = list.removeIf(filter);
-        if (result) { fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.REMOVED, null, null)); }
-        return result;
+        Objects.requireNonNull(filter);
+        if (!dispatcher.hasObservers(ListChangeEvt.REMOVED)) { return list.removeIf(filter); }
+        return removeMatching(filter, false);
     }
 
+    /**
+     * Replaces every element with the result of the given operator and fires one CHANGED
+     * event for the whole list that contains the new elements as added elements and the
+     * old elements as removed elements
+     * @param operator
+     */
     public void replaceAll(final UnaryOperator<T> operator) {
-        list.replaceAll(operator);
-        fireListChangeEvt(new ListChangeEvt<>(ObservableList.this, ListChangeEvt.CHANGED, null, null));
+        Objects.requireNonNull(operator);
+        if (!dispatcher.hasObservers(ListChangeEvt.CHANGED)) {
+            list.replaceAll(operator);
+            return;
+        }
+        final List<T> newElements = new ArrayList<>(list.size());
+        final List<T> oldElements = list.replaceAllAndGet(element -> {
+            final T newElement = operator.apply(element);
+            newElements.add(newElement);
+            return newElement;
+        });
+        notifyElements(ListChangeEvt.CHANGED, 0, oldElements.size(), newElements, oldElements);
     }
 
-    public void sort(final Comparator<? super T> comparator) { list.sort(comparator); }
+    /**
+     * Sorts the list and fires a PERMUTATED event that contains the new index of every element
+     * @param comparator Comparator to sort with, null for the natural ordering
+     */
+    public void sort(final Comparator<? super T> comparator) { sort(comparator, false); }
+
+    /**
+     * Sorts a snapshot of the list with Arrays.parallelSort() and swaps it in atomically.
+     * Fires a PERMUTATED event that contains the new index of every element.
+     * @param comparator Comparator to sort with, null for the natural ordering
+     */
+    public void parallelSort(final Comparator<? super T> comparator) { sort(comparator, true); }
 
 
     @Override public String toString() { return list.toString(); }
 
 
+    /**
+     * If enabled, list changes will be fired with a mutable event that is reused per thread
+     * instead of allocating a new event and payload lists for each change. Observers must
+     * not keep references to the event or its lists after handle() returned.
+     * @param reuseEvts
+     */
+    public void setReuseEvts(final boolean reuseEvts) { this.reuseEvts = reuseEvts; }
+    public boolean isReuseEvts() { return reuseEvts; }
+
+
+    /**
+     * Starts collecting all changes that will be made by the calling thread until the matching
+     * call of endChange(). Calls can be nested, only the outermost endChange() fires the events.
+     * A permutation (e.g. by sort()) cannot be combined with other changes, so the changes collected
+     * so far will be fired before the PERMUTATED event and the batch continues afterwards.
+     */
+    public void beginChange() {
+        if (null == batches) {
+            synchronized (this) {
+                if (null == batches) { batches = new ThreadLocal<>(); }
+            }
+        }
+        ChangeBatch<T> batch = batches.get();
+        if (null == batch) {
+            batch = new ChangeBatch<>();
+            batches.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * Fires one coalesced event per kind of change (REMOVED, ADDED, CHANGED) that has been
+     * made by the calling thread since the outermost call of beginChange().
+     */
+    public void endChange() {
+        final ChangeBatch<T> batch = null == batches ? null : batches.get();
+        if (null == batch) { throw new IllegalStateException("endChange() called without beginChange()"); }
+        if (--batch.depth > 0) { return; }
+        batches.remove();
+        fireBatch(batch);
+    }
+
+    /**
+     * Applies the given changes and fires one coalesced event per kind of change afterwards
+     * @param changes
+     */
+    public void batch(final Consumer<ObservableList<T>> changes) {
+        beginChange();
+        try {
+            changes.accept(this);
+        } finally {
+            endChange();
+        }
+    }
+
+
     // ******************** Event Handling ************************************
-    public void addListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<ListChangeEvt<T>> observer) {
-        if (null == type || null == observer) { return; }
-        if (null == observers) { observers = new ConcurrentHashMap<>(); }
-        if (!observers.containsKey(type)) { observers.put(type, new CopyOnWriteArrayList<>()); }
-        if (observers.get(type).contains(observer)) { return; }
-        observers.get(type).add(observer);
-    }
-    public void removeListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<ListChangeEvt<T>> observer) {
-        if (null == observers || null == type || null == observer) { return; }
-        if (observers.containsKey(type)) {
-            if (observers.get(type).contains(observer)) {
-                observers.get(type).remove(observer);
+    public void addListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<ListChangeEvt<T>> observer) { dispatcher.addObserver(type, observer); }
+    public void addWeakListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<ListChangeEvt<T>> observer) { dispatcher.addWeakObserver(type, observer); }
+    public void removeListChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<ListChangeEvt<T>> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllListChangeObservers() { dispatcher.removeAllObservers(); }
+
+    public int getNoOfListChangeObservers() { return dispatcher.getNoOfObservers(); }
+
+    // Observers registered on a super type (e.g. ListChangeEvt.ANY or ChangeEvt.ANY) will also be called
+    public void fireListChangeEvt(final ListChangeEvt<T> evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    private void sort(final Comparator<? super T> comparator, final boolean parallel) {
+        if (!dispatcher.hasObservers(ListChangeEvt.PERMUTATED)) {
+            if (parallel) {
+                list.parallelSort(comparator);
+            } else {
+                list.sort(comparator);
+            }
+            return;
+        }
+        final int[] newIndices = list.sortAndGetPermutation(comparator, parallel);
+        if (newIndices.length == 0) { return; }
+        final ChangeBatch<T> batch = currentBatch();
+        if (null != batch) {
+            // Permutations cannot be combined with the other changes of a batch, so the changes so far will be fired first
+            batches.remove();
+            try {
+                fireBatch(batch);
+            } finally {
+                batch.reset();
+                batches.set(batch);
+            }
+        }
+        dispatcher.fire(new ListChangeEvt<>(ObservableList.this, (EvtType) ListChangeEvt.PERMUTATED, EvtPriority.NORMAL, 0, newIndices.length, newIndices));
+    }
+
+    private void fireBatch(final ChangeBatch<T> batch) {
+        for (int kind : ChangeBatch.FIRING_ORDER) {
+            if (batch.touched[kind]) { notifyElements(ChangeBatch.TYPES[kind], -1, -1, batch.added[kind], batch.removed[kind]); }
+        }
+    }
+
+    // Removes the matching elements in one pass and fires them as one REMOVED event
+    private boolean removeMatching(final Predicate<? super T> filter, final boolean notifyIfUnchanged) {
+        final List<T> removedElements = list.removeIfAndGet(filter);
+        final boolean result          = !removedElements.isEmpty();
+        if (result || notifyIfUnchanged) { notifyElements(ListChangeEvt.REMOVED, -1, -1, null, removedElements); }
+        return result;
+    }
+
+    // Single element changes at [from, to), NONE marks a missing element
+    private void notifyElement(final EvtType<ListChangeEvt> type, final int from, final int to, final Object added, final Object removed) {
+        if (!dispatcher.hasObservers(type)) { return; }
+        final ChangeBatch<T> batch = currentBatch();
+        if (null != batch) {
+            batch.record(type, added, removed);
+            return;
+        }
+        final ReusableListChangeEvt<T> evt = reuseEvts ? ReusableListChangeEvt.acquire(this, type) : null;
+        if (null == evt) {
+            final List<T> addedElements   = NONE == added   ? List.of() : Collections.singletonList((T) added);
+            final List<T> removedElements = NONE == removed ? List.of() : Collections.singletonList((T) removed);
+            dispatcher.fire(new ListChangeEvt<>(ObservableList.this, (EvtType) type, EvtPriority.NORMAL, from, to, addedElements, removedElements));
+        } else {
+            try {
+                evt.range(from, to);
+                if (NONE != added)   { evt.addedView().set((T) added); }
+                if (NONE != removed) { evt.removedView().set((T) removed); }
+                dispatcher.fire(evt);
+            } finally {
+                evt.release();
+            }
+        }
+    }
+
+    private void notifyElements(final EvtType<ListChangeEvt> type, final int from, final int to, final List<T> added, final List<T> removed) {
+        if (!dispatcher.hasObservers(type)) { return; }
+        final ChangeBatch<T> batch = currentBatch();
+        if (null != batch) {
+            batch.recordAll(type, added, removed);
+            return;
+        }
+        final ReusableListChangeEvt<T> evt = reuseEvts ? ReusableListChangeEvt.acquire(this, type) : null;
+        if (null == evt) {
+            dispatcher.fire(new ListChangeEvt<>(ObservableList.this, (EvtType) type, EvtPriority.NORMAL, from, to, added, removed));
+        } else {
+            try {
+                evt.range(from, to);
+                evt.addedView().setAll(added);
+                evt.removedView().setAll(removed);
+                dispatcher.fire(evt);
+            } finally {
+                evt.release();
             }
         }
     }
-    public void removeAllListChangeObservers() {
-        if (null == observers) { return; }
-        observers.clear();
+
+    private ChangeBatch<T> currentBatch() { return null == batches ? null : batches.get(); }
+
+    // The events keep the list of added elements, so it must not be the collection of the caller
+    private static <T> List<T> toList(final Collection<? extends T> collection) {
+        return Collections.unmodifiableList(Arrays.asList((T[]) collection.toArray()));
     }
 
-    public void fireListChangeEvt(final ListChangeEvt<T> evt) {
-        if (null == observers) { return; }
-        // Call all observers that have subscribed to specific event types
-        observers.entrySet().stream()
-                            .filter(entry -> !entry.getKey().equals(ListChangeEvt.ANY))
-                            .filter(entry -> entry.getKey().equals(evt.getEvtType()))
-                            .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-        // Call all observers that have subscribed to ANY event type
-        observers.entrySet().stream()
-                            .filter(entry -> entry.getKey().equals(ListChangeEvt.ANY))
-                            .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
+
+    // ******************** Inner Classes *************************************
+    private static final class ChangeBatch<T> {
+        private static final int                      ADDED        = 0;
+        private static final int                      REMOVED      = 1;
+        private static final int                      CHANGED      = 2;
+        private static final int[]                    FIRING_ORDER = { REMOVED, ADDED, CHANGED };
+        private static final EvtType<ListChangeEvt>[] TYPES        = new EvtType[] { ListChangeEvt.ADDED, ListChangeEvt.REMOVED, ListChangeEvt.CHANGED };
+        private        final List<T>[]                added        = new List[] { new ArrayList<>(), new ArrayList<>(), new ArrayList<>() };
+        private        final List<T>[]                removed      = new List[] { new ArrayList<>(), new ArrayList<>(), new ArrayList<>() };
+        private        final boolean[]                touched      = new boolean[3];
+        private              int                      depth;
+
+
+        void record(final EvtType<ListChangeEvt> type, final Object addedElement, final Object removedElement) {
+            final int kind = kindOf(type);
+            if (NONE != addedElement)   { added[kind].add((T) addedElement); }
+            if (NONE != removedElement) { removed[kind].add((T) removedElement); }
+            touched[kind] = true;
+        }
+
+        void recordAll(final EvtType<ListChangeEvt> type, final List<T> addedElements, final List<T> removedElements) {
+            final int kind = kindOf(type);
+            if (null != addedElements)   { added[kind].addAll(addedElements); }
+            if (null != removedElements) { removed[kind].addAll(removedElements); }
+            touched[kind] = true;
+        }
+
+        // The lists have been handed to the fired events, so they are replaced instead of cleared
+        void reset() {
+            for (int kind = 0 ; kind < touched.length ; kind++) {
+                added[kind]   = new ArrayList<>();
+                removed[kind] = new ArrayList<>();
+                touched[kind] = false;
+            }
+        }
+
+        private static int kindOf(final EvtType<ListChangeEvt> type) {
+            if (ListChangeEvt.ADDED.equals(type))   { return ADDED; }
+            if (ListChangeEvt.REMOVED.equals(type)) { return REMOVED; }
+            return CHANGED;
+        }
     }
 }
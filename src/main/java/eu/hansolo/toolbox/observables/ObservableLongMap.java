@@ -0,0 +1,355 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtPriority;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.LongMapChangeEvt;
+
+import java.util.Arrays;
+
+
+/**
+ * Observable map from long keys to long values that stores its entries in primitive
+ * arrays (open addressing with linear probing) instead of boxed Long objects.
+ * Missing keys are reported with the noEntryValue of the map (default 0).
+ * Events are fired while the lock of the map is held, so observers get them in the
+ * order of the changes, but other writers have to wait until all observers returned.
+ */
+public class ObservableLongMap {
+    private static final int                             DEFAULT_CAPACITY = 16;
+    private static final float                           LOAD_FACTOR      = 0.75f;
+    private        final Object                          lock;
+    private        final EvtDispatcher<LongMapChangeEvt> dispatcher;
+    private        final long                            noEntryValue;
+    private              long[]                          keys;
+    private              long[]                          values;
+    private              boolean[]                       used;
+    private              int                             size;
+    private              int                             threshold;
+
+
+    // ******************** Constructors **************************************
+    public ObservableLongMap() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+    public ObservableLongMap(final int capacity) {
+        this(capacity, 0);
+    }
+    public ObservableLongMap(final int capacity, final long noEntryValue) {
+        if (capacity < 0) { throw new IllegalArgumentException("capacity cannot be negative"); }
+        this.lock         = new Object();
+        this.dispatcher   = new EvtDispatcher<>();
+        this.noEntryValue = noEntryValue;
+        allocate(tableSizeFor(capacity));
+    }
+
+
+    // ******************** Methods *******************************************
+    public long getNoEntryValue() { return noEntryValue; }
+
+    public long get(final long key) { return getOrDefault(key, noEntryValue); }
+
+    public long getOrDefault(final long key, final long defaultValue) {
+        synchronized (lock) {
+            final int slot = find(key);
+            return slot < 0 ? defaultValue : values[slot];
+        }
+    }
+
+    public boolean containsKey(final long key) {
+        synchronized (lock) { return find(key) >= 0; }
+    }
+
+    public boolean containsValue(final long value) {
+        synchronized (lock) {
+            for (int i = 0 ; i < used.length ; i++) {
+                if (used[i] && values[i] == value) { return true; }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Associates the given value with the given key
+     * @param key
+     * @param value
+     * @return the previous value of the key or the noEntryValue if the key was not present
+     */
+    public long put(final long key, final long value) {
+        final long    oldValue;
+        final boolean added;
+        synchronized (lock) {
+            final int slot = find(key);
+            added    = slot < 0;
+            oldValue = added ? noEntryValue : values[slot];
+            if (added) {
+                insert(key, value);
+            } else {
+                values[slot] = value;
+            }
+            if (added) {
+                notify(LongMapChangeEvt.ADDED, key, value, oldValue);
+            } else if (oldValue != value) {
+                notify(LongMapChangeEvt.MODIFIED, key, value, oldValue);
+            }
+        }
+        return oldValue;
+    }
+
+    public long putIfAbsent(final long key, final long value) {
+        synchronized (lock) {
+            final int slot = find(key);
+            if (slot >= 0) { return values[slot]; }
+            insert(key, value);
+            notify(LongMapChangeEvt.ADDED, key, value, noEntryValue);
+        }
+        return noEntryValue;
+    }
+
+    /**
+     * Adds the given increment to the value of the given key. If the key is not present
+     * it will be added with the noEntryValue plus the increment.
+     * @param key
+     * @param increment
+     * @return the new value of the key
+     */
+    public long addTo(final long key, final long increment) {
+        final long    oldValue;
+        final long    newValue;
+        final boolean added;
+        synchronized (lock) {
+            final int slot = find(key);
+            added    = slot < 0;
+            oldValue = added ? noEntryValue : values[slot];
+            newValue = oldValue + increment;
+            if (added) {
+                insert(key, newValue);
+            } else {
+                values[slot] = newValue;
+            }
+            if (added) {
+                notify(LongMapChangeEvt.ADDED, key, newValue, oldValue);
+            } else if (increment != 0) {
+                notify(LongMapChangeEvt.MODIFIED, key, newValue, oldValue);
+            }
+        }
+        return newValue;
+    }
+
+    /**
+     * Puts all given key value pairs and fires one ADDED and one MODIFIED event at most
+     * @param keys
+     * @param values
+     */
+    public void putAll(final long[] keys, final long[] values) {
+        if (keys.length != values.length) { throw new IllegalArgumentException("keys and values must have the same length"); }
+        final ObservableLongMap added    = new ObservableLongMap(0, noEntryValue);
+        final ObservableLongMap modified = new ObservableLongMap(0, noEntryValue);
+        final ObservableLongMap oldOnes  = new ObservableLongMap(0, noEntryValue);
+        final boolean           notify   = dispatcher.hasObservers(LongMapChangeEvt.ADDED) || dispatcher.hasObservers(LongMapChangeEvt.MODIFIED);
+        synchronized (lock) {
+            for (int i = 0 ; i < keys.length ; i++) {
+                final int slot = find(keys[i]);
+                if (slot < 0) {
+                    insert(keys[i], values[i]);
+                    if (notify) { added.put(keys[i], values[i]); }
+                } else {
+                    final long oldValue = this.values[slot];
+                    this.values[slot] = values[i];
+                    if (notify && oldValue != values[i] && !added.containsKey(keys[i])) {
+                        modified.put(keys[i], values[i]);
+                        oldOnes.putIfAbsent(keys[i], oldValue);
+                    } else if (notify && added.containsKey(keys[i])) {
+                        added.put(keys[i], values[i]);
+                    }
+                }
+            }
+            if (!added.isEmpty()) {
+                final long[] addedKeys = added.keys();
+                final long[] noEntries = new long[addedKeys.length];
+                Arrays.fill(noEntries, noEntryValue);
+                fireLongMapChangeEvt(new LongMapChangeEvt(this, LongMapChangeEvt.ADDED, EvtPriority.NORMAL, addedKeys, valuesOf(added, addedKeys), noEntries));
+            }
+            if (!modified.isEmpty()) {
+                final long[] modifiedKeys = modified.keys();
+                fireLongMapChangeEvt(new LongMapChangeEvt(this, LongMapChangeEvt.MODIFIED, EvtPriority.NORMAL, modifiedKeys, valuesOf(modified, modifiedKeys), valuesOf(oldOnes, modifiedKeys)));
+            }
+        }
+    }
+
+    /**
+     * Removes the given key
+     * @param key
+     * @return the removed value or the noEntryValue if the key was not present
+     */
+    public long remove(final long key) {
+        final long value;
+        synchronized (lock) {
+            final int slot = find(key);
+            if (slot < 0) { return noEntryValue; }
+            value = values[slot];
+            delete(slot);
+            notify(LongMapChangeEvt.REMOVED, key, value, value);
+        }
+        return value;
+    }
+
+    public void clear() {
+        final long[] removedKeys;
+        final long[] removedValues;
+        synchronized (lock) {
+            if (size == 0) { return; }
+            final boolean notify = dispatcher.hasObservers(LongMapChangeEvt.REMOVED);
+            removedKeys   = notify ? keys() : null;
+            removedValues = notify ? valuesOf(this, removedKeys) : null;
+            Arrays.fill(used, false);
+            size = 0;
+            if (null != removedKeys) { fireLongMapChangeEvt(new LongMapChangeEvt(this, LongMapChangeEvt.REMOVED, EvtPriority.NORMAL, removedKeys, removedValues, removedValues)); }
+        }
+    }
+
+    public int size() {
+        synchronized (lock) { return size; }
+    }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    public long[] keys() {
+        synchronized (lock) {
+            final long[] result = new long[size];
+            for (int i = 0, j = 0 ; i < used.length ; i++) {
+                if (used[i]) { result[j++] = keys[i]; }
+            }
+            return result;
+        }
+    }
+
+    public long[] values() {
+        synchronized (lock) {
+            final long[] result = new long[size];
+            for (int i = 0, j = 0 ; i < used.length ; i++) {
+                if (used[i]) { result[j++] = values[i]; }
+            }
+            return result;
+        }
+    }
+
+    @Override public String toString() {
+        synchronized (lock) {
+            final StringBuilder builder = new StringBuilder("{");
+            for (int i = 0 ; i < used.length ; i++) {
+                if (!used[i]) { continue; }
+                if (builder.length() > 1) { builder.append(", "); }
+                builder.append(keys[i]).append("=").append(values[i]);
+            }
+            return builder.append("}").toString();
+        }
+    }
+
+
+    // ******************** Event Handling ************************************
+    public void addLongMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<LongMapChangeEvt> observer) { dispatcher.addObserver(type, observer); }
+    public void removeLongMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<LongMapChangeEvt> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllLongMapChangeObservers() { dispatcher.removeAllObservers(); }
+
+    public void fireLongMapChangeEvt(final LongMapChangeEvt evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    private void notify(final EvtType<LongMapChangeEvt> type, final long key, final long value, final long oldValue) {
+        if (dispatcher.hasObservers(type)) { fireLongMapChangeEvt(new LongMapChangeEvt(this, type, key, value, oldValue)); }
+    }
+
+    private int slotOf(final long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private int find(final long key) {
+        final int mask = keys.length - 1;
+        for (int slot = slotOf(key) ; used[slot] ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) { return slot; }
+        }
+        return -1;
+    }
+
+    private void insert(final long key, final long value) {
+        if (size >= threshold) { rehash(keys.length << 1); }
+        final int mask = keys.length - 1;
+        int slot = slotOf(key);
+        while (used[slot]) { slot = (slot + 1) & mask; }
+        keys[slot]   = key;
+        values[slot] = value;
+        used[slot]   = true;
+        size++;
+    }
+
+    // Backward shift deletion, moves following entries of the probe sequence into the gap so no tombstones are needed
+    private void delete(final int slot) {
+        final int mask = keys.length - 1;
+        int gap  = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (!used[next]) { break; }
+            final int home = slotOf(keys[next]);
+            final boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                keys[gap]   = keys[next];
+                values[gap] = values[next];
+                gap         = next;
+            }
+        }
+        used[gap] = false;
+        size--;
+    }
+
+    private void rehash(final int capacity) {
+        final long[]    oldKeys   = keys;
+        final long[]    oldValues = values;
+        final boolean[] oldUsed   = used;
+        allocate(capacity);
+        for (int i = 0 ; i < oldUsed.length ; i++) {
+            if (oldUsed[i]) { insert(oldKeys[i], oldValues[i]); }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        this.keys      = new long[capacity];
+        this.values    = new long[capacity];
+        this.used      = new boolean[capacity];
+        this.size      = 0;
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(final int capacity) {
+        final int minSize = (int) Math.ceil(Math.max(2, capacity) / LOAD_FACTOR);
+        return Integer.highestOneBit(minSize - 1) << 1;
+    }
+
+    private static long[] valuesOf(final ObservableLongMap map, final long[] keys) {
+        final long[] result = new long[keys.length];
+        for (int i = 0 ; i < keys.length ; i++) { result[i] = map.get(keys[i]); }
+        return result;
+    }
+}
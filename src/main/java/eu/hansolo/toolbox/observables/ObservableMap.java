@@ -19,6 +19,7 @@
 package eu.hansolo.toolbox.observables;
 
 import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
 import eu.hansolo.toolbox.evt.EvtObserver;
 import eu.hansolo.toolbox.evt.EvtType;
 import eu.hansolo.toolbox.evt.type.MapChangeEvt;
@@ -28,10 +29,10 @@ import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentHashMap.KeySetView;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -48,10 +49,12 @@ import java.util.function.ToLongFunction;
 
 
 public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
-    private static final int                                                               DEFAULT_CAPACITY    = 16;
-    private static final float                                                             DEFAULT_LOAD_FACTOR = 0.75f;
-    private        final ConcurrentHashMap<K,V>                                            map;
-    private              Map<EvtType<? extends Evt>, List<EvtObserver<MapChangeEvt<K,V>>>> observers;
+    private static final int                                DEFAULT_CAPACITY    = 16;
+    private static final float                              DEFAULT_LOAD_FACTOR = 0.75f;
+    private        final ConcurrentHashMap<K,V>             map;
+    private        final EvtDispatcher<MapChangeEvt<K,V>>   dispatcher          = new EvtDispatcher<>();
+    private volatile     boolean                            reuseEvts;
+    private volatile     ThreadLocal<ChangeBatch<K,V>>      batches;
 
 
     // ******************** Constructors **************************************
@@ -75,40 +78,45 @@ public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
     // ******************** Methods *******************************************
     public V get(final Object key) { return this.map.get(key); }
 
+    // The ConcurrentHashMap does not allow null values, so the previous value tells if the key was added or modified
     public V put(K key, V value) {
-        final V result;
-        if (this.map.containsKey(key)) {
-            result = this.map.put(key, value);
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.MODIFIED, List.of(), List.of(Map.entry(key, value)), List.of()));
-            return result;
-        } else {
-            result = this.map.put(key, value);
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.ADDED, List.of(Map.entry(key, value)), List.of(), List.of()));
-            return result;
-        }
+        final V result = this.map.put(key, value);
+        notifyEntry(null == result ? MapChangeEvt.ADDED : MapChangeEvt.MODIFIED, key, value);
+        return result;
     }
 
+    /**
+     * Puts all entries of the given map and fires one coalesced event per kind of change
+     * (ADDED, MODIFIED) instead of one event per entry
+     * @param map
+     */
     public void putAll(final Map<? extends K, ? extends V> map) {
-        //this.map.putAll(map);
-        map.entrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+        beginChange();
+        try {
+            map.entrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+        } finally {
+            endChange();
+        }
     }
 
     public V remove(final Object key) {
-        final V result;
-        if (map.containsKey(key)) {
-            final Entry<K,V> removedEntry = Map.entry((K) key, map.get(key));
-            result = map.remove(key);
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.REMOVED, List.of(), List.of(), List.of(removedEntry)));
-        } else {
-            result = map.remove(key);
-        }
+        final V result = map.remove(key);
+        if (null != result) { notifyEntry(MapChangeEvt.REMOVED, (K) key, result); }
         return result;
     }
 
+    // Removes key by key so that only entries that have really been removed by this call will be reported
     public void clear() {
-        List<Entry<K,V>> removedEntries = new ArrayList<>(entrySet());
-        map.clear();
-        fireMapChangeEvt(new MapChangeEvt<K,V>(ObservableMap.this, MapChangeEvt.REMOVED, List.of(), List.of(), removedEntries));
+        if (!dispatcher.hasObservers(MapChangeEvt.REMOVED)) {
+            map.clear();
+            return;
+        }
+        final List<Entry<K,V>> removedEntries = new ArrayList<>();
+        for (K key : map.keySet()) {
+            final V value = map.remove(key);
+            if (null != value) { removedEntries.add(Map.entry(key, value)); }
+        }
+        notifyEntries(MapChangeEvt.REMOVED, removedEntries);
     }
 
 
@@ -139,22 +147,18 @@ public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
     public boolean isEmpty() { return this.map.isEmpty(); }
 
 
-    @Override public V getOrDefault(final Object key, final V defaultValue) { return getOrDefault(key, defaultValue); }
+    @Override public V getOrDefault(final Object key, final V defaultValue) { return map.getOrDefault(key, defaultValue); }
 
     @Override public V putIfAbsent(final K key, final V value) {
         final V result = map.putIfAbsent(key, value);
-        if (null == result) {
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.ADDED, List.of(Map.entry(key, value)), List.of(), List.of()));
-        } else {
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.MODIFIED, List.of(), List.of(Map.entry(key, result)), List.of()));
-        }
+        if (null == result) { notifyEntry(MapChangeEvt.ADDED, key, value); }
         return result;
     }
 
     @Override public boolean remove(final Object key, final Object value) {
         final boolean result = map.remove(key, value);
         if (result) {
-            fireMapChangeEvt(new MapChangeEvt<K,V>(ObservableMap.this, MapChangeEvt.REMOVED, List.of(), List.of(), List.of((Entry<K, V>) Map.entry(key, value))));
+            notifyEntry(MapChangeEvt.REMOVED, (K) key, (V) value);
         }
         return result;
     }
@@ -162,26 +166,56 @@ public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
     @Override public boolean replace(final K key, final V oldValue, final V newValue) {
         final boolean result = map.replace(key, oldValue, newValue);
         if (result) {
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.MODIFIED, List.of(), List.of(Map.entry(key, newValue)), List.of()));
+            notifyEntry(MapChangeEvt.MODIFIED, key, newValue);
         }
         return result;
     }
 
     @Override public V replace(final K key, final V value) {
         final V result = map.replace(key, value);
-        if (map.containsKey(key)) {
-            fireMapChangeEvt(new MapChangeEvt<>(ObservableMap.this, MapChangeEvt.MODIFIED, List.of(), List.of(Map.entry(key, value)), List.of()));
-        }
+        if (null != result) { notifyEntry(MapChangeEvt.MODIFIED, key, value); }
         return result;
     }
 
-    @Override public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) { return map.computeIfAbsent(key, mappingFunction); }
+    /*
+     * The compound operations below are as atomic as the ones of the ConcurrentHashMap.
+     * The functions will be wrapped to record the old and the new value while the
+     * ConcurrentHashMap holds the lock of the key, the events will be fired afterwards.
+     * Returning null removes the entry, returning the same instance leaves it unchanged.
+     */
+    @Override public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        if (!dispatcher.hasObservers()) { return map.computeIfAbsent(key, mappingFunction); }
+        final Remapping<V> remapping = new Remapping<>();
+        final V            result    = map.computeIfAbsent(key, k -> remapping.record(null, mappingFunction.apply(k)));
+        notifyRemapping(key, remapping);
+        return result;
+    }
 
-    @Override public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) { return map.computeIfPresent(key, remappingFunction); }
+    @Override public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!dispatcher.hasObservers()) { return map.computeIfPresent(key, remappingFunction); }
+        final Remapping<V> remapping = new Remapping<>();
+        final V            result    = map.computeIfPresent(key, (k, oldValue) -> remapping.record(oldValue, remappingFunction.apply(k, oldValue)));
+        notifyRemapping(key, remapping);
+        return result;
+    }
 
-    @Override public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) { return map.compute(key, remappingFunction); }
+    @Override public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!dispatcher.hasObservers()) { return map.compute(key, remappingFunction); }
+        final Remapping<V> remapping = new Remapping<>();
+        final V            result    = map.compute(key, (k, oldValue) -> remapping.record(oldValue, remappingFunction.apply(k, oldValue)));
+        notifyRemapping(key, remapping);
+        return result;
+    }
 
-    @Override public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) { return map.merge(key, value, remappingFunction); }
+    // The remapping function will only be called for present keys, otherwise the given value has been added
+    @Override public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (!dispatcher.hasObservers()) { return map.merge(key, value, remappingFunction); }
+        final Remapping<V> remapping = new Remapping<>();
+        final V            result    = map.merge(key, value, (oldValue, v) -> remapping.record(oldValue, remappingFunction.apply(oldValue, v)));
+        if (!remapping.called) { remapping.record(null, value); }
+        notifyRemapping(key, remapping);
+        return result;
+    }
 
     @Override public void forEach(final BiConsumer<? super K, ? super V> action) { map.forEach(action); }
 
@@ -295,7 +329,24 @@ public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
         return map.reduceEntriesToInt(parallelismThreshold, transformer, basis, reducer);
     }
 
-    @Override public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) { map.replaceAll(function); }
+    /**
+     * Replaces the value of every entry atomically per key and fires one MODIFIED
+     * event that contains all entries whose value has been replaced
+     * @param function
+     */
+    @Override public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        if (!dispatcher.hasObservers(MapChangeEvt.MODIFIED)) {
+            map.replaceAll(function);
+            return;
+        }
+        beginChange();
+        try {
+            for (K key : map.keySet()) { computeIfPresent(key, (k, v) -> Objects.requireNonNull(function.apply(k, v))); }
+        } finally {
+            endChange();
+        }
+    }
 
     @Override public ObservableMap<K,V> clone() {
         try {
@@ -314,37 +365,181 @@ public class ObservableMap<K,V> implements Map<K,V>, Cloneable {
     @Override public String toString() { return map.toString(); }
 
 
+    /**
+     * If enabled, map changes will be fired with a mutable event that is reused per thread
+     * instead of allocating a new event, entries and payload lists for each change. Observers
+     * must not keep references to the event, its lists or entries after handle() returned.
+     * @param reuseEvts
+     */
+    public void setReuseEvts(final boolean reuseEvts) { this.reuseEvts = reuseEvts; }
+    public boolean isReuseEvts() { return reuseEvts; }
+
+
+    /**
+     * Starts collecting all changes that will be made by the calling thread until the matching
+     * call of endChange(). Calls can be nested, only the outermost endChange() fires the events.
+     */
+    public void beginChange() {
+        if (null == batches) {
+            synchronized (this) {
+                if (null == batches) { batches = new ThreadLocal<>(); }
+            }
+        }
+        ChangeBatch<K,V> batch = batches.get();
+        if (null == batch) {
+            batch = new ChangeBatch<>();
+            batches.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * Fires one coalesced event per kind of change (REMOVED, ADDED, MODIFIED) that has been
+     * made by the calling thread since the outermost call of beginChange().
+     */
+    public void endChange() {
+        final ChangeBatch<K,V> batch = null == batches ? null : batches.get();
+        if (null == batch) { throw new IllegalStateException("endChange() called without beginChange()"); }
+        if (--batch.depth > 0) { return; }
+        batches.remove();
+        for (int kind : ChangeBatch.FIRING_ORDER) {
+            if (batch.touched[kind]) { notifyEntries(ChangeBatch.TYPES[kind], batch.entries[kind]); }
+        }
+    }
+
+    /**
+     * Applies the given changes and fires one coalesced event per kind of change afterwards
+     * @param changes
+     */
+    public void batch(final Consumer<ObservableMap<K,V>> changes) {
+        beginChange();
+        try {
+            changes.accept(this);
+        } finally {
+            endChange();
+        }
+    }
+
+
     // ******************** Event Handling ************************************
-    public void addMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
-        if (null == type || null == observer) { return; }
-        if (null == observers) { this.observers = new ConcurrentHashMap<>(); }
-        if (!observers.containsKey(type)) { observers.put(type, new CopyOnWriteArrayList<>()); }
-        if (observers.get(type).contains(observer)) { return; }
-        observers.get(type).add(observer);
-    }
-    public void removeMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
-        if (null == observers || null == type || null == observer) { return; }
-        if (observers.containsKey(type)) {
-            if (observers.get(type).contains(observer)) {
-                observers.get(type).remove(observer);
+    public void addMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) { dispatcher.addObserver(type, observer); }
+    public void addWeakMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) { dispatcher.addWeakObserver(type, observer); }
+    public void removeMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) { dispatcher.removeObserver(type, observer); }
+    public void removeAllMapChangeObservers() { dispatcher.removeAllObservers(); }
+
+    public int getNoOfMapChangeObservers() { return dispatcher.getNoOfObservers(); }
+
+    // Observers registered on a super type (e.g. MapChangeEvt.ANY or ChangeEvt.ANY) will also be called
+    public void fireMapChangeEvt(final MapChangeEvt<K,V> evt) { dispatcher.fire(evt); }
+
+
+    // ******************** Private Methods ***********************************
+    // The entry will be added to the payload list that belongs to the given type (added, modified or removed)
+    private void notifyEntry(final EvtType<MapChangeEvt> type, final K key, final V value) {
+        if (!dispatcher.hasObservers(type)) { return; }
+        final ChangeBatch<K,V> batch = currentBatch();
+        if (null != batch) {
+            batch.record(type, Map.entry(key, value));
+            return;
+        }
+        final ReusableMapChangeEvt<K,V> evt = reuseEvts ? ReusableMapChangeEvt.acquire(this, type) : null;
+        if (null == evt) {
+            dispatcher.fire(createEvt(type, List.of(Map.entry(key, value))));
+        } else {
+            try {
+                evt.setEntry(key, value);
+                dispatcher.fire(evt);
+            } finally {
+                evt.release();
             }
         }
     }
-    public void removeAllMapChangeObservers() {
-        if (null == observers) { return; }
-        observers.clear();
-    }
-
-    public void fireMapChangeEvt(final MapChangeEvt<K,V> evt) {
-        if (null == observers) { return; }
-        // Call all observers that have subscribed to specific event types
-        observers.entrySet().stream()
-                            .filter(entry -> !entry.getKey().equals(MapChangeEvt.ANY))
-                            .filter(entry -> entry.getKey().equals(evt.getEvtType()))
-                            .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-        // Call all observers that have subscribed to ANY event type
-        observers.entrySet().stream()
-                            .filter(entry -> entry.getKey().equals(MapChangeEvt.ANY))
-                            .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
+
+    private void notifyEntries(final EvtType<MapChangeEvt> type, final List<Entry<K,V>> entries) {
+        if (!dispatcher.hasObservers(type)) { return; }
+        final ChangeBatch<K,V> batch = currentBatch();
+        if (null != batch) {
+            batch.record(type, entries);
+            return;
+        }
+        final ReusableMapChangeEvt<K,V> evt = reuseEvts ? ReusableMapChangeEvt.acquire(this, type) : null;
+        if (null == evt) {
+            dispatcher.fire(createEvt(type, entries));
+        } else {
+            try {
+                evt.setEntries(entries);
+                dispatcher.fire(evt);
+            } finally {
+                evt.release();
+            }
+        }
+    }
+
+    private MapChangeEvt<K,V> createEvt(final EvtType<MapChangeEvt> type, final List<Entry<K,V>> entries) {
+        if (type.isSubTypeOf(MapChangeEvt.REMOVED))  { return new MapChangeEvt<>(ObservableMap.this, type, null, null, entries); }
+        if (type.isSubTypeOf(MapChangeEvt.MODIFIED)) { return new MapChangeEvt<>(ObservableMap.this, type, null, entries, null); }
+        return new MapChangeEvt<>(ObservableMap.this, type, entries, null, null);
+    }
+
+    private void notifyRemapping(final K key, final Remapping<V> remapping) {
+        if (!remapping.called) { return; }
+        final V oldValue = remapping.oldValue;
+        final V newValue = remapping.newValue;
+        if (null == oldValue) {
+            if (null != newValue) { notifyEntry(MapChangeEvt.ADDED, key, newValue); }
+        } else if (null == newValue) {
+            notifyEntry(MapChangeEvt.REMOVED, key, oldValue);
+        } else if (oldValue != newValue) {
+            notifyEntry(MapChangeEvt.MODIFIED, key, newValue);
+        }
+    }
+
+    private ChangeBatch<K,V> currentBatch() { return null == batches ? null : batches.get(); }
+
+
+    // ******************** Inner Classes *************************************
+    // Records the values of a remapping, only used by the thread that called the compound operation
+    private static final class Remapping<V> {
+        private V       oldValue;
+        private V       newValue;
+        private boolean called;
+
+
+        V record(final V oldValue, final V newValue) {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.called   = true;
+            return newValue;
+        }
+    }
+
+    private static final class ChangeBatch<K,V> {
+        private static final int                     ADDED        = 0;
+        private static final int                     MODIFIED     = 1;
+        private static final int                     REMOVED      = 2;
+        private static final int[]                   FIRING_ORDER = { REMOVED, ADDED, MODIFIED };
+        private static final EvtType<MapChangeEvt>[] TYPES        = new EvtType[] { MapChangeEvt.ADDED, MapChangeEvt.MODIFIED, MapChangeEvt.REMOVED };
+        private        final List<Entry<K,V>>[]      entries      = new List[] { new ArrayList<>(), new ArrayList<>(), new ArrayList<>() };
+        private        final boolean[]               touched      = new boolean[3];
+        private              int                     depth;
+
+
+        void record(final EvtType<MapChangeEvt> type, final Entry<K,V> changedEntry) {
+            final int kind = kindOf(type);
+            entries[kind].add(changedEntry);
+            touched[kind] = true;
+        }
+
+        void record(final EvtType<MapChangeEvt> type, final List<Entry<K,V>> changedEntries) {
+            final int kind = kindOf(type);
+            if (null != changedEntries) { entries[kind].addAll(changedEntries); }
+            touched[kind] = true;
+        }
+
+        private static int kindOf(final EvtType<MapChangeEvt> type) {
+            if (type.isSubTypeOf(MapChangeEvt.REMOVED))  { return REMOVED; }
+            if (type.isSubTypeOf(MapChangeEvt.MODIFIED)) { return MODIFIED; }
+            return ADDED;
+        }
     }
 }
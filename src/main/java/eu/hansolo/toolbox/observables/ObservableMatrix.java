@@ -19,29 +19,32 @@
 package eu.hansolo.toolbox.observables;
 
 import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtDispatcher;
 import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtPriority;
 import eu.hansolo.toolbox.evt.EvtType;
 import eu.hansolo.toolbox.evt.type.MatrixChangeEvt;
 import eu.hansolo.toolbox.evt.type.MatrixItemChangeEvt;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 
 public class ObservableMatrix<T> {
     private final    Class<T>                                                               type;
-    private          Map<EvtType<? extends Evt>, List<EvtObserver<MatrixChangeEvt<T>>>>     matrixObservers;
-    private          Map<EvtType<? extends Evt>, List<EvtObserver<MatrixItemChangeEvt<T>>>> itemObservers;
-    private          AtomicReference<T>[][]                                                 matrix;
+    private final    MatrixStorage                                                          storage;
+    private final    EvtDispatcher<MatrixChangeEvt<T>>                                      matrixDispatcher = new EvtDispatcher<>();
+    private final    EvtDispatcher<MatrixItemChangeEvt<T>>                                  itemDispatcher   = new EvtDispatcher<>();
+    private          MatrixStore<T>                                                         store;
+    private final    IndexMap                                                               colIndex;
+    private final    IndexMap                                                               rowIndex;
+    private          MatrixItemIndex<T>                                                     itemIndex;
+    private          int[]                                                                  logicalColOf;
+    private          int[]                                                                  logicalRowOf;
     private volatile int                                                                    cols;
     private volatile int                                                                    rows;
     private          boolean                                                                colsMirrored;
@@ -54,8 +57,25 @@ public class ObservableMatrix<T> {
         this(type, cols, rows, false);
     }
     public ObservableMatrix(Class<T> type, final int cols, final int rows, final boolean resizeMatrixWhenInnerRowOrColIsRemoved) {
+        this(type, cols, rows, resizeMatrixWhenInnerRowOrColIsRemoved, MatrixStorage.ATOMIC);
+    }
+    public ObservableMatrix(Class<T> type, final int cols, final int rows, final MatrixStorage storage) {
+        this(type, cols, rows, false, storage);
+    }
+    /**
+     * Creates a matrix with the given number of columns and rows
+     * @param type Class of the items in the matrix
+     * @param cols Number of columns
+     * @param rows Number of rows
+     * @param resizeMatrixWhenInnerRowOrColIsRemoved If true the matrix will shrink when an inner row or column is removed
+     * @param storage ATOMIC (one AtomicReference per cell), FLAT (one row major array, recommended for large matrices) or SPARSE (only non null items, recommended for mostly empty matrices)
+     */
+    public ObservableMatrix(Class<T> type, final int cols, final int rows, final boolean resizeMatrixWhenInnerRowOrColIsRemoved, final MatrixStorage storage) {
         this.type                                   = type;
-        this.matrix                                 = createArray(type, cols, rows);
+        this.storage                                = storage;
+        this.store                                  = createStore(type, storage, cols, rows);
+        this.colIndex                               = new IndexMap(cols);
+        this.rowIndex                               = new IndexMap(rows);
         this.cols                                   = cols;
         this.rows                                   = rows;
         this.colsMirrored                           = false;
@@ -64,17 +84,17 @@ public class ObservableMatrix<T> {
     }
     public ObservableMatrix(final ObservableMatrix<T> copyFromMatrix) {
         this.type                                   = copyFromMatrix.getType();
-        this.matrix                                 = createArray(type, copyFromMatrix.cols, copyFromMatrix.rows);
+        this.storage                                = copyFromMatrix.getStorage();
+        this.store                                  = createStore(type, storage, copyFromMatrix.cols, copyFromMatrix.rows);
+        this.colIndex                               = new IndexMap(copyFromMatrix.cols);
+        this.rowIndex                               = new IndexMap(copyFromMatrix.rows);
         this.cols                                   = copyFromMatrix.cols;
         this.rows                                   = copyFromMatrix.rows;
         this.colsMirrored                           = copyFromMatrix.colsMirrored;
         this.rowsMirrored                           = copyFromMatrix.rowsMirrored;
         this.resizeMatrixWhenInnerRowOrColIsRemoved = copyFromMatrix.resizeMatrixWhenInnerRowOrColIsRemoved;
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                setItemAt(x, y, copyFromMatrix.getItemAt(x, y));
-            }
-        }
+        copyFromMatrix.copyItemsTo(store);
+        setItemIndexEnabled(null != copyFromMatrix.itemIndex);
     }
 
 
@@ -85,6 +105,12 @@ public class ObservableMatrix<T> {
      */
     public Class<T> getType() { return type; }
 
+    /**
+     * Returns the kind of storage that is used for the matrix elements
+     * @return the kind of storage that is used for the matrix elements
+     */
+    public MatrixStorage getStorage() { return storage; }
+
     /**
      * Returns the given item in the matrix at the given position defined by x and y
      * @param x Column used to return item
@@ -93,7 +119,7 @@ public class ObservableMatrix<T> {
      */
     public T getItemAt(final int x, final int y) {
         if (x < 0 || x > (cols - 1) || y < 0 || y > (rows - 1)) { throw new IllegalArgumentException("cols/rows cannot be smaller than 0/0 or larger than " + (cols - 1) + "/" + (rows - 1)); }
-        return matrix[x][y].get();
+        return store.get(colIndex.get(x), rowIndex.get(y));
     }
 
     /**
@@ -108,20 +134,38 @@ public class ObservableMatrix<T> {
     public void setItemAt(final int x, final int y, final T item, final boolean notify) {
         if (x < 0 || x > (cols - 1) || y < 0 || y > (rows - 1)) { throw new IllegalArgumentException("cols/rows cannot be smaller than 0"); }
 
-        T oldItem = matrix[x][y].get();
-        matrix[x][y].set(item);
+        T oldItem = put(colIndex.get(x), rowIndex.get(y), item);
 
-        if (notify) {
-            if (null == oldItem && item != null) {
-                fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_ADDED, x, y, oldItem, item));
-            } else if (null != oldItem && item == null) {
-                fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_REMOVED, x, y, oldItem, item));
-            } else if (null != oldItem && item != null) {
-                fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_CHANGED, x, y, oldItem, item));
-            } else {
-                return;
+        if (notify) { fireItemChangeEvt(x, y, oldItem, item); }
+    }
+
+    /**
+     * Sets the given item in the matrix at the given position defined by x and y if the cell
+     * currently contains the expected item (compared by identity like AtomicReference)
+     * @param x Column where the given item will be inserted
+     * @param y Row where the given item will be inserted
+     * @param expectedItem Item that is expected in the cell
+     * @param item
+     * @return true if the item was set
+     */
+    public boolean compareAndSetItemAt(final int x, final int y, final T expectedItem, final T item) {
+        return compareAndSetItemAt(x, y, expectedItem, item, true);
+    }
+    public boolean compareAndSetItemAt(final int x, final int y, final T expectedItem, final T item, final boolean notify) {
+        if (x < 0 || x > (cols - 1) || y < 0 || y > (rows - 1)) { throw new IllegalArgumentException("cols/rows cannot be smaller than 0"); }
+        final int                physicalCol = colIndex.get(x);
+        final int                physicalRow = rowIndex.get(y);
+        final MatrixItemIndex<T> index       = itemIndex;
+        if (null == index) {
+            if (!store.compareAndSet(physicalCol, physicalRow, expectedItem, item)) { return false; }
+        } else {
+            synchronized (index) {
+                if (!store.compareAndSet(physicalCol, physicalRow, expectedItem, item)) { return false; }
+                if (expectedItem != item) { index.update(physicalCol, physicalRow, expectedItem, item); }
             }
         }
+        if (notify) { fireItemChangeEvt(x, y, expectedItem, item); }
+        return true;
     }
 
     /**
@@ -133,8 +177,7 @@ public class ObservableMatrix<T> {
     public void removeItemAt(final int x, final int y) { removeItemAt(x, y, true); }
     public void removeItemAt(final int x, final int y, final boolean notify) {
         if (x < 0 || x > (cols - 1) || y < 0 || y > (rows - 1)) { throw new IllegalArgumentException("cols/rows cannot be smaller than 0"); }
-        T oldItem = matrix[x][y].get();
-        matrix[x][y].set(null);
+        T oldItem = put(colIndex.get(x), rowIndex.get(y), null);
         if (notify) {
             fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_REMOVED, x, y, oldItem, null));
         }
@@ -147,21 +190,15 @@ public class ObservableMatrix<T> {
      */
     public void removeItem(final T item) { removeItem(item, true); }
     public void removeItem(final T item, final boolean notify) {
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                T matrixItem = matrix[x][y].get();
-                if (null == matrixItem) {
-                    continue;
-                } else if (matrixItem.equals(item)) {
-                    matrix[x][y] = null;
-                    if (notify) {
-                        fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_REMOVED, x, y, item, null));
-                    }
-                    checkForRemovedColumnsAndRows(x, y, notify);
-                    return;
-                }
-            }
+        final int[] indices = indexOf(item);
+        if (null == indices) { return; }
+        final int x = indices[0];
+        final int y = indices[1];
+        put(colIndex.get(x), rowIndex.get(y), null);
+        if (notify) {
+            fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_REMOVED, x, y, item, null));
         }
+        checkForRemovedColumnsAndRows(x, y, notify);
     }
 
     /**
@@ -170,12 +207,8 @@ public class ObservableMatrix<T> {
      * @return true if the given item will be found in the matrix
      */
     public boolean contains(final T item) {
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                if (null != matrix[x][y] && matrix[x][y].equals(item)) { return true; }
-            }
-        }
-        return false;
+        if (null == item) { return false; }
+        return null == itemIndex ? null != store.indexOf(item) : itemIndex.contains(item);
     }
 
     /**
@@ -187,39 +220,139 @@ public class ObservableMatrix<T> {
      * @return the indices of the given item as an array of in[]
      */
     public int[] getIndicesOf(final T item) {
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                if (matrix[x][y].equals(item)) { return new int[]{x, y}; }
-            }
-        }
-        return new int[]{-1, - 1};
+        final int[] indices = indexOf(item);
+        return null == indices ? new int[]{-1, - 1} : indices;
     }
 
     /**
      * Returns the 2-dimensional array of type <T>
+     * With MatrixStorage.FLAT and SPARSE the returned array is a copy that is not connected to the matrix
+     * With MatrixStorage.ATOMIC the matrix will be compacted before
      * @return the 2-dimensional array of type <T>
      */
-    public AtomicReference<T>[][] getMatrix() { return matrix; }
+    public AtomicReference<T>[][] getMatrix() {
+        compact();
+        return store.toArray();
+    }
 
     /**
-     * Returns all items in matrix that are non null as list
+     * Returns all items in matrix that are non null as list (column by column like getMatrix())
+     * With MatrixStorage.FLAT and SPARSE the references are not connected to the matrix
      * @return all items in matrix that are non null as list
      */
-    public List<AtomicReference<T>> getAllItems() { return stream().filter(Objects::nonNull).collect(Collectors.toList()); }
+    public List<AtomicReference<T>> getAllItems() {
+        final List<AtomicReference<T>> items = new ArrayList<>();
+        for (int x = 0 ; x < cols ; x++) {
+            final int col = colIndex.get(x);
+            for (int y = 0 ; y < rows ; y++) {
+                final int row = rowIndex.get(y);
+                if (null != store.get(col, row)) { items.add(store.reference(col, row)); }
+            }
+        }
+        return items;
+    }
 
     /**
-     * Returns all items in matrix as stream
+     * Returns all items in matrix as stream (column by column like getMatrix())
+     * With MatrixStorage.FLAT and SPARSE the references are not connected to the matrix,
+     * use itemStream() to stream the items without wrapping them into references
      * @return all items in matrix as stream
      */
-    public Stream<AtomicReference<T>> stream() { return Arrays.stream(matrix).flatMap(t -> Arrays.stream(t)); }
+    public Stream<AtomicReference<T>> stream() {
+        return IntStream.range(0, cols).boxed().flatMap(x -> {
+            final int col = colIndex.get(x);
+            return IntStream.range(0, rows).mapToObj(y -> store.reference(col, rowIndex.get(y)));
+        });
+    }
+
+    /**
+     * Returns all items in matrix row by row as stream without wrapping them into references
+     * @return all items in matrix row by row as stream
+     */
+    public Stream<T> itemStream() {
+        return IntStream.range(0, rows).boxed().flatMap(y -> {
+            final int row = rowIndex.get(y);
+            return IntStream.range(0, cols).mapToObj(x -> store.get(colIndex.get(x), row));
+        });
+    }
 
-    public void reset() {
+    /**
+     * Removes all items from the matrix and fires one REGION_CHANGED event for the whole matrix
+     */
+    public void reset() { reset(true); }
+    public void reset(final boolean notify) {
         if (rows == -1 || cols == -1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                matrix[x][y] = null;
-            }
+        store.clear();
+        if (null != itemIndex) { itemIndex.clear(); }
+        if (notify) { fireRegionChangeEvt(0, 0, cols, rows); }
+    }
+
+    /**
+     * Sets the items from the itemSupplier in all cells of the given region
+     * and fires one REGION_CHANGED event instead of one event per cell
+     * @param x Column of the upper left cell of the region
+     * @param y Row of the upper left cell of the region
+     * @param width Number of columns in the region
+     * @param height Number of rows in the region
+     * @param itemSupplier supplier of items
+     */
+    public void fill(final int x, final int y, final int width, final int height, final Supplier<T> itemSupplier) { fill(x, y, width, height, itemSupplier, true); }
+    public void fill(final int x, final int y, final int width, final int height, final Supplier<T> itemSupplier, final boolean notify) {
+        checkRegion(x, y, width, height);
+        for (int row = y ; row < y + height ; row++) {
+            final int physicalRow = rowIndex.get(row);
+            for (int col = x ; col < x + width ; col++) { put(colIndex.get(col), physicalRow, itemSupplier.get()); }
+        }
+        if (notify) { fireRegionChangeEvt(x, y, width, height); }
+    }
+
+    /**
+     * Copies the items of the given region to the region of the same size at toX, toY,
+     * the regions may overlap. Fires one REGION_CHANGED event for the target region.
+     * @param x Column of the upper left cell of the source region
+     * @param y Row of the upper left cell of the source region
+     * @param width Number of columns in the region
+     * @param height Number of rows in the region
+     * @param toX Column of the upper left cell of the target region
+     * @param toY Row of the upper left cell of the target region
+     */
+    public void copyRegion(final int x, final int y, final int width, final int height, final int toX, final int toY) { copyRegion(x, y, width, height, toX, toY, true); }
+    public void copyRegion(final int x, final int y, final int width, final int height, final int toX, final int toY, final boolean notify) {
+        checkRegion(x, y, width, height);
+        checkRegion(toX, toY, width, height);
+        final Object[] items = new Object[width * height];
+        for (int row = 0 ; row < height ; row++) {
+            final int physicalRow = rowIndex.get(y + row);
+            for (int col = 0 ; col < width ; col++) { items[row * width + col] = store.get(colIndex.get(x + col), physicalRow); }
+        }
+        for (int row = 0 ; row < height ; row++) {
+            final int physicalRow = rowIndex.get(toY + row);
+            for (int col = 0 ; col < width ; col++) { put(colIndex.get(toX + col), physicalRow, (T) items[row * width + col]); }
         }
+        if (notify) { fireRegionChangeEvt(toX, toY, width, height); }
+    }
+
+    /**
+     * Sets the items of the given block in the region that starts at x, y and fires one REGION_CHANGED event.
+     * Like the array returned by getMatrix() the block is indexed by [x][y], so block.length is the width of the region.
+     * @param x Column of the upper left cell of the region
+     * @param y Row of the upper left cell of the region
+     * @param block Items to set, indexed by [x][y]
+     */
+    public void setRegion(final int x, final int y, final T[][] block) { setRegion(x, y, block, true); }
+    public void setRegion(final int x, final int y, final T[][] block, final boolean notify) {
+        if (null == block || block.length == 0 || null == block[0]) { throw new IllegalArgumentException("block cannot be null or empty"); }
+        final int width  = block.length;
+        final int height = block[0].length;
+        for (T[] column : block) {
+            if (null == column || column.length != height) { throw new IllegalArgumentException("all columns of the block must have the same length"); }
+        }
+        checkRegion(x, y, width, height);
+        for (int row = 0 ; row < height ; row++) {
+            final int physicalRow = rowIndex.get(y + row);
+            for (int col = 0 ; col < width ; col++) { put(colIndex.get(x + col), physicalRow, block[col][row]); }
+        }
+        if (notify) { fireRegionChangeEvt(x, y, width, height); }
     }
 
     /**
@@ -228,9 +361,10 @@ public class ObservableMatrix<T> {
      * @return all items in column specified by index as list
      */
     public List<T> getCol(final int col) {
-        if (rows == -1 || cols == -1 || col < 0 || col > cols) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        if (rows == -1 || cols == -1 || col < 0 || col > cols - 1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        final int physicalCol = colIndex.get(col);
         List<T> c = new ArrayList<>();
-        for (int y = 0 ; y < rows ; y++) { c.add(matrix[col][y].get()); }
+        for (int y = 0 ; y < rows ; y++) { c.add(store.get(physicalCol, rowIndex.get(y))); }
         return c;
     }
 
@@ -240,9 +374,10 @@ public class ObservableMatrix<T> {
      * @return all items in row specified by index as list
      */
     public List<T> getRow(final int row) {
-        if (rows == -1 || cols == -1 || row < 0 || row > rows) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        if (rows == -1 || cols == -1 || row < 0 || row > rows - 1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        final int physicalRow = rowIndex.get(row);
         List<T> r = new ArrayList<>();
-        for (int x = 0 ; x < cols ; x++) { r.add(matrix[x][row].get()); }
+        for (int x = 0 ; x < cols ; x++) { r.add(store.get(colIndex.get(x), physicalRow)); }
         return r;
     }
 
@@ -252,10 +387,8 @@ public class ObservableMatrix<T> {
      * @return true if all items in given column index equals null
      */
     public boolean isColEmpty(final int col) {
-        List<T> c = getCol(col);
-        long count = 0;
-        for(T item : c) { if (null != item) { count++; }}
-        return 0 == count;
+        if (col < 0 || col > cols - 1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        return store.isColEmpty(colIndex.get(col));
     }
 
     /**
@@ -264,10 +397,8 @@ public class ObservableMatrix<T> {
      * @return true if all items in given row index equals null
      */
     public boolean isRowEmpty(final int row) {
-        List<T> r = getRow(row);
-        long count = 0;
-        for (T item : r) { if (null != item) { count++; }}
-        return 0 == count;
+        if (row < 0 || row > rows - 1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
+        return store.isRowEmpty(rowIndex.get(row));
     }
 
     /**
@@ -286,31 +417,9 @@ public class ObservableMatrix<T> {
      */
     public void setCols(final int cols) { setCols(cols, true); }
     public void setCols(final int cols, final boolean notify) {
-        if (rows == -1 || cols == -1 || this.cols == -1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
-        AtomicReference<T>[][] oldMatrix = new AtomicReference[cols][rows];
-
-        for (int y = 0 ; y < this.rows ; y++) {
-            for (int x = 0 ; x < this.cols ; x++) {
-                oldMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        int oldCols = this.cols;
-        this.cols   = cols;
-        matrix = createArray(type, cols, rows);
-        int c;
-        int r  = rows;
-        if (cols > this.cols) {
-            c = oldCols;
-        } else if (cols < this.cols) {
-            c = cols;
-        } else {
-            c = cols;
-        }
-        for (int y = 0 ; y < r ; y++) {
-            for (int x = 0 ; x < c ; x++) {
-                matrix[x][y].set(oldMatrix[x][y].get());
-            }
-        }
+        if (rows == -1 || cols < 1 || this.cols == -1) { throw new IllegalArgumentException("cols/rows cannot be smaller 1"); }
+        while (this.cols < cols) { insertCol(this.cols); }
+        while (this.cols > cols) { deleteCol(this.cols - 1); }
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.NO_OF_COLUMNS_CHANGED, cols, -1));
         }
@@ -325,22 +434,8 @@ public class ObservableMatrix<T> {
     public void addCol(final int at, final Supplier<T> itemSupplier, final boolean notify) {
         if (at < 0 || at > cols) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
 
-        cols++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < at ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int y = 0 ; y < rows ; y++) { newMatrix[at][y].set(itemSupplier.get()); }
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = at + 1 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x - 1][y].get());
-            }
-        }
-
-        matrix = newMatrix;
+        final int physicalCol = insertCol(at);
+        for (int y = 0 ; y < rows ; y++) { put(physicalCol, rowIndex.get(y), itemSupplier.get()); }
 
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.COLUMN_ADDED, at, -1));
@@ -352,22 +447,8 @@ public class ObservableMatrix<T> {
         if (at < 0 || at > cols) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
         if (items.size() != rows) { throw new IllegalArgumentException("no of items must be equal to number of rows"); }
 
-        cols++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < at ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int y = 0 ; y < rows ; y++) { newMatrix[at][y].set(items.get(y)); }
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = at + 1 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x - 1][y].get());
-            }
-        }
-
-        matrix = newMatrix;
+        final int physicalCol = insertCol(at);
+        for (int y = 0 ; y < rows ; y++) { put(physicalCol, rowIndex.get(y), items.get(y)); }
 
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.COLUMN_ADDED, at, -1));
@@ -380,22 +461,7 @@ public class ObservableMatrix<T> {
     public void addNullCol(final int at, final boolean notify) {
         if (at < 0 || at > cols) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
 
-        cols++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < at ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int y = 0 ; y < rows ; y++) { newMatrix[at][y].set(null); }
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = at + 1 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x - 1][y].get());
-            }
-        }
-
-        matrix = newMatrix;
+        insertCol(at);
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.COLUMN_ADDED, at, -1));
         }
@@ -407,27 +473,14 @@ public class ObservableMatrix<T> {
      */
     public void removeCol(final int at) { removeCol(at, true); }
     public void removeCol(final int at, final boolean notify) {
-        if (at < 0 || at > cols) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
+        if (at < 0 || at > cols - 1) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
         if (cols <= 1) { throw new IllegalArgumentException("there is just one column in the matrix"); }
 
-        for (int y = 0 ; y < getNoOfRows() ; y++) { matrix[at][y] = null; }
-
         if (0 == at || (cols - 1) == at || resizeMatrixWhenInnerRowOrColIsRemoved) {
-            cols--;
-
-            AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-            for (int y = 0; y < rows; y++) {
-                for (int x = 0; x <= cols; x++) {
-                    if (x < at) {
-                        newMatrix[x][y].set(matrix[x][y].get());
-                    } else if (x == at) {
-
-                    } else {
-                        newMatrix[x - 1][y].set(matrix[x][y].get());
-                    }
-                }
-            }
-            matrix = newMatrix;
+            deleteCol(at);
+        } else {
+            final int physicalCol = colIndex.get(at);
+            for (int y = 0 ; y < rows ; y++) { put(physicalCol, rowIndex.get(y), null); }
         }
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.COLUMN_REMOVED, at, -1));
@@ -443,22 +496,8 @@ public class ObservableMatrix<T> {
     public void addRow(final int at, final Supplier<T> itemSupplier, final boolean notify) {
         if (at < 0 || at > rows) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
 
-        rows++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < at ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int x = 0 ; x < cols ; x++) { newMatrix[x][at].set(itemSupplier.get()); }
-        for (int y = at + 1 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y - 1].get());
-            }
-        }
-
-        matrix = newMatrix;
+        final int physicalRow = insertRow(at);
+        for (int x = 0 ; x < cols ; x++) { put(colIndex.get(x), physicalRow, itemSupplier.get()); }
 
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.ROW_ADDED, -1, at));
@@ -470,22 +509,8 @@ public class ObservableMatrix<T> {
         if (at < 0 || at > rows) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
         if (items.size() != cols) { throw new IllegalArgumentException("now of items must be equal to number of columns"); }
 
-        rows++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < at ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int x = 0 ; x < cols ; x++) { newMatrix[x][at].set(items.get(x)); }
-        for (int y = at + 1 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y - 1].get());
-            }
-        }
-
-        matrix = newMatrix;
+        final int physicalRow = insertRow(at);
+        for (int x = 0 ; x < cols ; x++) { put(colIndex.get(x), physicalRow, items.get(x)); }
 
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.ROW_ADDED, -1, at));
@@ -498,22 +523,7 @@ public class ObservableMatrix<T> {
     public void addNullRow(final int at, final boolean notify) {
         if (at < 0 || at > rows) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
 
-        rows++;
-
-        AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-        for (int y = 0 ; y < at ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        for (int x = 0 ; x < cols ; x++) { newMatrix[x][at].set(null); }
-        for (int y = at + 1 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                newMatrix[x][y].set(matrix[x][y - 1].get());
-            }
-        }
-
-        matrix = newMatrix;
+        insertRow(at);
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.ROW_ADDED, -1, at));
         }
@@ -525,29 +535,14 @@ public class ObservableMatrix<T> {
      */
     public void removeRow(final int at) { removeRow(at, true); }
     public void removeRow(final int at, final boolean notify) {
-        if (at < 0 || at > rows) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
+        if (at < 0 || at > rows - 1) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
         if (rows <= 1) { throw new IllegalArgumentException("there is just one row in the matrix"); }
 
-        for (int x = 0 ; x < getNoOfCols() ; x++) { matrix[x][at] = null; }
-
         if (0 == at || (rows - 1) == at || resizeMatrixWhenInnerRowOrColIsRemoved) {
-            rows--;
-
-            AtomicReference<T>[][] newMatrix = createArray(type, cols, rows);
-            for (int y = 0; y <= rows; y++) {
-                if (y < at) {
-                    for (int x = 0; x < cols; x++) {
-                        newMatrix[x][y].set(matrix[x][y].get());
-                    }
-                } else if (y == at) {
-
-                } else {
-                    for (int x = 0; x < cols; x++) {
-                        newMatrix[x][y - 1].set(matrix[x][y].get());
-                    }
-                }
-            }
-            matrix = newMatrix;
+            deleteRow(at);
+        } else {
+            final int physicalRow = rowIndex.get(at);
+            for (int x = 0 ; x < cols ; x++) { put(colIndex.get(x), physicalRow, null); }
         }
 
         if (notify) {
@@ -571,31 +566,9 @@ public class ObservableMatrix<T> {
      */
     public void setRows(final int rows) { setRows(rows, true); }
     public void setRows(final int rows, final boolean notify) {
-        if (rows == -1 || cols == -1 || this.rows == -1) { throw new IllegalArgumentException("cols/rows cannot be smaller 0"); }
-        AtomicReference<T>[][] oldMatrix = (AtomicReference<T>[][]) new Object[cols][rows];
-        for (int y = 0 ; y < this.rows ; y++) {
-            for (int x = 0 ; x < this.cols ; x++) {
-                oldMatrix[x][y].set(matrix[x][y].get());
-            }
-        }
-        int oldRows = this.rows;
-        this.rows   = rows;
-        matrix = createArray(type, cols, rows);
-
-        int c  = cols;
-        int r;
-        if (rows > this.rows) {
-            r = oldRows;
-        } else if (rows < this.rows) {
-            r = rows;
-        } else {
-            r = rows;
-        }
-        for (int y = 0 ; y < r ; y++) {
-            for (int x = 0 ; x < c ; x++) {
-                matrix[x][y].set(oldMatrix[x][y].get());
-            }
-        }
+        if (rows < 1 || cols == -1 || this.rows == -1) { throw new IllegalArgumentException("cols/rows cannot be smaller 1"); }
+        while (this.rows < rows) { insertRow(this.rows); }
+        while (this.rows > rows) { deleteRow(this.rows - 1); }
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.NO_OF_ROWS_CHANGED, -1, rows));
         }
@@ -609,7 +582,7 @@ public class ObservableMatrix<T> {
     public List<Integer> getAllEmptyColumns() {
         List<Integer> emptyColumns = new ArrayList<>();
         for (int x = 0; x < getNoOfCols() ; x++) {
-            if (getCol(x).stream().filter(Objects::nonNull).count() == 0) { emptyColumns.add(x); }
+            if (isColEmpty(x)) { emptyColumns.add(x); }
         }
         return emptyColumns;
     }
@@ -622,18 +595,15 @@ public class ObservableMatrix<T> {
     public List<Integer> getAllEmptyRows() {
         List<Integer> emptyRows = new ArrayList<>();
         for (int y = 0; y < getNoOfRows() ; y++) {
-            if (getRow(y).stream().filter(Objects::nonNull).count() == 0) { emptyRows.add(y); }
+            if (isRowEmpty(y)) { emptyRows.add(y); }
         }
         return emptyRows;
     }
 
     public void mirrorColumns() { mirrorColumns(true); }
     public void mirrorColumns(final boolean notify) {
-        for(int i = 0; i < (matrix.length/2); i++) {
-            AtomicReference<T>[] temp = matrix[i];
-            matrix[i] = matrix[matrix.length - i - 1];
-            matrix[matrix.length - i - 1] = temp;
-        }
+        colIndex.reverse();
+        logicalColOf = null;
         colsMirrored = !colsMirrored;
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.COLUMNS_MIRRORED, cols, -1));
@@ -642,90 +612,233 @@ public class ObservableMatrix<T> {
 
     public void mirrorRows() { mirrorRows(true); }
     public void mirrorRows(final boolean notify) {
-        for (int j = 0; j < matrix.length; ++j) {
-            AtomicReference<T>[] row = matrix[j];
-            for(int i = 0; i < (row.length/2); i++) {
-                T temp = row[i].get();
-                row[i] = matrix[j][row.length - i - 1];
-                row[row.length - i - 1].set(temp);
-            }
-        }
+        rowIndex.reverse();
+        logicalRowOf = null;
         rowsMirrored = !rowsMirrored;
         if (notify) {
             fireMatrixChangeEvt(new MatrixChangeEvt<>(ObservableMatrix.this, MatrixChangeEvt.ROWS_MIRRORED, -1, rows));
         }
     }
 
+    /**
+     * Swaps the given columns, the items are not moved, only the index of the columns.
+     * Fires one REGION_CHANGED event for all columns between col1 and col2.
+     * @param col1
+     * @param col2
+     */
+    public void swapCols(final int col1, final int col2) { swapCols(col1, col2, true); }
+    public void swapCols(final int col1, final int col2, final boolean notify) {
+        if (col1 < 0 || col1 > cols - 1 || col2 < 0 || col2 > cols - 1) { throw new IllegalArgumentException("index cannot be smaller or larger than cols"); }
+        if (col1 == col2) { return; }
+        colIndex.swap(col1, col2);
+        logicalColOf = null;
+        if (notify) { fireRegionChangeEvt(Math.min(col1, col2), 0, Math.abs(col2 - col1) + 1, rows); }
+    }
+
+    /**
+     * Swaps the given rows, the items are not moved, only the index of the rows.
+     * Fires one REGION_CHANGED event for all rows between row1 and row2.
+     * @param row1
+     * @param row2
+     */
+    public void swapRows(final int row1, final int row2) { swapRows(row1, row2, true); }
+    public void swapRows(final int row1, final int row2, final boolean notify) {
+        if (row1 < 0 || row1 > rows - 1 || row2 < 0 || row2 > rows - 1) { throw new IllegalArgumentException("index cannot be smaller or larger than rows"); }
+        if (row1 == row2) { return; }
+        rowIndex.swap(row1, row2);
+        logicalRowOf = null;
+        if (notify) { fireRegionChangeEvt(0, Math.min(row1, row2), cols, Math.abs(row2 - row1) + 1); }
+    }
+
     public boolean getColsMirrored() { return colsMirrored; }
     public boolean getRowsMirrored() { return rowsMirrored; }
 
     public boolean getResizeMatrixWhenInnerRowOrColIsRemoved() { return resizeMatrixWhenInnerRowOrColIsRemoved; }
     public void setResizeMatrixWhenInnerRowOrColIsRemoved(final boolean resize) { resizeMatrixWhenInnerRowOrColIsRemoved = resize; }
 
-    public boolean isEmpty() {
-        return getAllEmptyColumns().size() == getNoOfCols() && getAllEmptyRows().size() == getNoOfRows();
-    }
-
+    public boolean isEmpty() { return store.isEmpty(); }
 
-    // ******************** Private methods ***********************************
     /**
-     * Method to reduce matrix size in case the first column is empty (all items == null)
+     * Returns true if the matrix keeps an index of the cells of each item
+     * @return true if the matrix keeps an index of the cells of each item
      */
-    private void shiftLeft() {
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 1 ; x < cols ; x++) {
-                matrix[x - 1][y] = matrix[x][y];
-            }
+    public boolean isItemIndexEnabled() { return null != itemIndex; }
+    /**
+     * If enabled the matrix keeps an index of the cells of each item, so contains(),
+     * getIndicesOf() and removeItem() don't have to search the whole matrix.
+     * The index costs memory per item and time on each change of a cell.
+     * @param enabled
+     */
+    public void setItemIndexEnabled(final boolean enabled) {
+        if (!enabled) {
+            itemIndex = null;
+        } else if (null == itemIndex) {
+            final MatrixItemIndex<T> index = new MatrixItemIndex<>();
+            store.forEachItem(index::add);
+            itemIndex = index;
         }
     }
 
     /**
-     * Method to reduce matrix size in case the first row is empty (all items == null)
+     * Rows and columns are only mapped to their place in the storage, so inserting, removing and
+     * mirroring them doesn't move any item. This method moves all items to their logical position
+     * and releases the space of removed rows and columns. It will be called automatically when
+     * more than half of the space is unused and before the matrix array is returned by getMatrix().
      */
-    private void shiftUp() {
-        for (int y = 1 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                matrix[x][y - 1] = matrix[x][y];
-            }
+    public void compact() {
+        if (store.getCols() == cols && store.getRows() == rows && colIndex.isIdentity() && rowIndex.isIdentity()) { return; }
+        final MatrixStore<T> newStore = store.create(cols, rows);
+        copyItemsTo(newStore);
+        store = newStore;
+        colIndex.reset(cols);
+        rowIndex.reset(rows);
+        logicalColOf = null;
+        logicalRowOf = null;
+        if (null != itemIndex) {
+            itemIndex = null;
+            setItemIndexEnabled(true);
         }
     }
 
+
+    // ******************** Private methods ***********************************
     /**
-     * Returns a 2-dimensional array of the given type <T> and size
+     * Returns an empty store of the given kind and size
      * @param type Class of generic type
+     * @param storage Kind of storage
      * @param cols Number of columns for the matrix
      * @param rows Number of rows for the matrix
      * @param <T>
-     * @return a 2-dimensional array of the given type <T> and size
+     * @return an empty store of the given kind and size
      */
-    private static <T> AtomicReference<T>[][] createArray(final Class type, final int cols, final int rows) {
+    private static <T> MatrixStore<T> createStore(final Class type, final MatrixStorage storage, final int cols, final int rows) {
         if (null == type) { throw new IllegalArgumentException("type cannot be null"); }
+        if (null == storage) { throw new IllegalArgumentException("storage cannot be null"); }
         if ( cols < 1 || rows < 1) { throw new IllegalArgumentException("cols/rows cannot be smaller than 1"); }
+        return switch (storage) {
+            case ATOMIC -> new AtomicMatrixStore<>(cols, rows);
+            case FLAT   -> new FlatMatrixStore<>(cols, rows);
+            case SPARSE -> new SparseMatrixStore<>(cols, rows);
+        };
+    }
 
-        AtomicReference<T>[][] emptyMatrix = new AtomicReference[cols][rows];
-        for (int y = 0 ; y < rows ; y++) {
-            for (int x = 0 ; x < cols ; x++) {
-                emptyMatrix[x][y] = new AtomicReference<>();
+    /**
+     * Returns the position [x, y] of the first cell (row by row in logical order) that contains the given item or null
+     */
+    private int[] indexOf(final Object item) {
+        if (null == item) { return null; }
+        if (null == logicalColOf) { logicalColOf = colIndex.inverse(); }
+        if (null == logicalRowOf) { logicalRowOf = rowIndex.inverse(); }
+        if (null != itemIndex) { return itemIndex.indexOf(item, logicalColOf, logicalRowOf); }
+        // The store is not in logical order, so all cells have to be visited to find the first one row by row
+        final int[] colOf   = logicalColOf;
+        final int[] rowOf   = logicalRowOf;
+        final int[] indices = { -1, Integer.MAX_VALUE };
+        store.forEachItem((x, y, candidate) -> {
+            if (!item.equals(candidate)) { return; }
+            final int col = colOf[x];
+            final int row = rowOf[y];
+            if (row < indices[1] || (row == indices[1] && col < indices[0])) {
+                indices[0] = col;
+                indices[1] = row;
             }
+        });
+        return -1 == indices[0] ? null : indices;
+    }
+
+    /**
+     * Sets the given item in the store at the given physical position, keeps the item index up to date and returns the old item
+     * With an item index the swap and the update of the index are done under the lock of the index,
+     * otherwise concurrent writers to the same cell could update the index in a different order than the cell
+     */
+    private T put(final int physicalCol, final int physicalRow, final T item) {
+        final MatrixItemIndex<T> index = itemIndex;
+        if (null == index) { return store.getAndSet(physicalCol, physicalRow, item); }
+        synchronized (index) {
+            final T oldItem = store.getAndSet(physicalCol, physicalRow, item);
+            if (oldItem != item) { index.update(physicalCol, physicalRow, oldItem, item); }
+            return oldItem;
         }
-        return emptyMatrix;
     }
 
-    private void checkForRemovedColumnsAndRows(final int removedItemCol, final int removedItemRow, final boolean notify) {
-        int nullItemCounter = 0;
-        for (int r = 0 ; r < rows ; r++) {
-            if (null == getItemAt(removedItemCol, r)) { nullItemCounter++; }
+    private void checkRegion(final int x, final int y, final int width, final int height) {
+        if (width < 1 || height < 1) { throw new IllegalArgumentException("width and height cannot be smaller than 1"); }
+        if (x < 0 || y < 0 || x + width > cols || y + height > rows) { throw new IllegalArgumentException("region cannot be outside of the matrix with " + cols + "/" + rows + " cols/rows"); }
+    }
+
+    private void fireItemChangeEvt(final int x, final int y, final T oldItem, final T item) {
+        if (null == oldItem && item != null) {
+            fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_ADDED, x, y, oldItem, item));
+        } else if (null != oldItem && item == null) {
+            fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_REMOVED, x, y, oldItem, item));
+        } else if (null != oldItem && item != null) {
+            fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, MatrixItemChangeEvt.ITEM_CHANGED, x, y, oldItem, item));
         }
-        if (nullItemCounter == rows) {
+    }
+
+    private void fireRegionChangeEvt(final int x, final int y, final int width, final int height) {
+        fireMatrixItemChangeEvt(new MatrixItemChangeEvt<>(ObservableMatrix.this, (EvtType) MatrixItemChangeEvt.REGION_CHANGED, EvtPriority.NORMAL, x, y, width, height));
+    }
+
+    /**
+     * Sets all items of this matrix at their logical position in the given store
+     */
+    private void copyItemsTo(final MatrixStore<T> target) {
+        final int[] colOf = colIndex.inverse();
+        final int[] rowOf = rowIndex.inverse();
+        store.forEachItem((x, y, item) -> {
+            if (x < colOf.length && y < rowOf.length && colOf[x] > -1 && rowOf[y] > -1) { target.set(colOf[x], rowOf[y], item); }
+        });
+    }
+
+    /**
+     * Inserts an empty column at the given index and returns its physical column in the storage
+     */
+    private int insertCol(final int at) {
+        final int physicalCol = colIndex.allocate();
+        if (physicalCol > store.getCols() - 1) { store = store.resized(Math.max(physicalCol + 1, store.getCols() + (store.getCols() >> 1)), store.getRows()); }
+        colIndex.insert(at, physicalCol);
+        cols         = colIndex.size();
+        logicalColOf = null;
+        return physicalCol;
+    }
+
+    private void deleteCol(final int at) {
+        final int physicalCol = colIndex.remove(at);
+        for (int y = 0 ; y < rowIndex.getNoOfPhysical() ; y++) { put(physicalCol, y, null); }
+        colIndex.release(physicalCol);
+        cols         = colIndex.size();
+        logicalColOf = null;
+        if (colIndex.getNoOfPhysical() > 2 * cols + 16) { compact(); }
+    }
+
+    /**
+     * Inserts an empty row at the given index and returns its physical row in the storage
+     */
+    private int insertRow(final int at) {
+        final int physicalRow = rowIndex.allocate();
+        if (physicalRow > store.getRows() - 1) { store = store.resized(store.getCols(), Math.max(physicalRow + 1, store.getRows() + (store.getRows() >> 1))); }
+        rowIndex.insert(at, physicalRow);
+        rows         = rowIndex.size();
+        logicalRowOf = null;
+        return physicalRow;
+    }
+
+    private void deleteRow(final int at) {
+        final int physicalRow = rowIndex.remove(at);
+        for (int x = 0 ; x < colIndex.getNoOfPhysical() ; x++) { put(x, physicalRow, null); }
+        rowIndex.release(physicalRow);
+        rows         = rowIndex.size();
+        logicalRowOf = null;
+        if (rowIndex.getNoOfPhysical() > 2 * rows + 16) { compact(); }
+    }
+
+    private void checkForRemovedColumnsAndRows(final int removedItemCol, final int removedItemRow, final boolean notify) {
+        if (isColEmpty(removedItemCol)) {
             removeCol(removedItemCol, notify);
             return;
         }
-
-        nullItemCounter = 0;
-        for (int c = 0 ; c < cols ; c++) {
-            if (null == getItemAt(c, removedItemRow)) { nullItemCounter++; }
-        }
-        if (nullItemCounter == cols) {
+        if (isRowEmpty(removedItemRow)) {
             removeRow(removedItemRow, notify);
             return;
         }
@@ -735,78 +848,32 @@ public class ObservableMatrix<T> {
 
     // ******************** Event Handling ************************************
     // Matrix events
-    public void addMatrixChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixChangeEvt<T>> observer) {
-        if (null == type || null == observer) { return; }
-        if (null == matrixObservers) { matrixObservers = new ConcurrentHashMap<>(); }
-        if (!matrixObservers.containsKey(type)) { matrixObservers.put(type, new CopyOnWriteArrayList<>()); }
-        if (matrixObservers.get(type).contains(observer)) { return; }
-        matrixObservers.get(type).add(observer);
-    }
-    public void removeMatrixChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixChangeEvt<T>> observer) {
-        if (null == matrixObservers || null == type || null == observer) { return; }
-        if (matrixObservers.containsKey(type)) {
-            if (matrixObservers.get(type).contains(observer)) {
-                matrixObservers.get(type).remove(observer);
-            }
-        }
-    }
-    public void removeAllMatrixChangeObservers() {
-        if (null == matrixObservers) { return; }
-        matrixObservers.clear();
-    }
+    public void addMatrixChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixChangeEvt<T>> observer) { matrixDispatcher.addObserver(type, observer); }
+    public void addWeakMatrixChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixChangeEvt<T>> observer) { matrixDispatcher.addWeakObserver(type, observer); }
+    public void removeMatrixChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixChangeEvt<T>> observer) { matrixDispatcher.removeObserver(type, observer); }
+    public void removeAllMatrixChangeObservers() { matrixDispatcher.removeAllObservers(); }
 
-    public void fireMatrixChangeEvt(final MatrixChangeEvt<T> evt) {
-        if (null == matrixObservers) { return; }
-        // Call all observers that have subscribed to specific event types
-        matrixObservers.entrySet().stream()
-                                  .filter(entry -> !entry.getKey().equals(MatrixChangeEvt.ANY))
-                                  .filter(entry -> entry.getKey().equals(evt.getEvtType()))
-                                  .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-        // Call all observers that have subscribed to ANY event type
-        matrixObservers.entrySet().stream()
-                                  .filter(entry -> entry.getKey().equals(MatrixChangeEvt.ANY))
-                                  .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-    }
+    public int getNoOfMatrixChangeObservers() { return matrixDispatcher.getNoOfObservers(); }
+
+    // Observers registered on a super type (e.g. MatrixChangeEvt.ANY or ChangeEvt.ANY) will also be called
+    public void fireMatrixChangeEvt(final MatrixChangeEvt<T> evt) { matrixDispatcher.fire(evt); }
 
     // Matrix item events
-    public void addMatrixItemChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixItemChangeEvt<T>> observer) {
-        if (null == type || null == observer) { return; }
-        if (null == itemObservers) { itemObservers = new ConcurrentHashMap<>(); }
-        if (!itemObservers.containsKey(type)) { itemObservers.put(type, new CopyOnWriteArrayList<>()); }
-        if (itemObservers.get(type).contains(observer)) { return; }
-        itemObservers.get(type).add(observer);
-    }
-    public void removeMatrixItemChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixItemChangeEvt<T>> observer) {
-        if (null == type || null == observer || null == itemObservers) { return; }
-        if (itemObservers.containsKey(type)) {
-            if (itemObservers.get(type).contains(observer)) {
-                itemObservers.get(type).remove(observer);
-            }
-        }
-    }
-    public void removeAllMatrixItemChangeObservers() {
-        if (null == itemObservers) { return; }
-        itemObservers.clear();
-    }
+    public void addMatrixItemChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixItemChangeEvt<T>> observer) { itemDispatcher.addObserver(type, observer); }
+    public void addWeakMatrixItemChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixItemChangeEvt<T>> observer) { itemDispatcher.addWeakObserver(type, observer); }
+    public void removeMatrixItemChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MatrixItemChangeEvt<T>> observer) { itemDispatcher.removeObserver(type, observer); }
+    public void removeAllMatrixItemChangeObservers() { itemDispatcher.removeAllObservers(); }
 
-    public void fireMatrixItemChangeEvt(final MatrixItemChangeEvt<T> evt) {
-        // Call all observers that have subscribed to specific event types
-        itemObservers.entrySet().stream()
-                                .filter(entry -> !entry.getKey().equals(MatrixItemChangeEvt.ANY))
-                                .filter(entry -> entry.getKey().equals(evt.getEvtType()))
-                                .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-        // Call all observers that have subscribed to ANY event type
-        itemObservers.entrySet().stream()
-                                .filter(entry -> entry.getKey().equals(MatrixItemChangeEvt.ANY))
-                                .forEach(entry -> entry.getValue().forEach(observer -> observer.handle(evt)));
-    }
+    public int getNoOfMatrixItemChangeObservers() { return itemDispatcher.getNoOfObservers(); }
+
+    public void fireMatrixItemChangeEvt(final MatrixItemChangeEvt<T> evt) { itemDispatcher.fire(evt); }
 
 
     @Override public String toString() {
         StringBuilder output = new StringBuilder();
         for (int y = 0 ; y < rows ; y++) {
             for (int x = 0 ; x < cols ; x++) {
-                output.append(matrix[x][y]).append(" ");
+                output.append(store.get(colIndex.get(x), rowIndex.get(y))).append(" ");
             }
             output.append("\n");
         }
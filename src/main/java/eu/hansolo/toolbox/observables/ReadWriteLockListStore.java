@@ -0,0 +1,425 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * ArrayList guarded by a read-write lock. Modifications are amortized O(1) appends
+ * instead of full array copies, iterators work on a snapshot of the elements.
+ */
+final class ReadWriteLockListStore<T> extends AbstractList<T> implements ListStore<T>, RandomAccess {
+    private final Lock         readLock;
+    private final Lock         writeLock;
+    private       ArrayList<T> list;
+
+
+    // ******************** Constructors **************************************
+    ReadWriteLockListStore(final Collection<? extends T> collection) {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.list      = null == collection ? new ArrayList<>() : new ArrayList<>(collection);
+        this.readLock  = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public T get(final int index) {
+        readLock.lock();
+        try {
+            return list.get(index);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public int size() {
+        readLock.lock();
+        try {
+            return list.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public boolean isEmpty() { return size() == 0; }
+
+    @Override public boolean contains(final Object obj) { return indexOf(obj) >= 0; }
+
+    @Override public boolean containsAll(final Collection<?> collection) {
+        readLock.lock();
+        try {
+            return list.containsAll(collection);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public int indexOf(final Object obj) {
+        readLock.lock();
+        try {
+            return list.indexOf(obj);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public int indexOf(final Object obj, final int index) {
+        readLock.lock();
+        try {
+            for (int i = Math.max(0, index), n = list.size() ; i < n ; i++) {
+                if (Objects.equals(obj, list.get(i))) { return i; }
+            }
+            return -1;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public int lastIndexOf(final Object obj) {
+        readLock.lock();
+        try {
+            return list.lastIndexOf(obj);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public int lastIndexOf(final Object obj, final int index) {
+        readLock.lock();
+        try {
+            for (int i = Math.min(index, list.size() - 1) ; i >= 0 ; i--) {
+                if (Objects.equals(obj, list.get(i))) { return i; }
+            }
+            return -1;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public Object[] toArray() {
+        readLock.lock();
+        try {
+            return list.toArray();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public <U> U[] toArray(final U[] a) {
+        readLock.lock();
+        try {
+            return list.toArray(a);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public Iterator<T> iterator() { return listIterator(0); }
+
+    @Override public ListIterator<T> listIterator() { return listIterator(0); }
+
+    // Iterators work on a snapshot and do not support modifications
+    @Override public ListIterator<T> listIterator(final int index) { return Collections.unmodifiableList(snapshot()).listIterator(index); }
+
+    @Override public Spliterator<T> spliterator() { return snapshot().spliterator(); }
+
+    @Override public void forEach(final Consumer<? super T> action) { snapshot().forEach(action); }
+
+    @Override public List<T> snapshot() {
+        readLock.lock();
+        try {
+            return new ArrayList<>(list);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Like the iterators the sub list works on a snapshot and cannot be modified
+    @Override public List<T> subList(final int fromIndex, final int toIndex) {
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(list.subList(fromIndex, toIndex)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override public boolean equals(final Object obj) {
+        if (obj == this) { return true; }
+        return snapshot().equals(obj);
+    }
+
+    @Override public int hashCode() { return snapshot().hashCode(); }
+
+
+    @Override public T set(final int index, final T element) {
+        writeLock.lock();
+        try {
+            return list.set(index, element);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean add(final T element) {
+        writeLock.lock();
+        try {
+            return list.add(element);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public void add(final int index, final T element) {
+        writeLock.lock();
+        try {
+            list.add(index, element);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean addAll(final Collection<? extends T> collection) {
+        final Object[] added = collection.toArray();
+        writeLock.lock();
+        try {
+            return list.addAll((List<T>) Arrays.asList(added));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean addAll(final int index, final Collection<? extends T> collection) {
+        writeLock.lock();
+        try {
+            return list.addAll(index, collection);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public int addAndGetIndex(final T element) {
+        writeLock.lock();
+        try {
+            list.add(element);
+            return list.size() - 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public int addAllAndGetIndex(final Collection<? extends T> collection) {
+        final Object[] added = collection.toArray();
+        if (added.length == 0) { return -1; }
+        writeLock.lock();
+        try {
+            final int index = list.size();
+            list.addAll((List<T>) Arrays.asList(added));
+            return index;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean addIfAbsent(final T element) {
+        writeLock.lock();
+        try {
+            return !list.contains(element) && list.add(element);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public int addAllAbsent(final Collection<? extends T> collection) {
+        writeLock.lock();
+        try {
+            int added = 0;
+            for (T element : new LinkedHashSet<>(collection)) {
+                if (!list.contains(element)) {
+                    list.add(element);
+                    added++;
+                }
+            }
+            return added;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public T remove(final int index) {
+        writeLock.lock();
+        try {
+            return list.remove(index);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean remove(final Object obj) {
+        writeLock.lock();
+        try {
+            return list.remove(obj);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public int removeAndGetIndex(final Object obj) {
+        writeLock.lock();
+        try {
+            final int index = list.indexOf(obj);
+            if (index >= 0) { list.remove(index); }
+            return index;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean removeAll(final Collection<?> collection) {
+        writeLock.lock();
+        try {
+            return list.removeAll(collection);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean retainAll(final Collection<?> collection) {
+        writeLock.lock();
+        try {
+            return list.retainAll(collection);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public boolean removeIf(final Predicate<? super T> filter) {
+        writeLock.lock();
+        try {
+            return list.removeIf(filter);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public List<T> removeIfAndGet(final Predicate<? super T> filter) {
+        final List<T> removed = new ArrayList<>();
+        writeLock.lock();
+        try {
+            list.removeIf(element -> {
+                if (!filter.test(element)) { return false; }
+                removed.add(element);
+                return true;
+            });
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public void replaceAll(final UnaryOperator<T> operator) {
+        writeLock.lock();
+        try {
+            list.replaceAll(operator);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public List<T> replaceAllAndGet(final UnaryOperator<T> operator) {
+        Objects.requireNonNull(operator);
+        writeLock.lock();
+        try {
+            final ArrayList<T> current  = list;
+            final ArrayList<T> replaced = new ArrayList<>(current.size());
+            for (T element : current) { replaced.add(operator.apply(element)); }
+            list = replaced;
+            return Collections.unmodifiableList(current);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public void sort(final Comparator<? super T> comparator) {
+        writeLock.lock();
+        try {
+            list.sort(comparator);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override public void parallelSort(final Comparator<? super T> comparator) { sort(comparator, true, false); }
+
+    @Override public int[] sortAndGetPermutation(final Comparator<? super T> comparator, final boolean parallel) { return sort(comparator, parallel, true); }
+
+    @Override public void clear() {
+        writeLock.lock();
+        try {
+            list.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Swaps in a new list instead of clearing the old one, so the old one can be handed over as it is
+    @Override public List<T> clearAndGet() {
+        writeLock.lock();
+        try {
+            final List<T> removed = list;
+            list = new ArrayList<>();
+            return Collections.unmodifiableList(removed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private int[] sort(final Comparator<? super T> comparator, final boolean parallel, final boolean permutation) {
+        writeLock.lock();
+        try {
+            final Object[] elements   = list.toArray();
+            final int[]    newIndices = ListStore.sort(elements, comparator, parallel, permutation);
+            for (int i = 0 ; i < elements.length ; i++) { list.set(i, (T) elements[i]); }
+            return newIndices;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.ListChangeEvt;
+
+import java.util.List;
+
+
+/**
+ * Mutable ListChangeEvt that is reused per thread to fire list changes without
+ * allocating a new event and payload lists for every mutation.
+ * Observers must not keep a reference to it after handle() returned.
+ */
+final class ReusableListChangeEvt<T> extends ListChangeEvt<T> {
+    private static final ThreadLocal<ReusableListChangeEvt>  CACHE = ThreadLocal.withInitial(ReusableListChangeEvt::new);
+    private        final ElementView<T>                      addedView;
+    private        final ElementView<T>                      removedView;
+    private              EvtType<? extends ListChangeEvt<T>> type;
+    private              int                                 from;
+    private              int                                 to;
+    private              boolean                             inUse;
+
+
+    // ******************** Constructors **************************************
+    private ReusableListChangeEvt() {
+        super(List.of(), ListChangeEvt.ANY, null, null);
+        this.addedView   = new ElementView<>();
+        this.removedView = new ElementView<>();
+        this.type        = (EvtType) ListChangeEvt.ANY;
+        this.from        = -1;
+        this.to          = -1;
+        this.inUse       = false;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the event of the current thread or null if it is currently
+     * in use (e.g. an observer modifies a list while handling an event)
+     */
+    static <T> ReusableListChangeEvt<T> acquire(final List<T> src, final EvtType<? extends ListChangeEvt> type) {
+        final ReusableListChangeEvt<T> evt = CACHE.get();
+        if (evt.inUse) { return null; }
+        evt.inUse  = true;
+        evt.source = src;
+        evt.type   = (EvtType<? extends ListChangeEvt<T>>) type;
+        evt.from   = -1;
+        evt.to     = -1;
+        return evt;
+    }
+
+    void release() {
+        addedView.reset();
+        removedView.reset();
+        source = List.of();
+        inUse  = false;
+    }
+
+    void range(final int from, final int to) {
+        this.from = from;
+        this.to   = to;
+    }
+
+    ElementView<T> addedView() { return addedView; }
+
+    ElementView<T> removedView() { return removedView; }
+
+    @Override public EvtType<? extends ListChangeEvt<T>> getEvtType() { return type; }
+
+    @Override public List<T> getAddedElements() { return addedView; }
+
+    @Override public List<T> getRemovedElements() { return removedView; }
+
+    @Override public int getFrom() { return from; }
+
+    @Override public int getTo() { return to; }
+
+    // The event is mutable and only valid while it is handled, so it is only equal to itself
+    @Override public boolean equals(final Object o) { return this == o; }
+
+    @Override public int hashCode() { return System.identityHashCode(this); }
+}
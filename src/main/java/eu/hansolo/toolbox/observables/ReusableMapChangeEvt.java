@@ -0,0 +1,142 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.MapChangeEvt;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+
+/**
+ * Mutable MapChangeEvt that is reused per thread to fire map changes without
+ * allocating a new event, entries and payload lists for every mutation.
+ * Observers must not keep a reference to it after handle() returned.
+ */
+final class ReusableMapChangeEvt<K,V> extends MapChangeEvt<K,V> {
+    private static final ThreadLocal<ReusableMapChangeEvt> CACHE = ThreadLocal.withInitial(ReusableMapChangeEvt::new);
+    private        final ElementView<Entry<K,V>>            addedView;
+    private        final ElementView<Entry<K,V>>            modifiedView;
+    private        final ElementView<Entry<K,V>>            removedView;
+    private        final ReusableEntry<K,V>                 entry;
+    private              EvtType<? extends MapChangeEvt<K,V>> type;
+    private              boolean                           inUse;
+
+
+    // ******************** Constructors **************************************
+    private ReusableMapChangeEvt() {
+        super(Map.of(), MapChangeEvt.ANY, null, null, null);
+        this.addedView    = new ElementView<>();
+        this.modifiedView = new ElementView<>();
+        this.removedView  = new ElementView<>();
+        this.entry        = new ReusableEntry<>();
+        this.type         = (EvtType) MapChangeEvt.ANY;
+        this.inUse        = false;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the event of the current thread or null if it is currently
+     * in use (e.g. an observer modifies a map while handling an event)
+     */
+    static <K,V> ReusableMapChangeEvt<K,V> acquire(final Map<K,V> src, final EvtType<? extends MapChangeEvt> type) {
+        final ReusableMapChangeEvt<K,V> evt = CACHE.get();
+        if (evt.inUse) { return null; }
+        evt.inUse  = true;
+        evt.source = src;
+        evt.type   = (EvtType<? extends MapChangeEvt<K,V>>) type;
+        return evt;
+    }
+
+    void release() {
+        addedView.reset();
+        modifiedView.reset();
+        removedView.reset();
+        entry.set(null, null);
+        source = Map.of();
+        inUse  = false;
+    }
+
+    /**
+     * Sets the given key and value as the only entry of the payload that belongs to the event type
+     */
+    void setEntry(final K key, final V value) {
+        entry.set(key, value);
+        viewOf(type).set(entry);
+    }
+
+    /**
+     * Sets the given entries as the payload that belongs to the event type
+     */
+    void setEntries(final List<Entry<K,V>> entries) { viewOf(type).setAll(entries); }
+
+    @Override public EvtType<? extends MapChangeEvt<K,V>> getEvtType() { return type; }
+
+    @Override public List<Entry<K,V>> getAddedEntries() { return addedView; }
+
+    @Override public List<Entry<K,V>> getModifiedEntries() { return modifiedView; }
+
+    @Override public List<Entry<K,V>> getRemovedEntries() { return removedView; }
+
+    // The event is mutable and only valid while it is handled, so it is only equal to itself
+    @Override public boolean equals(final Object o) { return this == o; }
+
+    @Override public int hashCode() { return System.identityHashCode(this); }
+
+
+    // ******************** Private Methods ***********************************
+    private ElementView<Entry<K,V>> viewOf(final EvtType<?> type) {
+        if (type.isSubTypeOf(MapChangeEvt.REMOVED))  { return removedView; }
+        if (type.isSubTypeOf(MapChangeEvt.MODIFIED)) { return modifiedView; }
+        return addedView;
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class ReusableEntry<K,V> implements Entry<K,V> {
+        private K key;
+        private V value;
+
+
+        void set(final K key, final V value) {
+            this.key   = key;
+            this.value = value;
+        }
+
+        @Override public K getKey() { return key; }
+
+        @Override public V getValue() { return value; }
+
+        @Override public V setValue(final V value) { throw new UnsupportedOperationException(); }
+
+        @Override public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) { return false; }
+            final Entry<?,?> e = (Entry<?,?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override public int hashCode() { return Objects.hashCode(key) ^ Objects.hashCode(value); }
+
+        @Override public String toString() { return key + "=" + value; }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.MapChangeEvt;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+
+/**
+ * Map that partitions its keys across a power of 2 number of ObservableMaps (shards).
+ * Every shard has its own observers, so writers of different shards do not share one
+ * observer list. Global observers will be registered on every shard.
+ * If dedicated dispatch threads are enabled every shard delivers its events on its own
+ * thread, in the order of the changes per shard. Global observers may then be called
+ * concurrently from different shards and must be thread safe.
+ */
+public class ShardedObservableMap<K,V> extends AbstractMap<K,V> {
+    private static final AtomicInteger        THREAD_COUNTER = new AtomicInteger(0);
+    private        final ObservableMap<K,V>[] shards;
+    private        final ExecutorService[]    dispatchers;
+    private        final int                  mask;
+    private        final int                  shift;
+    private        final Set<Entry<K,V>>      entrySet;
+
+
+    // ******************** Constructors **************************************
+    public ShardedObservableMap() {
+        this(Runtime.getRuntime().availableProcessors(), false);
+    }
+    public ShardedObservableMap(final int noOfShards) {
+        this(noOfShards, false);
+    }
+    /**
+     * Creates a map with the given number of shards
+     * @param noOfShards Number of shards (will be rounded up to the next power of 2)
+     * @param dedicatedDispatchThreads If true every shard fires its events on its own daemon thread
+     */
+    public ShardedObservableMap(final int noOfShards, final boolean dedicatedDispatchThreads) {
+        if (noOfShards < 1) { throw new IllegalArgumentException("noOfShards cannot be smaller than 1"); }
+        final int size = noOfShards == 1 ? 1 : Integer.highestOneBit(noOfShards - 1) << 1;
+        this.shards      = new ObservableMap[size];
+        this.dispatchers = dedicatedDispatchThreads ? new ExecutorService[size] : null;
+        this.mask        = size - 1;
+        this.shift       = 32 - Integer.numberOfTrailingZeros(size);
+        for (int i = 0 ; i < size ; i++) {
+            shards[i] = new ObservableMap<>();
+            if (dedicatedDispatchThreads) {
+                dispatchers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "ShardedObservableMap-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        this.entrySet = new EntrySet();
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getNoOfShards() { return shards.length; }
+
+    /**
+     * Returns the index of the shard of the given key. The shard is taken from the high bits of the
+     * mixed hash code, because the ConcurrentHashMap of each shard takes its bins from the low bits.
+     * Otherwise all keys of one shard would end up in the same fraction of the bins.
+     * @param key
+     * @return the index of the shard of the given key
+     */
+    public int shardIndexOf(final Object key) {
+        final int hash = null == key ? 0 : key.hashCode();
+        return ((hash * 0x9E3779B9) >>> shift) & mask;
+    }
+
+    public ObservableMap<K,V> getShard(final int index) { return shards[index]; }
+
+    public ObservableMap<K,V> shardOf(final Object key) { return shards[shardIndexOf(key)]; }
+
+    public boolean hasDedicatedDispatchThreads() { return null != dispatchers; }
+
+    @Override public V get(final Object key) { return shardOf(key).get(key); }
+
+    @Override public V getOrDefault(final Object key, final V defaultValue) { return shardOf(key).getOrDefault(key, defaultValue); }
+
+    @Override public boolean containsKey(final Object key) { return shardOf(key).containsKey(key); }
+
+    @Override public boolean containsValue(final Object value) {
+        for (ObservableMap<K,V> shard : shards) {
+            if (shard.containsValue(value)) { return true; }
+        }
+        return false;
+    }
+
+    @Override public V put(final K key, final V value) { return shardOf(key).put(key, value); }
+
+    /**
+     * Groups the entries by shard and puts each group into its shard at once,
+     * so every shard fires one coalesced event instead of one event per entry
+     * @param map
+     */
+    @Override public void putAll(final Map<? extends K, ? extends V> map) {
+        final Map<K,V>[] groups = new Map[shards.length];
+        map.forEach((key, value) -> {
+            final int index = shardIndexOf(key);
+            if (null == groups[index]) { groups[index] = new LinkedHashMap<>(); }
+            groups[index].put(key, value);
+        });
+        for (int i = 0 ; i < shards.length ; i++) {
+            if (null != groups[i]) { shards[i].putAll(groups[i]); }
+        }
+    }
+
+    @Override public V putIfAbsent(final K key, final V value) { return shardOf(key).putIfAbsent(key, value); }
+
+    @Override public V remove(final Object key) { return shardOf(key).remove(key); }
+
+    @Override public boolean remove(final Object key, final Object value) { return shardOf(key).remove(key, value); }
+
+    @Override public V replace(final K key, final V value) { return shardOf(key).replace(key, value); }
+
+    @Override public boolean replace(final K key, final V oldValue, final V newValue) { return shardOf(key).replace(key, oldValue, newValue); }
+
+    @Override public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) { return shardOf(key).computeIfAbsent(key, mappingFunction); }
+
+    @Override public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) { return shardOf(key).computeIfPresent(key, remappingFunction); }
+
+    @Override public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) { return shardOf(key).compute(key, remappingFunction); }
+
+    @Override public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) { return shardOf(key).merge(key, value, remappingFunction); }
+
+    @Override public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        for (ObservableMap<K,V> shard : shards) { shard.replaceAll(function); }
+    }
+
+    @Override public void forEach(final BiConsumer<? super K, ? super V> action) {
+        for (ObservableMap<K,V> shard : shards) { shard.forEach(action); }
+    }
+
+    @Override public void clear() {
+        for (ObservableMap<K,V> shard : shards) { shard.clear(); }
+    }
+
+    @Override public int size() {
+        long size = 0;
+        for (ObservableMap<K,V> shard : shards) { size += shard.mappingCount(); }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override public boolean isEmpty() {
+        for (ObservableMap<K,V> shard : shards) {
+            if (!shard.isEmpty()) { return false; }
+        }
+        return true;
+    }
+
+    @Override public Set<Entry<K,V>> entrySet() { return entrySet; }
+
+    /**
+     * Stops the dedicated dispatch threads after all pending events have been delivered
+     */
+    public void shutdown() {
+        if (null == dispatchers) { return; }
+        for (ExecutorService dispatcher : dispatchers) { dispatcher.shutdown(); }
+    }
+
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (null == dispatchers) { return true; }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService dispatcher : dispatchers) {
+            if (!dispatcher.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) { return false; }
+        }
+        return true;
+    }
+
+
+    // ******************** Event Handling ************************************
+    /**
+     * Adds the given observer to every shard. The events will contain the shard as source.
+     * @param type
+     * @param observer
+     */
+    public void addMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
+        for (int i = 0 ; i < shards.length ; i++) { addShardObserver(i, type, observer); }
+    }
+    public void removeMapChangeObserver(final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
+        for (int i = 0 ; i < shards.length ; i++) { removeShardObserver(i, type, observer); }
+    }
+    public void removeAllMapChangeObservers() {
+        for (ObservableMap<K,V> shard : shards) { shard.removeAllMapChangeObservers(); }
+    }
+
+    public void addShardObserver(final int index, final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
+        if (null == observer) { return; }
+        shards[index].addMapChangeObserver(type, wrap(index, observer));
+    }
+    public void removeShardObserver(final int index, final EvtType<? extends Evt> type, final EvtObserver<MapChangeEvt<K,V>> observer) {
+        if (null == observer) { return; }
+        shards[index].removeMapChangeObserver(type, wrap(index, observer));
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private EvtObserver<MapChangeEvt<K,V>> wrap(final int index, final EvtObserver<MapChangeEvt<K,V>> observer) {
+        return null == dispatchers ? observer : new DispatchingObserver<>(observer, dispatchers[index]);
+    }
+
+
+    // ******************** Inner Classes *************************************
+    // Equal for the same observer and executor, so that it can be removed again
+    private record DispatchingObserver<K,V>(EvtObserver<MapChangeEvt<K,V>> observer, ExecutorService executor) implements EvtObserver<MapChangeEvt<K,V>> {
+        @Override public void handle(final MapChangeEvt<K,V> evt) {
+            // Reused events will be released after handle() returned, so they have to be copied
+            final MapChangeEvt<K,V> delivered = evt instanceof ReusableMapChangeEvt ? new MapChangeEvt<>((Map<K,V>) evt.getSource(), evt.getEvtType(), evt.getPriority(), copyOf(evt.getAddedEntries()), copyOf(evt.getModifiedEntries()), copyOf(evt.getRemovedEntries())) : evt;
+            executor.execute(() -> observer.handle(delivered));
+        }
+
+        private static <K,V> List<Entry<K,V>> copyOf(final List<Entry<K,V>> entries) {
+            final List<Entry<K,V>> copy = new ArrayList<>(entries.size());
+            for (Entry<K,V> entry : entries) { copy.add(Map.entry(entry.getKey(), entry.getValue())); }
+            return copy;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K,V>> {
+        @Override public Iterator<Entry<K,V>> iterator() {
+            return new Iterator<>() {
+                private int                  index    = 0;
+                private Iterator<Entry<K,V>> iterator = shards[0].entrySet().iterator();
+
+                @Override public boolean hasNext() {
+                    while (!iterator.hasNext()) {
+                        if (++index >= shards.length) { return false; }
+                        iterator = shards[index].entrySet().iterator();
+                    }
+                    return true;
+                }
+
+                @Override public Entry<K,V> next() {
+                    if (!hasNext()) { throw new NoSuchElementException(); }
+                    return iterator.next();
+                }
+
+                @Override public void remove() { iterator.remove(); }
+            };
+        }
+
+        @Override public int size() { return ShardedObservableMap.this.size(); }
+
+        @Override public boolean isEmpty() { return ShardedObservableMap.this.isEmpty(); }
+
+        @Override public void clear() { ShardedObservableMap.this.clear(); }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Keeps only the cells that contain an item in an open addressing hash table with linear probing,
+ * the key of a cell is (y << 32 | x) and is stored in a long[] next to the items in an Object[].
+ * The number of items per row and per column is counted, so emptiness checks don't need a scan.
+ * Removed entries are not marked but the following entries are shifted back, so lookups never
+ * have to skip deleted slots. All methods are synchronized.
+ * @param <T> Type of the items in the matrix
+ */
+final class SparseMatrixStore<T> implements MatrixStore<T> {
+    private static final long     EMPTY            = -1L;
+    private static final int      INITIAL_CAPACITY = 16;
+    private        final int      cols;
+    private        final int      rows;
+    private        final int[]    itemsPerCol;
+    private        final int[]    itemsPerRow;
+    private              long[]   keys;
+    private              Object[] items;
+    private              int      size;
+
+
+    // ******************** Constructors **************************************
+    SparseMatrixStore(final int cols, final int rows) {
+        this.cols        = cols;
+        this.rows        = rows;
+        this.itemsPerCol = new int[cols];
+        this.itemsPerRow = new int[rows];
+        this.keys        = new long[INITIAL_CAPACITY];
+        this.items       = new Object[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public int getCols() { return cols; }
+
+    @Override public int getRows() { return rows; }
+
+    @Override public synchronized T get(final int x, final int y) {
+        final int slot = slotOf(key(x, y));
+        return slot < 0 ? null : (T) items[slot];
+    }
+
+    @Override public synchronized void set(final int x, final int y, final T item) { getAndSet(x, y, item); }
+
+    @Override public synchronized T getAndSet(final int x, final int y, final T item) {
+        final long key  = key(x, y);
+        final int  slot = slotOf(key);
+        if (slot < 0) {
+            if (null != item) { insert(key, item); }
+            return null;
+        }
+        final T oldItem = (T) items[slot];
+        if (null == item) {
+            remove(slot);
+        } else {
+            items[slot] = item;
+        }
+        return oldItem;
+    }
+
+    @Override public synchronized boolean compareAndSet(final int x, final int y, final T expectedItem, final T item) {
+        if (get(x, y) != expectedItem) { return false; }
+        set(x, y, item);
+        return true;
+    }
+
+    @Override public synchronized void clear() {
+        keys  = new long[INITIAL_CAPACITY];
+        items = new Object[INITIAL_CAPACITY];
+        size  = 0;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(itemsPerCol, 0);
+        Arrays.fill(itemsPerRow, 0);
+    }
+
+    @Override public MatrixStore<T> create(final int cols, final int rows) { return new SparseMatrixStore<>(cols, rows); }
+
+    @Override public synchronized void forEachItem(final CellVisitor<T> visitor) {
+        for (int slot = 0 ; slot < keys.length ; slot++) {
+            final long key = keys[slot];
+            if (EMPTY != key) { visitor.visit((int) key, (int) (key >>> 32), (T) items[slot]); }
+        }
+    }
+
+    @Override public synchronized boolean isEmpty() { return 0 == size; }
+
+    @Override public synchronized boolean isColEmpty(final int x) { return 0 == itemsPerCol[x]; }
+
+    @Override public synchronized boolean isRowEmpty(final int y) { return 0 == itemsPerRow[y]; }
+
+    @Override public synchronized int[] indexOf(final Object item) {
+        if (null == item) { return null; }
+        long firstKey = Long.MAX_VALUE;
+        for (int slot = 0 ; slot < keys.length ; slot++) {
+            if (EMPTY != keys[slot] && keys[slot] < firstKey && item.equals(items[slot])) { firstKey = keys[slot]; }
+        }
+        return Long.MAX_VALUE == firstKey ? null : new int[] { (int) firstKey, (int) (firstKey >>> 32) };
+    }
+
+    @Override public Stream<T> stream() { return IntStream.range(0, rows).boxed().flatMap(y -> IntStream.range(0, cols).mapToObj(x -> get(x, y))); }
+
+    // There are no references to hand out, so the returned array is a detached copy of the items
+    @Override public synchronized AtomicReference<T>[][] toArray() {
+        final AtomicReference<T>[][] matrix = new AtomicReference[cols][rows];
+        for (int x = 0 ; x < cols ; x++) {
+            for (int y = 0 ; y < rows ; y++) { matrix[x][y] = new AtomicReference<>(); }
+        }
+        forEachItem((x, y, item) -> matrix[x][y].set(item));
+        return matrix;
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private static long key(final int x, final int y) { return ((long) y << 32) | (x & 0xFFFFFFFFL); }
+
+    private int indexFor(final long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private int slotOf(final long key) {
+        final int mask = keys.length - 1;
+        for (int slot = indexFor(key) ; ; slot = (slot + 1) & mask) {
+            if (key == keys[slot]) { return slot; }
+            if (EMPTY == keys[slot]) { return -1; }
+        }
+    }
+
+    private void insert(final long key, final Object item) {
+        if ((size + 1) * 2 > keys.length) { rehash(keys.length * 2); }
+        final int mask = keys.length - 1;
+        int slot = indexFor(key);
+        while (EMPTY != keys[slot]) { slot = (slot + 1) & mask; }
+        keys[slot]  = key;
+        items[slot] = item;
+        size++;
+        itemsPerCol[(int) key]++;
+        itemsPerRow[(int) (key >>> 32)]++;
+    }
+
+    private void remove(final int slot) {
+        final long key = keys[slot];
+        itemsPerCol[(int) key]--;
+        itemsPerRow[(int) (key >>> 32)]--;
+        size--;
+
+        // Shift back following entries of the same cluster that would not be found otherwise
+        final int mask = keys.length - 1;
+        int gap  = slot;
+        int next = (slot + 1) & mask;
+        while (EMPTY != keys[next]) {
+            final int home = indexFor(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap]  = keys[next];
+                items[gap] = items[next];
+                gap        = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap]  = EMPTY;
+        items[gap] = null;
+    }
+
+    private void rehash(final int capacity) {
+        final long[]   oldKeys  = keys;
+        final Object[] oldItems = items;
+        keys  = new long[capacity];
+        items = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+        final int mask = capacity - 1;
+        for (int i = 0 ; i < oldKeys.length ; i++) {
+            if (EMPTY == oldKeys[i]) { continue; }
+            int slot = indexFor(oldKeys[i]);
+            while (EMPTY != keys[slot]) { slot = (slot + 1) & mask; }
+            keys[slot]  = oldKeys[i];
+            items[slot] = oldItems[i];
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.function.Consumer;
+
+
+/**
+ * Hierarchical timing wheel that schedules the expiration of cache entries in O(1).
+ * Every level is a ring of buckets that cover a power of 2 number of nanoseconds
+ * (about 1 second, 1 minute, 1 hour, 19 hours and 13 days). Advancing the wheel only
+ * visits the buckets whose time has passed, entries of coarse buckets that are not
+ * due yet will be moved down into finer buckets.
+ */
+final class TimerWheel<K,V> {
+    private static final int[]              BUCKETS = { 64, 64, 32, 4, 1 };
+    private static final int[]              SHIFTS  = { 30, 36, 42, 46, 50 };
+    private        final CacheNode<K,V>[][] wheel;
+    private              long               nanos;
+
+
+    // ******************** Constructors **************************************
+    TimerWheel(final long now) {
+        this.wheel = new CacheNode[BUCKETS.length][];
+        for (int level = 0 ; level < BUCKETS.length ; level++) {
+            wheel[level] = new CacheNode[BUCKETS[level]];
+            for (int i = 0 ; i < BUCKETS[level] ; i++) { wheel[level][i] = new CacheNode<>(); }
+        }
+        this.nanos = now;
+    }
+
+
+    // ******************** Methods *******************************************
+    void schedule(final CacheNode<K,V> node) {
+        if (node.isScheduled()) { unlink(node); }
+        final CacheNode<K,V> sentinel = bucketOf(node.expirationTime);
+        node.previousInTimerWheel                      = sentinel.previousInTimerWheel;
+        node.nextInTimerWheel                          = sentinel;
+        sentinel.previousInTimerWheel.nextInTimerWheel = node;
+        sentinel.previousInTimerWheel                  = node;
+    }
+
+    void deschedule(final CacheNode<K,V> node) {
+        if (node.isScheduled()) { unlink(node); }
+    }
+
+    /**
+     * Advances the wheel to the given time and hands over all entries that expired until then
+     * @param now Current time in nanoseconds
+     * @param expired Will be called with every expired entry, the entry is not scheduled anymore
+     */
+    void advance(final long now, final Consumer<CacheNode<K,V>> expired) {
+        final long previous = nanos;
+        if (now - previous <= 0) { return; }
+        nanos = now;
+        for (int level = 0 ; level < SHIFTS.length ; level++) {
+            final long previousTicks = previous >>> SHIFTS[level];
+            final long currentTicks  = now >>> SHIFTS[level];
+            if (currentTicks - previousTicks <= 0) { break; }
+            expire(level, previousTicks, currentTicks - previousTicks, expired);
+        }
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private CacheNode<K,V> bucketOf(final long time) {
+        final long duration = time - nanos;
+        for (int level = 0 ; level < BUCKETS.length - 1 ; level++) {
+            if (duration < 1L << SHIFTS[level + 1]) {
+                final long ticks = time >>> SHIFTS[level];
+                return wheel[level][(int) (ticks & (BUCKETS[level] - 1))];
+            }
+        }
+        return wheel[BUCKETS.length - 1][0];
+    }
+
+    // Visits the bucket of the previous time and all buckets that have been passed since then
+    private void expire(final int level, final long previousTicks, final long delta, final Consumer<CacheNode<K,V>> expired) {
+        final CacheNode<K,V>[] buckets = wheel[level];
+        final int              mask    = buckets.length - 1;
+        final int              steps   = (int) Math.min(delta + 1, buckets.length);
+        final int              start   = (int) (previousTicks & mask);
+        for (int i = 0 ; i < steps ; i++) {
+            final CacheNode<K,V> sentinel = buckets[(start + i) & mask];
+            CacheNode<K,V>       node     = sentinel.nextInTimerWheel;
+            sentinel.previousInTimerWheel = sentinel;
+            sentinel.nextInTimerWheel     = sentinel;
+            while (node != sentinel) {
+                final CacheNode<K,V> next = node.nextInTimerWheel;
+                node.previousInTimerWheel = null;
+                node.nextInTimerWheel     = null;
+                if (node.expirationTime - nanos <= 0) {
+                    expired.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private void unlink(final CacheNode<K,V> node) {
+        node.previousInTimerWheel.nextInTimerWheel = node.nextInTimerWheel;
+        node.nextInTimerWheel.previousInTimerWheel = node.previousInTimerWheel;
+        node.previousInTimerWheel                  = null;
+        node.nextInTimerWheel                      = null;
+    }
+}
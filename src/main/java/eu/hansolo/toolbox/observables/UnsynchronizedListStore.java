@@ -0,0 +1,191 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.observables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * Plain ArrayList without any synchronization. It is wrapped instead of extended
+ * so that clearAndGet() can hand over the old list instead of copying it.
+ */
+final class UnsynchronizedListStore<T> extends AbstractList<T> implements ListStore<T>, RandomAccess {
+    private ArrayList<T> list;
+
+
+    // ******************** Constructors **************************************
+    UnsynchronizedListStore(final Collection<? extends T> collection) {
+        this.list = null == collection ? new ArrayList<>() : new ArrayList<>(collection);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public T get(final int index) { return list.get(index); }
+
+    @Override public int size() { return list.size(); }
+
+    @Override public boolean isEmpty() { return list.isEmpty(); }
+
+    @Override public boolean contains(final Object obj) { return list.contains(obj); }
+
+    @Override public int indexOf(final Object obj) { return list.indexOf(obj); }
+
+    @Override public int indexOf(final Object obj, final int index) {
+        for (int i = Math.max(0, index), n = list.size() ; i < n ; i++) {
+            if (Objects.equals(obj, list.get(i))) { return i; }
+        }
+        return -1;
+    }
+
+    @Override public int lastIndexOf(final Object obj) { return list.lastIndexOf(obj); }
+
+    @Override public int lastIndexOf(final Object obj, final int index) {
+        for (int i = Math.min(index, list.size() - 1) ; i >= 0 ; i--) {
+            if (Objects.equals(obj, list.get(i))) { return i; }
+        }
+        return -1;
+    }
+
+    @Override public Object[] toArray() { return list.toArray(); }
+
+    @Override public <U> U[] toArray(final U[] a) { return list.toArray(a); }
+
+    @Override public Iterator<T> iterator() { return list.iterator(); }
+
+    @Override public ListIterator<T> listIterator() { return list.listIterator(); }
+
+    @Override public ListIterator<T> listIterator(final int index) { return list.listIterator(index); }
+
+    @Override public Spliterator<T> spliterator() { return list.spliterator(); }
+
+    @Override public void forEach(final Consumer<? super T> action) { list.forEach(action); }
+
+    @Override public List<T> subList(final int fromIndex, final int toIndex) { return list.subList(fromIndex, toIndex); }
+
+    @Override public List<T> snapshot() { return new ArrayList<>(list); }
+
+    @Override public boolean equals(final Object obj) { return obj == this || list.equals(obj); }
+
+    @Override public int hashCode() { return list.hashCode(); }
+
+
+    @Override public T set(final int index, final T element) { return list.set(index, element); }
+
+    @Override public boolean add(final T element) { return list.add(element); }
+
+    @Override public void add(final int index, final T element) { list.add(index, element); }
+
+    @Override public boolean addAll(final Collection<? extends T> collection) { return list.addAll(collection); }
+
+    @Override public boolean addAll(final int index, final Collection<? extends T> collection) { return list.addAll(index, collection); }
+
+    @Override public int addAndGetIndex(final T element) {
+        list.add(element);
+        return list.size() - 1;
+    }
+
+    @Override public int addAllAndGetIndex(final Collection<? extends T> collection) {
+        final int index = list.size();
+        return list.addAll(collection) ? index : -1;
+    }
+
+    @Override public boolean addIfAbsent(final T element) { return !list.contains(element) && list.add(element); }
+
+    @Override public int addAllAbsent(final Collection<? extends T> collection) {
+        int added = 0;
+        for (T element : new LinkedHashSet<>(collection)) {
+            if (addIfAbsent(element)) { added++; }
+        }
+        return added;
+    }
+
+    @Override public T remove(final int index) { return list.remove(index); }
+
+    @Override public boolean remove(final Object obj) { return list.remove(obj); }
+
+    @Override public int removeAndGetIndex(final Object obj) {
+        final int index = list.indexOf(obj);
+        if (index >= 0) { list.remove(index); }
+        return index;
+    }
+
+    @Override public boolean removeAll(final Collection<?> collection) { return list.removeAll(collection); }
+
+    @Override public boolean retainAll(final Collection<?> collection) { return list.retainAll(collection); }
+
+    @Override public boolean removeIf(final Predicate<? super T> filter) { return list.removeIf(filter); }
+
+    @Override public List<T> removeIfAndGet(final Predicate<? super T> filter) {
+        final List<T> removed = new ArrayList<>();
+        list.removeIf(element -> {
+            if (!filter.test(element)) { return false; }
+            removed.add(element);
+            return true;
+        });
+        return removed;
+    }
+
+    @Override public void replaceAll(final UnaryOperator<T> operator) { list.replaceAll(operator); }
+
+    @Override public List<T> replaceAllAndGet(final UnaryOperator<T> operator) {
+        Objects.requireNonNull(operator);
+        final ArrayList<T> current  = list;
+        final ArrayList<T> replaced = new ArrayList<>(current.size());
+        for (T element : current) { replaced.add(operator.apply(element)); }
+        list = replaced;
+        return Collections.unmodifiableList(current);
+    }
+
+    @Override public void sort(final Comparator<? super T> comparator) { list.sort(comparator); }
+
+    @Override public void parallelSort(final Comparator<? super T> comparator) { sort(comparator, true, false); }
+
+    @Override public int[] sortAndGetPermutation(final Comparator<? super T> comparator, final boolean parallel) { return sort(comparator, parallel, true); }
+
+    @Override public void clear() { list.clear(); }
+
+    @Override public List<T> clearAndGet() {
+        final List<T> removed = list;
+        list = new ArrayList<>();
+        return Collections.unmodifiableList(removed);
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private int[] sort(final Comparator<? super T> comparator, final boolean parallel, final boolean permutation) {
+        final Object[] elements   = list.toArray();
+        final int[]    newIndices = ListStore.sort(elements, comparator, parallel, permutation);
+        for (int i = 0 ; i < elements.length ; i++) { list.set(i, (T) elements[i]); }
+        return newIndices;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.type.InvalidationEvt;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+
+/**
+ * A double property that can safely be updated from many threads without locks.
+ * All updates are atomic operations on the value, no update will be lost.
+ * Observers will never be called concurrently. The thread that finishes an update
+ * delivers all pending changes in the order in which they became visible. Every
+ * event starts with the new value of the event before. Under contention, changes
+ * that happen while the observers are still busy are merged into a single event
+ * from the last delivered value to the current value.
+ * Values are compared by their bits, like in Double.compare(), so NaN equals NaN.
+ */
+public class AtomicDoubleProperty extends ReadOnlyDoubleProperty {
+    private static final VarHandle VALUE;
+    private static final VarHandle WIP;
+    private volatile     int       wip;
+    private              double    delivered;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(ReadOnlyDoubleProperty.class, "primitiveValue", double.class);
+            WIP   = lookup.findVarHandle(AtomicDoubleProperty.class, "wip", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    // ******************** Constructors **************************************
+    public AtomicDoubleProperty() {
+        this(null, null, 0d);
+    }
+    public AtomicDoubleProperty(final double value) {
+        this(null, null, value);
+    }
+    public AtomicDoubleProperty(final String name, final double value) {
+        this(null, name, value);
+    }
+    public AtomicDoubleProperty(final Object bean, final String name, final double value) {
+        super(bean, name, value);
+        this.delivered = value;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public double get() { return (double) VALUE.getVolatile(this); }
+
+    @Override public Double getValue() { return get(); }
+
+    public void set(final double value) { getAndSet(value); }
+    public void setValue(final Double value) { set(value); }
+
+    public double getAndSet(final double value) {
+        final double oldValue = (double) VALUE.getAndSet(this, value);
+        if (Double.compare(oldValue, value) != 0) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Sets the value to newValue if the current value has the same bits as expectedValue
+     * @param expectedValue
+     * @param newValue
+     * @return true if the value has been set
+     */
+    public boolean compareAndSet(final double expectedValue, final double newValue) {
+        if (!VALUE.compareAndSet(this, expectedValue, newValue)) { return false; }
+        if (Double.compare(expectedValue, newValue) != 0) { drain(); }
+        return true;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the previous value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the previous value
+     */
+    public double getAndUpdate(final DoubleUnaryOperator function) {
+        double oldValue;
+        double newValue;
+        do {
+            oldValue = get();
+            newValue = function.applyAsDouble(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (Double.compare(oldValue, newValue) != 0) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the new value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the new value
+     */
+    public double updateAndGet(final DoubleUnaryOperator function) {
+        double oldValue;
+        double newValue;
+        do {
+            oldValue = get();
+            newValue = function.applyAsDouble(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (Double.compare(oldValue, newValue) != 0) { drain(); }
+        return newValue;
+    }
+
+    public double getAndAccumulate(final double x, final DoubleBinaryOperator function) {
+        return getAndUpdate(value -> function.applyAsDouble(value, x));
+    }
+
+    public double accumulateAndGet(final double x, final DoubleBinaryOperator function) {
+        return updateAndGet(value -> function.applyAsDouble(value, x));
+    }
+
+    public double addAndGet(final double delta) { return updateAndGet(value -> value + delta); }
+
+
+    // ******************** Private Methods ***********************************
+    /**
+     * Only one thread at a time notifies the observers, the others just tell it
+     * that there is more to deliver and return immediately.
+     * If an observer throws, all steps of the delivery and all pending changes are
+     * still delivered in order and the first exception is rethrown at the end.
+     */
+    private void drain() {
+        if ((int) WIP.getAndAdd(this, 1) != 0) { return; }
+        RuntimeException failure = null;
+        int              missed  = 1;
+        do {
+            final double current = get();
+            if (Double.compare(delivered, current) != 0) {
+                final double oldValue = delivered;
+                delivered = current;
+                try { updateProperties(current, null); } catch (RuntimeException e) { failure = addFailure(failure, e); }
+                try { fireChange(oldValue, current); } catch (RuntimeException e) { failure = addFailure(failure, e); }
+                if (hasObservers()) { try { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, current)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+                if (hasInvalidationObservers()) { try { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+            }
+            missed = (int) WIP.getAndAdd(this, -missed) - missed;
+        } while (0 != missed);
+        if (null != failure) { throw failure; }
+    }
+
+    private static RuntimeException addFailure(final RuntimeException failure, final RuntimeException e) {
+        if (null == failure) { return e; }
+        failure.addSuppressed(e);
+        return failure;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.type.InvalidationEvt;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+
+/**
+ * A long property that can safely be updated from many threads without locks.
+ * All updates are atomic operations on the value, no update will be lost.
+ * Observers will never be called concurrently. The thread that finishes an update
+ * delivers all pending changes in the order in which they became visible. Every
+ * event starts with the new value of the event before. Under contention, changes
+ * that happen while the observers are still busy are merged into a single event
+ * from the last delivered value to the current value.
+ */
+public class AtomicLongProperty extends ReadOnlyLongProperty {
+    private static final VarHandle VALUE;
+    private static final VarHandle WIP;
+    private volatile     int       wip;
+    private              long      delivered;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(ReadOnlyLongProperty.class, "primitiveValue", long.class);
+            WIP   = lookup.findVarHandle(AtomicLongProperty.class, "wip", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    // ******************** Constructors **************************************
+    public AtomicLongProperty() {
+        this(null, null, 0l);
+    }
+    public AtomicLongProperty(final long value) {
+        this(null, null, value);
+    }
+    public AtomicLongProperty(final String name, final long value) {
+        this(null, name, value);
+    }
+    public AtomicLongProperty(final Object bean, final String name, final long value) {
+        super(bean, name, value);
+        this.delivered = value;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public long get() { return (long) VALUE.getVolatile(this); }
+
+    @Override public Long getValue() { return get(); }
+
+    public void set(final long value) { getAndSet(value); }
+    public void setValue(final Long value) { set(value); }
+
+    public long getAndSet(final long value) {
+        final long oldValue = (long) VALUE.getAndSet(this, value);
+        if (oldValue != value) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Sets the value to newValue if the current value equals expectedValue
+     * @param expectedValue
+     * @param newValue
+     * @return true if the value has been set
+     */
+    public boolean compareAndSet(final long expectedValue, final long newValue) {
+        if (!VALUE.compareAndSet(this, expectedValue, newValue)) { return false; }
+        if (expectedValue != newValue) { drain(); }
+        return true;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the previous value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the previous value
+     */
+    public long getAndUpdate(final LongUnaryOperator function) {
+        long oldValue;
+        long newValue;
+        do {
+            oldValue = get();
+            newValue = function.applyAsLong(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (oldValue != newValue) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the new value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the new value
+     */
+    public long updateAndGet(final LongUnaryOperator function) {
+        long oldValue;
+        long newValue;
+        do {
+            oldValue = get();
+            newValue = function.applyAsLong(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (oldValue != newValue) { drain(); }
+        return newValue;
+    }
+
+    public long getAndAccumulate(final long x, final LongBinaryOperator function) {
+        return getAndUpdate(value -> function.applyAsLong(value, x));
+    }
+
+    public long accumulateAndGet(final long x, final LongBinaryOperator function) {
+        return updateAndGet(value -> function.applyAsLong(value, x));
+    }
+
+    public long getAndAdd(final long delta) {
+        final long oldValue = (long) VALUE.getAndAdd(this, delta);
+        if (0 != delta) { drain(); }
+        return oldValue;
+    }
+
+    public long addAndGet(final long delta) { return getAndAdd(delta) + delta; }
+
+    public long incrementAndGet() { return addAndGet(1); }
+
+    public long decrementAndGet() { return addAndGet(-1); }
+
+
+    // ******************** Private Methods ***********************************
+    /**
+     * Only one thread at a time notifies the observers, the others just tell it
+     * that there is more to deliver and return immediately.
+     * If an observer throws, all steps of the delivery and all pending changes are
+     * still delivered in order and the first exception is rethrown at the end.
+     */
+    private void drain() {
+        if ((int) WIP.getAndAdd(this, 1) != 0) { return; }
+        RuntimeException failure = null;
+        int              missed  = 1;
+        do {
+            final long current = get();
+            if (delivered != current) {
+                final long oldValue = delivered;
+                delivered = current;
+                try { updateProperties(current, null); } catch (RuntimeException e) { failure = addFailure(failure, e); }
+                try { fireChange(oldValue, current); } catch (RuntimeException e) { failure = addFailure(failure, e); }
+                if (hasObservers()) { try { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, current)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+                if (hasInvalidationObservers()) { try { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+            }
+            missed = (int) WIP.getAndAdd(this, -missed) - missed;
+        } while (0 != missed);
+        if (null != failure) { throw failure; }
+    }
+
+    private static RuntimeException addFailure(final RuntimeException failure, final RuntimeException e) {
+        if (null == failure) { return e; }
+        failure.addSuppressed(e);
+        return failure;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.type.InvalidationEvt;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * An object property that can safely be updated from many threads without locks.
+ * All updates are atomic operations on the value, no update will be lost.
+ * Observers will never be called concurrently. The thread that finishes an update
+ * delivers all pending changes in the order in which they became visible. Every
+ * event starts with the new value of the event before. Under contention, changes
+ * that happen while the observers are still busy are merged into a single event
+ * from the last delivered value to the current value.
+ * Changes are detected with equals() while compareAndSet() compares references.
+ * @param <T>
+ */
+public class AtomicObjectProperty<T> extends ReadOnlyObjectProperty<T> {
+    private static final VarHandle VALUE;
+    private static final VarHandle WIP;
+    private volatile     int       wip;
+    private              T         delivered;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(ReadOnlyProperty.class, "value", Object.class);
+            WIP   = lookup.findVarHandle(AtomicObjectProperty.class, "wip", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    // ******************** Constructors **************************************
+    public AtomicObjectProperty() {
+        this(null, null, null);
+    }
+    public AtomicObjectProperty(final T value) {
+        this(null, null, value);
+    }
+    public AtomicObjectProperty(final String name, final T value) {
+        this(null, name, value);
+    }
+    public AtomicObjectProperty(final Object bean, final String name, final T value) {
+        super(bean, name, value);
+        this.delivered = value;
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public T get() { return (T) VALUE.getVolatile(this); }
+
+    @Override public T getValue() { return get(); }
+
+    public void set(final T value) { getAndSet(value); }
+    public void setValue(final T value) { set(value); }
+
+    public T getAndSet(final T value) {
+        final T oldValue = (T) VALUE.getAndSet(this, value);
+        if (!Objects.equals(oldValue, value)) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Sets the value to newValue if the current value is the same instance as expectedValue
+     * @param expectedValue
+     * @param newValue
+     * @return true if the value has been set
+     */
+    public boolean compareAndSet(final T expectedValue, final T newValue) {
+        if (!VALUE.compareAndSet(this, expectedValue, newValue)) { return false; }
+        if (!Objects.equals(expectedValue, newValue)) { drain(); }
+        return true;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the previous value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the previous value
+     */
+    public T getAndUpdate(final UnaryOperator<T> function) {
+        T oldValue;
+        T newValue;
+        do {
+            oldValue = get();
+            newValue = function.apply(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (!Objects.equals(oldValue, newValue)) { drain(); }
+        return oldValue;
+    }
+
+    /**
+     * Atomically updates the value with the result of the given function and returns the new value.
+     * The function might be called more than once if other threads update the value at the same time.
+     * @param function Side effect free function
+     * @return the new value
+     */
+    public T updateAndGet(final UnaryOperator<T> function) {
+        T oldValue;
+        T newValue;
+        do {
+            oldValue = get();
+            newValue = function.apply(oldValue);
+        } while (!VALUE.weakCompareAndSet(this, oldValue, newValue));
+        if (!Objects.equals(oldValue, newValue)) { drain(); }
+        return newValue;
+    }
+
+    public T getAndAccumulate(final T x, final BinaryOperator<T> function) {
+        return getAndUpdate(value -> function.apply(value, x));
+    }
+
+    public T accumulateAndGet(final T x, final BinaryOperator<T> function) {
+        return updateAndGet(value -> function.apply(value, x));
+    }
+
+
+    // ******************** Private Methods ***********************************
+    /**
+     * Only one thread at a time notifies the observers, the others just tell it
+     * that there is more to deliver and return immediately.
+     * If an observer throws, all steps of the delivery and all pending changes are
+     * still delivered in order and the first exception is rethrown at the end.
+     */
+    private void drain() {
+        if ((int) WIP.getAndAdd(this, 1) != 0) { return; }
+        RuntimeException failure = null;
+        int              missed  = 1;
+        do {
+            final T current = get();
+            if (!Objects.equals(delivered, current)) {
+                final T oldValue = delivered;
+                delivered = current;
+                try { updateProperties(current, null); } catch (RuntimeException e) { failure = addFailure(failure, e); }
+                if (hasObservers()) { try { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, current)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+                if (hasInvalidationObservers()) { try { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); } catch (RuntimeException e) { failure = addFailure(failure, e); } }
+            }
+            missed = (int) WIP.getAndAdd(this, -missed) - missed;
+        } while (0 != missed);
+        if (null != failure) { throw failure; }
+    }
+
+    private static RuntimeException addFailure(final RuntimeException failure, final RuntimeException e) {
+        if (null == failure) { return e; }
+        failure.addSuppressed(e);
+        return failure;
+    }
+}
@@ -46,27 +46,28 @@ public class CharProperty extends ReadOnlyCharProperty {
 
 
     // ******************** Methods *******************************************
-    public void set(final char value) { setValue(value); }
-    public void setValue(final Character value) {
-        if (bound && !bidirectional) { throw new IllegalArgumentException("A bound value cannot be set."); }
+    public void set(final char value) {
+        if (bound) { throw new IllegalArgumentException("A bound value cannot be set."); }
         setValue(value, null);
     }
-    protected void setValue(final Character value, final CharProperty property) {
-        if (!value.equals(getValue())) {
-            willChange(this.value, value);
-            final Character oldValue = this.value;
-            this.value = value;
-            if (null == property && null != this.propertyToUpdate) {
-                this.propertyToUpdate.setValue(value, this);
-            }
-            fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, this.value));
-            didChange(oldValue, this.value);
+    public void setValue(final Character value) { set(value); }
+    protected void setValue(final char value, final ReadOnlyCharProperty property) {
+        if (updating && null != property) { return; }
+        if (value != this.primitiveValue) {
+            final char oldValue = this.primitiveValue;
+            if (changeHooks) { willChange(oldValue, value); }
+            this.primitiveValue = value;
+            updateProperties(value, property);
+            fireChange(oldValue, value);
+            // Only box the values into an event if somebody is interested in it
+            if (hasObservers()) { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, value)); }
+            if (changeHooks) { didChange(oldValue, value); }
         }
         invalidated();
     }
 
     @Override public void invalidated() {
-        fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED));
+        if (hasInvalidationObservers()) { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); }
     }
 
     public void unset() { setValue(getInitialValue()); }
@@ -74,43 +75,29 @@ public class CharProperty extends ReadOnlyCharProperty {
     public void setInitialValue(final Character initialValue) { this.initialValue = initialValue; }
 
     public void bind(final ReadOnlyCharProperty property) {
+        if (null == property) { throw new IllegalArgumentException("property cannot be null"); }
+        unbind();
         this.propertyBoundTo = property;
-        this.value           = this.propertyBoundTo.getValue();
-        propertyBoundTo.setPropertyToUpdate(this);
-        propertyToUpdate = null;
-        this.bound       = true;
+        this.primitiveValue  = property.get();
+        property.addPropertyToUpdate(this);
+        this.bound           = true;
     }
-    public boolean isBound() { return this.bound; }
+    public boolean isBound() { return this.bound || this.bidirectional; }
 
     public void bindBidirectional(final CharProperty property) {
-        setPropertyToUpdate(property, true);
-        property.setPropertyToUpdate(this, true);
-        this.propertyBoundTo = property;
-        this.bound           = true;
+        if (null == property || this == property) { throw new IllegalArgumentException("property cannot be null or this property"); }
+        if (this.bound || property.bound) { throw new IllegalArgumentException("A bound property cannot be bound bidirectional."); }
+        this.primitiveValue = property.get();
+        linkBidirectional(property);
     }
     public boolean isBoundBidirectional() { return this.bidirectional; }
 
     public void unbind() {
-        if (null != this.propertyToUpdate) {
-            this.propertyToUpdate.unsetPropertyToUpdate();
-            this.propertyToUpdate.unbind();
-            this.propertyToUpdate = null;
-        }
         if (null != this.propertyBoundTo) {
-            this.propertyBoundTo.unsetPropertyToUpdate();
+            this.propertyBoundTo.removePropertyToUpdate(this);
             this.propertyBoundTo = null;
         }
-        this.bound         = false;
-        this.bidirectional = false;
-    }
-
-    protected void setPropertyToUpdate(final CharProperty property, final boolean bidirectional) {
-        this.propertyToUpdate = property;
-        if (null == property) {
-            this.bidirectional = false;
-        } else {
-            this.value = property.getValue();
-            this.bidirectional = bidirectional;
-        }
+        unlinkBidirectional();
+        this.bound = false;
     }
 }
@@ -0,0 +1,251 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Wraps an observer and merges rapid changes into one PropertyChangeEvt that carries
+ * the old value of the first and the new value of the last merged change. Changes
+ * that end up at the value they started from are not delivered at all.
+ * In throttle mode the first change after a quiet period is delivered right away and
+ * all following changes are delivered at most once per interval by a scheduler thread.
+ * In latestOnly mode the delivery is handed to an executor (e.g. the event loop of a
+ * UI toolkit) and all changes that happen until the executor runs it are merged.
+ * The wrapped observer is never called by two threads at once, changes that become due
+ * while it is running are delivered by the delivering thread right after it returns.
+ * @param <T>
+ */
+public final class CoalescingObserver<T> implements EvtObserver<PropertyChangeEvt<T>> {
+    private static volatile ScheduledExecutorService          scheduler;
+    private        final    EvtObserver<PropertyChangeEvt<T>> observer;
+    private        final    long                              intervalNanos;
+    private        final    ScheduledExecutorService          throttleScheduler;
+    private        final    Executor                          executor;
+    private                 PropertyChangeEvt<T>              first;
+    private                 T                                 lastValue;
+    private                 boolean                           pending;
+    private                 boolean                           delivering;
+    private                 boolean                           due;
+    private                 long                              lastDelivery;
+    private                 ScheduledFuture<?>                scheduledFlush;
+
+
+    // ******************** Constructors **************************************
+    private CoalescingObserver(final EvtObserver<PropertyChangeEvt<T>> observer, final long intervalNanos, final ScheduledExecutorService throttleScheduler, final Executor executor) {
+        if (null == observer) { throw new IllegalArgumentException("observer cannot be null"); }
+        this.observer          = observer;
+        this.intervalNanos     = intervalNanos;
+        this.throttleScheduler = throttleScheduler;
+        this.executor          = executor;
+        this.pending           = false;
+        this.delivering        = false;
+        this.due               = false;
+        this.lastDelivery      = System.nanoTime() - intervalNanos;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns an observer that delivers at most one change per interval to the given observer
+     * @param interval Minimum time between two deliveries
+     * @param observer
+     * @return an observer that delivers at most one change per interval to the given observer
+     */
+    public static <T> CoalescingObserver<T> throttle(final Duration interval, final EvtObserver<PropertyChangeEvt<T>> observer) {
+        return throttle(interval, defaultScheduler(), observer);
+    }
+    /**
+     * Returns an observer that delivers at most one change per interval to the given observer
+     * @param interval Minimum time between two deliveries
+     * @param scheduler Scheduler that will deliver the merged changes at the end of an interval
+     * @param observer
+     * @return an observer that delivers at most one change per interval to the given observer
+     */
+    public static <T> CoalescingObserver<T> throttle(final Duration interval, final ScheduledExecutorService scheduler, final EvtObserver<PropertyChangeEvt<T>> observer) {
+        if (null == interval || interval.isNegative() || interval.isZero()) { throw new IllegalArgumentException("interval must be positive"); }
+        if (null == scheduler) { throw new IllegalArgumentException("scheduler cannot be null"); }
+        return new CoalescingObserver<>(observer, interval.toNanos(), scheduler, null);
+    }
+
+    /**
+     * Returns an observer that merges all changes until the given executor delivers them
+     * @param executor Executor that delivers the changes (e.g. Platform::runLater)
+     * @param observer
+     * @return an observer that merges all changes until the given executor delivers them
+     */
+    public static <T> CoalescingObserver<T> latestOnly(final Executor executor, final EvtObserver<PropertyChangeEvt<T>> observer) {
+        if (null == executor) { throw new IllegalArgumentException("executor cannot be null"); }
+        return new CoalescingObserver<>(observer, 0, null, executor);
+    }
+
+    public EvtObserver<PropertyChangeEvt<T>> getObserver() { return observer; }
+
+    public synchronized boolean isPending() { return pending; }
+
+    /**
+     * Delivers the merged changes right away (if there are any)
+     */
+    public void flush() {
+        final PropertyChangeEvt<T> evt;
+        synchronized (this) {
+            if (null != scheduledFlush) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (delivering) {
+                due = pending;
+                return;
+            }
+            evt = take();
+            if (null == evt) { return; }
+            delivering = true;
+        }
+        deliver(evt);
+    }
+
+    /**
+     * Drops the merged changes that have not been delivered yet
+     */
+    public synchronized void cancel() {
+        if (null != scheduledFlush) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        pending   = false;
+        due       = false;
+        first     = null;
+        lastValue = null;
+    }
+
+
+    // ******************** Event Handling ************************************
+    @Override public void handle(final PropertyChangeEvt<T> evt) {
+        synchronized (this) {
+            if (pending) {
+                lastValue = evt.getValue();
+                return;
+            }
+            if (null != executor) {
+                hold(evt);
+                executor.execute(this::flush);
+                return;
+            }
+            final long now  = System.nanoTime();
+            final long wait = lastDelivery + intervalNanos - now;
+            if (wait > 0) {
+                hold(evt);
+                scheduledFlush = throttleScheduler.schedule(this::flush, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            lastDelivery = now;
+            if (delivering) {
+                hold(evt);
+                due = true;
+                return;
+            }
+            delivering = true;
+        }
+        deliver(evt);
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private void hold(final PropertyChangeEvt<T> evt) {
+        pending   = true;
+        first     = evt;
+        lastValue = evt.getValue();
+    }
+
+    /**
+     * Calls the observer with the given change and all changes that became due meanwhile,
+     * the caller has to set delivering before
+     */
+    private void deliver(final PropertyChangeEvt<T> evt) {
+        PropertyChangeEvt<T> next = evt;
+        try {
+            while (null != next) {
+                observer.handle(next);
+                synchronized (this) {
+                    next = due ? take() : null;
+                    if (null == next) { delivering = false; }
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (delivering) {
+                    // The observer has thrown, hand the changes that became due over to a later delivery
+                    delivering = false;
+                    if (due) {
+                        due = false;
+                        if (null != executor) {
+                            executor.execute(this::flush);
+                        } else {
+                            scheduledFlush = throttleScheduler.schedule(this::flush, 0, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private PropertyChangeEvt<T> take() {
+        due = false;
+        if (!pending) { return null; }
+        final PropertyChangeEvt<T> firstEvt = first;
+        final T                    value    = lastValue;
+        pending      = false;
+        first        = null;
+        lastValue    = null;
+        lastDelivery = System.nanoTime();
+        if (Objects.equals(firstEvt.getOldValue(), value)) { return null; }
+        if (firstEvt.getSource() instanceof ReadOnlyProperty source) {
+            return new PropertyChangeEvt<>(source, firstEvt.getEvtType(), firstEvt.getPriority(), firstEvt.getOldValue(), value);
+        }
+        return new PropertyChangeEvt<>(firstEvt.getEvtType(), firstEvt.getOldValue(), value);
+    }
+
+    private static ScheduledExecutorService defaultScheduler() {
+        ScheduledExecutorService result = scheduler;
+        if (null == result) {
+            synchronized (CoalescingObserver.class) {
+                result = scheduler;
+                if (null == result) {
+                    result = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        final Thread thread = new Thread(runnable, "CoalescingObserver");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler = result;
+                }
+            }
+        }
+        return result;
+    }
+}
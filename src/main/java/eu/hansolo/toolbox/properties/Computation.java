@@ -0,0 +1,139 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.type.InvalidationEvt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Keeps track of the dependencies and the validity of a computed property.
+ * Invalidation is pushed through the graph of computed properties without
+ * computing anything, values are only pulled (and memoized) when they are read.
+ * Computed properties that have observers (or a bound property) need their new
+ * value right away. They are collected while the invalidation spreads and will be
+ * updated by their level (the length of the longest path to a plain property)
+ * after the invalidation of the source property has been completely propagated.
+ * This evaluates the graph in topological order, every computation runs at most
+ * once per change and observers never see a mix of old and new values.
+ */
+final class Computation {
+    private static final ThreadLocal<Propagation>        PROPAGATION = ThreadLocal.withInitial(Propagation::new);
+    private        final ReadOnlyProperty<?>             owner;
+    private        final ReadOnlyProperty<?>[]           dependencies;
+    private        final EvtObserver<InvalidationEvt<?>> dependencyObserver;
+    private        final BooleanSupplier                 needsUpdate;
+    private        final Runnable                        update;
+    private        final int                             level;
+    private              boolean                         valid;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * @param owner The computed property
+     * @param needsUpdate Returns true if the owner has to be updated right after an invalidation
+     * @param update Recomputes the value of the owner and notifies its observers
+     * @param dependencies The properties the value of the owner depends on
+     */
+    Computation(final ReadOnlyProperty<?> owner, final BooleanSupplier needsUpdate, final Runnable update, final ReadOnlyProperty<?>... dependencies) {
+        if (null == dependencies) { throw new IllegalArgumentException("dependencies cannot be null"); }
+        int maxLevel = 0;
+        for (ReadOnlyProperty<?> dependency : dependencies) {
+            if (null == dependency) { throw new IllegalArgumentException("dependencies cannot contain null"); }
+            final Computation computation = of(dependency);
+            if (null != computation) { maxLevel = Math.max(maxLevel, computation.getLevel()); }
+        }
+        this.owner              = owner;
+        this.dependencies       = dependencies.clone();
+        this.dependencyObserver = evt -> invalidate();
+        this.needsUpdate        = needsUpdate;
+        this.update             = update;
+        this.level              = maxLevel + 1;
+        this.valid              = false;
+        for (ReadOnlyProperty dependency : this.dependencies) { dependency.addInvalidationObserver(dependencyObserver); }
+    }
+
+
+    // ******************** Methods *******************************************
+    int getLevel() { return level; }
+
+    boolean isValid() { return valid; }
+
+    void validate() { valid = true; }
+
+    void invalidate() {
+        if (!valid) { return; }
+        valid = false;
+        beginPropagation();
+        try {
+            owner.fireEvent(new InvalidationEvt(owner, InvalidationEvt.INVALIDATED));
+            if (needsUpdate.getAsBoolean()) { PROPAGATION.get().pending.add(this); }
+        } finally {
+            endPropagation();
+        }
+    }
+
+    void dispose() {
+        for (ReadOnlyProperty dependency : dependencies) { dependency.removeInvalidationObserver(dependencyObserver); }
+        valid = false;
+    }
+
+    static Computation of(final ReadOnlyProperty<?> property) {
+        if (property instanceof ComputedProperty<?> computedProperty) { return computedProperty.computation; }
+        if (property instanceof ComputedDoubleProperty computedDoubleProperty) { return computedDoubleProperty.computation; }
+        return null;
+    }
+
+    /**
+     * Called around the delivery of every InvalidationEvt so that eager updates
+     * only happen once the outermost invalidation has been propagated.
+     */
+    static void beginPropagation() { PROPAGATION.get().depth++; }
+
+    static void endPropagation() {
+        final Propagation propagation = PROPAGATION.get();
+        if (--propagation.depth > 0 || propagation.updating || propagation.pending.isEmpty()) { return; }
+        propagation.updating = true;
+        try {
+            // Updates may set other properties which can add new pending computations
+            while (!propagation.pending.isEmpty()) {
+                final List<Computation> pending = new ArrayList<>(propagation.pending);
+                propagation.pending.clear();
+                pending.sort(Comparator.comparingInt(Computation::getLevel));
+                for (Computation computation : pending) { computation.update.run(); }
+            }
+        } finally {
+            propagation.pending.clear();
+            propagation.updating = false;
+        }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Propagation {
+        private final List<Computation> pending  = new ArrayList<>();
+        private       int               depth    = 0;
+        private       boolean           updating = false;
+    }
+}
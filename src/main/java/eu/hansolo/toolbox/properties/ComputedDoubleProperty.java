@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.util.function.DoubleSupplier;
+
+
+/**
+ * A read only double property whose value is derived from other properties.
+ * The value is memoized and will only be recomputed when it is read after
+ * one of the dependencies has been invalidated. If the property has observers
+ * or is bound to another property it will be recomputed once per change of its
+ * dependencies and fires a PropertyChangeEvt if the value has changed.
+ */
+public class ComputedDoubleProperty extends ReadOnlyDoubleProperty {
+    private final DoubleSupplier function;
+    final         Computation    computation;
+
+
+    // ******************** Constructors **************************************
+    public ComputedDoubleProperty(final DoubleSupplier function, final ReadOnlyProperty<?>... dependencies) {
+        this(null, null, function, dependencies);
+    }
+    public ComputedDoubleProperty(final Object bean, final String name, final DoubleSupplier function, final ReadOnlyProperty<?>... dependencies) {
+        super(bean, name, 0d);
+        if (null == function) { throw new IllegalArgumentException("function cannot be null"); }
+        this.function    = function;
+        this.computation = new Computation(this, this::needsUpdate, this::get, dependencies);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public double get() {
+        if (!computation.isValid()) { recompute(); }
+        return primitiveValue;
+    }
+
+    @Override public Double getValue() {
+        if (!computation.isValid()) { recompute(); }
+        return primitiveValue;
+    }
+
+    public boolean isValid() { return computation.isValid(); }
+
+    /**
+     * Marks the value as invalid so that it will be recomputed on the next read
+     */
+    public void invalidate() { computation.invalidate(); }
+
+    /**
+     * Removes the observers from all dependencies so that this property can be garbage collected
+     * while the dependencies are still in use. The value will not be updated anymore.
+     */
+    public void dispose() { computation.dispose(); }
+
+    @Override protected void addPropertyToUpdate(final ReadOnlyProperty<?> property) {
+        super.addPropertyToUpdate(property);
+        if (null != property) { get(); }
+    }
+
+
+    // ******************** Event Handling ************************************
+    @Override public void addObserver(final EvtObserver<PropertyChangeEvt<Double>> observer) {
+        // Observers need a valid value to be able to report the old value on the next change
+        get();
+        super.addObserver(observer);
+    }
+    @Override public void addChangeObserver(final DoubleChangeObserver observer) {
+        get();
+        super.addChangeObserver(observer);
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private boolean needsUpdate() { return hasObservers() || hasChangeObservers() || noOfPropertiesToUpdate > 0; }
+
+    private void recompute() {
+        final double oldValue = primitiveValue;
+        primitiveValue = function.getAsDouble();
+        computation.validate();
+        if (Double.compare(oldValue, primitiveValue) != 0) {
+            updateProperties(primitiveValue, null);
+            fireChange(oldValue, primitiveValue);
+            if (hasObservers()) { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, primitiveValue)); }
+        }
+    }
+}
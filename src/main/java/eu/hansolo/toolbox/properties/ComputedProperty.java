@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+
+/**
+ * A read only property whose value is derived from other properties.
+ * The value is memoized and will only be recomputed when it is read after
+ * one of the dependencies has been invalidated. If the property has observers
+ * or is bound to another property it will be recomputed once per change of its
+ * dependencies and fires a PropertyChangeEvt if the value has changed.
+ * @param <T>
+ */
+public class ComputedProperty<T> extends ReadOnlyProperty<T> {
+    private final Supplier<? extends T> function;
+    final         Computation           computation;
+
+
+    // ******************** Constructors **************************************
+    public ComputedProperty(final Supplier<? extends T> function, final ReadOnlyProperty<?>... dependencies) {
+        this(null, null, function, dependencies);
+    }
+    public ComputedProperty(final Object bean, final String name, final Supplier<? extends T> function, final ReadOnlyProperty<?>... dependencies) {
+        super(bean, name, null);
+        if (null == function) { throw new IllegalArgumentException("function cannot be null"); }
+        this.function    = function;
+        this.computation = new Computation(this, this::needsUpdate, this::getValue, dependencies);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public T getValue() {
+        if (!computation.isValid()) { recompute(); }
+        return value;
+    }
+
+    public boolean isValid() { return computation.isValid(); }
+
+    /**
+     * Marks the value as invalid so that it will be recomputed on the next read
+     */
+    public void invalidate() { computation.invalidate(); }
+
+    /**
+     * Removes the observers from all dependencies so that this property can be garbage collected
+     * while the dependencies are still in use. The value will not be updated anymore.
+     */
+    public void dispose() { computation.dispose(); }
+
+    public static <A, B, R> ComputedProperty<R> combine(final ReadOnlyProperty<A> a, final ReadOnlyProperty<B> b, final BiFunction<? super A, ? super B, ? extends R> function) {
+        if (null == function) { throw new IllegalArgumentException("function cannot be null"); }
+        return new ComputedProperty<>(() -> function.apply(a.getValue(), b.getValue()), a, b);
+    }
+
+    @Override protected void addPropertyToUpdate(final ReadOnlyProperty<?> property) {
+        super.addPropertyToUpdate(property);
+        if (null != property) { getValue(); }
+    }
+
+
+    // ******************** Event Handling ************************************
+    @Override public void addObserver(final EvtObserver<PropertyChangeEvt<T>> observer) {
+        // Observers need a valid value to be able to report the old value on the next change
+        getValue();
+        super.addObserver(observer);
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private boolean needsUpdate() { return hasObservers() || noOfPropertiesToUpdate > 0; }
+
+    private void recompute() {
+        final T oldValue = value;
+        value = function.get();
+        computation.validate();
+        if (!Objects.equals(oldValue, value)) {
+            updateProperties(value, null);
+            if (hasObservers()) { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, value)); }
+        }
+    }
+}
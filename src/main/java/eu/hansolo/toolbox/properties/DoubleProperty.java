@@ -22,6 +22,9 @@ package eu.hansolo.toolbox.properties;
 import eu.hansolo.toolbox.evt.type.InvalidationEvt;
 import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
 
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
 
 public class DoubleProperty extends ReadOnlyDoubleProperty {
     protected ReadOnlyDoubleProperty propertyBoundTo;
@@ -46,27 +49,28 @@ public class DoubleProperty extends ReadOnlyDoubleProperty {
 
 
     // ******************** Methods *******************************************
-    public void set(final double value) { setValue(value); }
-    public void setValue(final Double value) {
-        if (bound && !bidirectional) { throw new IllegalArgumentException("A bound value cannot be set."); }
+    public void set(final double value) {
+        if (bound) { throw new IllegalArgumentException("A bound value cannot be set."); }
         setValue(value, null);
     }
-    protected void setValue(final Double value, final DoubleProperty property) {
-        if (!value.equals(getValue())) {
-            willChange(this.value, value);
-            final Double oldValue = this.value;
-            this.value = value;
-            if (null == property && null != this.propertyToUpdate) {
-                this.propertyToUpdate.setValue(value, this);
-            }
-            fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, this.value));
-            didChange(oldValue, this.value);
+    public void setValue(final Double value) { set(value); }
+    protected void setValue(final double value, final ReadOnlyDoubleProperty property) {
+        if (updating && null != property) { return; }
+        if (Double.compare(value, this.primitiveValue) != 0) {
+            final double oldValue = this.primitiveValue;
+            if (changeHooks) { willChange(oldValue, value); }
+            this.primitiveValue = value;
+            updateProperties(value, property);
+            fireChange(oldValue, value);
+            // Only box the values into an event if somebody is interested in it
+            if (hasObservers()) { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, value)); }
+            if (changeHooks) { didChange(oldValue, value); }
         }
         invalidated();
     }
 
     @Override public void invalidated() {
-        fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED));
+        if (hasInvalidationObservers()) { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); }
     }
 
     public void unset() { setValue(getInitialValue()); }
@@ -74,43 +78,73 @@ public class DoubleProperty extends ReadOnlyDoubleProperty {
     public void setInitialValue(final Double initialValue) { this.initialValue = initialValue; }
 
     public void bind(final ReadOnlyDoubleProperty property) {
+        if (null == property) { throw new IllegalArgumentException("property cannot be null"); }
+        unbind();
         this.propertyBoundTo = property;
-        this.value           = this.propertyBoundTo.getValue();
-        propertyBoundTo.setPropertyToUpdate(this);
-        propertyToUpdate = null;
-        this.bound       = true;
+        this.primitiveValue  = property.get();
+        property.addPropertyToUpdate(this);
+        this.bound           = true;
     }
-    public boolean isBound() { return this.bound; }
+    public boolean isBound() { return this.bound || this.bidirectional; }
 
     public void bindBidirectional(final DoubleProperty property) {
-        setPropertyToUpdate(property, true);
-        property.setPropertyToUpdate(this, true);
-        this.propertyBoundTo = property;
-        this.bound           = true;
+        if (null == property || this == property) { throw new IllegalArgumentException("property cannot be null or this property"); }
+        if (this.bound || property.bound) { throw new IllegalArgumentException("A bound property cannot be bound bidirectional."); }
+        this.primitiveValue = property.get();
+        linkBidirectional(property);
     }
     public boolean isBoundBidirectional() { return this.bidirectional; }
 
     public void unbind() {
-        if (null != this.propertyToUpdate) {
-            this.propertyToUpdate.unsetPropertyToUpdate();
-            this.propertyToUpdate.unbind();
-            this.propertyToUpdate = null;
-        }
         if (null != this.propertyBoundTo) {
-            this.propertyBoundTo.unsetPropertyToUpdate();
+            this.propertyBoundTo.removePropertyToUpdate(this);
             this.propertyBoundTo = null;
         }
-        this.bound         = false;
-        this.bidirectional = false;
+        unlinkBidirectional();
+        this.bound = false;
     }
 
-    protected void setPropertyToUpdate(final DoubleProperty property, final boolean bidirectional) {
-        this.propertyToUpdate = property;
-        if (null == property) {
-            this.bidirectional = false;
-        } else {
-            this.value = property.getValue();
-            this.bidirectional = bidirectional;
-        }
+    /**
+     * Returns a lazy computed property that contains the sum of the given properties
+     * @param a
+     * @param b
+     * @return a lazy computed property that contains the sum of the given properties
+     */
+    public static ComputedDoubleProperty sum(final ReadOnlyDoubleProperty a, final ReadOnlyDoubleProperty b) {
+        return new ComputedDoubleProperty(() -> a.get() + b.get(), a, b);
+    }
+    public static ComputedDoubleProperty sum(final ReadOnlyDoubleProperty... properties) {
+        if (null == properties) { throw new IllegalArgumentException("properties cannot be null"); }
+        final ReadOnlyDoubleProperty[] summands = properties.clone();
+        return new ComputedDoubleProperty(() -> {
+            double sum = 0;
+            for (ReadOnlyDoubleProperty summand : summands) { sum += summand.get(); }
+            return sum;
+        }, summands);
+    }
+
+    /**
+     * Returns a lazy computed property that contains the result of the given operator
+     * applied to the value of the given property
+     * @param property
+     * @param operator
+     * @return a lazy computed property that contains the mapped value of the given property
+     */
+    public static ComputedDoubleProperty map(final ReadOnlyDoubleProperty property, final DoubleUnaryOperator operator) {
+        if (null == operator) { throw new IllegalArgumentException("operator cannot be null"); }
+        return new ComputedDoubleProperty(() -> operator.applyAsDouble(property.get()), property);
+    }
+
+    /**
+     * Returns a lazy computed property that contains the result of the given operator
+     * applied to the values of the given properties
+     * @param a
+     * @param b
+     * @param operator
+     * @return a lazy computed property that contains the combined values of the given properties
+     */
+    public static ComputedDoubleProperty combine(final ReadOnlyDoubleProperty a, final ReadOnlyDoubleProperty b, final DoubleBinaryOperator operator) {
+        if (null == operator) { throw new IllegalArgumentException("operator cannot be null"); }
+        return new ComputedDoubleProperty(() -> operator.applyAsDouble(a.get(), b.get()), a, b);
     }
 }
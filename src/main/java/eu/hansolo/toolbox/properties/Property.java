@@ -48,25 +48,24 @@ public abstract class Property<T extends Object> extends ReadOnlyProperty<T> {
     // ******************** Methods *******************************************
     public void set(final T value) { setValue(value); }
     public void setValue(final T value) {
-        if (bound && !bidirectional) { throw new IllegalArgumentException("A bound value cannot be set."); }
+        if (bound) { throw new IllegalArgumentException("A bound value cannot be set."); }
         setValue(value, null);
     }
-    protected void setValue(final T value, final Property<T> property) {
+    protected void setValue(final T value, final ReadOnlyProperty<T> property) {
+        if (updating && null != property) { return; }
         if (!value.equals(getValue())) {
             willChange(this.value, value);
             final T oldValue = this.value;
             this.value = value;
-            if (null == property && null != this.propertyToUpdate) {
-                this.propertyToUpdate.setValue(value, this);
-            }
-            fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, this.value));
+            updateProperties(value, property);
+            if (hasObservers()) { fireEvent(new PropertyChangeEvt(this, PropertyChangeEvt.CHANGED, oldValue, this.value)); }
             didChange(oldValue, this.value);
         }
         invalidated();
     }
 
     @Override public void invalidated() {
-        fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED));
+        if (hasInvalidationObservers()) { fireEvent(new InvalidationEvt(this, InvalidationEvt.INVALIDATED)); }
     }
 
     public void unset() { setValue(getInitialValue()); }
@@ -74,43 +73,38 @@ public abstract class Property<T extends Object> extends ReadOnlyProperty<T> {
     public void setInitialValue(final T initialValue) { this.initialValue = initialValue; }
 
     public void bind(final ReadOnlyProperty<T> property) {
+        if (null == property) { throw new IllegalArgumentException("property cannot be null"); }
+        unbind();
         this.propertyBoundTo = property;
-        this.value           = this.propertyBoundTo.getValue();
-        propertyBoundTo.setPropertyToUpdate(this);
-        propertyToUpdate = null;
-        this.bound       = true;
+        this.value           = property.getValue();
+        property.addPropertyToUpdate(this);
+        this.bound           = true;
     }
-    public boolean isBound() { return this.bound; }
+    public boolean isBound() { return this.bound || this.bidirectional; }
 
+    /**
+     * Keeps the value of this property and the given property in sync. This property takes
+     * the value of the given property. A property can be bound bidirectional to several properties.
+     * @param property
+     */
     public void bindBidirectional(final Property<T> property) {
-        setPropertyToUpdate(property, true);
-        property.setPropertyToUpdate(this, true);
-        this.propertyBoundTo = property;
-        this.bound           = true;
+        if (null == property || this == property) { throw new IllegalArgumentException("property cannot be null or this property"); }
+        if (this.bound || property.bound) { throw new IllegalArgumentException("A bound property cannot be bound bidirectional."); }
+        this.value = property.getValue();
+        linkBidirectional(property);
     }
     public boolean isBoundBidirectional() { return this.bidirectional; }
 
+    /**
+     * Removes the binding to the property this property is bound to and all bidirectional
+     * bindings of this property. Properties that are bound to this property stay bound.
+     */
     public void unbind() {
-        if (null != this.propertyToUpdate) {
-            this.propertyToUpdate.setPropertyToUpdate(null);
-            this.propertyToUpdate.unbind();
-            this.propertyToUpdate = null;
-        }
         if (null != this.propertyBoundTo) {
-            this.propertyBoundTo.setPropertyToUpdate(null);
+            this.propertyBoundTo.removePropertyToUpdate(this);
             this.propertyBoundTo = null;
         }
-        this.bound         = false;
-        this.bidirectional = false;
-    }
-
-    protected void setPropertyToUpdate(final Property<T> property, final boolean bidirectional) {
-        this.propertyToUpdate = property;
-        if (null == property) {
-            this.bidirectional = false;
-        } else {
-            this.value = property.getValue();
-            this.bidirectional = bidirectional;
-        }
+        unlinkBidirectional();
+        this.bound = false;
     }
 }
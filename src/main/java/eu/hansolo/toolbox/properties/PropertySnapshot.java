@@ -0,0 +1,455 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023 Gerrit Grunwald.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.toolbox.properties;
+
+import eu.hansolo.toolbox.evt.type.InvalidationEvt;
+import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+
+/**
+ * Captures the values of many properties in a columnar form. Every supported type
+ * (boolean, byte, char, short, int, long, float, double and String) gets its own
+ * column that stores the values in a primitive array. Strings, bean keys and property
+ * names are dictionary encoded, so every distinct string is only stored once.
+ * Properties are identified by the key of their bean and their name. By default the
+ * bean key is the result of bean.toString() (or an empty String without a bean), a
+ * function that returns stable keys should be given if snapshots are restored in
+ * another process.
+ * Restoring a snapshot first applies all values and then notifies the observers of
+ * all changed properties at once, so observers (and computed properties) only ever
+ * see the completely restored state. Properties that are bound to another property
+ * will not be restored, restoring the property they are bound to updates them.
+ */
+public final class PropertySnapshot {
+    public  static final Function<Object, String> DEFAULT_BEAN_KEY = bean -> null == bean ? "" : bean.toString();
+    private static final int                      MAGIC            = 0x50534E50;
+    private static final int                      VERSION          = 1;
+    private static final int                      NO_STRING        = -1;
+    private        final String[]                 dictionary;
+    private        final int[][]                  keys;
+    private        final boolean[]                booleans;
+    private        final byte[]                   bytes;
+    private        final char[]                   chars;
+    private        final short[]                  shorts;
+    private        final int[]                    ints;
+    private        final long[]                   longs;
+    private        final float[]                  floats;
+    private        final double[]                 doubles;
+    private        final int[]                    strings;
+    private              Map<String, Integer>     index;
+
+    private enum Column { BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, STRING }
+
+
+    // ******************** Constructors **************************************
+    private PropertySnapshot(final String[] dictionary, final int[][] keys, final boolean[] booleans, final byte[] bytes, final char[] chars, final short[] shorts,
+                             final int[] ints, final long[] longs, final float[] floats, final double[] doubles, final int[] strings) {
+        this.dictionary = dictionary;
+        this.keys       = keys;
+        this.booleans   = booleans;
+        this.bytes      = bytes;
+        this.chars      = chars;
+        this.shorts     = shorts;
+        this.ints       = ints;
+        this.longs      = longs;
+        this.floats     = floats;
+        this.doubles    = doubles;
+        this.strings    = strings;
+    }
+
+
+    // ******************** Methods *******************************************
+    public static PropertySnapshot capture(final Collection<? extends ReadOnlyProperty<?>> properties) {
+        return capture(properties, DEFAULT_BEAN_KEY);
+    }
+    /**
+     * Captures the current values of the given properties
+     * @param properties Properties of a supported type (primitives and String)
+     * @param beanKey Returns the key that identifies the bean of a property
+     * @return a snapshot of the current values of the given properties
+     */
+    public static PropertySnapshot capture(final Collection<? extends ReadOnlyProperty<?>> properties, final Function<Object, String> beanKey) {
+        if (null == properties) { throw new IllegalArgumentException("properties cannot be null"); }
+        if (null == beanKey) { throw new IllegalArgumentException("beanKey cannot be null"); }
+        final Column[]                    columns = Column.values();
+        final List<ReadOnlyProperty<?>>[] buckets = new List[columns.length];
+        for (int c = 0 ; c < columns.length ; c++) { buckets[c] = new ArrayList<>(); }
+        for (ReadOnlyProperty<?> property : properties) { buckets[columnOf(property).ordinal()].add(property); }
+
+        final Map<String, Integer> codes = new HashMap<>();
+        final List<String>         words = new ArrayList<>();
+        final int[][]              keys  = new int[columns.length][];
+        for (int c = 0 ; c < columns.length ; c++) {
+            final List<ReadOnlyProperty<?>> bucket = buckets[c];
+            keys[c] = new int[bucket.size() * 2];
+            for (int i = 0 ; i < bucket.size() ; i++) {
+                final ReadOnlyProperty<?> property = bucket.get(i);
+                keys[c][2 * i]     = encode(beanKey.apply(property.getBean()), codes, words);
+                keys[c][2 * i + 1] = encode(property.getName(), codes, words);
+            }
+        }
+
+        final List<ReadOnlyProperty<?>> booleanBucket = buckets[Column.BOOLEAN.ordinal()];
+        final boolean[]                 booleans      = new boolean[booleanBucket.size()];
+        for (int i = 0 ; i < booleans.length ; i++) { booleans[i] = ((ReadOnlyBooleanProperty) booleanBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> byteBucket = buckets[Column.BYTE.ordinal()];
+        final byte[]                    bytes      = new byte[byteBucket.size()];
+        for (int i = 0 ; i < bytes.length ; i++) { bytes[i] = ((ReadOnlyByteProperty) byteBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> charBucket = buckets[Column.CHAR.ordinal()];
+        final char[]                    chars      = new char[charBucket.size()];
+        for (int i = 0 ; i < chars.length ; i++) { chars[i] = ((ReadOnlyCharProperty) charBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> shortBucket = buckets[Column.SHORT.ordinal()];
+        final short[]                   shorts      = new short[shortBucket.size()];
+        for (int i = 0 ; i < shorts.length ; i++) { shorts[i] = ((ReadOnlyShortProperty) shortBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> intBucket = buckets[Column.INT.ordinal()];
+        final int[]                     ints      = new int[intBucket.size()];
+        for (int i = 0 ; i < ints.length ; i++) { ints[i] = ((ReadOnlyIntegerProperty) intBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> longBucket = buckets[Column.LONG.ordinal()];
+        final long[]                    longs      = new long[longBucket.size()];
+        for (int i = 0 ; i < longs.length ; i++) { longs[i] = ((ReadOnlyLongProperty) longBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> floatBucket = buckets[Column.FLOAT.ordinal()];
+        final float[]                   floats      = new float[floatBucket.size()];
+        for (int i = 0 ; i < floats.length ; i++) { floats[i] = ((ReadOnlyFloatProperty) floatBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> doubleBucket = buckets[Column.DOUBLE.ordinal()];
+        final double[]                  doubles      = new double[doubleBucket.size()];
+        for (int i = 0 ; i < doubles.length ; i++) { doubles[i] = ((ReadOnlyDoubleProperty) doubleBucket.get(i)).get(); }
+        final List<ReadOnlyProperty<?>> stringBucket = buckets[Column.STRING.ordinal()];
+        final int[]                     strings      = new int[stringBucket.size()];
+        for (int i = 0 ; i < strings.length ; i++) {
+            final String value = ((ReadOnlyStringProperty) stringBucket.get(i)).get();
+            strings[i] = null == value ? NO_STRING : encode(value, codes, words);
+        }
+        return new PropertySnapshot(words.toArray(new String[0]), keys, booleans, bytes, chars, shorts, ints, longs, floats, doubles, strings);
+    }
+
+    /**
+     * Returns the number of captured properties
+     * @return the number of captured properties
+     */
+    public int size() {
+        int size = 0;
+        for (int[] columnKeys : keys) { size += columnKeys.length / 2; }
+        return size;
+    }
+
+    /**
+     * Returns the captured value of the property with the given bean key and name or null
+     * @param beanKey
+     * @param name
+     * @return the captured value of the property with the given bean key and name or null
+     */
+    public Object getValue(final String beanKey, final String name) {
+        final Integer position = index().get(key(beanKey, name));
+        return null == position ? null : valueAt(Column.values()[position >>> 28], position & 0x0FFFFFFF);
+    }
+
+    public int restore(final Collection<? extends ReadOnlyProperty<?>> properties) {
+        return restore(properties, DEFAULT_BEAN_KEY);
+    }
+    /**
+     * Applies the captured values to the given properties that match by bean key and name.
+     * Computed properties and properties that are bound to another property will be skipped
+     * because they derive their values from other properties.
+     * All values are applied before the observers of the changed properties will be notified.
+     * @param properties Properties to restore
+     * @param beanKey Returns the key that identifies the bean of a property
+     * @return the number of properties that changed
+     */
+    public int restore(final Collection<? extends ReadOnlyProperty<?>> properties, final Function<Object, String> beanKey) {
+        if (null == properties) { throw new IllegalArgumentException("properties cannot be null"); }
+        if (null == beanKey) { throw new IllegalArgumentException("beanKey cannot be null"); }
+        final Map<String, Integer>      index        = index();
+        final List<ReadOnlyProperty<?>> changed      = new ArrayList<>();
+        final List<Object>              oldValues    = new ArrayList<>();
+        final List<ReadOnlyProperty<?>> atomics      = new ArrayList<>();
+        final List<Object>              atomicValues = new ArrayList<>();
+        for (ReadOnlyProperty<?> property : properties) {
+            if (property instanceof ComputedProperty || property instanceof ComputedDoubleProperty || isBound(property)) { continue; }
+            final Integer position = index.get(key(beanKey.apply(property.getBean()), property.getName()));
+            if (null == position) { continue; }
+            final Column column = Column.values()[position >>> 28];
+            if (column != columnOf(property)) { continue; }
+            final Object newValue = valueAt(column, position & 0x0FFFFFFF);
+            final Object oldValue = property.getValue();
+            if (Objects.equals(oldValue, newValue)) { continue; }
+            if (property instanceof AtomicDoubleProperty || property instanceof AtomicLongProperty) {
+                atomics.add(property);
+                atomicValues.add(newValue);
+                continue;
+            }
+            if (property.changeHooks) { ((ReadOnlyProperty) property).willChange(oldValue, newValue); }
+            write(property, column, newValue);
+            changed.add(property);
+            oldValues.add(oldValue);
+        }
+        // Notify all observers in one propagation so that computed properties are updated once after the whole restore
+        Computation.beginPropagation();
+        try {
+            for (int i = 0 ; i < changed.size() ; i++) { notifyRestored(changed.get(i), oldValues.get(i)); }
+            for (int i = 0 ; i < atomics.size() ; i++) {
+                if (atomics.get(i) instanceof AtomicDoubleProperty atomicDouble) {
+                    atomicDouble.set((Double) atomicValues.get(i));
+                } else {
+                    ((AtomicLongProperty) atomics.get(i)).set((Long) atomicValues.get(i));
+                }
+            }
+        } finally {
+            Computation.endPropagation();
+        }
+        return changed.size() + atomics.size();
+    }
+
+    /**
+     * Returns the snapshot in a compact binary form
+     * @return the snapshot in a compact binary form
+     */
+    public byte[] toByteArray() {
+        final byte[][] encoded = new byte[dictionary.length][];
+        int size = 12;
+        for (int i = 0 ; i < dictionary.length ; i++) {
+            encoded[i] = dictionary[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + encoded[i].length;
+        }
+        for (int[] columnKeys : keys) { size += 4 + columnKeys.length * 4; }
+        size += (booleans.length + 7) / 8 + bytes.length + chars.length * 2 + shorts.length * 2 + ints.length * 4 + longs.length * 8 + floats.length * 4 + doubles.length * 8 + strings.length * 4;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(dictionary.length);
+        for (byte[] word : encoded) { buffer.putInt(word.length).put(word); }
+        for (int[] columnKeys : keys) {
+            buffer.putInt(columnKeys.length / 2);
+            buffer.asIntBuffer().put(columnKeys);
+            buffer.position(buffer.position() + columnKeys.length * 4);
+        }
+        for (int i = 0 ; i < booleans.length ; i += 8) {
+            int bits = 0;
+            for (int j = i ; j < Math.min(i + 8, booleans.length) ; j++) { if (booleans[j]) { bits |= 1 << (j - i); } }
+            buffer.put((byte) bits);
+        }
+        buffer.put(bytes);
+        buffer.asCharBuffer().put(chars);
+        buffer.position(buffer.position() + chars.length * 2);
+        buffer.asShortBuffer().put(shorts);
+        buffer.position(buffer.position() + shorts.length * 2);
+        buffer.asIntBuffer().put(ints);
+        buffer.position(buffer.position() + ints.length * 4);
+        buffer.asLongBuffer().put(longs);
+        buffer.position(buffer.position() + longs.length * 8);
+        buffer.asFloatBuffer().put(floats);
+        buffer.position(buffer.position() + floats.length * 4);
+        buffer.asDoubleBuffer().put(doubles);
+        buffer.position(buffer.position() + doubles.length * 8);
+        buffer.asIntBuffer().put(strings);
+        return buffer.array();
+    }
+
+    /**
+     * Reads a snapshot that has been created by toByteArray()
+     * @param data
+     * @return the snapshot that is stored in the given data
+     */
+    public static PropertySnapshot fromByteArray(final byte[] data) {
+        if (null == data) { throw new IllegalArgumentException("data cannot be null"); }
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (buffer.getInt() != MAGIC)   { throw new IllegalArgumentException("data does not contain a property snapshot"); }
+            if (buffer.getInt() != VERSION) { throw new IllegalArgumentException("unsupported property snapshot version"); }
+            final String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0 ; i < dictionary.length ; i++) {
+                final byte[] word = new byte[buffer.getInt()];
+                buffer.get(word);
+                dictionary[i] = new String(word, StandardCharsets.UTF_8);
+            }
+            final int[][] keys = new int[Column.values().length][];
+            for (int c = 0 ; c < keys.length ; c++) {
+                keys[c] = new int[buffer.getInt() * 2];
+                buffer.asIntBuffer().get(keys[c]);
+                buffer.position(buffer.position() + keys[c].length * 4);
+            }
+            final boolean[] booleans = new boolean[keys[Column.BOOLEAN.ordinal()].length / 2];
+            for (int i = 0 ; i < booleans.length ; i += 8) {
+                final int bits = buffer.get();
+                for (int j = i ; j < Math.min(i + 8, booleans.length) ; j++) { booleans[j] = (bits & (1 << (j - i))) != 0; }
+            }
+            final byte[] bytes = new byte[keys[Column.BYTE.ordinal()].length / 2];
+            buffer.get(bytes);
+            final char[] chars = new char[keys[Column.CHAR.ordinal()].length / 2];
+            buffer.asCharBuffer().get(chars);
+            buffer.position(buffer.position() + chars.length * 2);
+            final short[] shorts = new short[keys[Column.SHORT.ordinal()].length / 2];
+            buffer.asShortBuffer().get(shorts);
+            buffer.position(buffer.position() + shorts.length * 2);
+            final int[] ints = new int[keys[Column.INT.ordinal()].length / 2];
+            buffer.asIntBuffer().get(ints);
+            buffer.position(buffer.position() + ints.length * 4);
+            final long[] longs = new long[keys[Column.LONG.ordinal()].length / 2];
+            buffer.asLongBuffer().get(longs);
+            buffer.position(buffer.position() + longs.length * 8);
+            final float[] floats = new float[keys[Column.FLOAT.ordinal()].length / 2];
+            buffer.asFloatBuffer().get(floats);
+            buffer.position(buffer.position() + floats.length * 4);
+            final double[] doubles = new double[keys[Column.DOUBLE.ordinal()].length / 2];
+            buffer.asDoubleBuffer().get(doubles);
+            buffer.position(buffer.position() + doubles.length * 8);
+            final int[] strings = new int[keys[Column.STRING.ordinal()].length / 2];
+            buffer.asIntBuffer().get(strings);
+            for (int[] columnKeys : keys) {
+                for (int code : columnKeys) { checkCode(code, dictionary); }
+            }
+            for (int code : strings) { if (NO_STRING != code) { checkCode(code, dictionary); } }
+            return new PropertySnapshot(dictionary, keys, booleans, bytes, chars, shorts, ints, longs, floats, doubles, strings);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("data is truncated or corrupt", e);
+        }
+    }
+
+
+    // ******************** Private Methods ***********************************
+    private static Column columnOf(final ReadOnlyProperty<?> property) {
+        if (property instanceof ReadOnlyDoubleProperty)  { return Column.DOUBLE; }
+        if (property instanceof ReadOnlyIntegerProperty) { return Column.INT; }
+        if (property instanceof ReadOnlyLongProperty)    { return Column.LONG; }
+        if (property instanceof ReadOnlyBooleanProperty) { return Column.BOOLEAN; }
+        if (property instanceof ReadOnlyStringProperty)  { return Column.STRING; }
+        if (property instanceof ReadOnlyFloatProperty)   { return Column.FLOAT; }
+        if (property instanceof ReadOnlyShortProperty)   { return Column.SHORT; }
+        if (property instanceof ReadOnlyByteProperty)    { return Column.BYTE; }
+        if (property instanceof ReadOnlyCharProperty)    { return Column.CHAR; }
+        throw new IllegalArgumentException("Properties of type " + (null == property ? "null" : property.getClass().getName()) + " cannot be captured");
+    }
+
+    private static int encode(final String word, final Map<String, Integer> codes, final List<String> words) {
+        final String  key  = null == word ? "" : word;
+        final Integer code = codes.get(key);
+        if (null != code) { return code; }
+        codes.put(key, words.size());
+        words.add(key);
+        return words.size() - 1;
+    }
+
+    private static void checkCode(final int code, final String[] dictionary) {
+        if (code < 0 || code >= dictionary.length) { throw new IllegalArgumentException("data contains an invalid string reference"); }
+    }
+
+    private static String key(final String beanKey, final String name) {
+        return (null == beanKey ? "" : beanKey) + '\u0000' + (null == name ? "" : name);
+    }
+
+    // Maps the key of every captured property to its column (upper 4 bits) and its index in the column
+    private Map<String, Integer> index() {
+        if (null == index) {
+            final Map<String, Integer> map = new HashMap<>(size() * 2);
+            for (int c = 0 ; c < keys.length ; c++) {
+                for (int i = 0 ; i < keys[c].length / 2 ; i++) { map.put(key(dictionary[keys[c][2 * i]], dictionary[keys[c][2 * i + 1]]), (c << 28) | i); }
+            }
+            index = map;
+        }
+        return index;
+    }
+
+    private Object valueAt(final Column column, final int i) {
+        return switch (column) {
+            case BOOLEAN -> booleans[i];
+            case BYTE    -> bytes[i];
+            case CHAR    -> chars[i];
+            case SHORT   -> shorts[i];
+            case INT     -> ints[i];
+            case LONG    -> longs[i];
+            case FLOAT   -> floats[i];
+            case DOUBLE  -> doubles[i];
+            case STRING  -> NO_STRING == strings[i] ? null : dictionary[strings[i]];
+        };
+    }
+
+    // Sets the value without notifying anybody
+    private static void write(final ReadOnlyProperty<?> property, final Column column, final Object value) {
+        switch (column) {
+            case BOOLEAN -> ((ReadOnlyBooleanProperty) property).primitiveValue = (Boolean) value;
+            case BYTE    -> ((ReadOnlyByteProperty) property).primitiveValue    = (Byte) value;
+            case CHAR    -> ((ReadOnlyCharProperty) property).primitiveValue    = (Character) value;
+            case SHORT   -> ((ReadOnlyShortProperty) property).primitiveValue   = (Short) value;
+            case INT     -> ((ReadOnlyIntegerProperty) property).primitiveValue = (Integer) value;
+            case LONG    -> ((ReadOnlyLongProperty) property).primitiveValue    = (Long) value;
+            case FLOAT   -> ((ReadOnlyFloatProperty) property).primitiveValue   = (Float) value;
+            case DOUBLE  -> ((ReadOnlyDoubleProperty) property).primitiveValue  = (Double) value;
+            case STRING  -> ((ReadOnlyStringProperty) property).value           = (String) value;
+        }
+    }
+
+    // Only unidirectional bindings, bidirectionally bound properties are updated together by notifyRestored()
+    private static boolean isBound(final ReadOnlyProperty<?> property) {
+        if (property instanceof DoubleProperty p)  { return p.bound; }
+        if (property instanceof IntegerProperty p) { return p.bound; }
+        if (property instanceof LongProperty p)    { return p.bound; }
+        if (property instanceof BooleanProperty p) { return p.bound; }
+        if (property instanceof FloatProperty p)   { return p.bound; }
+        if (property instanceof ShortProperty p)   { return p.bound; }
+        if (property instanceof ByteProperty p)    { return p.bound; }
+        if (property instanceof CharProperty p)    { return p.bound; }
+        if (property instanceof StringProperty p)  { return p.bound; }
+        if (property instanceof ObjectProperty p)  { return p.bound; }
+        if (property instanceof Property p)        { return p.bound; }
+        return false;
+    }
+
+    private static void notifyRestored(final ReadOnlyProperty property, final Object oldValue) {
+        final Object newValue = property.getValue();
+        if (property instanceof ReadOnlyDoubleProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Double) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyIntegerProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Integer) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyLongProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Long) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyBooleanProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Boolean) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyFloatProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Float) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyShortProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Short) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyByteProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Byte) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyCharProperty p) {
+            p.updateProperties(p.primitiveValue, null);
+            p.fireChange((Character) oldValue, p.primitiveValue);
+        } else if (property instanceof ReadOnlyStringProperty p) {
+            p.updateProperties(p.value, null);
+        }
+        if (property.hasObservers()) { property.fireEvent(new PropertyChangeEvt(property, PropertyChangeEvt.CHANGED, oldValue, newValue)); }
+        if (property.changeHooks) { property.didChange(oldValue, newValue); }
+        if (property.hasInvalidationObservers()) { property.fireEvent(new InvalidationEvt(property, InvalidationEvt.INVALIDATED)); }
+    }
+}
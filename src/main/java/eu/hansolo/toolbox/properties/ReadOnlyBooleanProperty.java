@@ -18,35 +18,89 @@
 
 package eu.hansolo.toolbox.properties;
 
+import java.util.Arrays;
+
 
 public class ReadOnlyBooleanProperty extends ReadOnlyProperty<Boolean> {
-    protected BooleanProperty propertyToUpdate;
-    protected boolean         bidirectional;
+    protected          boolean                 primitiveValue;
+    protected volatile BooleanChangeObserver[] changeObservers;
 
 
     // ******************** Constructors **************************************
     public ReadOnlyBooleanProperty() {
-        super(null, null, false);
+        this(null, null, false);
     }
     public ReadOnlyBooleanProperty(final boolean value) {
-        super(null, null, Boolean.valueOf(value));
+        this(null, null, value);
     }
     public ReadOnlyBooleanProperty(final Object bean, final String name, final boolean value) {
-        super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+        super(bean, name, null, value);
+        this.primitiveValue = value;
     }
 
 
     // ******************** Methods *******************************************
-    public boolean get() { return value; }
+    public boolean get() { return primitiveValue; }
+
+    @Override public Boolean getValue() { return primitiveValue; }
+
+    protected void updateProperties(final boolean value, final ReadOnlyBooleanProperty source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((BooleanProperty) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
+    }
 
-    protected void setPropertyToUpdate(final BooleanProperty property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
+
+    // ******************** Event Handling ************************************
+    public synchronized void addChangeObserver(final BooleanChangeObserver observer) {
+        if (null == observer) { return; }
+        if (null == changeObservers) {
+            changeObservers = new BooleanChangeObserver[] { observer };
+            return;
+        }
+        for (BooleanChangeObserver changeObserver : changeObservers) {
+            if (changeObserver.equals(observer)) { return; }
+        }
+        final BooleanChangeObserver[] observers = Arrays.copyOf(changeObservers, changeObservers.length + 1);
+        observers[changeObservers.length] = observer;
+        changeObservers = observers;
+    }
+    public synchronized void removeChangeObserver(final BooleanChangeObserver observer) {
+        if (null == observer || null == changeObservers) { return; }
+        for (int i = 0 ; i < changeObservers.length ; i++) {
+            if (!changeObservers[i].equals(observer)) { continue; }
+            if (1 == changeObservers.length) {
+                changeObservers = null;
+            } else {
+                final BooleanChangeObserver[] observers = new BooleanChangeObserver[changeObservers.length - 1];
+                System.arraycopy(changeObservers, 0, observers, 0, i);
+                System.arraycopy(changeObservers, i + 1, observers, i, observers.length - i);
+                changeObservers = observers;
+            }
+            return;
+        }
     }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    public synchronized void removeAllChangeObservers() { changeObservers = null; }
+
+    public boolean hasChangeObservers() { return null != changeObservers; }
+
+    /**
+     * Notifies the change observers without boxing the values or creating an event object.
+     * The observers are kept in an array that will be replaced on every modification so
+     * that iterating over it does not allocate anything.
+     */
+    protected void fireChange(final boolean oldValue, final boolean newValue) {
+        final BooleanChangeObserver[] observers = changeObservers;
+        if (null == observers) { return; }
+        for (int i = 0 ; i < observers.length ; i++) { observers[i].changed(oldValue, newValue); }
     }
 }
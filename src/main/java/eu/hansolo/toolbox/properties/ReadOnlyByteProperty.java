@@ -18,35 +18,89 @@
 
 package eu.hansolo.toolbox.properties;
 
+import java.util.Arrays;
+
 
 public class ReadOnlyByteProperty extends ReadOnlyProperty<Byte> {
-    protected ByteProperty propertyToUpdate;
-    protected boolean      bidirectional;
+    protected          byte                 primitiveValue;
+    protected volatile ByteChangeObserver[] changeObservers;
 
 
     // ******************** Constructors **************************************
     public ReadOnlyByteProperty() {
-        super(null, null, (byte) 0);
+        this(null, null, (byte) 0);
     }
     public ReadOnlyByteProperty(final byte value) {
-        super(null, null, value);
+        this(null, null, value);
     }
     public ReadOnlyByteProperty(final Object bean, final String name, final byte value) {
-        super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+        super(bean, name, null, value);
+        this.primitiveValue = value;
     }
 
 
     // ******************** Methods *******************************************
-    public byte get() { return value; }
+    public byte get() { return primitiveValue; }
+
+    @Override public Byte getValue() { return primitiveValue; }
+
+    protected void updateProperties(final byte value, final ReadOnlyByteProperty source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((ByteProperty) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
+    }
 
-    protected void setPropertyToUpdate(final ByteProperty property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
+
+    // ******************** Event Handling ************************************
+    public synchronized void addChangeObserver(final ByteChangeObserver observer) {
+        if (null == observer) { return; }
+        if (null == changeObservers) {
+            changeObservers = new ByteChangeObserver[] { observer };
+            return;
+        }
+        for (ByteChangeObserver changeObserver : changeObservers) {
+            if (changeObserver.equals(observer)) { return; }
+        }
+        final ByteChangeObserver[] observers = Arrays.copyOf(changeObservers, changeObservers.length + 1);
+        observers[changeObservers.length] = observer;
+        changeObservers = observers;
+    }
+    public synchronized void removeChangeObserver(final ByteChangeObserver observer) {
+        if (null == observer || null == changeObservers) { return; }
+        for (int i = 0 ; i < changeObservers.length ; i++) {
+            if (!changeObservers[i].equals(observer)) { continue; }
+            if (1 == changeObservers.length) {
+                changeObservers = null;
+            } else {
+                final ByteChangeObserver[] observers = new ByteChangeObserver[changeObservers.length - 1];
+                System.arraycopy(changeObservers, 0, observers, 0, i);
+                System.arraycopy(changeObservers, i + 1, observers, i, observers.length - i);
+                changeObservers = observers;
+            }
+            return;
+        }
     }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    public synchronized void removeAllChangeObservers() { changeObservers = null; }
+
+    public boolean hasChangeObservers() { return null != changeObservers; }
+
+    /**
+     * Notifies the change observers without boxing the values or creating an event object.
+     * The observers are kept in an array that will be replaced on every modification so
+     * that iterating over it does not allocate anything.
+     */
+    protected void fireChange(final byte oldValue, final byte newValue) {
+        final ByteChangeObserver[] observers = changeObservers;
+        if (null == observers) { return; }
+        for (int i = 0 ; i < observers.length ; i++) { observers[i].changed(oldValue, newValue); }
     }
 }
@@ -18,35 +18,89 @@
 
 package eu.hansolo.toolbox.properties;
 
+import java.util.Arrays;
+
 
 public class ReadOnlyDoubleProperty extends ReadOnlyProperty<Double> {
-    protected DoubleProperty propertyToUpdate;
-    protected boolean        bidirectional;
+    protected          double                 primitiveValue;
+    protected volatile DoubleChangeObserver[] changeObservers;
 
 
     // ******************** Constructors **************************************
     public ReadOnlyDoubleProperty() {
-        super(null, null, 0d);
+        this(null, null, 0d);
     }
     public ReadOnlyDoubleProperty(final double value) {
-        super(null, null, value);
+        this(null, null, value);
     }
     public ReadOnlyDoubleProperty(final Object bean, final String name, final double value) {
-        super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+        super(bean, name, null, value);
+        this.primitiveValue = value;
     }
 
 
     // ******************** Methods *******************************************
-    public double get() { return value; }
+    public double get() { return primitiveValue; }
+
+    @Override public Double getValue() { return primitiveValue; }
+
+    protected void updateProperties(final double value, final ReadOnlyDoubleProperty source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((DoubleProperty) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
+    }
 
-    protected void setPropertyToUpdate(final DoubleProperty property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
+
+    // ******************** Event Handling ************************************
+    public synchronized void addChangeObserver(final DoubleChangeObserver observer) {
+        if (null == observer) { return; }
+        if (null == changeObservers) {
+            changeObservers = new DoubleChangeObserver[] { observer };
+            return;
+        }
+        for (DoubleChangeObserver changeObserver : changeObservers) {
+            if (changeObserver.equals(observer)) { return; }
+        }
+        final DoubleChangeObserver[] observers = Arrays.copyOf(changeObservers, changeObservers.length + 1);
+        observers[changeObservers.length] = observer;
+        changeObservers = observers;
+    }
+    public synchronized void removeChangeObserver(final DoubleChangeObserver observer) {
+        if (null == observer || null == changeObservers) { return; }
+        for (int i = 0 ; i < changeObservers.length ; i++) {
+            if (!changeObservers[i].equals(observer)) { continue; }
+            if (1 == changeObservers.length) {
+                changeObservers = null;
+            } else {
+                final DoubleChangeObserver[] observers = new DoubleChangeObserver[changeObservers.length - 1];
+                System.arraycopy(changeObservers, 0, observers, 0, i);
+                System.arraycopy(changeObservers, i + 1, observers, i, observers.length - i);
+                changeObservers = observers;
+            }
+            return;
+        }
     }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    public synchronized void removeAllChangeObservers() { changeObservers = null; }
+
+    public boolean hasChangeObservers() { return null != changeObservers; }
+
+    /**
+     * Notifies the change observers without boxing the values or creating an event object.
+     * The observers are kept in an array that will be replaced on every modification so
+     * that iterating over it does not allocate anything.
+     */
+    protected void fireChange(final double oldValue, final double newValue) {
+        final DoubleChangeObserver[] observers = changeObservers;
+        if (null == observers) { return; }
+        for (int i = 0 ; i < observers.length ; i++) { observers[i].changed(oldValue, newValue); }
     }
 }
@@ -18,35 +18,89 @@
 
 package eu.hansolo.toolbox.properties;
 
+import java.util.Arrays;
+
 
 public class ReadOnlyFloatProperty extends ReadOnlyProperty<Float> {
-    protected FloatProperty propertyToUpdate;
-    protected boolean       bidirectional;
+    protected          float                 primitiveValue;
+    protected volatile FloatChangeObserver[] changeObservers;
 
 
     // ******************** Constructors **************************************
     public ReadOnlyFloatProperty() {
-        super(null, null, 0f);
+        this(null, null, 0f);
     }
     public ReadOnlyFloatProperty(final float value) {
-        super(null, null, value);
+        this(null, null, value);
     }
     public ReadOnlyFloatProperty(final Object bean, final String name, final float value) {
-        super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+        super(bean, name, null, value);
+        this.primitiveValue = value;
     }
 
 
     // ******************** Methods *******************************************
-    public float get() { return value; }
+    public float get() { return primitiveValue; }
+
+    @Override public Float getValue() { return primitiveValue; }
+
+    protected void updateProperties(final float value, final ReadOnlyFloatProperty source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((FloatProperty) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
+    }
 
-    protected void setPropertyToUpdate(final FloatProperty property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
+
+    // ******************** Event Handling ************************************
+    public synchronized void addChangeObserver(final FloatChangeObserver observer) {
+        if (null == observer) { return; }
+        if (null == changeObservers) {
+            changeObservers = new FloatChangeObserver[] { observer };
+            return;
+        }
+        for (FloatChangeObserver changeObserver : changeObservers) {
+            if (changeObserver.equals(observer)) { return; }
+        }
+        final FloatChangeObserver[] observers = Arrays.copyOf(changeObservers, changeObservers.length + 1);
+        observers[changeObservers.length] = observer;
+        changeObservers = observers;
+    }
+    public synchronized void removeChangeObserver(final FloatChangeObserver observer) {
+        if (null == observer || null == changeObservers) { return; }
+        for (int i = 0 ; i < changeObservers.length ; i++) {
+            if (!changeObservers[i].equals(observer)) { continue; }
+            if (1 == changeObservers.length) {
+                changeObservers = null;
+            } else {
+                final FloatChangeObserver[] observers = new FloatChangeObserver[changeObservers.length - 1];
+                System.arraycopy(changeObservers, 0, observers, 0, i);
+                System.arraycopy(changeObservers, i + 1, observers, i, observers.length - i);
+                changeObservers = observers;
+            }
+            return;
+        }
     }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    public synchronized void removeAllChangeObservers() { changeObservers = null; }
+
+    public boolean hasChangeObservers() { return null != changeObservers; }
+
+    /**
+     * Notifies the change observers without boxing the values or creating an event object.
+     * The observers are kept in an array that will be replaced on every modification so
+     * that iterating over it does not allocate anything.
+     */
+    protected void fireChange(final float oldValue, final float newValue) {
+        final FloatChangeObserver[] observers = changeObservers;
+        if (null == observers) { return; }
+        for (int i = 0 ; i < observers.length ; i++) { observers[i].changed(oldValue, newValue); }
     }
 }
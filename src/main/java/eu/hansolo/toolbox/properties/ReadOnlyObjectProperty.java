@@ -20,8 +20,6 @@ package eu.hansolo.toolbox.properties;
 
 
 public class ReadOnlyObjectProperty<T> extends ReadOnlyProperty<T> {
-    protected ObjectProperty<T> propertyToUpdate;
-    protected boolean           bidirectional;
 
 
     // ******************** Constructors **************************************
@@ -33,20 +31,24 @@ public class ReadOnlyObjectProperty<T> extends ReadOnlyProperty<T> {
     }
     public ReadOnlyObjectProperty(final Object bean, final String name, final T value) {
         super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
     }
 
 
     // ******************** Methods *******************************************
     public T get() { return value; }
 
-    protected void setPropertyToUpdate(final ObjectProperty<T> property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
-    }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    protected void updateProperties(final T value, final ReadOnlyObjectProperty<T> source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((ObjectProperty<T>) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
     }
 }
@@ -19,23 +19,38 @@
 package eu.hansolo.toolbox.properties;
 
 import eu.hansolo.toolbox.evt.EvtObserver;
+import eu.hansolo.toolbox.evt.WeakEvtObserver;
 import eu.hansolo.toolbox.evt.type.InvalidationEvt;
 import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 
 public abstract class ReadOnlyProperty<T extends Object> {
-    protected CopyOnWriteArrayList<EvtObserver<PropertyChangeEvt<T>>> observers;
-    protected CopyOnWriteArrayList<EvtObserver<InvalidationEvt<T>>>   invalidationObservers;
-    protected Object                                                  bean;
-    protected String                                                  name;
-    protected T                                                       initialValue;
-    protected T                                                       value;
-    protected Property<T>                                             propertyToUpdate;
-    protected boolean                                                 bidirectional;
+    private   static final ReadOnlyProperty<?>[]                                   NO_PROPERTIES = new ReadOnlyProperty<?>[0];
+    // Subclasses only pay for boxing the values of primitive properties if they override willChange() or didChange()
+    private   static final ClassValue<Boolean>                                     CHANGE_HOOKS  = new ClassValue<>() {
+        @Override protected Boolean computeValue(final Class<?> type) { return overridesHook(type, "willChange") || overridesHook(type, "didChange"); }
+    };
+    protected              CopyOnWriteArrayList<EvtObserver<PropertyChangeEvt<T>>> observers;
+    protected              CopyOnWriteArrayList<EvtObserver<InvalidationEvt<T>>>   invalidationObservers;
+    protected              Object                                                  bean;
+    protected              String                                                  name;
+    protected              T                                                       initialValue;
+    // Primitive properties keep their value unboxed in their own primitiveValue field, for them value stays null, use getValue()
+    protected              T                                                       value;
+    protected              ReadOnlyProperty<?>[]                                   propertiesToUpdate;
+    protected              int                                                     noOfPropertiesToUpdate;
+    protected              int                                                     noOfBidirectionalBindings;
+    protected              boolean                                                 bidirectional;
+    protected              boolean                                                 updating;
+    protected        final boolean                                                 changeHooks;
 
 
     // ******************** Constructors **************************************
@@ -49,17 +64,21 @@ public abstract class ReadOnlyProperty<T extends Object> {
         this(bean, name, value, value);
     }
     public ReadOnlyProperty(final Object bean, final String name, final T value, final T initialValue) {
-        this.bean             = bean;
-        this.name             = name;
-        this.value            = value;
-        this.initialValue     = initialValue;
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+        this.bean                      = bean;
+        this.name                      = name;
+        this.value                     = value;
+        this.initialValue              = initialValue;
+        this.propertiesToUpdate        = NO_PROPERTIES;
+        this.noOfPropertiesToUpdate    = 0;
+        this.noOfBidirectionalBindings = 0;
+        this.bidirectional             = false;
+        this.updating                  = false;
+        this.changeHooks               = CHANGE_HOOKS.get(getClass());
     }
 
 
     // ******************** Methods *******************************************
-    public final T getValue() { return value; }
+    public T getValue() { return value; }
 
     public final T getInitialValue() { return initialValue; }
 
@@ -75,19 +94,96 @@ public abstract class ReadOnlyProperty<T extends Object> {
 
     public String getName() { return name; }
 
-    protected void setPropertyToUpdate(final Property<T> property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
+    /**
+     * Returns the number of properties that will be updated when the value of this property changes
+     * @return the number of properties that will be updated when the value of this property changes
+     */
+    public int getNoOfBoundProperties() { return noOfPropertiesToUpdate; }
+
+    // Bound properties are kept in an array that grows like an ArrayList so that binding is amortized O(1)
+    protected void addPropertyToUpdate(final ReadOnlyProperty<?> property) {
+        if (null == property) { return; }
+        if (noOfPropertiesToUpdate == propertiesToUpdate.length) { propertiesToUpdate = Arrays.copyOf(propertiesToUpdate, Math.max(4, noOfPropertiesToUpdate * 2)); }
+        propertiesToUpdate[noOfPropertiesToUpdate++] = property;
+    }
+    protected void removePropertyToUpdate(final ReadOnlyProperty<?> property) {
+        // Search from the end because the last bound property is usually the first to be unbound
+        for (int i = noOfPropertiesToUpdate - 1 ; i >= 0 ; i--) {
+            if (propertiesToUpdate[i] != property) { continue; }
+            // The array is being iterated while updating, so it must not be modified in place
+            final ReadOnlyProperty<?>[] properties = updating ? propertiesToUpdate.clone() : propertiesToUpdate;
+            System.arraycopy(properties, i + 1, properties, i, noOfPropertiesToUpdate - i - 1);
+            properties[--noOfPropertiesToUpdate] = null;
+            propertiesToUpdate = properties;
+            return;
+        }
     }
-    protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    protected boolean isPropertyToUpdate(final ReadOnlyProperty<?> property) {
+        for (int i = noOfPropertiesToUpdate - 1 ; i >= 0 ; i--) {
+            if (propertiesToUpdate[i] == property) { return true; }
+        }
+        return false;
+    }
+
+    protected void linkBidirectional(final ReadOnlyProperty<?> property) {
+        if (isPropertyToUpdate(property)) { return; }
+        addPropertyToUpdate(property);
+        property.addPropertyToUpdate(this);
+        this.noOfBidirectionalBindings++;
+        this.bidirectional = true;
+        property.noOfBidirectionalBindings++;
+        property.bidirectional = true;
+    }
+    protected void unlinkBidirectional() {
+        for (int i = noOfPropertiesToUpdate - 1 ; i >= 0 && noOfBidirectionalBindings > 0 ; i--) {
+            final ReadOnlyProperty<?> property = propertiesToUpdate[i];
+            if (!property.isPropertyToUpdate(this)) { continue; }
+            property.removePropertyToUpdate(this);
+            property.bidirectional = --property.noOfBidirectionalBindings > 0;
+            removePropertyToUpdate(property);
+            noOfBidirectionalBindings--;
+        }
+        bidirectional = false;
+    }
+
+    /**
+     * Pushes the given value to all bound properties except the one the value came from.
+     * While the value is being pushed updating is set, so a value that comes back over a
+     * cycle of bidirectional bindings will be ignored by the property it started from.
+     * @param value
+     * @param source The property that pushed the value to this property or null
+     */
+    protected void updateProperties(final T value, final ReadOnlyProperty<T> source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((Property<T>) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
     }
 
     public List<EvtObserver<PropertyChangeEvt<T>>> getObservers() { return observers; }
 
     public List<EvtObserver<InvalidationEvt<T>>> getInvalidationObservers() { return invalidationObservers; }
 
+    /**
+     * Returns a lazy computed property that contains the result of the given function
+     * applied to the value of this property. The function will only be called when the
+     * value of the returned property is read after this property has been invalidated.
+     * @param function
+     * @return a lazy computed property that contains the mapped value of this property
+     */
+    public <R> ComputedProperty<R> map(final Function<? super T, ? extends R> function) {
+        if (null == function) { throw new IllegalArgumentException("function cannot be null"); }
+        return new ComputedProperty<>(() -> function.apply(getValue()), this);
+    }
+
 
     // ******************** Event Handling ************************************
     public void addOnChange(final EvtObserver<PropertyChangeEvt<T>> observer) {
@@ -99,15 +195,65 @@ public abstract class ReadOnlyProperty<T extends Object> {
         if (observers.contains(observer)) { return; }
         observers.add(observer);
     }
+    /**
+     * Adds the given observer without keeping it alive. It will be removed automatically
+     * after it has been garbage collected, so the caller has to hold a strong reference to it.
+     * @param observer
+     */
+    public void addWeakObserver(final EvtObserver<PropertyChangeEvt<T>> observer) {
+        if (null == observer) { return; }
+        WeakEvtObserver.expungeStaleObservers();
+        if (null == observers) { observers = new CopyOnWriteArrayList<>(); }
+        final CopyOnWriteArrayList<EvtObserver<PropertyChangeEvt<T>>> list = observers;
+        for (EvtObserver<PropertyChangeEvt<T>> o : list) {
+            if (WeakEvtObserver.matches(o, observer)) { return; }
+        }
+        list.add(new WeakEvtObserver<>(observer, list::remove));
+    }
+    /**
+     * Adds an observer that receives at most one PropertyChangeEvt per interval.
+     * Changes in between will be merged into one event from the first old value to the last new value.
+     * @param interval
+     * @param observer
+     * @return the added observer that is needed to remove it again
+     */
+    public CoalescingObserver<T> addThrottledObserver(final Duration interval, final EvtObserver<PropertyChangeEvt<T>> observer) {
+        final CoalescingObserver<T> throttledObserver = CoalescingObserver.throttle(interval, observer);
+        addObserver(throttledObserver);
+        return throttledObserver;
+    }
+    /**
+     * Adds an observer that will be called by the given executor with all changes merged
+     * that happened until the executor was able to run it (e.g. once per UI pulse).
+     * @param executor
+     * @param observer
+     * @return the added observer that is needed to remove it again
+     */
+    public CoalescingObserver<T> addLatestOnlyObserver(final Executor executor, final EvtObserver<PropertyChangeEvt<T>> observer) {
+        final CoalescingObserver<T> latestOnlyObserver = CoalescingObserver.latestOnly(executor, observer);
+        addObserver(latestOnlyObserver);
+        return latestOnlyObserver;
+    }
     public void removeObserver(final EvtObserver<PropertyChangeEvt<T>> observer) {
         if (null == observer || null == observers) { return; }
-        if (observers.contains(observer)) { observers.remove(observer); }
+        observers.removeIf(o -> WeakEvtObserver.matches(o, observer));
     }
     public void removeAllObservers() {
         if (null == observers) { return; }
         observers.clear();
     }
 
+    public boolean hasObservers() { return null != observers && !observers.isEmpty(); }
+
+    /**
+     * Returns the number of observers after removing the weak observers that have been garbage collected
+     * @return the number of observers
+     */
+    public int getNoOfObservers() {
+        WeakEvtObserver.expungeStaleObservers();
+        return null == observers ? 0 : observers.size();
+    }
+
     public void fireEvent(final PropertyChangeEvt<T> evt) {
         if (null == evt || null == observers) { return; }
         observers.forEach(observer -> observer.handle(evt));
@@ -121,17 +267,57 @@ public abstract class ReadOnlyProperty<T extends Object> {
         if (invalidationObservers.contains(observer)) { return; }
         invalidationObservers.add(observer);
     }
+    public void addWeakInvalidationObserver(final EvtObserver<InvalidationEvt<T>> observer) {
+        if (null == observer) { return; }
+        WeakEvtObserver.expungeStaleObservers();
+        if (null == invalidationObservers) { invalidationObservers = new CopyOnWriteArrayList<>(); }
+        final CopyOnWriteArrayList<EvtObserver<InvalidationEvt<T>>> list = invalidationObservers;
+        for (EvtObserver<InvalidationEvt<T>> o : list) {
+            if (WeakEvtObserver.matches(o, observer)) { return; }
+        }
+        list.add(new WeakEvtObserver<>(observer, list::remove));
+    }
     public void removeInvalidationObserver(final EvtObserver<InvalidationEvt<T>> observer) {
         if (null == invalidationObservers || null == observer) { return; }
-        if (invalidationObservers.contains(observer)) { invalidationObservers.remove(observer); }
+        invalidationObservers.removeIf(o -> WeakEvtObserver.matches(o, observer));
     }
     public void removeAllInvalidationObservers() {
         if (null == invalidationObservers) { return; }
         invalidationObservers.clear();
     }
 
+    public boolean hasInvalidationObservers() { return null != invalidationObservers && !invalidationObservers.isEmpty(); }
+
+    public int getNoOfInvalidationObservers() {
+        WeakEvtObserver.expungeStaleObservers();
+        return null == invalidationObservers ? 0 : invalidationObservers.size();
+    }
+
     public void fireEvent(final InvalidationEvt evt) {
         if (null == evt || null == invalidationObservers) { return; }
-        invalidationObservers.forEach(observer -> observer.handle(evt));
+        Computation.beginPropagation();
+        try {
+            invalidationObservers.forEach(observer -> observer.handle(evt));
+        } finally {
+            Computation.endPropagation();
+        }
+    }
+
+
+    // ******************** Private Methods ***********************************
+    /**
+     * Returns true if a subclass overrides the given hook. An override of willChange(T, T) or didChange(T, T)
+     * always has the erased signature (Object, Object), either itself or as bridge method, so other overloads are ignored.
+     */
+    private static boolean overridesHook(final Class<?> type, final String name) {
+        for (Class<?> c = type ; null != c && ReadOnlyProperty.class != c ; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, Object.class, Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden in this class
+            }
+        }
+        return false;
     }
 }
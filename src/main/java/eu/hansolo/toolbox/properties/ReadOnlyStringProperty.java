@@ -20,8 +20,6 @@ package eu.hansolo.toolbox.properties;
 
 
 public class ReadOnlyStringProperty extends ReadOnlyProperty<String> {
-    protected StringProperty propertyToUpdate;
-    protected boolean        bidirectional;
 
     // ******************** Constructors **************************************
     public ReadOnlyStringProperty() {
@@ -32,20 +30,24 @@ public class ReadOnlyStringProperty extends ReadOnlyProperty<String> {
     }
     public ReadOnlyStringProperty(final Object bean, final String name, final String value) {
         super(bean, name, value);
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
     }
 
 
     // ******************** Methods *******************************************
     public String get() { return value; }
 
-    protected void setPropertyToUpdate(final StringProperty property) {
-        this.propertyToUpdate = property;
-        this.bidirectional    = false;
-    }
-    @Override protected void unsetPropertyToUpdate() {
-        this.propertyToUpdate = null;
-        this.bidirectional    = false;
+    protected void updateProperties(final String value, final ReadOnlyStringProperty source) {
+        final int noOfTargets = noOfPropertiesToUpdate;
+        if (0 == noOfTargets) { return; }
+        final ReadOnlyProperty<?>[] targets     = propertiesToUpdate;
+        final boolean               wasUpdating = updating;
+        updating = true;
+        try {
+            for (int i = 0 ; i < noOfTargets ; i++) {
+                if (targets[i] != source) { ((StringProperty) targets[i]).setValue(value, this); }
+            }
+        } finally {
+            updating = wasUpdating;
+        }
     }
 }
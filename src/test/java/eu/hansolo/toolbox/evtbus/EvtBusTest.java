@@ -19,6 +19,7 @@
 package eu.hansolo.toolbox.evtbus;
 
 import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtPriority;
 import eu.hansolo.toolbox.evt.EvtType;
 import eu.hansolo.toolbox.evt.type.ChangeEvt;
 import org.junit.jupiter.api.Test;
@@ -28,7 +29,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class EvtBusTest {
@@ -221,4 +225,213 @@ public class EvtBusTest {
 
         eventBus.publish(topic2, new TopicEvt(eventBus, TopicEvt.UPDATE_MSG, new Msg("Update Msg topic 2")));
     }
+
+    @Test
+    void testDefaultEvtBus() {
+        System.out.println("\n-------------------- default evtbus test --------------------");
+
+        class SimpleTopic implements Topic {
+            private final String name;
+
+            public SimpleTopic(final String name) { this.name = name; }
+
+            @Override public String getId() { return name; }
+
+            @Override public String getName() { return name; }
+        }
+
+        class CountingSubscriber implements Subscriber {
+            private final EvtType       evtType;
+            private final AtomicInteger counter = new AtomicInteger(0);
+
+            public CountingSubscriber(final EvtType evtType) { this.evtType = evtType; }
+
+            public int getCount() { return counter.get(); }
+
+            @Override public EvtType<Evt> getEvtType() { return evtType; }
+
+            @Override public void handle(final Evt evt) { counter.incrementAndGet(); }
+        }
+
+        final EvtType<ChangeEvt> SENSOR_ANY     = new EvtType<>(ChangeEvt.ANY, "SENSOR_ANY");
+        final EvtType<ChangeEvt> SENSOR_UPDATED = new EvtType<>(SENSOR_ANY, "SENSOR_UPDATED");
+
+        DefaultEvtBus      eventBus           = new DefaultEvtBus();
+        SimpleTopic        topic1             = new SimpleTopic("Topic 1");
+        SimpleTopic        topic2             = new SimpleTopic("Topic 2");
+        CountingSubscriber updatedSubscriber  = new CountingSubscriber(SENSOR_UPDATED);
+        CountingSubscriber anySubscriber      = new CountingSubscriber(SENSOR_ANY);
+        CountingSubscriber changeSubscriber   = new CountingSubscriber(ChangeEvt.ANY);
+        CountingSubscriber otherTopicSubscr   = new CountingSubscriber(ChangeEvt.ANY);
+
+        eventBus.subscribe(topic1, updatedSubscriber);
+        eventBus.subscribe(topic1, updatedSubscriber);
+        eventBus.subscribe(topic1, anySubscriber);
+        eventBus.subscribe(topic1, changeSubscriber);
+        eventBus.subscribe(topic2, otherTopicSubscr);
+
+        eventBus.publish(topic1, new ChangeEvt(eventBus, SENSOR_UPDATED));
+        eventBus.publish(topic1, new ChangeEvt(eventBus, SENSOR_ANY));
+        eventBus.publish(topic1, new ChangeEvt(eventBus, ChangeEvt.ANY));
+
+        assert updatedSubscriber.getCount() == 1;
+        assert anySubscriber.getCount()     == 2;
+        assert changeSubscriber.getCount()  == 3;
+        assert otherTopicSubscr.getCount()  == 0;
+
+        // Subscriptions change -> cached subscribers have to be resolved again
+        eventBus.unsubscribe(topic1, anySubscriber);
+        eventBus.publish(topic1, new ChangeEvt(eventBus, SENSOR_UPDATED));
+        assert updatedSubscriber.getCount() == 2;
+        assert anySubscriber.getCount()     == 2;
+        assert changeSubscriber.getCount()  == 4;
+
+        eventBus.unsubscribe(topic2, otherTopicSubscr);
+        assert !eventBus.hasSubscribers(topic2);
+        assert eventBus.hasSubscribers(topic1);
+    }
+
+    @Test
+    void testAsyncEvtBus() throws InterruptedException {
+        System.out.println("\n-------------------- async evtbus test --------------------");
+
+        class SimpleTopic implements Topic {
+            private final String name;
+
+            public SimpleTopic(final String name) { this.name = name; }
+
+            @Override public String getId() { return name; }
+
+            @Override public String getName() { return name; }
+        }
+
+        class LatchSubscriber implements Subscriber {
+            private final EvtType        evtType;
+            private final CountDownLatch latch;
+            private final CountDownLatch gate;
+            private final AtomicInteger  counter = new AtomicInteger(0);
+
+            public LatchSubscriber(final EvtType evtType, final CountDownLatch latch, final CountDownLatch gate) {
+                this.evtType = evtType;
+                this.latch   = latch;
+                this.gate    = gate;
+            }
+
+            public int getCount() { return counter.get(); }
+
+            @Override public EvtType<Evt> getEvtType() { return evtType; }
+
+            @Override public void handle(final Evt evt) {
+                try { gate.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                counter.incrementAndGet();
+                latch.countDown();
+            }
+        }
+
+        // Slow subscriber must not block the publisher
+        CountDownLatch  gate       = new CountDownLatch(1);
+        CountDownLatch  delivered  = new CountDownLatch(10);
+        AsyncEvtBus     eventBus   = AsyncEvtBusBuilder.create().bufferSize(16).build();
+        SimpleTopic     topic      = new SimpleTopic("Async");
+        LatchSubscriber subscriber = new LatchSubscriber(ChangeEvt.ANY, delivered, gate);
+        eventBus.subscribe(topic, subscriber);
+        for (int i = 0 ; i < 10 ; i++) { eventBus.publish(topic, new ChangeEvt(eventBus, ChangeEvt.ANY)); }
+        assert subscriber.getCount() == 0;
+        gate.countDown();
+        assert delivered.await(5, TimeUnit.SECONDS);
+        assert subscriber.getCount() == 10;
+        System.out.println("Delivered " + subscriber.getCount() + " events asynchronously");
+
+        // Full buffer with DROP_NEWEST drops and counts events
+        CountDownLatch  blocked     = new CountDownLatch(1);
+        CountDownLatch  started     = new CountDownLatch(1);
+        AsyncEvtBus     droppingBus = new AsyncEvtBus(4, WaitStrategy.PARK, OverflowStrategy.DROP_NEWEST);
+        LatchSubscriber dropSubscr  = new LatchSubscriber(ChangeEvt.ANY, started, blocked);
+        droppingBus.subscribe(topic, dropSubscr);
+        droppingBus.publish(topic, new ChangeEvt(droppingBus, ChangeEvt.ANY));
+        // Wait until the consumer thread took the first event and hangs in the subscriber
+        while (droppingBus.getNoOfPendingEvts(topic) > 0) { Thread.sleep(1); }
+        for (int i = 0 ; i < 10 ; i++) { droppingBus.publish(topic, new ChangeEvt(droppingBus, ChangeEvt.ANY)); }
+        assert droppingBus.getNoOfDroppedEvts() == 6;
+        assert droppingBus.getNoOfPendingEvts(topic) == 4;
+        blocked.countDown();
+
+        // Shutdown delivers pending events before the consumer thread terminates
+        droppingBus.shutdown();
+        assert droppingBus.awaitTermination(5, TimeUnit.SECONDS);
+        assert dropSubscr.getCount() == 5;
+        try {
+            droppingBus.publish(topic, new ChangeEvt(droppingBus, ChangeEvt.ANY));
+            assert false;
+        } catch (IllegalStateException e) {
+            System.out.println("No events accepted after shutdown");
+        }
+
+        eventBus.shutdown();
+        assert eventBus.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testPriorityAsyncEvtBus() throws InterruptedException {
+        System.out.println("\n-------------------- priority async evtbus test --------------------");
+
+        class SimpleTopic implements Topic {
+            private final String name;
+
+            public SimpleTopic(final String name) { this.name = name; }
+
+            @Override public String getId() { return name; }
+
+            @Override public String getName() { return name; }
+        }
+
+        class RecordingSubscriber implements Subscriber {
+            private final CountDownLatch    gate;
+            private final CountDownLatch    latch;
+            private final List<EvtPriority> priorities = new CopyOnWriteArrayList<>();
+
+            public RecordingSubscriber(final CountDownLatch gate, final CountDownLatch latch) {
+                this.gate  = gate;
+                this.latch = latch;
+            }
+
+            public List<EvtPriority> getPriorities() { return priorities; }
+
+            @Override public EvtType<Evt> getEvtType() { return Evt.ANY; }
+
+            @Override public void handle(final Evt evt) {
+                // Block the consumer thread on the first event so that the following events pile up
+                try { gate.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                priorities.add(evt.getPriority());
+                latch.countDown();
+            }
+        }
+
+        CountDownLatch      gate       = new CountDownLatch(1);
+        CountDownLatch      delivered  = new CountDownLatch(17);
+        AsyncEvtBus         eventBus   = AsyncEvtBusBuilder.create().dispatchMode(DispatchMode.PRIORITY).priorityWeights(1, 1, 2).build();
+        SimpleTopic         topic      = new SimpleTopic("Priority");
+        RecordingSubscriber subscriber = new RecordingSubscriber(gate, delivered);
+        eventBus.subscribe(topic, subscriber);
+
+        eventBus.publish(topic, new ChangeEvt(eventBus, ChangeEvt.ANY, EvtPriority.LOW));
+        while (eventBus.getNoOfPendingEvts(topic) > 0) { Thread.sleep(1); }
+        for (int i = 0 ; i < 8 ; i++) { eventBus.publish(topic, new ChangeEvt(eventBus, ChangeEvt.ANY, EvtPriority.LOW)); }
+        for (int i = 0 ; i < 8 ; i++) { eventBus.publish(topic, new ChangeEvt(eventBus, ChangeEvt.ANY, EvtPriority.HIGH)); }
+        assert eventBus.getNoOfPendingEvts(topic, EvtPriority.LOW)  == 8;
+        assert eventBus.getNoOfPendingEvts(topic, EvtPriority.HIGH) == 8;
+        gate.countDown();
+        assert delivered.await(5, TimeUnit.SECONDS);
+
+        List<EvtPriority> priorities = subscriber.getPriorities();
+        System.out.println(priorities);
+        // HIGH events overtake the queued LOW events...
+        assert priorities.get(1) == EvtPriority.HIGH;
+        assert priorities.get(2) == EvtPriority.HIGH;
+        // ...but LOW events still get their share of each round
+        assert priorities.subList(1, 9).contains(EvtPriority.LOW);
+
+        eventBus.shutdown();
+        assert eventBus.awaitTermination(5, TimeUnit.SECONDS);
+    }
 }
@@ -18,15 +18,31 @@
 
 package eu.hansolo.toolbox.observables;
 
+import eu.hansolo.toolbox.evt.Evt;
+import eu.hansolo.toolbox.evt.EvtObserver;
 import eu.hansolo.toolbox.evt.EvtType;
+import eu.hansolo.toolbox.evt.type.ChangeEvt;
 import eu.hansolo.toolbox.evt.type.ListChangeEvt;
+import eu.hansolo.toolbox.evt.type.LongMapChangeEvt;
 import eu.hansolo.toolbox.evt.type.MapChangeEvt;
 import eu.hansolo.toolbox.evt.type.MatrixItemChangeEvt;
+import eu.hansolo.toolbox.evt.type.PrimitiveListChangeEvt;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 
 public class ObservablesTest {
@@ -165,4 +181,935 @@ public class ObservablesTest {
         integerMatrix.setItemAt(2, 0, 5);
         assert integerMatrix.getItemAt(2, 0) == 5;
     }
+
+    @Test
+    void testHierarchicalDispatch() {
+        System.out.println("\n-------------------- hierarchical dispatch test --------------------");
+        assert ListChangeEvt.ADDED.isSubTypeOf(ListChangeEvt.ANY);
+        assert ListChangeEvt.ADDED.isSubTypeOf(ChangeEvt.ANY);
+        assert ListChangeEvt.ADDED.isSubTypeOf(Evt.ANY);
+        assert !ListChangeEvt.ANY.isSubTypeOf(ListChangeEvt.ADDED);
+        assert !ListChangeEvt.ADDED.isSubTypeOf(ListChangeEvt.REMOVED);
+        assert ListChangeEvt.ADDED.getDepth() == 3;
+        assert Evt.ANY.getId() == 0;
+        // Equal types share the same id
+        assert new EvtType<>(ListChangeEvt.ANY, "ADDED").getId() == ListChangeEvt.ADDED.getId();
+
+        AtomicInteger addedCounter  = new AtomicInteger(0);
+        AtomicInteger listCounter   = new AtomicInteger(0);
+        AtomicInteger changeCounter = new AtomicInteger(0);
+        AtomicInteger rootCounter   = new AtomicInteger(0);
+        List<String>  order         = new ArrayList<>();
+
+        ObservableList<String> observableList = new ObservableList<>();
+        observableList.addListChangeObserver(Evt.ANY, e -> { rootCounter.incrementAndGet(); order.add("root"); });
+        observableList.addListChangeObserver(ChangeEvt.ANY, e -> { changeCounter.incrementAndGet(); order.add("change"); });
+        observableList.addListChangeObserver(ListChangeEvt.ANY, e -> { listCounter.incrementAndGet(); order.add("list"); });
+        observableList.addListChangeObserver(ListChangeEvt.ADDED, e -> { addedCounter.incrementAndGet(); order.add("added"); });
+
+        observableList.add("Gerrit");
+        assert order.equals(List.of("added", "list", "change", "root"));
+        observableList.remove("Gerrit");
+        assert addedCounter.get()  == 1;
+        assert listCounter.get()   == 2;
+        assert changeCounter.get() == 2;
+        assert rootCounter.get()   == 2;
+
+        observableList.removeAllListChangeObservers();
+        observableList.add("Sandra");
+        assert listCounter.get() == 2;
+
+        AtomicInteger mapCounter = new AtomicInteger(0);
+        ObservableMap<String, Integer> observableMap = new ObservableMap<>();
+        observableMap.addMapChangeObserver(ChangeEvt.ANY, e -> mapCounter.incrementAndGet());
+        observableMap.put("Gerrit", 52);
+        observableMap.put("Gerrit", 53);
+        observableMap.remove("Gerrit");
+        assert mapCounter.get() == 3;
+    }
+
+    @Test
+    void testReusedEvts() {
+        System.out.println("\n-------------------- reused events test --------------------");
+        ObservableList<String> observableList = new ObservableList<>();
+        observableList.setReuseEvts(true);
+        assert observableList.isReuseEvts();
+
+        // No observers -> no events
+        observableList.add("Gerrit");
+
+        List<String>                added   = new ArrayList<>();
+        List<String>                removed = new ArrayList<>();
+        List<ListChangeEvt<String>> evts    = new ArrayList<>();
+        observableList.addListChangeObserver(ListChangeEvt.ANY, e -> {
+            evts.add(e);
+            added.addAll(e.getAddedElements());
+            removed.addAll(e.getRemovedElements());
+            // Modifying the list while handling an event must not corrupt the reused event
+            if (e.getAddedElements().contains("Sandra")) { observableList.add("Lilli"); }
+        });
+        observableList.add("Sandra");
+        assert added.equals(List.of("Sandra", "Lilli"));
+        observableList.set(0, "Neo");
+        // Nested changes get their own event, all others reuse the event of the thread
+        assert evts.get(0) == evts.get(2);
+        assert evts.get(0) != evts.get(1);
+        assert added.get(2).equals("Neo");
+        assert removed.equals(List.of("Gerrit"));
+        observableList.addAll(List.of("Anton", "Test"));
+        assert added.subList(3, 5).equals(List.of("Anton", "Test"));
+        // The reused event does not keep references after it has been fired
+        assert evts.get(evts.size() - 1).getAddedElements().isEmpty();
+        // Reused events only equal themselves, their content changes with every use
+        final ReusableListChangeEvt<String>                  reused      = ReusableListChangeEvt.acquire(List.of("A"), ListChangeEvt.ADDED);
+        final AtomicReference<ReusableListChangeEvt<String>> otherReused = new AtomicReference<>();
+        final Thread other = new Thread(() -> {
+            final ReusableListChangeEvt<String> evt = ReusableListChangeEvt.acquire(List.of("B"), ListChangeEvt.REMOVED);
+            evt.range(3, 7);
+            otherReused.set(evt);
+        });
+        reused.range(0, 1);
+        other.start();
+        try { other.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        assert null != otherReused.get() && !reused.equals(otherReused.get()) && otherReused.get().equals(otherReused.get());
+        assert reused.equals(reused) && reused.hashCode() == System.identityHashCode(reused);
+        reused.release();
+
+        ObservableMap<String, Integer> observableMap = new ObservableMap<>();
+        observableMap.setReuseEvts(true);
+        List<String> changes = new ArrayList<>();
+        observableMap.addMapChangeObserver(MapChangeEvt.ANY, e -> {
+            e.getAddedEntries().forEach(entry -> changes.add("+" + entry.getKey() + "=" + entry.getValue()));
+            e.getModifiedEntries().forEach(entry -> changes.add("*" + entry.getKey() + "=" + entry.getValue()));
+            e.getRemovedEntries().forEach(entry -> changes.add("-" + entry.getKey() + "=" + entry.getValue()));
+        });
+        observableMap.put("Gerrit", 52);
+        observableMap.put("Gerrit", 53);
+        observableMap.remove("Gerrit");
+        assert changes.equals(List.of("+Gerrit=52", "*Gerrit=53", "-Gerrit=53"));
+    }
+
+    @Test
+    void testBatchedChanges() {
+        System.out.println("\n-------------------- batched changes test --------------------");
+        List<ListChangeEvt<String>> listEvts       = new ArrayList<>();
+        ObservableList<String>      observableList = new ObservableList<>(List.of("Gerrit", "Sandra"));
+        observableList.addListChangeObserver(ListChangeEvt.ANY, e -> listEvts.add(e));
+        observableList.batch(l -> {
+            l.add("Lilli");
+            l.add("Anton");
+            l.remove("Gerrit");
+            l.beginChange();
+            l.add("Neo");
+            l.endChange();
+            l.set(0, "Sandra Grunwald");
+        });
+        assert listEvts.size() == 3;
+        assert ListChangeEvt.REMOVED.equals(listEvts.get(0).getEvtType());
+        assert listEvts.get(0).getRemovedElements().equals(List.of("Gerrit"));
+        assert ListChangeEvt.ADDED.equals(listEvts.get(1).getEvtType());
+        assert listEvts.get(1).getAddedElements().equals(List.of("Lilli", "Anton", "Neo"));
+        assert ListChangeEvt.CHANGED.equals(listEvts.get(2).getEvtType());
+        assert listEvts.get(2).getAddedElements().equals(List.of("Sandra Grunwald"));
+        assert listEvts.get(2).getRemovedElements().equals(List.of("Sandra"));
+
+        try {
+            observableList.endChange();
+            assert false;
+        } catch (IllegalStateException e) {
+            System.out.println("endChange() without beginChange() not allowed");
+        }
+
+        AtomicInteger                       mapEvtCounter = new AtomicInteger(0);
+        List<MapChangeEvt<String, Integer>> mapEvts       = new ArrayList<>();
+        ObservableMap<String, Integer>      observableMap = new ObservableMap<>();
+        observableMap.put("A", 0);
+        observableMap.addMapChangeObserver(MapChangeEvt.ANY, e -> {
+            mapEvtCounter.incrementAndGet();
+            mapEvts.add(e);
+        });
+        Map<String, Integer> refresh = new HashMap<>();
+        for (int i = 0 ; i < 50_000 ; i++) { refresh.put("Key" + i, i); }
+        refresh.put("A", 1);
+        observableMap.putAll(refresh);
+        assert mapEvtCounter.get() == 2;
+        assert mapEvts.get(0).getAddedEntries().size() == 50_000;
+        assert mapEvts.get(1).getModifiedEntries().equals(List.of(Map.entry("A", 1)));
+    }
+
+    @Test
+    void testListStorage() {
+        System.out.println("\n-------------------- list storage test --------------------");
+        for (ListStorage storage : ListStorage.values()) {
+            List<String>           added          = new ArrayList<>();
+            List<String>           removed        = new ArrayList<>();
+            ObservableList<String> observableList = new ObservableList<>(storage);
+            assert observableList.getStorage() == storage;
+            observableList.addListChangeObserver(ListChangeEvt.ANY, e -> {
+                added.addAll(e.getAddedElements());
+                removed.addAll(e.getRemovedElements());
+            });
+            observableList.add("Gerrit");
+            observableList.add(0, "Sandra");
+            observableList.addAll(List.of("Lilli", "Anton"));
+            observableList.addAll(1, List.of("Neo"));
+            assert observableList.equals(List.of("Sandra", "Neo", "Gerrit", "Lilli", "Anton"));
+            assert !observableList.addIfAbsent("Neo");
+            assert observableList.addAllAbsent(List.of("Neo", "Test", "Test")) == 1;
+            assert observableList.indexOf("Test", 2) == 5;
+            assert observableList.lastIndexOf("Sandra", 3) == 0;
+            assert observableList.indexOf("Sandra", 1) == -1;
+
+            // Snapshot iterators of the thread safe stores allow modifications while iterating
+            if (ListStorage.UNSYNCHRONIZED != storage) {
+                for (String name : observableList) { observableList.add(name + "2"); }
+                assert observableList.size() == 12;
+
+                // Sub lists are unmodifiable snapshots as well
+                List<String> subList = observableList.subList(1, 3);
+                observableList.set(1, "Changed");
+                assert subList.equals(List.of("Neo", "Gerrit")) : subList;
+                try {
+                    subList.clear();
+                    assert false;
+                } catch (UnsupportedOperationException e) { }
+                observableList.set(1, "Neo");
+            }
+            observableList.removeIf(name -> name.endsWith("2"));
+            observableList.sort(Comparator.naturalOrder());
+            assert observableList.get(0).equals("Anton");
+            observableList.remove("Test");
+            observableList.clear();
+            assert observableList.isEmpty();
+            assert added.containsAll(List.of("Gerrit", "Sandra", "Neo", "Lilli", "Anton", "Test"));
+            assert removed.containsAll(List.of("Gerrit", "Sandra", "Neo", "Lilli", "Anton", "Test"));
+
+            ObservableList<Integer> appendList = new ObservableList<>(storage);
+            appendList.addListChangeObserver(ListChangeEvt.ADDED, e -> {});
+            long start = System.nanoTime();
+            for (int i = 0 ; i < 20_000 ; i++) { appendList.add(i); }
+            System.out.println(storage + ": appended 20000 elements in " + ((System.nanoTime() - start) / 1_000_000) + " ms");
+            assert appendList.size() == 20_000;
+            assert appendList.clone().getStorage() == storage;
+        }
+    }
+
+    @Test
+    void testPrimitiveCollections() {
+        ObservableIntList intList = new ObservableIntList(new int[] { 5, 3, 8 });
+        List<String>      intEvts = new ArrayList<>();
+        intList.addListChangeObserver(PrimitiveListChangeEvt.ANY, e -> intEvts.add(e.getEvtType().getName() + "[" + e.getFrom() + "," + e.getTo() + ")"));
+        intList.add(1);
+        intList.addAll(1, new int[] { 7, 9 });
+        assert Arrays.equals(intList.toArray(), new int[] { 5, 7, 9, 3, 8, 1 });
+        assert intList.set(0, 6) == 5;
+        assert intList.removeAt(2) == 9;
+        assert intList.removeValue(8);
+        assert !intList.removeValue(42);
+        assert intEvts.equals(List.of("ADDED[3,4)", "ADDED[1,3)", "CHANGED[0,1)", "REMOVED[2,3)", "REMOVED[3,4)")) : intEvts;
+
+        intList.removeAllListChangeObservers();
+        int[][] removed = new int[1][];
+        intList.addListChangeObserver(PrimitiveListChangeEvt.REMOVED, e -> removed[0] = e.getRemoved());
+        intList.removeRange(1, 3);
+        assert Arrays.equals(removed[0], new int[] { 7, 3 });
+        assert intList.size() == 2 && intList.stream().sum() == 7;
+        intList.clear();
+        assert intList.isEmpty();
+
+        ObservableDoubleList doubleList = new ObservableDoubleList();
+        AtomicInteger        added      = new AtomicInteger(0);
+        doubleList.addListChangeObserver(PrimitiveListChangeEvt.ADDED, e -> added.addAndGet(e.getSize()));
+        for (int i = 0 ; i < 1_000 ; i++) { doubleList.add(i * 0.5); }
+        assert added.get() == 1_000;
+        assert doubleList.indexOf(2.5) == 5;
+        assert doubleList.stream().sum() == 249_750.0;
+
+        ObservableLongMap longMap = new ObservableLongMap();
+        List<String>      mapEvts = new ArrayList<>();
+        longMap.addLongMapChangeObserver(LongMapChangeEvt.ANY, e -> mapEvts.add(e.getEvtType().getName() + ":" + e.getKey() + "=" + e.getValue() + "/" + e.getOldValue()));
+        assert longMap.put(1L, 10L) == 0L;
+        assert longMap.put(1L, 11L) == 10L;
+        longMap.put(1L, 11L);
+        assert longMap.addTo(2L, 5L) == 5L;
+        assert longMap.remove(1L) == 11L;
+        assert longMap.remove(1L) == 0L;
+        assert mapEvts.equals(List.of("ADDED:1=10/0", "MODIFIED:1=11/10", "ADDED:2=5/0", "REMOVED:1=11/11")) : mapEvts;
+
+        longMap.removeAllLongMapChangeObservers();
+        longMap.clear();
+        for (long key = 0 ; key < 10_000 ; key++) { longMap.put(key * 31, key); }
+        for (long key = 0 ; key < 10_000 ; key += 2) { longMap.remove(key * 31); }
+        assert longMap.size() == 5_000;
+        for (long key = 1 ; key < 10_000 ; key += 2) { assert longMap.get(key * 31) == key; }
+        assert !longMap.containsKey(62L);
+        int[] noOfRemoved = new int[1];
+        longMap.addLongMapChangeObserver(LongMapChangeEvt.REMOVED, e -> noOfRemoved[0] = e.getNoOfEntries());
+        longMap.clear();
+        assert longMap.isEmpty() && noOfRemoved[0] == 5_000;
+    }
+
+    @Test
+    void testPrimitiveCollectionEvtOrder() throws InterruptedException {
+        // Replaying the events on a copy has to lead to the same content, which needs the events in the order of the changes
+        final ObservableIntList intList = new ObservableIntList();
+        final List<Integer>     replay  = new ArrayList<>();
+        intList.addListChangeObserver(PrimitiveListChangeEvt.ANY, e -> {
+            if (PrimitiveListChangeEvt.ADDED.equals(e.getEvtType())) {
+                for (int i = e.getFrom() ; i < e.getTo() ; i++) { replay.add(i, intList.get(i)); }
+            } else if (PrimitiveListChangeEvt.REMOVED.equals(e.getEvtType())) {
+                for (int i = e.getFrom() ; i < e.getTo() ; i++) { replay.remove(e.getFrom()); }
+            }
+        });
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0 ; t < 4 ; t++) {
+            final int offset = t * 100_000;
+            final Thread writer = new Thread(() -> {
+                for (int i = 0 ; i < 20_000 ; i++) {
+                    intList.add(0, offset + i);
+                    if (i % 3 == 0) { intList.removeAt(0); }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) { writer.join(); }
+        assert replay.size() == intList.size();
+        for (int i = 0 ; i < replay.size() ; i++) { assert replay.get(i) == intList.get(i); }
+    }
+
+    @Test
+    void testListChangeRanges() {
+        for (ListStorage storage : ListStorage.values()) {
+            ObservableList<String> observableList = new ObservableList<>(List.of("A", "B", "C"), storage);
+            List<String>           ranges         = new ArrayList<>();
+            List<String>           removed        = new ArrayList<>();
+            observableList.addListChangeObserver(ListChangeEvt.ANY, e -> {
+                ranges.add(e.getEvtType().getName() + "[" + e.getFrom() + "," + e.getTo() + ")");
+                removed.addAll(e.getRemovedElements());
+            });
+            observableList.add("D");
+            observableList.add(1, "E");
+            observableList.addAll(List.of("F", "G"));
+            observableList.set(0, "H");
+            observableList.remove(2);
+            observableList.remove("C");
+            assert observableList.equals(List.of("H", "E", "D", "F", "G")) : observableList;
+            assert ranges.equals(List.of("ADDED[3,4)", "ADDED[1,2)", "ADDED[5,7)", "CHANGED[0,1)", "REMOVED[2,2)", "REMOVED[2,2)")) : storage + " " + ranges;
+            assert removed.equals(List.of("A", "B", "C")) : removed;
+
+            // Payloads contain the elements that have actually been removed
+            removed.clear();
+            assert observableList.removeAll(List.of("E", "X"));
+            assert removed.equals(List.of("E"));
+            removed.clear();
+            assert observableList.retainAll(List.of("D", "G"));
+            assert removed.equals(List.of("H", "F"));
+            removed.clear();
+            assert !observableList.removeIf(element -> element.equals("X"));
+            assert observableList.removeIf(element -> element.equals("D"));
+            assert removed.equals(List.of("D"));
+
+            // Added elements are not a view on the collection of the caller
+            List<List<String>> added = new ArrayList<>();
+            observableList.addListChangeObserver(ListChangeEvt.ADDED, e -> added.add(e.getAddedElements()));
+            observableList.addAll(observableList);
+            assert added.get(0).equals(List.of("G")) && observableList.equals(List.of("G", "G")) : added;
+            List<String> buffer = new ArrayList<>(List.of("X", "Y"));
+            observableList.addAll(1, buffer);
+            buffer.set(0, "Z");
+            assert added.get(1).equals(List.of("X", "Y")) : added;
+
+            List<Integer> elements = new ArrayList<>();
+            for (int i = 0 ; i < 1_000_000 ; i++) { elements.add(i); }
+            ObservableList<Integer> bigList = new ObservableList<>(elements, storage);
+            int[] noOfRemoved = new int[1];
+            bigList.addListChangeObserver(ListChangeEvt.REMOVED, e -> noOfRemoved[0] = e.getRemovedSize());
+            long start = System.nanoTime();
+            bigList.clear();
+            System.out.println(storage + ": cleared 1000000 elements in " + ((System.nanoTime() - start) / 1_000) + " us");
+            assert bigList.isEmpty() && noOfRemoved[0] == 1_000_000;
+        }
+    }
+
+    @Test
+    void testSortAndReplaceAll() {
+        for (ListStorage storage : ListStorage.values()) {
+            List<String>                names          = List.of("Neo", "Anton", "Sandra", "Gerrit", "Lilli", "Anton");
+            ObservableList<String>      observableList = new ObservableList<>(names, storage);
+            List<ListChangeEvt<String>> evts           = new ArrayList<>();
+            observableList.addListChangeObserver(ListChangeEvt.ANY, e -> evts.add(e));
+            observableList.sort(Comparator.naturalOrder());
+            assert observableList.equals(List.of("Anton", "Anton", "Gerrit", "Lilli", "Neo", "Sandra"));
+            assert evts.size() == 1 && evts.get(0).getEvtType().equals(ListChangeEvt.PERMUTATED) && evts.get(0).wasPermutated();
+            for (int i = 0 ; i < names.size() ; i++) { assert observableList.get(evts.get(0).getPermutation(i)).equals(names.get(i)); }
+            // Sorting is stable, so equal elements keep their order
+            assert evts.get(0).getPermutation(1) == 0 && evts.get(0).getPermutation(5) == 1;
+
+            // A sort in a batch fires the changes collected so far and the permutation
+            evts.clear();
+            observableList.batch(l -> {
+                l.add("Bert");
+                l.sort(Comparator.naturalOrder());
+                l.remove("Bert");
+            });
+            assert evts.size() == 3 : evts.size();
+            assert evts.get(0).getEvtType().equals(ListChangeEvt.ADDED) && evts.get(0).getAddedElements().equals(List.of("Bert"));
+            assert evts.get(1).getEvtType().equals(ListChangeEvt.PERMUTATED) && evts.get(1).getPermutation(6) == 2;
+            assert evts.get(2).getEvtType().equals(ListChangeEvt.REMOVED) && evts.get(2).getRemovedElements().equals(List.of("Bert"));
+
+            evts.clear();
+            observableList.replaceAll(String::toUpperCase);
+            assert evts.size() == 1 && evts.get(0).getEvtType().equals(ListChangeEvt.CHANGED);
+            assert evts.get(0).getFrom() == 0 && evts.get(0).getTo() == 6;
+            assert evts.get(0).getAddedElements().equals(List.of("ANTON", "ANTON", "GERRIT", "LILLI", "NEO", "SANDRA"));
+            assert evts.get(0).getRemovedElements().equals(List.of("Anton", "Anton", "Gerrit", "Lilli", "Neo", "Sandra"));
+
+            List<Integer> values = new ArrayList<>();
+            Random        rnd    = new Random(42);
+            for (int i = 0 ; i < 500_000 ; i++) { values.add(rnd.nextInt()); }
+            ObservableList<Integer> bigList     = new ObservableList<>(values, storage);
+            int[][]                 permutation = new int[1][];
+            bigList.addListChangeObserver(ListChangeEvt.PERMUTATED, e -> {
+                permutation[0] = new int[e.getTo()];
+                for (int i = e.getFrom() ; i < e.getTo() ; i++) { permutation[0][i] = e.getPermutation(i); }
+            });
+            long start = System.nanoTime();
+            bigList.parallelSort(null);
+            System.out.println(storage + ": parallel sorted 500000 elements in " + ((System.nanoTime() - start) / 1_000_000) + " ms");
+            for (int i = 1 ; i < bigList.size() ; i++) { assert bigList.get(i - 1) <= bigList.get(i); }
+            for (int i = 0 ; i < values.size() ; i += 1_000) { assert bigList.get(permutation[0][i]).equals(values.get(i)); }
+        }
+    }
+
+    @Test
+    void testAtomicMapOperations() throws InterruptedException {
+        ObservableMap<String, Integer> observableMap = new ObservableMap<>();
+        AtomicInteger                  added         = new AtomicInteger(0);
+        AtomicInteger                  modified      = new AtomicInteger(0);
+        AtomicInteger                  removed       = new AtomicInteger(0);
+        observableMap.addMapChangeObserver(MapChangeEvt.ADDED, e -> added.addAndGet(e.getAddedEntries().size()));
+        observableMap.addMapChangeObserver(MapChangeEvt.MODIFIED, e -> modified.addAndGet(e.getModifiedEntries().size()));
+        observableMap.addMapChangeObserver(MapChangeEvt.REMOVED, e -> removed.addAndGet(e.getRemovedEntries().size()));
+
+        // Concurrent counters with merge, every key must be reported as added exactly once
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0 ; t < 4 ; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0 ; i < 10_000 ; i++) { observableMap.merge("key" + (i % 100), 1, Integer::sum); }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) { thread.join(); }
+        assert observableMap.size() == 100;
+        assert observableMap.values().stream().mapToInt(Integer::intValue).sum() == 40_000;
+        assert added.get() == 100 : added.get();
+        assert modified.get() == 39_900 : modified.get();
+
+        added.set(0);
+        modified.set(0);
+        assert observableMap.putIfAbsent("key0", 5) == 400;
+        assert observableMap.getOrDefault("unknown", 7) == 7;
+        assert observableMap.computeIfAbsent("key0", key -> 1) == 400;
+        assert observableMap.computeIfAbsent("new", key -> 1) == 1;
+        assert observableMap.computeIfPresent("new", (key, value) -> value + 1) == 2;
+        assert observableMap.compute("new", (key, value) -> value) == 2;
+        assert null == observableMap.compute("new", (key, value) -> null);
+        assert null == observableMap.computeIfPresent("new", (key, value) -> value + 1);
+        assert added.get() == 1 && modified.get() == 1 && removed.get() == 1;
+
+        // replaceAll fires one coalesced MODIFIED event
+        List<MapChangeEvt<String, Integer>> evts = new ArrayList<>();
+        observableMap.addMapChangeObserver(MapChangeEvt.MODIFIED, e -> evts.add(e));
+        observableMap.replaceAll((key, value) -> value * 2);
+        assert evts.size() == 1 && evts.get(0).getModifiedEntries().size() == 100;
+        assert observableMap.get("key1") == 800;
+
+        observableMap.clear();
+        assert observableMap.isEmpty() && removed.get() == 101;
+    }
+
+    @Test
+    void testShardedObservableMap() throws InterruptedException {
+        for (boolean dedicatedDispatchThreads : new boolean[] { false, true }) {
+            ShardedObservableMap<Integer, Integer> shardedMap = new ShardedObservableMap<>(6, dedicatedDispatchThreads);
+            AtomicInteger                               added           = new AtomicInteger(0);
+            AtomicInteger                               shard0          = new AtomicInteger(0);
+            Set<String>                                 threads         = ConcurrentHashMap.newKeySet();
+            EvtObserver<MapChangeEvt<Integer, Integer>> removedObserver = e -> { throw new IllegalStateException("Observer should have been removed"); };
+            assert shardedMap.getNoOfShards() == 8;
+            shardedMap.addMapChangeObserver(MapChangeEvt.ADDED, e -> {
+                added.addAndGet(e.getAddedEntries().size());
+                threads.add(Thread.currentThread().getName());
+            });
+            shardedMap.addShardObserver(0, MapChangeEvt.ADDED, e -> shard0.incrementAndGet());
+            shardedMap.addMapChangeObserver(MapChangeEvt.REMOVED, removedObserver);
+            shardedMap.removeMapChangeObserver(MapChangeEvt.REMOVED, removedObserver);
+
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0 ; t < 4 ; t++) {
+                final int offset = t * 10_000;
+                Thread writer = new Thread(() -> {
+                    for (int i = 0 ; i < 10_000 ; i++) { shardedMap.put(offset + i, i); }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) { writer.join(); }
+            shardedMap.shutdown();
+            assert shardedMap.awaitTermination(5, TimeUnit.SECONDS);
+
+            int expectedShard0 = 0;
+            for (int key = 0 ; key < 40_000 ; key++) {
+                if (shardedMap.shardIndexOf(key) == 0) { expectedShard0++; }
+            }
+            assert shardedMap.size() == 40_000 && shardedMap.entrySet().size() == 40_000;
+            assert shardedMap.get(12_345) == 2_345;
+            assert added.get() == 40_000 : added.get();
+            assert shard0.get() == expectedShard0;
+            assert !dedicatedDispatchThreads || threads.stream().allMatch(name -> name.startsWith("ShardedObservableMap-"));
+            int iterated = 0;
+            for (Map.Entry<Integer, Integer> entry : shardedMap.entrySet()) { iterated++; }
+            assert iterated == 40_000;
+            shardedMap.clear();
+            assert shardedMap.isEmpty();
+        }
+    }
+
+    @Test
+    void testShardedObservableMapDistribution() {
+        final ShardedObservableMap<Integer, Integer> shardedMap = new ShardedObservableMap<>(64);
+        final Random                                 rnd        = new Random(42);
+        final List<Integer>                          shard0Keys = new ArrayList<>();
+        final int[]                                  perShard   = new int[64];
+        for (int i = 0 ; i < 200_000 ; i++) {
+            final int key   = rnd.nextInt();
+            final int index = shardedMap.shardIndexOf(key);
+            perShard[index]++;
+            if (0 == index) { shard0Keys.add(key); }
+        }
+        assert Arrays.stream(perShard).allMatch(count -> count > 2_500 && count < 3_800) : Arrays.toString(perShard);
+
+        // Bins of the ConcurrentHashMap of a shard are taken from the low bits of the spread hash
+        final int          tableSize = Integer.highestOneBit(shard0Keys.size() * 2) << 1;
+        final Set<Integer> bins = new HashSet<>();
+        for (int key : shard0Keys) {
+            final int hash = Integer.hashCode(key);
+            bins.add((hash ^ (hash >>> 16)) & (tableSize - 1));
+        }
+        assert bins.size() > shard0Keys.size() / 2 : bins.size() + " bins used by " + shard0Keys.size() + " keys";
+
+        // putAll fires one event per shard
+        final AtomicInteger events = new AtomicInteger(0);
+        final AtomicInteger added  = new AtomicInteger(0);
+        shardedMap.addMapChangeObserver(MapChangeEvt.ADDED, e -> {
+            events.incrementAndGet();
+            added.addAndGet(e.getAddedEntries().size());
+        });
+        final Map<Integer, Integer> entries = new HashMap<>();
+        for (int i = 0 ; i < 10_000 ; i++) { entries.put(i, i); }
+        shardedMap.putAll(entries);
+        assert shardedMap.size() == 10_000 && added.get() == 10_000;
+        assert events.get() == 64 : events.get();
+    }
+
+    @Test
+    void testObservableCache() {
+        long[]                           time  = { 0 };
+        ObservableCache<String, Integer> cache = ObservableCacheBuilder.create()
+                                                                       .maximumSize(3)
+                                                                       .expireAfterWrite(10, TimeUnit.MINUTES)
+                                                                       .expireAfterAccess(2, TimeUnit.SECONDS)
+                                                                       .ticker(() -> time[0])
+                                                                       .build();
+        List<String> evts = new ArrayList<>();
+        cache.addMapChangeObserver(MapChangeEvt.ANY, e -> {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(e.getAddedEntries());
+            entries.addAll(e.getModifiedEntries());
+            entries.addAll(e.getRemovedEntries());
+            evts.add(e.getEvtType().getName() + entries);
+        });
+        AtomicInteger removed = new AtomicInteger(0);
+        cache.addMapChangeObserver(MapChangeEvt.REMOVED, e -> removed.addAndGet(e.getRemovedEntries().size()));
+
+        cache.put("A", 1);
+        cache.put("B", 2);
+        cache.put("C", 3);
+        assert cache.get("A") == 1;     // B is least recently used now
+        cache.put("D", 4);
+        assert !cache.containsKey("B");
+        assert null == cache.get("B");
+        assert cache.put("A", 10) == 1;
+        assert evts.equals(List.of("ADDED[A=1]", "ADDED[B=2]", "ADDED[C=3]", "ADDED[D=4]", "EVICTED[B=2]", "MODIFIED[A=10]")) : evts;
+        assert cache.getHitCount() == 1 && cache.getMissCount() == 1 && cache.getEvictionCount() == 1;
+
+        // Expire after access, A is kept alive by reading it
+        evts.clear();
+        time[0] += TimeUnit.MILLISECONDS.toNanos(1_500);
+        assert cache.get("A") == 10;
+        time[0] += TimeUnit.MILLISECONDS.toNanos(1_500);
+        assert cache.get("C") == null;
+        assert cache.get("A") == 10;
+        cache.cleanUp();
+        assert cache.size() == 1;
+        assert cache.getExpirationCount() == 2 : cache.getExpirationCount();
+        assert evts.stream().filter(evt -> evt.startsWith("EXPIRED")).mapToInt(evt -> evt.split("=").length - 1).sum() == 2 : evts;
+        assert removed.get() == 3;
+
+        // Expire after write, even if the entry is read regularly
+        for (int i = 0 ; i < 600 ; i++) {
+            time[0] += TimeUnit.SECONDS.toNanos(1);
+            cache.get("A");
+        }
+        assert cache.isEmpty();
+        assert cache.getExpirationCount() == 3;
+
+        // The timer wheel removes expired entries without them being read
+        cache.resetStatistics();
+        for (int i = 0 ; i < 3 ; i++) { cache.computeIfAbsent("Key" + i, key -> key.length()); }
+        assert cache.getMissCount() == 3 && cache.computeIfAbsent("Key0", key -> 0) == 4;
+        time[0] += TimeUnit.HOURS.toNanos(5);
+        cache.cleanUp();
+        assert cache.getExpirationCount() == 3 && cache.entrySet().isEmpty();
+        cache.put("X", 1);
+        cache.clear();
+        assert removed.get() == 8 : removed.get();
+        System.out.println("Cache hit rate: " + cache.getHitRate());
+    }
+
+    @Test
+    void testWeakObservers() throws InterruptedException {
+        System.out.println("\n-------------------- weak observers test --------------------");
+        final ObservableList<String>             list     = new ObservableList<>();
+        final AtomicInteger                      calls    = new AtomicInteger(0);
+        final EvtObserver<ListChangeEvt<String>> observer = e -> calls.incrementAndGet();
+        for (int i = 0 ; i < 1_000 ; i++) {
+            // Short lived components that never unsubscribe
+            final Object component = new Object();
+            list.addWeakListChangeObserver(ListChangeEvt.ADDED, e -> component.toString());
+        }
+        list.addWeakListChangeObserver(ListChangeEvt.ADDED, observer);
+        list.addWeakListChangeObserver(ListChangeEvt.ADDED, observer);
+        list.add("A");
+        assert calls.get() == 1;
+
+        for (int i = 0 ; i < 50 && list.getNoOfListChangeObservers() > 1 ; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        System.out.println("Live observers after gc: " + list.getNoOfListChangeObservers());
+        assert list.getNoOfListChangeObservers() == 1;
+
+        list.add("B");
+        assert calls.get() == 2;
+        list.removeListChangeObserver(ListChangeEvt.ADDED, observer);
+        assert list.getNoOfListChangeObservers() == 0;
+    }
+    @Test
+    void testMatrixStorage() {
+        System.out.println("\n-------------------- matrix storage test --------------------");
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<Integer> matrix = new ObservableMatrix<>(Integer.class, 4, 3, storage);
+            final List<MatrixItemChangeEvt<Integer>> evts = new ArrayList<>();
+            matrix.addMatrixItemChangeObserver(MatrixItemChangeEvt.ANY, e -> evts.add(e));
+            for (int y = 0 ; y < 3 ; y++) {
+                for (int x = 0 ; x < 4 ; x++) { matrix.setItemAt(x, y, y * 4 + x); }
+            }
+            assert evts.size() == 12;
+            assert matrix.getStorage() == storage;
+            assert matrix.getItemAt(3, 2) == 11;
+            assert matrix.contains(6) && !matrix.contains(42);
+            assert Arrays.equals(matrix.getIndicesOf(6), new int[] { 2, 1 });
+            assert matrix.getRow(1).equals(List.of(4, 5, 6, 7));
+            assert matrix.getCol(2).equals(List.of(2, 6, 10));
+
+            matrix.addCol(1, List.of(-1, -2, -3));
+            assert matrix.getNoOfCols() == 5;
+            assert matrix.getRow(1).equals(List.of(4, -2, 5, 6, 7));
+            matrix.addNullRow(1);
+            assert matrix.isRowEmpty(1) && matrix.getNoOfRows() == 4;
+            assert matrix.getCol(0).equals(Arrays.asList(0, null, 4, 8));
+            // Inner rows and columns will only be cleared unless the matrix should be resized
+            matrix.removeCol(1);
+            assert matrix.getNoOfCols() == 5 && matrix.isColEmpty(1);
+            matrix.setResizeMatrixWhenInnerRowOrColIsRemoved(true);
+            matrix.removeRow(1);
+            matrix.removeCol(1);
+            assert matrix.getNoOfRows() == 3 && matrix.getRow(0).equals(List.of(0, 1, 2, 3));
+
+            matrix.mirrorColumns();
+            assert matrix.getRow(0).equals(List.of(3, 2, 1, 0));
+            matrix.mirrorRows();
+            assert matrix.getCol(0).equals(List.of(11, 7, 3));
+
+            matrix.setCols(2);
+            matrix.setRows(4);
+            assert matrix.getNoOfCols() == 2 && matrix.getNoOfRows() == 4;
+            assert matrix.getRow(0).equals(List.of(11, 10)) && matrix.isRowEmpty(3);
+            assert matrix.getAllItems().size() == 6;
+
+            // Compare and set compares by identity and only fires an event if the item was set
+            final Integer item = matrix.getItemAt(1, 0);
+            assert !matrix.compareAndSetItemAt(1, 0, Integer.valueOf(12345), 42);
+            assert matrix.compareAndSetItemAt(1, 0, item, 42) && matrix.getItemAt(1, 0) == 42;
+            assert evts.get(evts.size() - 1).getEvtType().equals(MatrixItemChangeEvt.ITEM_CHANGED);
+            assert matrix.compareAndSetItemAt(1, 0, matrix.getItemAt(1, 0), item, false);
+
+            final ObservableMatrix<Integer> copy = new ObservableMatrix<>(matrix);
+            assert copy.getStorage() == storage && copy.toString().equals(matrix.toString());
+
+            matrix.reset();
+            assert matrix.isEmpty() && !copy.isEmpty();
+            System.out.println(storage + " storage ok");
+        }
+    }
+
+    @Test
+    void testMatrixIndexIndirection() {
+        System.out.println("\n-------------------- matrix index indirection test --------------------");
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<Integer> matrix = new ObservableMatrix<>(Integer.class, 3, 1000, true, storage);
+            for (int y = 0 ; y < 1000 ; y++) {
+                for (int x = 0 ; x < 3 ; x++) { matrix.setItemAt(x, y, y * 3 + x, false); }
+            }
+            // Insert rows in the middle, the following rows are only shifted in the index
+            for (int i = 0 ; i < 100 ; i++) { matrix.addRow(500, List.of(-i, -i, -i), false); }
+            assert matrix.getNoOfRows() == 1100;
+            assert matrix.getRow(499).equals(List.of(1497, 1498, 1499));
+            assert matrix.getRow(500).equals(List.of(-99, -99, -99));
+            assert matrix.getRow(599).equals(List.of(0, 0, 0));
+            assert matrix.getRow(600).equals(List.of(1500, 1501, 1502));
+            assert Arrays.equals(matrix.getIndicesOf(1501), new int[] { 1, 600 });
+
+            // Removed rows are reused by new rows
+            for (int i = 0 ; i < 100 ; i++) { matrix.removeRow(500, false); }
+            assert matrix.getNoOfRows() == 1000 && matrix.getRow(500).equals(List.of(1500, 1501, 1502));
+            matrix.addNullRow(0, false);
+            assert matrix.isRowEmpty(0) && matrix.getRow(1).equals(List.of(0, 1, 2));
+
+            // Mirroring only reverses the index
+            matrix.mirrorRows(false);
+            matrix.mirrorColumns(false);
+            assert matrix.getRow(0).equals(List.of(2999, 2998, 2997)) && matrix.isRowEmpty(1000);
+            matrix.addCol(3, () -> 7, false);
+            assert matrix.getRow(0).equals(List.of(2999, 2998, 2997, 7));
+
+            // Streams follow the logical order column by column like getMatrix()
+            final List<AtomicReference<Integer>> references = matrix.stream().collect(Collectors.toList());
+            assert references.size() == 4 * 1001 && references.get(0).get() == 2999 && null == references.get(1000).get();
+            assert references.get(1001).get() == 2998 && references.get(4 * 1001 - 1).get() == 7;
+            final List<AtomicReference<Integer>> allItems = matrix.getAllItems();
+            assert allItems.size() == 4 * 1001 - 3 && allItems.get(1000).get() == 2998;
+            if (MatrixStorage.ATOMIC == storage) {
+                references.get(1).set(-42);
+                assert matrix.getItemAt(0, 1) == -42;
+                matrix.setItemAt(0, 1, 2996, false);
+            }
+
+            // Removing most rows compacts the storage
+            for (int i = 0 ; i < 900 ; i++) { matrix.removeRow(100, false); }
+            assert matrix.getNoOfRows() == 101;
+            assert matrix.getRow(99).equals(List.of(2702, 2701, 2700, 7));
+            assert matrix.getRow(100).equals(Arrays.asList(null, null, null, 7));
+            final AtomicReference<Integer>[][] array = matrix.getMatrix();
+            assert array.length == 4 && array[0].length == 101 && array[3][100].get() == 7;
+            assert matrix.getRow(0).equals(List.of(2999, 2998, 2997, 7));
+            System.out.println(storage + " storage ok");
+        }
+    }
+
+    @Test
+    void testSparseMatrix() {
+        System.out.println("\n-------------------- sparse matrix test --------------------");
+        final ObservableMatrix<String> matrix = new ObservableMatrix<>(String.class, 100_000, 100_000, MatrixStorage.SPARSE);
+        final List<MatrixItemChangeEvt<String>> evts = new ArrayList<>();
+        matrix.addMatrixItemChangeObserver(MatrixItemChangeEvt.ANY, e -> evts.add(e));
+        assert matrix.isEmpty() && matrix.isRowEmpty(99_999) && matrix.isColEmpty(0);
+
+        final Random rnd = new Random(42);
+        final Map<Long, String> expected = new HashMap<>();
+        for (int i = 0 ; i < 5_000 ; i++) {
+            final int x = rnd.nextInt(200);
+            final int y = rnd.nextInt(200) * 500;
+            matrix.setItemAt(x, y, "i" + i);
+            expected.put((long) y << 32 | x, "i" + i);
+        }
+        for (int i = 0 ; i < 2_000 ; i++) {
+            final int x = rnd.nextInt(200);
+            final int y = rnd.nextInt(200) * 500;
+            if (null != matrix.getItemAt(x, y)) { matrix.removeItemAt(x, y, false); }
+            expected.remove((long) y << 32 | x);
+        }
+        expected.forEach((key, item) -> { assert item.equals(matrix.getItemAt((int) (long) key, (int) (key >>> 32))); });
+        assert evts.size() == 5_000 && evts.get(0).getEvtType().equals(MatrixItemChangeEvt.ITEM_ADDED);
+
+        final Set<Integer> rowsWithItems = new HashSet<>();
+        expected.keySet().forEach(key -> rowsWithItems.add((int) (key >>> 32)));
+        for (int y = 0 ; y < 100_000 ; y++) { assert matrix.isRowEmpty(y) != rowsWithItems.contains(y); }
+        final List<Integer> emptyColumns = matrix.getAllEmptyColumns();
+        assert emptyColumns.size() >= 99_800 && emptyColumns.contains(99_999);
+        assert matrix.getRow(0).size() == 100_000;
+        System.out.println("Sparse matrix with " + expected.size() + " items ok");
+    }
+
+    @Test
+    void testMatrixItemIndex() {
+        System.out.println("\n-------------------- matrix item index test --------------------");
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<String> matrix = new ObservableMatrix<>(String.class, 4, 4, true, storage);
+            matrix.setItemAt(1, 1, "A");
+            matrix.setItemAt(2, 3, "B");
+            matrix.setItemAt(3, 0, "B");
+            matrix.setItemIndexEnabled(true);
+            assert matrix.isItemIndexEnabled();
+            assert matrix.contains("A") && !matrix.contains("C") && !matrix.contains(null);
+            assert Arrays.equals(matrix.getIndicesOf("B"), new int[] { 3, 0 });
+
+            matrix.setItemAt(1, 1, "C");
+            assert !matrix.contains("A") && Arrays.equals(matrix.getIndicesOf("C"), new int[] { 1, 1 });
+            matrix.removeItemAt(3, 0, false);
+            assert Arrays.equals(matrix.getIndicesOf("B"), new int[] { 2, 3 });
+
+            // Structural changes move the logical position of the items
+            matrix.addNullRow(0, false);
+            matrix.addNullCol(0, false);
+            assert Arrays.equals(matrix.getIndicesOf("C"), new int[] { 2, 2 });
+            matrix.mirrorRows(false);
+            assert Arrays.equals(matrix.getIndicesOf("B"), new int[] { 3, 0 });
+            matrix.removeRow(0, false);
+            assert !matrix.contains("B") && Arrays.equals(matrix.getIndicesOf("B"), new int[] { -1, -1 });
+            matrix.addRow(1, () -> "D", false);
+            matrix.removeItem("C", false);
+            assert !matrix.contains("C") && matrix.contains("D");
+            assert Arrays.equals(matrix.getIndicesOf("D"), new int[] { 0, 1 });
+            matrix.compact();
+            assert Arrays.equals(matrix.getIndicesOf("D"), new int[] { 0, 1 });
+
+            final ObservableMatrix<String> copy = new ObservableMatrix<>(matrix);
+            assert copy.isItemIndexEnabled() && copy.contains("D");
+            matrix.reset();
+            assert !matrix.contains("D") && copy.contains("D");
+            System.out.println(storage + " storage ok");
+        }
+    }
+
+    @Test
+    void testMatrixItemIndexConcurrentWriters() throws InterruptedException {
+        System.out.println("\n-------------------- matrix item index concurrent writers test --------------------");
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<Integer> matrix = new ObservableMatrix<>(Integer.class, 2, 2, storage);
+            matrix.setItemIndexEnabled(true);
+            final List<Thread> writers = new ArrayList<>();
+            for (int t = 0 ; t < 4 ; t++) {
+                final int offset = t * 100;
+                final Thread writer = new Thread(() -> {
+                    for (int i = 0 ; i < 50_000 ; i++) { matrix.setItemAt(i & 1, (i >> 1) & 1, offset + i % 16, false); }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) { writer.join(); }
+
+            // The index has to contain exactly the items in the cells and point to a cell that holds the item
+            final Set<Integer> items = new HashSet<>();
+            for (int x = 0 ; x < 2 ; x++) {
+                for (int y = 0 ; y < 2 ; y++) { items.add(matrix.getItemAt(x, y)); }
+            }
+            for (int t = 0 ; t < 4 ; t++) {
+                for (int i = 0 ; i < 16 ; i++) {
+                    final Integer item = t * 100 + i;
+                    assert matrix.contains(item) == items.contains(item);
+                    if (!items.contains(item)) { continue; }
+                    final int[] indices = matrix.getIndicesOf(item);
+                    assert item.equals(matrix.getItemAt(indices[0], indices[1]));
+                }
+            }
+            System.out.println(storage + " storage ok");
+        }
+    }
+
+    @Test
+    void testMatrixRegionOperations() {
+        System.out.println("\n-------------------- matrix region operations test --------------------");
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<Integer> matrix = new ObservableMatrix<>(Integer.class, 100, 100, storage);
+            matrix.setItemIndexEnabled(true);
+            final List<MatrixItemChangeEvt<Integer>> evts = new ArrayList<>();
+            matrix.addMatrixItemChangeObserver(MatrixItemChangeEvt.ANY, e -> evts.add(e));
+
+            final AtomicInteger counter = new AtomicInteger();
+            matrix.fill(10, 20, 30, 40, counter::getAndIncrement);
+            assert evts.size() == 1 && counter.get() == 1200;
+            MatrixItemChangeEvt<Integer> evt = evts.get(0);
+            assert evt.getEvtType().equals(MatrixItemChangeEvt.REGION_CHANGED);
+            assert evt.getX() == 10 && evt.getY() == 20 && evt.getWidth() == 30 && evt.getHeight() == 40;
+            assert matrix.getItemAt(10, 20) == 0 && matrix.getItemAt(39, 59) == 1199 && null == matrix.getItemAt(40, 59);
+
+            // Overlapping copy
+            matrix.copyRegion(10, 20, 30, 2, 11, 21);
+            assert evts.size() == 2 && evts.get(1).getX() == 11 && evts.get(1).getY() == 21;
+            assert matrix.getItemAt(11, 21) == 0 && matrix.getItemAt(40, 22) == 59 && matrix.getItemAt(10, 21) == 30;
+            assert matrix.getItemAt(12, 22) == 31 && !matrix.contains(61) && Arrays.equals(matrix.getIndicesOf(0), new int[] { 10, 20 });
+
+            final Integer[][] block = { { -1, -2 }, { -3, -4 }, { -5, -6 } };
+            matrix.setRegion(97, 98, block);
+            assert evts.size() == 3 && evts.get(2).getWidth() == 3 && evts.get(2).getHeight() == 2;
+            assert matrix.getItemAt(97, 99) == -2 && matrix.getItemAt(99, 98) == -5;
+            try {
+                matrix.setRegion(98, 98, block);
+                assert false;
+            } catch (IllegalArgumentException e) { }
+
+            matrix.swapRows(20, 99);
+            assert evts.size() == 4 && evts.get(3).getY() == 20 && evts.get(3).getHeight() == 80 && evts.get(3).getWidth() == 100;
+            assert matrix.getItemAt(10, 99) == 0 && matrix.getItemAt(97, 20) == -2;
+            assert Arrays.equals(matrix.getIndicesOf(0), new int[] { 11, 21 });
+            matrix.swapCols(97, 10);
+            assert matrix.getItemAt(97, 99) == 0 && matrix.getItemAt(10, 20) == -2;
+
+            matrix.reset();
+            assert evts.size() == 6 && evts.get(5).getWidth() == 100 && evts.get(5).getHeight() == 100;
+            assert matrix.isEmpty() && !matrix.contains(0);
+            System.out.println(storage + " storage ok");
+        }
+    }
+
+    @Test
+    void testMatrixFirstMatchInLogicalOrder() {
+        for (MatrixStorage storage : MatrixStorage.values()) {
+            final ObservableMatrix<Integer> small = new ObservableMatrix<>(Integer.class, 2, 2, storage);
+            small.setItemAt(0, 0, 1);
+            small.setItemAt(1, 1, 1);
+            small.mirrorRows();
+            assert Arrays.equals(small.getIndicesOf(1), new int[] { 1, 0 });
+
+            // Compare with a scan row by row after random structural changes
+            final Random                    rnd    = new Random(7);
+            final ObservableMatrix<Integer> matrix = new ObservableMatrix<>(Integer.class, 8, 8, true, storage);
+            for (int i = 0 ; i < 2_000 ; i++) {
+                switch (rnd.nextInt(8)) {
+                    case 0 -> matrix.addNullRow(rnd.nextInt(matrix.getNoOfRows() + 1), false);
+                    case 1 -> matrix.addNullCol(rnd.nextInt(matrix.getNoOfCols() + 1), false);
+                    case 2 -> { if (matrix.getNoOfRows() > 2) { matrix.removeRow(rnd.nextInt(matrix.getNoOfRows()), false); } }
+                    case 3 -> { if (matrix.getNoOfCols() > 2) { matrix.removeCol(rnd.nextInt(matrix.getNoOfCols()), false); } }
+                    case 4 -> matrix.mirrorRows(false);
+                    case 5 -> matrix.swapCols(rnd.nextInt(matrix.getNoOfCols()), rnd.nextInt(matrix.getNoOfCols()), false);
+                    default -> matrix.setItemAt(rnd.nextInt(matrix.getNoOfCols()), rnd.nextInt(matrix.getNoOfRows()), rnd.nextInt(4), false);
+                }
+                final int item = rnd.nextInt(4);
+                int[] expected = { -1, -1 };
+                search:
+                for (int y = 0 ; y < matrix.getNoOfRows() ; y++) {
+                    for (int x = 0 ; x < matrix.getNoOfCols() ; x++) {
+                        if (Integer.valueOf(item).equals(matrix.getItemAt(x, y))) {
+                            expected = new int[] { x, y };
+                            break search;
+                        }
+                    }
+                }
+                assert Arrays.equals(matrix.getIndicesOf(item), expected) : storage + " " + Arrays.toString(matrix.getIndicesOf(item)) + " != " + Arrays.toString(expected);
+            }
+        }
+    }
 }
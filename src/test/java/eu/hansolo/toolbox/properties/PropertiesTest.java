@@ -24,6 +24,16 @@ import eu.hansolo.toolbox.evt.EvtObserver;
 import eu.hansolo.toolbox.evt.type.PropertyChangeEvt;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 public class PropertiesTest {
 
@@ -198,6 +208,458 @@ public class PropertiesTest {
         assert propertyD.get() == 5;
     }
 
+    @Test
+    void testComputedProperties() {
+        System.out.println("\n-------------------- computed properties test --------------------");
+        final AtomicInteger  computations = new AtomicInteger(0);
+        final DoubleProperty a            = new DoubleProperty(1);
+        final DoubleProperty b            = new DoubleProperty(2);
+
+        // Lazy and memoized
+        final ComputedDoubleProperty lazySum = new ComputedDoubleProperty(() -> { computations.incrementAndGet(); return a.get() + b.get(); }, a, b);
+        assert computations.get() == 0;
+        assert lazySum.get() == 3;
+        assert lazySum.get() == 3;
+        assert computations.get() == 1;
+        a.set(5);
+        b.set(3);
+        assert !lazySum.isValid();
+        assert computations.get() == 1;
+        assert lazySum.get() == 8;
+        assert computations.get() == 2;
+        System.out.println("lazy sum computed " + computations.get() + " times");
+
+        // Diamond a -> (doubled, incremented) -> total is evaluated in topological order without glitches
+        final AtomicInteger          totalComputations = new AtomicInteger(0);
+        final List<Double>           totals            = new ArrayList<>();
+        final ComputedDoubleProperty doubled           = DoubleProperty.map(a, x -> x * 2);
+        final ComputedDoubleProperty incremented       = DoubleProperty.map(a, x -> x + 1);
+        final ComputedDoubleProperty total             = DoubleProperty.combine(doubled, incremented, (x, y) -> { totalComputations.incrementAndGet(); return x + y; });
+        total.addObserver(e -> totals.add(e.getValue()));
+        assert total.get() == 16;
+        assert total.computation.getLevel() == 2;
+        a.set(1);
+        assert totals.size() == 1 && totals.get(0) == 4;
+        assert totalComputations.get() == 2;
+        System.out.println("total: " + totals + " computed " + totalComputations.get() + " times");
+
+        // Sum of sums and binding a property to a computed property
+        final DoubleProperty target = new DoubleProperty();
+        target.bind(DoubleProperty.sum(DoubleProperty.sum(a, b), total, new ReadOnlyDoubleProperty(10)));
+        assert target.get() == 18;
+        b.set(4);
+        assert target.get() == 19;
+
+        // Generic computed properties
+        final ObjectProperty<String>    text      = new ObjectProperty<>("Hello");
+        final ComputedProperty<Integer> length    = text.map(String::length);
+        final ComputedProperty<String>  combined  = ComputedProperty.combine(text, length, (t, l) -> t + ":" + l);
+        final List<String>              changes   = new ArrayList<>();
+        combined.addObserver(e -> changes.add(e.getOldValue() + " -> " + e.getValue()));
+        assert length.getValue() == 5;
+        text.set("Hello World");
+        assert changes.size() == 1 && changes.get(0).equals("Hello:5 -> Hello World:11");
+        System.out.println(changes);
+
+        combined.dispose();
+        text.set("Bye");
+        assert changes.size() == 1;
+        assert length.getValue() == 3;
+    }
+
+    @Test
+    void testPrimitiveProperties() {
+        System.out.println("\n-------------------- primitive properties test --------------------");
+        final double[]       lastChange     = new double[2];
+        final DoubleProperty doubleProperty = new DoubleProperty(1);
+        final DoubleChangeObserver doubleObserver = (oldValue, newValue) -> {
+            lastChange[0] = oldValue;
+            lastChange[1] = newValue;
+        };
+        doubleProperty.addChangeObserver(doubleObserver);
+        doubleProperty.addChangeObserver(doubleObserver);
+        assert doubleProperty.hasChangeObservers();
+        assert !doubleProperty.hasObservers();
+        doubleProperty.set(2.5);
+        assert lastChange[0] == 1 && lastChange[1] == 2.5;
+        assert doubleProperty.getValue() == 2.5;
+
+        // NaN is equal to NaN like in Double.equals()
+        final AtomicInteger nanChanges = new AtomicInteger(0);
+        doubleProperty.addChangeObserver((oldValue, newValue) -> nanChanges.incrementAndGet());
+        doubleProperty.set(Double.NaN);
+        doubleProperty.set(Double.NaN);
+        assert nanChanges.get() == 1;
+
+        // Boxed observers still get their events
+        final List<Integer>   boxedChanges     = new ArrayList<>();
+        final int[]           primitiveChanges = new int[1];
+        final IntegerProperty integerProperty  = new IntegerProperty(0);
+        final IntegerProperty boundProperty    = new IntegerProperty(0);
+        integerProperty.addObserver(e -> boxedChanges.add(e.getValue()));
+        integerProperty.addChangeObserver((oldValue, newValue) -> primitiveChanges[0] = newValue);
+        boundProperty.bind(integerProperty);
+        integerProperty.set(42);
+        assert boxedChanges.size() == 1 && boxedChanges.get(0) == 42;
+        assert primitiveChanges[0] == 42;
+        assert boundProperty.get() == 42;
+
+        final BooleanProperty booleanProperty = new BooleanProperty(false);
+        final boolean[]       flags           = new boolean[1];
+        final BooleanChangeObserver booleanObserver = (oldValue, newValue) -> flags[0] = newValue;
+        booleanProperty.addChangeObserver(booleanObserver);
+        booleanProperty.set(true);
+        assert flags[0];
+        booleanProperty.removeChangeObserver(booleanObserver);
+        booleanProperty.set(false);
+        assert flags[0] && !booleanProperty.hasChangeObservers();
+
+        // Only overrides of the hooks turn boxing on, other methods with the same name don't
+        final DoubleProperty hooked   = new DoubleProperty(0) {
+            @Override protected void didChange(final Double oldValue, final Double newValue) {}
+        };
+        final DoubleProperty overload = new DoubleProperty(0) {
+            protected void willChange(final int index, final String reason) {}
+        };
+        assert hooked.changeHooks && !overload.changeHooks && !doubleProperty.changeHooks;
+
+        // Updates without boxed observers do not produce garbage
+        final java.lang.management.ThreadMXBean threadBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean sunThreadBean && sunThreadBean.isThreadAllocatedMemorySupported()) {
+            final DoubleProperty sensor   = new DoubleProperty(0);
+            final double[]       sum      = new double[1];
+            sensor.addChangeObserver((oldValue, newValue) -> sum[0] += newValue);
+            for (int i = 0 ; i < 10_000 ; i++) { sensor.set(i); }
+            final long threadId = Thread.currentThread().getId();
+            final long before   = sunThreadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0 ; i < 1_000_000 ; i++) { sensor.set(i % 1000); }
+            final long allocated = sunThreadBean.getThreadAllocatedBytes(threadId) - before;
+            System.out.println("1M updates allocated " + allocated + " bytes");
+            assert allocated < 1_000_000;
+        }
+    }
+
+    @Test
+    void testAtomicProperties() throws Exception {
+        System.out.println("\n-------------------- atomic properties test --------------------");
+        final int                noOfThreads   = 8;
+        final int                noOfUpdates   = 50_000;
+        final AtomicLongProperty counter       = new AtomicLongProperty(0);
+        final AtomicInteger      concurrent    = new AtomicInteger(0);
+        final AtomicInteger      violations    = new AtomicInteger(0);
+        final AtomicInteger      noOfEvents    = new AtomicInteger(0);
+        final long[]             lastDelivered = { 0 };
+        counter.addChangeObserver((oldValue, newValue) -> {
+            if (concurrent.incrementAndGet() != 1) { violations.incrementAndGet(); }
+            // Every change has to start where the last one ended and the counter only goes up
+            if (oldValue != lastDelivered[0] || newValue <= oldValue) { violations.incrementAndGet(); }
+            lastDelivered[0] = newValue;
+            noOfEvents.incrementAndGet();
+            concurrent.decrementAndGet();
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(noOfThreads);
+        for (int t = 0 ; t < noOfThreads ; t++) {
+            executor.submit(() -> {
+                for (int i = 0 ; i < noOfUpdates ; i++) {
+                    if (i % 2 == 0) {
+                        counter.incrementAndGet();
+                    } else {
+                        counter.accumulateAndGet(1, Long::sum);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assert executor.awaitTermination(30, TimeUnit.SECONDS);
+        System.out.println("counter: " + counter.get() + ", events: " + noOfEvents.get() + ", violations: " + violations.get());
+        assert counter.get() == (long) noOfThreads * noOfUpdates;
+        assert lastDelivered[0] == counter.get();
+        assert violations.get() == 0;
+
+        final AtomicDoubleProperty total = new AtomicDoubleProperty(0);
+        final List<Double>         totals = new ArrayList<>();
+        total.addObserver(e -> totals.add(e.getValue()));
+        assert total.addAndGet(1.5) == 1.5;
+        assert !total.compareAndSet(0, 2);
+        assert total.compareAndSet(1.5, 2);
+        assert total.getAndUpdate(value -> value * 10) == 2;
+        assert totals.equals(List.of(1.5, 2.0, 20.0));
+        final ComputedDoubleProperty doubledTotal = DoubleProperty.map(total, value -> value * 2);
+        total.set(4);
+        assert doubledTotal.get() == 8;
+
+        final String                       initial = "a";
+        final AtomicObjectProperty<String> text    = new AtomicObjectProperty<>(initial);
+        final List<String>                 changes = new ArrayList<>();
+        text.addObserver(e -> changes.add(e.getOldValue() + " -> " + e.getValue()));
+        assert text.compareAndSet(initial, "b");
+        assert text.accumulateAndGet("c", String::concat).equals("bc");
+        text.set("bc");
+        assert changes.equals(List.of("a -> b", "b -> bc"));
+
+        // Changes without observers must not leave a stale baseline for observers added later
+        final AtomicDoubleProperty unobservedDouble = new AtomicDoubleProperty(0);
+        final List<String>         doubleChanges    = new ArrayList<>();
+        unobservedDouble.set(5);
+        unobservedDouble.addChangeObserver((oldValue, newValue) -> doubleChanges.add(oldValue + " -> " + newValue));
+        unobservedDouble.set(0);
+        assert doubleChanges.equals(List.of("5.0 -> 0.0")) : doubleChanges;
+
+        final AtomicLongProperty unobservedLong = new AtomicLongProperty(0);
+        final List<String>       longChanges    = new ArrayList<>();
+        unobservedLong.set(5);
+        unobservedLong.addChangeObserver((oldValue, newValue) -> longChanges.add(oldValue + " -> " + newValue));
+        unobservedLong.set(0);
+        assert longChanges.equals(List.of("5 -> 0")) : longChanges;
+
+        final AtomicObjectProperty<String> unobservedText = new AtomicObjectProperty<>("a");
+        final List<String>                 textChanges    = new ArrayList<>();
+        unobservedText.set("b");
+        unobservedText.addObserver(e -> textChanges.add(e.getOldValue() + " -> " + e.getValue()));
+        final ObjectProperty<String> boundText = new ObjectProperty<>();
+        boundText.bind(unobservedText);
+        unobservedText.set("a");
+        assert textChanges.equals(List.of("b -> a")) && "a".equals(boundText.get()) : textChanges;
+
+        // A throwing observer must neither hide the change from other observers nor drop pending changes
+        final AtomicLongProperty failing       = new AtomicLongProperty(0);
+        final List<String>       failedChanges = new ArrayList<>();
+        failing.addChangeObserver((oldValue, newValue) -> {
+            if (newValue == 1) {
+                failing.set(2);
+                throw new IllegalStateException("observer failed");
+            }
+        });
+        failing.addObserver(e -> failedChanges.add(e.getOldValue() + " -> " + e.getValue()));
+        boolean thrown = false;
+        try {
+            failing.set(1);
+        } catch (IllegalStateException e) {
+            thrown = true;
+        }
+        assert thrown && failedChanges.equals(List.of("0 -> 1", "1 -> 2")) : failedChanges;
+        failing.set(3);
+        assert failedChanges.equals(List.of("0 -> 1", "1 -> 2", "2 -> 3")) : failedChanges;
+    }
+
+    @Test
+    void testCoalescingObservers() throws Exception {
+        System.out.println("\n-------------------- coalescing observers test --------------------");
+        // Latest only with a manually pumped "event loop"
+        final List<Runnable>                    loop       = new ArrayList<>();
+        final List<PropertyChangeEvt<Integer>>  delivered  = new ArrayList<>();
+        final IntegerProperty                   property   = new IntegerProperty(0);
+        final CoalescingObserver<Integer>       latestOnly = property.addLatestOnlyObserver(loop::add, delivered::add);
+        for (int i = 1 ; i <= 10_000 ; i++) { property.set(i); }
+        assert loop.size() == 1 && delivered.isEmpty() && latestOnly.isPending();
+        loop.remove(0).run();
+        assert delivered.size() == 1;
+        assert delivered.get(0).getOldValue() == 0 && delivered.get(0).getValue() == 10_000;
+        assert delivered.get(0).getSource() == property;
+
+        // Changes that end where they started are not delivered
+        property.set(5);
+        property.set(10_000);
+        loop.remove(0).run();
+        assert delivered.size() == 1;
+        property.removeObserver(latestOnly);
+
+        // Throttle delivers the first change immediately and the rest merged at the end of the interval
+        final List<PropertyChangeEvt<Integer>> throttled = new CopyOnWriteArrayList<>();
+        final CountDownLatch                   latch     = new CountDownLatch(1);
+        final CoalescingObserver<Integer>      throttle  = property.addThrottledObserver(Duration.ofMillis(50), e -> {
+            throttled.add(e);
+            if (e.getValue() == 10_000) { latch.countDown(); }
+        });
+        for (int i = 1 ; i <= 10_000 ; i++) { property.set(i); }
+        assert latch.await(5, TimeUnit.SECONDS);
+        assert throttled.get(0).getOldValue() == 10_000 && throttled.get(0).getValue() == 1;
+        for (int i = 1 ; i < throttled.size() ; i++) { assert throttled.get(i).getOldValue().equals(throttled.get(i - 1).getValue()); }
+        assert throttled.size() < 100;
+        System.out.println("10000 changes delivered as " + throttled.size() + " events");
+        throttle.cancel();
+        property.removeObserver(throttle);
+
+        // A slow observer is never called concurrently, changes that become due meanwhile follow in order
+        final List<PropertyChangeEvt<Integer>> slowDelivered = new CopyOnWriteArrayList<>();
+        final AtomicInteger                    running       = new AtomicInteger();
+        final AtomicInteger                    maxRunning    = new AtomicInteger();
+        final CountDownLatch                   entered       = new CountDownLatch(1);
+        final CountDownLatch                   done          = new CountDownLatch(1);
+        property.addThrottledObserver(Duration.ofMillis(1), e -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            slowDelivered.add(e);
+            entered.countDown();
+            try { Thread.sleep(100); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+            running.decrementAndGet();
+            if (e.getValue() == 3) { done.countDown(); }
+        });
+        final Thread publisher = new Thread(() -> property.set(1));
+        publisher.start();
+        assert entered.await(5, TimeUnit.SECONDS);
+        Thread.sleep(5);
+        property.set(2);
+        property.set(3);
+        assert done.await(5, TimeUnit.SECONDS);
+        publisher.join();
+        assert maxRunning.get() == 1;
+        assert slowDelivered.size() == 2;
+        assert slowDelivered.get(0).getValue() == 1 && slowDelivered.get(1).getOldValue() == 1 && slowDelivered.get(1).getValue() == 3;
+    }
+
+    @Test
+    void testWeakPropertyObservers() throws InterruptedException {
+        System.out.println("\n-------------------- weak property observers test --------------------");
+        final DoubleProperty                         property = new DoubleProperty(0);
+        final List<Double>                           values   = new ArrayList<>();
+        final EvtObserver<PropertyChangeEvt<Double>> observer = e -> values.add(e.getValue());
+        for (int i = 0 ; i < 1_000 ; i++) { property.addWeakObserver(e -> values.add(-1.0)); }
+        property.addWeakObserver(observer);
+        // Non capturing lambdas are singletons that will never be collected, so this one captures values
+        property.addWeakInvalidationObserver(e -> values.add(-2.0));
+
+        for (int i = 0 ; i < 50 && property.getNoOfObservers() > 1 ; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        System.out.println("Live observers after gc: " + property.getNoOfObservers());
+        assert property.getNoOfObservers() == 1;
+        assert property.getNoOfInvalidationObservers() == 0;
+        property.set(1);
+        assert values.equals(List.of(1.0));
+        property.removeObserver(observer);
+        assert !property.hasObservers();
+    }
+
+    @Test
+    void testPropertySnapshot() {
+        System.out.println("\n-------------------- property snapshot test --------------------");
+        final List<ReadOnlyProperty<?>> properties = new ArrayList<>();
+        for (String bean : List.of("sensor1", "sensor2")) {
+            properties.add(new DoubleProperty(bean, "temperature", bean.length() * 1.5));
+            properties.add(new IntegerProperty(bean, "count", 42));
+            properties.add(new BooleanProperty(bean, "active", true));
+            properties.add(new CharProperty(bean, "unit", 'C'));
+            properties.add(new StringProperty(bean, "location", "M\u00fcnster"));
+            properties.add(new StringProperty(bean, "comment", null));
+        }
+        final PropertySnapshot snapshot = PropertySnapshot.capture(properties);
+        final byte[]           data     = snapshot.toByteArray();
+        final PropertySnapshot copy     = PropertySnapshot.fromByteArray(data);
+        System.out.println(copy.size() + " properties stored in " + data.length + " bytes");
+        assert copy.size() == 12;
+        assert copy.getValue("sensor2", "temperature").equals(10.5);
+        assert copy.getValue("sensor1", "location").equals("M\u00fcnster");
+        assert null == copy.getValue("sensor1", "comment");
+
+        final DoubleProperty         temperature1 = new DoubleProperty("sensor1", "temperature", 0);
+        final DoubleProperty         temperature2 = new DoubleProperty("sensor2", "temperature", 0);
+        final StringProperty         location     = new StringProperty("sensor1", "location", "Berlin");
+        final IntegerProperty        count        = new IntegerProperty("sensor1", "count", 42);
+        final ComputedDoubleProperty sum          = DoubleProperty.sum(temperature1, temperature2);
+        final List<Double>           sums         = new ArrayList<>();
+        final List<String>           locations    = new ArrayList<>();
+        sum.addObserver(e -> sums.add(e.getValue()));
+        location.addObserver(e -> locations.add(e.getValue()));
+        final int restored = copy.restore(List.of(temperature1, temperature2, location, count, sum));
+        assert restored == 3;
+        assert temperature1.get() == 10.5 && temperature2.get() == 10.5;
+        assert location.get().equals("M\u00fcnster");
+        assert locations.equals(List.of("M\u00fcnster"));
+        // Both dependencies changed but the sum was recomputed only once with the restored values
+        assert sums.equals(List.of(21.0));
+
+        try {
+            PropertySnapshot.fromByteArray(new byte[] { 1, 2, 3 });
+            assert false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Corrupt data rejected: " + e.getMessage());
+        }
+
+        // Bound properties are skipped, their value comes from the property they are bound to
+        final DoubleProperty source = new DoubleProperty("bound", "source", 1.0);
+        final DoubleProperty target = new DoubleProperty("bound", "target", 0.0);
+        target.bind(source);
+        final PropertySnapshot boundSnapshot = PropertySnapshot.capture(List.of(source, target));
+        source.set(5.0);
+        assert boundSnapshot.restore(List.of(target)) == 0;
+        assert target.get() == 5.0 && target.isBound();
+        assert boundSnapshot.restore(List.of(source, target)) == 1;
+        assert source.get() == 1.0 && target.get() == 1.0;
+
+        // A String restored to null is pushed to its bidirectionally bound partner
+        final StringProperty comment        = new StringProperty("bound", "comment", "draft");
+        final StringProperty commentPartner = new StringProperty("partner", "comment", "draft");
+        comment.bindBidirectional(commentPartner);
+        final PropertySnapshot nullSnapshot = PropertySnapshot.capture(List.of(new StringProperty("bound", "comment", null)));
+        assert nullSnapshot.restore(List.of(comment)) == 1;
+        assert null == comment.get() && null == commentPartner.get();
+        commentPartner.set("final");
+        assert "final".equals(comment.get());
+    }
+
+    @Test
+    void testBindingGraph() {
+        System.out.println("\n-------------------- binding graph test --------------------");
+        // One source fans out to many targets, binding a second target does not replace the first
+        final DoubleProperty   source  = new DoubleProperty(1);
+        final DoubleProperty[] targets = new DoubleProperty[10_000];
+        for (int i = 0 ; i < targets.length ; i++) {
+            targets[i] = new DoubleProperty(0);
+            targets[i].bind(source);
+        }
+        assert source.getNoOfBoundProperties() == 10_000;
+        final long start = System.nanoTime();
+        source.set(2);
+        System.out.println("Pushed value to " + targets.length + " targets in " + (System.nanoTime() - start) / 1_000 + " us");
+        for (DoubleProperty target : targets) { assert target.get() == 2; }
+        targets[0].unbind();
+        source.set(3);
+        assert targets[0].get() == 2 && targets[1].get() == 3;
+        assert source.getNoOfBoundProperties() == 9_999;
+
+        // Changes are passed along chains of bindings
+        final IntegerProperty a = new IntegerProperty(0);
+        final IntegerProperty b = new IntegerProperty(0);
+        final IntegerProperty c = new IntegerProperty(0);
+        b.bind(a);
+        c.bind(b);
+        a.set(7);
+        assert b.get() == 7 && c.get() == 7;
+
+        // A cycle of bidirectional bindings sets every property exactly once
+        final StringProperty x       = new StringProperty("x");
+        final StringProperty y       = new StringProperty("y");
+        final StringProperty z       = new StringProperty("z");
+        final AtomicInteger  changes = new AtomicInteger(0);
+        x.bindBidirectional(y);
+        y.bindBidirectional(z);
+        z.bindBidirectional(x);
+        x.addObserver(e -> changes.incrementAndGet());
+        y.addObserver(e -> changes.incrementAndGet());
+        z.addObserver(e -> changes.incrementAndGet());
+        z.set("value");
+        assert x.get().equals("value") && y.get().equals("value");
+        assert changes.get() == 3;
+        assert x.isBoundBidirectional() && y.isBoundBidirectional() && z.isBoundBidirectional();
+
+        // Unbinding removes only the bidirectional bindings of the unbound property
+        y.unbind();
+        assert !y.isBoundBidirectional() && x.isBoundBidirectional() && z.isBoundBidirectional();
+        x.set("x");
+        assert z.get().equals("x") && y.get().equals("value");
+        x.unbind();
+        assert !z.isBoundBidirectional() && !z.isBound();
+
+        try {
+            c.bindBidirectional(a);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error, a bound property cannot be bound bidirectional.");
+        }
+    }
+
     public class PoJo {
         private double          _value;
         private DoubleProperty  value;